@@ -16,7 +16,7 @@ android {
         versionCode = 1
         versionName = "1.0"
 
-        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        testInstrumentationRunner = "com.example.quickcash.QuickCashTestRunner"
     }
 
     buildTypes {
@@ -74,6 +74,16 @@ dependencies {
     testImplementation(libs.junit)
     testImplementation(libs.core.testing)
 
+    //local mirror of jobs and applications
+    implementation(libs.room.runtime)
+    annotationProcessor(libs.room.compiler)
+
+    //durable outbox of writes, sent in the background
+    implementation(libs.work.runtime)
+
+    //app foreground / background tracking for the database connection
+    implementation(libs.lifecycle.process)
+
     //google maps dependency
     implementation(libs.play.services.maps)
 
@@ -0,0 +1,118 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quickcash.utilities.GeoHash;
+import com.example.quickcash.utilities.JobCRUD;
+import com.example.quickcash.utilities.JobSchemaMigration;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the job schema migration against the Realtime Database emulator.
+ * Start the emulator first with: firebase emulators:start --only database
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class JobSchemaMigrationEmulatorTest {
+
+    /** Host of the development machine as seen from the Android emulator */
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 9000;
+
+    private FirebaseDatabase database;
+    private DatabaseReference jobsRef;
+
+    /**
+     * Seeds the emulator with one job of each legacy shape.
+     */
+    @Before
+    public void setup() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = JobSchemaMigration.emulatorDatabase(context, EMULATOR_HOST, EMULATOR_PORT);
+        jobsRef = database.getReference("jobs");
+        // Start from an empty database, so indexes left by earlier runs are not counted
+        Tasks.await(database.getReference().removeValue(), 10, TimeUnit.SECONDS);
+
+        Map<String, Object> capitalized = new HashMap<>();
+        capitalized.put("name", "Capitalized");
+        capitalized.put("Latitude", 44.6488);
+        capitalized.put("Longitude", -63.5752);
+
+        Map<String, Object> locationId = new HashMap<>();
+        locationId.put("name", "Location ID");
+        locationId.put("location", 2);
+
+        Map<String, Object> jobs = new HashMap<>();
+        jobs.put("legacy1", capitalized);
+        jobs.put("legacy2", locationId);
+        Tasks.await(jobsRef.setValue(jobs), 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Tests that every job ends up in the canonical schema.
+     */
+    @Test
+    public void testMigrationRewritesLegacyJobs() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        int[] result = new int[2];
+
+        new JobSchemaMigration(database, 1).run(new JobSchemaMigration.MigrationListener() {
+            @Override
+            public void onProgress(int processed, int total) {
+                assertTrue(processed <= total);
+            }
+
+            @Override
+            public void onComplete(int migrated, int skipped) {
+                result[0] = migrated;
+                result[1] = skipped;
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(2, result[0]);
+        assertEquals(0, result[1]);
+
+        DataSnapshot legacy1 = Tasks.await(jobsRef.child("legacy1").get(), 10, TimeUnit.SECONDS);
+        assertEquals(44.6488, legacy1.child("latitude").getValue(Double.class), 0.0);
+        assertEquals(GeoHash.encode(44.6488, -63.5752), legacy1.child("geohash").getValue(String.class));
+        assertFalse(legacy1.hasChild("Latitude"));
+
+        DataSnapshot legacy2 = Tasks.await(jobsRef.child("legacy2").get(), 10, TimeUnit.SECONDS);
+        assertNotNull(legacy2.child("latitude").getValue(Double.class));
+        assertEquals("open", legacy2.child("status").getValue(String.class));
+        assertFalse(legacy2.hasChild("location"));
+
+        DataSnapshot summary1 = Tasks.await(database.getReference(JobCRUD.JOB_SUMMARIES).child("legacy1").get(),
+                10, TimeUnit.SECONDS);
+        assertEquals(44.6488, summary1.child("latitude").getValue(Double.class), 0.0);
+        assertEquals(GeoHash.encode(44.6488, -63.5752), summary1.child("geohash").getValue(String.class));
+        assertFalse(summary1.hasChild("description"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.quickcash;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.quickcash.entities.ApplicationRecord;
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.entities.JobRecord;
+import com.example.quickcash.entities.SyncCursor;
+import com.example.quickcash.utilities.MirrorDao;
+import com.example.quickcash.utilities.MirrorDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Instrumentation tests for the queries and sync writes of the local jobs mirror,
+ * run against an in-memory database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MirrorDaoTest {
+
+    private MirrorDatabase database;
+    private MirrorDao dao;
+
+    @Before
+    public void createDatabase() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, MirrorDatabase.class).build();
+        dao = database.mirrorDao();
+    }
+
+    @After
+    public void closeDatabase() {
+        database.close();
+    }
+
+    @Test
+    public void replaceJobs_QueriesByCategoryAndBoundingBox() {
+        dao.replaceJobs(Arrays.asList(
+                record("job1", "Technology", 44.64, -63.57, "open", 100),
+                record("job2", "Technology", 44.65, -63.58, "hired", 110),
+                record("job3", "Retail", 45.50, -73.56, "open", 120)));
+
+        List<JobRecord> technology = dao.jobsByCategory("Technology", "open");
+        assertEquals(1, technology.size());
+        assertEquals("job1", technology.get(0).getId());
+
+        List<JobRecord> halifax = dao.jobsInBoundingBox(44.0, -64.0, 45.0, -63.0, "open");
+        assertEquals(1, halifax.size());
+    }
+
+    @Test
+    public void replaceJobs_DropsJobsLeftOutOfTheSlice() {
+        dao.replaceJobs(Arrays.asList(
+                record("job1", "Technology", 44.64, -63.57, "open", 100),
+                record("job2", "Retail", 44.65, -63.58, "open", 100)));
+        dao.replaceJobs(Collections.singletonList(record("job1", "Technology", 44.64, -63.57, "hired", 150)));
+
+        assertEquals(0, dao.jobsByStatus("open").size());
+        assertEquals(1, dao.jobsByStatus("hired").size());
+    }
+
+    @Test
+    public void clear_ForgetsRecordsAndCursors() {
+        dao.replaceJobs(Collections.singletonList(record("job1", "Technology", 44.64, -63.57, "open", 100)));
+        dao.applyApplications(Collections.singletonList(new ApplicationRecord("app1", "job1", "a@dal.ca", "open", 100)),
+                new SyncCursor("applicationsByApplicant/a@dal,ca", 100));
+
+        dao.clear();
+
+        assertEquals(0, dao.jobsByStatus("open").size());
+        assertEquals(0, dao.applicationsOf("a@dal.ca").size());
+        assertNull(dao.getCursor("applicationsByApplicant/a@dal,ca"));
+    }
+
+    @Test
+    public void applyJobDeletions_RemovesJobAndItsApplications() {
+        dao.replaceJobs(Collections.singletonList(record("job1", "Technology", 44.64, -63.57, "open", 100)));
+        dao.applyApplications(Arrays.asList(
+                new ApplicationRecord("app1", "job1", "a@dal.ca", "open", 100),
+                new ApplicationRecord("app2", "job2", "a@dal.ca", "open", 100)),
+                new SyncCursor("applicationsByApplicant/a@dal,ca", 100));
+
+        dao.applyJobDeletions(Collections.singletonList("job1"), new SyncCursor("deletedJobs", 200));
+
+        assertEquals(0, dao.jobsByStatus("open").size());
+        assertEquals(0, dao.applicationsToJob("job1").size());
+        assertEquals(1, dao.applicationsOf("A@dal.ca").size());
+    }
+
+    private static JobRecord record(String id, String category, double latitude, double longitude,
+                                    String status, long updatedAt) {
+        Job job = new Job("Job " + id, null, category, latitude, longitude);
+        job.setId(id);
+        job.setStatus(status);
+        job.setEmail("employer@dal.ca");
+        return new JobRecord(job, updatedAt);
+    }
+}
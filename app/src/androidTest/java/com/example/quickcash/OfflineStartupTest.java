@@ -0,0 +1,169 @@
+package com.example.quickcash;
+
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.rule.GrantPermissionRule;
+
+import com.example.quickcash.activities.DashboardActivity;
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.utilities.DatabaseProvider;
+import com.example.quickcash.utilities.JobRepository;
+import com.example.quickcash.utilities.OfflineSync;
+import com.example.quickcash.utilities.UserSession;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.AuthResult;
+import com.google.firebase.auth.FirebaseAuth;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Instrumentation tests for the offline-first start. Measures how long a start of the
+ * dashboard takes to show its first content when it has to come from the disk cache. The
+ * in-memory session and job repository are cleared between the two starts, so the offline
+ * start reads the profile and the nearby jobs from the disk cache as a cold start does.
+ * Only the geohash cells around the user are synced, so the jobs shown offline must all come
+ * from those cells. Needs jobs posted near the device location.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class OfflineStartupTest {
+
+    private static final String TAG = "OfflineStartupTest";
+
+    /** Time the dashboard may take to show cached content */
+    private static final long FIRST_CONTENT_BUDGET_MS = 1500;
+
+    /** Time the first, online start may take to load the data */
+    private static final long ONLINE_LOAD_TIMEOUT_MS = 15000;
+
+    @Rule
+    public GrantPermissionRule permissionRule = GrantPermissionRule.grant(android.Manifest.permission.ACCESS_FINE_LOCATION);
+
+    @Before
+    public void signInDummyUser() throws Exception {
+        FirebaseAuth auth = FirebaseAuth.getInstance();
+        if (auth.getCurrentUser() == null) {
+            Task<AuthResult> task = auth.signInWithEmailAndPassword("thomas@watchmans.com", "hellohello");
+            Tasks.await(task);
+            if (!task.isSuccessful()) {
+                throw new RuntimeException("Firebase test sign-in failed.");
+            }
+        }
+    }
+
+    @After
+    public void reconnect() {
+        DatabaseProvider.getInstance().getDatabase().goOnline();
+    }
+
+    /**
+     * Starts the dashboard online to fill the cache, then clears what the process holds in
+     * memory and starts it again offline. Checks that the welcome text and the same nearby
+     * jobs show within the budget, together with the freshness indicator.
+     */
+    @Test
+    public void coldStartShowsCachedContentOffline() {
+        AtomicInteger onlineJobs = new AtomicInteger();
+        try (ActivityScenario<DashboardActivity> scenario = ActivityScenario.launch(DashboardActivity.class)) {
+            assertTrue("Dashboard did not load online",
+                    waitFor(scenario, activity -> hasFirstContent(activity) && nearbyJobCount(activity) > 0,
+                            ONLINE_LOAD_TIMEOUT_MS) >= 0);
+            scenario.onActivity(activity -> onlineJobs.set(nearbyJobCount(activity)));
+        }
+
+        DatabaseProvider.getInstance().getDatabase().goOffline();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            UserSession.getInstance().clear();
+            JobRepository.getInstance().clear();
+        });
+
+        long start = SystemClock.elapsedRealtime();
+        try (ActivityScenario<DashboardActivity> scenario = ActivityScenario.launch(DashboardActivity.class)) {
+            long elapsed = waitFor(scenario, this::hasFirstContent, FIRST_CONTENT_BUDGET_MS);
+            Log.i(TAG, "Time to first content offline: "
+                    + (elapsed >= 0 ? (SystemClock.elapsedRealtime() - start) + " ms" : "timed out"));
+            assertTrue("Cached content took longer than " + FIRST_CONTENT_BUDGET_MS + " ms", elapsed >= 0);
+
+            assertTrue("Cached nearby jobs are not shown offline",
+                    waitFor(scenario, activity -> nearbyJobCount(activity) > 0, FIRST_CONTENT_BUDGET_MS) >= 0);
+            AtomicInteger offlineJobs = new AtomicInteger();
+            scenario.onActivity(activity -> offlineJobs.set(nearbyJobCount(activity)));
+            assertEquals(onlineJobs.get(), offlineJobs.get());
+            assertJobsInSyncedCells();
+
+            assertTrue("Freshness indicator is not shown offline",
+                    waitFor(scenario, activity -> activity.findViewById(R.id.syncStatusText)
+                            .getVisibility() == View.VISIBLE, FIRST_CONTENT_BUDGET_MS) >= 0);
+        }
+    }
+
+    /**
+     * Checks that the jobs held for the dashboard all lie in the cells OfflineSync keeps synced
+     */
+    private void assertJobsInSyncedCells() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Set<String> cells = OfflineSync.getInstance(
+                    InstrumentationRegistry.getInstrumentation().getTargetContext()).getSyncedCells();
+            assertFalse("No job cells are kept synced", cells.isEmpty());
+            for (Job job : JobRepository.getInstance().getJobs()) {
+                boolean synced = false;
+                for (String cell : cells) {
+                    synced |= job.getGeohash() != null && job.getGeohash().startsWith(cell);
+                }
+                assertTrue("Job " + job.getId() + " is outside the synced cells", synced);
+            }
+        });
+    }
+
+    private boolean hasFirstContent(DashboardActivity activity) {
+        TextView welcomeText = activity.findViewById(R.id.welcomeText);
+        return welcomeText.getText() != null && welcomeText.getText().length() > 0;
+    }
+
+    private int nearbyJobCount(DashboardActivity activity) {
+        RecyclerView nearbyJobs = activity.findViewById(R.id.nearbyJobsRecyclerView);
+        return nearbyJobs.getAdapter() != null ? nearbyJobs.getAdapter().getItemCount() : 0;
+    }
+
+    private interface ActivityCondition {
+        boolean test(DashboardActivity activity);
+    }
+
+    /**
+     * Polls a condition on the main thread
+     * @return The time it took to hold in milliseconds, or -1 if it did not hold in time
+     */
+    private long waitFor(ActivityScenario<DashboardActivity> scenario, ActivityCondition condition, long timeoutMs) {
+        long start = SystemClock.elapsedRealtime();
+        AtomicBoolean holds = new AtomicBoolean(false);
+        while (SystemClock.elapsedRealtime() - start < timeoutMs) {
+            scenario.onActivity(activity -> holds.set(condition.test(activity)));
+            if (holds.get()) {
+                return SystemClock.elapsedRealtime() - start;
+            }
+            SystemClock.sleep(20);
+        }
+        return -1;
+    }
+}
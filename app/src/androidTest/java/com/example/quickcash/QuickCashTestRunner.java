@@ -0,0 +1,29 @@
+package com.example.quickcash;
+
+import android.os.Bundle;
+
+import androidx.test.runner.AndroidJUnitRunner;
+
+import com.example.quickcash.utilities.DatabaseProvider;
+
+/**
+ * Test runner that can point the whole app at the Realtime Database emulator. Runs against
+ * the real database unless the databaseEmulatorHost argument is given, for example:
+ * ./gradlew connectedAndroidTest -Pandroid.testInstrumentationRunnerArguments.databaseEmulatorHost=10.0.2.2
+ * The port defaults to 9000 and can be set with databaseEmulatorPort.
+ */
+public class QuickCashTestRunner extends AndroidJUnitRunner {
+
+    private static final int DEFAULT_EMULATOR_PORT = 9000;
+
+    @Override
+    public void onCreate(Bundle arguments) {
+        // Runs before QuickCashApplication.onCreate, so before the database is first used
+        String host = arguments != null ? arguments.getString("databaseEmulatorHost") : null;
+        if (host != null) {
+            String port = arguments.getString("databaseEmulatorPort");
+            DatabaseProvider.useEmulator(host, port != null ? Integer.parseInt(port) : DEFAULT_EMULATOR_PORT);
+        }
+        super.onCreate(arguments);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quickcash.utilities.JobSchemaMigration;
+import com.example.quickcash.utilities.ListenerRegistry;
+import com.example.quickcash.utilities.SharedQueries;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shares listeners between observers of the same query on the Realtime Database emulator.
+ * Start the emulator first with: firebase emulators:start --only database
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class SharedQueriesEmulatorTest {
+
+    /** Host of the development machine as seen from the Android emulator */
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 9000;
+
+    private FirebaseDatabase database;
+    private DatabaseReference jobIndex;
+    private ListenerRegistry registry;
+    private SharedQueries sharedQueries;
+
+    @Before
+    public void setup() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = JobSchemaMigration.emulatorDatabase(context, EMULATOR_HOST, EMULATOR_PORT);
+        database.goOnline();
+        Tasks.await(database.getReference().removeValue(), 10, TimeUnit.SECONDS);
+
+        jobIndex = database.getReference("applicationsByJob/job1");
+        Tasks.await(jobIndex.child("app1").setValue(true), 10, TimeUnit.SECONDS);
+
+        registry = new ListenerRegistry();
+        sharedQueries = new SharedQueries(registry);
+    }
+
+    /**
+     * Tests that observers of the same query share one listener, that a late observer is
+     * given the last value, and that the listener goes away with the last observer.
+     */
+    @Test
+    public void testObserversShareOneListener() throws Exception {
+        CountingListener first = new CountingListener();
+        CountingListener second = new CountingListener();
+
+        onMainThread(() -> sharedQueries.add("ViewApplications", jobIndex, "", first));
+        assertTrue(first.values.await(10, TimeUnit.SECONDS));
+
+        DatabaseReference sameIndex = database.getReference("applicationsByJob/job1");
+        onMainThread(() -> sharedQueries.add("DashboardActivity", sameIndex, "", second));
+        assertEquals(0, second.values.getCount());
+        assertEquals(1, sharedQueries.activeQueryCount());
+        assertEquals(1, registry.activeListeners("ViewApplications"));
+        assertEquals(1, registry.activeListeners("DashboardActivity"));
+
+        onMainThread(() -> sharedQueries.remove("ViewApplications", jobIndex, "", first));
+        assertEquals(1, sharedQueries.activeQueryCount());
+
+        onMainThread(() -> sharedQueries.remove("DashboardActivity", sameIndex, "", second));
+        assertEquals(0, sharedQueries.activeQueryCount());
+        assertEquals(0, registry.totalListeners());
+    }
+
+    /**
+     * Tests that queries with different IDs are not shared.
+     */
+    @Test
+    public void testDifferentQueriesAreNotShared() {
+        CountingListener all = new CountingListener();
+        CountingListener first = new CountingListener();
+
+        onMainThread(() -> {
+            sharedQueries.add("ViewApplications", jobIndex, "", all);
+            sharedQueries.add("ViewApplications", jobIndex.limitToFirst(1), "first:1", first);
+        });
+        assertEquals(2, sharedQueries.activeQueryCount());
+        assertEquals(2, registry.activeListeners("ViewApplications"));
+
+        onMainThread(() -> {
+            sharedQueries.remove("ViewApplications", jobIndex, "", all);
+            sharedQueries.remove("ViewApplications", jobIndex.limitToFirst(1), "first:1", first);
+        });
+        assertEquals(0, sharedQueries.activeQueryCount());
+    }
+
+    private void onMainThread(Runnable runnable) {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(runnable);
+    }
+
+    private static class CountingListener implements ValueEventListener {
+        final CountDownLatch values = new CountDownLatch(1);
+
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            values.countDown();
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+        }
+    }
+}
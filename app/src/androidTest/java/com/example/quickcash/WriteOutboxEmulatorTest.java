@@ -0,0 +1,214 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.quickcash.utilities.ApplicationCRUD;
+import com.example.quickcash.utilities.JobSchemaMigration;
+import com.example.quickcash.utilities.OutboxDatabase;
+import com.example.quickcash.utilities.WriteOutbox;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends queued writes to the Realtime Database emulator while the client is taken offline
+ * and back online. Start the emulator first with: firebase emulators:start --only database
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class WriteOutboxEmulatorTest {
+
+    /** Host of the development machine as seen from the Android emulator */
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 9000;
+    private static final long WRITE_TIMEOUT_MS = 2000;
+
+    private FirebaseDatabase database;
+    private OutboxDatabase outboxDatabase;
+    private WriteOutbox outbox;
+
+    @Before
+    public void setup() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = JobSchemaMigration.emulatorDatabase(context, EMULATOR_HOST, EMULATOR_PORT);
+        database.goOnline();
+        Tasks.await(database.getReference().removeValue(), 10, TimeUnit.SECONDS);
+
+        outboxDatabase = Room.inMemoryDatabaseBuilder(context, OutboxDatabase.class).build();
+        outbox = new WriteOutbox(outboxDatabase.outboxDao(), database, WRITE_TIMEOUT_MS);
+    }
+
+    @After
+    public void tearDown() {
+        database.goOnline();
+        outboxDatabase.close();
+    }
+
+    /**
+     * Tests that a write queued offline stays queued until the client is back online.
+     */
+    @Test
+    public void testQueuedWriteIsSentOnceOnline() throws Exception {
+        database.goOffline();
+        Tasks.await(outbox.enqueue("application/app1",
+                ApplicationCRUD.newApplicationUpdates("app1", "job1", "a@dal.ca", "open")), 10, TimeUnit.SECONDS);
+
+        assertFalse(outbox.flush());
+        assertEquals(1, outbox.pending());
+
+        database.goOnline();
+        assertTrue(outbox.flush());
+        assertEquals(0, outbox.pending());
+
+        DataSnapshot application = Tasks.await(database.getReference("applications/app1").get(),
+                10, TimeUnit.SECONDS);
+        assertEquals("open", application.child("status").getValue(String.class));
+        assertTrue(application.hasChild("updatedAt"));
+        DataSnapshot byJob = Tasks.await(database.getReference("applicationsByJob/job1").get(),
+                10, TimeUnit.SECONDS);
+        assertEquals(1, byJob.getChildrenCount());
+    }
+
+    /**
+     * Tests that a write queued while a flush is waiting on the server is sent by that flush.
+     */
+    @Test
+    public void testWriteQueuedDuringFlushIsSent() throws Exception {
+        database.goOffline();
+        Tasks.await(outbox.enqueue("application/app1",
+                ApplicationCRUD.newApplicationUpdates("app1", "job1", "a@dal.ca", "open")), 10, TimeUnit.SECONDS);
+
+        boolean[] emptied = new boolean[1];
+        Thread flushing = new Thread(() -> {
+            try {
+                emptied[0] = outbox.flush() || outbox.flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        flushing.start();
+        Tasks.await(outbox.enqueue("application/app2",
+                ApplicationCRUD.newApplicationUpdates("app2", "job1", "b@dal.ca", "open")), 10, TimeUnit.SECONDS);
+        database.goOnline();
+        flushing.join(3 * WRITE_TIMEOUT_MS + 10000);
+
+        assertTrue(emptied[0]);
+        assertEquals(0, outbox.pending());
+        DataSnapshot byJob = Tasks.await(database.getReference("applicationsByJob/job1").get(),
+                10, TimeUnit.SECONDS);
+        assertEquals(2, byJob.getChildrenCount());
+    }
+
+    /**
+     * Tests that sending a write again, as a retry after a lost acknowledgement does, leaves
+     * the database as sending it once.
+     */
+    @Test
+    public void testRetriedWriteIsIdempotent() throws Exception {
+        Map<String, Object> submit = ApplicationCRUD.newApplicationUpdates("app1", "job1", "a@dal.ca", "open");
+        Map<String, Object> reject = ApplicationCRUD.statusUpdates("app1", "job1", "a@dal.ca", "rejected");
+        for (int attempt = 0; attempt < 2; attempt++) {
+            Tasks.await(outbox.enqueue("application/app1", submit), 10, TimeUnit.SECONDS);
+            Tasks.await(outbox.enqueue("applicationStatus/app1", reject), 10, TimeUnit.SECONDS);
+            assertTrue(outbox.flush());
+        }
+
+        DataSnapshot byJob = Tasks.await(database.getReference("applicationsByJob/job1").get(),
+                10, TimeUnit.SECONDS);
+        assertEquals(1, byJob.getChildrenCount());
+        assertEquals("rejected", byJob.child("app1/status").getValue(String.class));
+        DataSnapshot byApplicant = Tasks.await(database.getReference("applicationsByApplicant/a@dal,ca").get(),
+                10, TimeUnit.SECONDS);
+        assertEquals(1, byApplicant.getChildrenCount());
+        assertEquals("rejected", byApplicant.child("app1/status").getValue(String.class));
+    }
+
+    /**
+     * Tests that a second submission of an application is dropped by its claim instead of
+     * replacing the first one.
+     */
+    @Test
+    public void testDuplicateSubmissionIsRejected() throws Exception {
+        String applicationId = ApplicationCRUD.applicationId("job1", "a@dal.ca");
+        String claimPath = "applications/" + applicationId + "/" + ApplicationCRUD.SUBMISSION_ID;
+        for (String message : new String[]{"First", "Second"}) {
+            Map<String, Object> submit = ApplicationCRUD.newApplicationUpdates(applicationId, "job1", "a@dal.ca", "open");
+            submit.put("applications/" + applicationId + "/message", message);
+            submit.put(claimPath, message + "-submission");
+            Tasks.await(outbox.enqueueCreate("application/" + applicationId, claimPath, submit),
+                    10, TimeUnit.SECONDS);
+            assertTrue(outbox.flush());
+        }
+
+        assertEquals(0, outbox.pending());
+        DataSnapshot application = Tasks.await(database.getReference("applications/" + applicationId).get(),
+                10, TimeUnit.SECONDS);
+        assertEquals("First", application.child("message").getValue(String.class));
+        assertEquals("First-submission", application.child(ApplicationCRUD.SUBMISSION_ID).getValue(String.class));
+    }
+
+    /**
+     * Tests that a claim left alone in its record, by a write dropped after taking it, is
+     * taken over by the next submission.
+     */
+    @Test
+    public void testClaimLeftAloneIsTakenOver() throws Exception {
+        String applicationId = ApplicationCRUD.applicationId("job1", "a@dal.ca");
+        String claimPath = "applications/" + applicationId + "/" + ApplicationCRUD.SUBMISSION_ID;
+        Tasks.await(database.getReference(claimPath).setValue("dropped-submission"), 10, TimeUnit.SECONDS);
+
+        Tasks.await(outbox.enqueueCreate("application/" + applicationId, claimPath,
+                submission(applicationId, claimPath, "First")), 10, TimeUnit.SECONDS);
+        assertTrue(outbox.flush());
+
+        DataSnapshot application = Tasks.await(database.getReference("applications/" + applicationId).get(),
+                10, TimeUnit.SECONDS);
+        assertEquals("job1", application.child("jobId").getValue(String.class));
+        assertEquals("First-submission", application.child(ApplicationCRUD.SUBMISSION_ID).getValue(String.class));
+    }
+
+    /**
+     * Tests that a submission replacing a waiting one keeps the waiting claim value, so the
+     * replacement is sent instead of being dropped as another submission.
+     */
+    @Test
+    public void testResubmissionKeepsWaitingClaim() throws Exception {
+        String applicationId = ApplicationCRUD.applicationId("job1", "a@dal.ca");
+        String claimPath = "applications/" + applicationId + "/" + ApplicationCRUD.SUBMISSION_ID;
+        for (String message : new String[]{"First", "Second"}) {
+            Tasks.await(outbox.enqueueCreate("application/" + applicationId, claimPath,
+                    submission(applicationId, claimPath, message)), 10, TimeUnit.SECONDS);
+        }
+        assertTrue(outbox.flush());
+
+        assertEquals(0, outbox.pending());
+        DataSnapshot application = Tasks.await(database.getReference("applications/" + applicationId).get(),
+                10, TimeUnit.SECONDS);
+        assertEquals("Second", application.child("message").getValue(String.class));
+        assertEquals("First-submission", application.child(ApplicationCRUD.SUBMISSION_ID).getValue(String.class));
+    }
+
+    private static Map<String, Object> submission(String applicationId, String claimPath, String message) {
+        Map<String, Object> submit = ApplicationCRUD.newApplicationUpdates(applicationId, "job1", "a@dal.ca", "open");
+        submit.put("applications/" + applicationId + "/message", message);
+        submit.put(claimPath, message + "-submission");
+        return submit;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.quickcash;
+
+import android.app.Application;
+
+import com.example.quickcash.utilities.DatabaseProvider;
+import com.example.quickcash.utilities.OfflineSync;
+import com.example.quickcash.utilities.WriteOutbox;
+
+/**
+ * Application class of QuickCash. Sets up the Realtime Database, with its disk cache, before
+ * any screen touches it, so a cold start renders the last synced users, jobs and applications
+ * right away and reconciles with the server in the background. The connection follows the
+ * app between foreground and background.
+ */
+public class QuickCashApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        DatabaseProvider.getInstance().trackAppLifecycle();
+
+        OfflineSync.getInstance(this).start();
+        // Send the writes a previous run queued but could not send
+        WriteOutbox.init(this);
+    }
+}
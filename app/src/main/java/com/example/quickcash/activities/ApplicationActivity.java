@@ -16,9 +16,8 @@ import com.example.quickcash.R;
 import com.example.quickcash.entities.Application;
 import com.example.quickcash.entities.Job;
 import com.example.quickcash.utilities.ApplicationCRUD;
+import com.example.quickcash.utilities.OfflineSync;
 import com.example.quickcash.utilities.Validator;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.auth.FirebaseAuth;
 
 
@@ -50,12 +49,6 @@ public class ApplicationActivity extends AppCompatActivity {
     /** Utility class for application CRUD operations */
     ApplicationCRUD applicationCRUD;
 
-    /** Firebase database instance */
-    FirebaseDatabase database = FirebaseDatabase.getInstance();
-
-    /** Reference to applications node in Firebase */
-    DatabaseReference databaseReference = database.getReference("applications");
-
     /**
      * Initializes the activity, sets up UI components and listeners.
      *
@@ -100,16 +93,25 @@ public class ApplicationActivity extends AppCompatActivity {
     /**
      * Handles the process of submitting an application.
      * Validates fields first, then creates and submits the application object.
-     * Upon successful submission, navigates back to the dashboard activity.
+     * Once the application is queued, navigates back to the dashboard activity.
      */
     private void submitApplication() {
         // make sure fields are verified before proceeding
         if (verifyFields()) {
             Application submittedApplication = createApplicationFromFields();
-            applicationCRUD.addNewApplication(submittedApplication);
-            Toast.makeText(this, "Application Submitted", Toast.LENGTH_SHORT).show();
-            startActivity(new Intent(ApplicationActivity.this, DashboardActivity.class));
-            finish();
+            submitButton.setEnabled(false);
+            applicationCRUD.addNewApplication(submittedApplication)
+                    .addOnSuccessListener(this, aVoid -> {
+                        boolean connected = OfflineSync.getInstance(this).isConnected();
+                        Toast.makeText(this, OfflineSync.describeSubmission(connected), Toast.LENGTH_SHORT).show();
+                        startActivity(new Intent(ApplicationActivity.this, DashboardActivity.class));
+                        finish();
+                    })
+                    .addOnFailureListener(this, e -> {
+                        submitButton.setEnabled(true);
+                        Toast.makeText(this, "Failed to queue application: " + e.getMessage(),
+                                Toast.LENGTH_SHORT).show();
+                    });
         }
     }
 
@@ -131,7 +133,7 @@ public class ApplicationActivity extends AppCompatActivity {
         String jobId = getIntent().getStringExtra("jobId");
         String jobName = getIntent().getStringExtra("jobName");
         String email = FirebaseAuth.getInstance().getCurrentUser().getEmail();
-        String id = databaseReference.push().getKey();
+        String id = ApplicationCRUD.applicationId(jobId, email);
         String message = messageField.getText().toString().trim();
 
         //build application
@@ -10,6 +10,8 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.example.quickcash.R;
+import com.example.quickcash.utilities.JobCRUD;
+import com.example.quickcash.utilities.JobStatus;
 import com.paypal.android.sdk.payments.PayPalConfiguration;
 import com.paypal.android.sdk.payments.PayPalPayment;
 import com.paypal.android.sdk.payments.PayPalService;
@@ -55,6 +57,11 @@ public class CompleteAndPayActivity extends Activity {
      */
     private Button payButton;
 
+    /**
+     * ID of the job being paid for, marked as paid once the payment succeeds
+     */
+    private String jobId;
+
     /**
      * Initializes the activity, sets up the UI, and starts the PayPal service.
      * Retrieves job details from the intent extras and displays them in the UI.
@@ -82,6 +89,7 @@ public class CompleteAndPayActivity extends Activity {
         // **Get extras** from the intent that launched this activity
         Intent extrasIntent = getIntent();
         if (extrasIntent != null) {
+            jobId = extrasIntent.getStringExtra("jobId");
             String jobName = extrasIntent.getStringExtra("jobName");
             String employeeEmail = extrasIntent.getStringExtra("employeeEmail");
 
@@ -146,8 +154,8 @@ public class CompleteAndPayActivity extends Activity {
             if (resultCode == Activity.RESULT_OK) {
                 PaymentConfirmation confirm = data.getParcelableExtra(PaymentActivity.EXTRA_RESULT_CONFIRMATION);
                 if (confirm != null) {
-                    // TODO: Update your Firebase or perform any post-payment actions here.
                     Toast.makeText(this, "Payment Successful!", Toast.LENGTH_LONG).show();
+                    markJobPaid();
                 }
             } else if (resultCode == Activity.RESULT_CANCELED) {
                 Toast.makeText(this, "Payment Cancelled", Toast.LENGTH_SHORT).show();
@@ -159,6 +167,18 @@ public class CompleteAndPayActivity extends Activity {
         }
     }
 
+    /**
+     * Moves the job from completed to paid, the last step of its lifecycle.
+     */
+    private void markJobPaid() {
+        if (jobId == null) {
+            return;
+        }
+        new JobCRUD().transition(jobId, JobStatus.PAID)
+                .addOnFailureListener(e -> Toast.makeText(this,
+                        "Failed to mark job as paid: " + e.getMessage(), Toast.LENGTH_SHORT).show());
+    }
+
     /**
      * Cleans up resources when the activity is destroyed.
      * Stops the PayPal service to prevent resource leaks.
@@ -2,8 +2,6 @@ package com.example.quickcash.activities;
 
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.location.Address;
-import android.location.Geocoder;
 import android.location.Location;
 import android.os.Bundle;
 import android.util.Log;
@@ -17,28 +15,29 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import androidx.lifecycle.Lifecycle;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 
 import com.example.quickcash.R;
 import com.example.quickcash.entities.Job;
+import com.example.quickcash.entities.User;
 import com.example.quickcash.utilities.DashboardState;
+import com.example.quickcash.utilities.DatabaseProvider;
 import com.example.quickcash.utilities.EmployeeDashboardState;
 import com.example.quickcash.utilities.EmployerDashboardState;
 import com.example.quickcash.utilities.FeaturesAdapter;
 import com.example.quickcash.utilities.JobAdapter;
-import com.example.quickcash.utilities.LocationUtils;
-import com.google.android.gms.location.FusedLocationProviderClient;
-import com.google.android.gms.location.LocationServices;
-import com.google.android.gms.tasks.OnSuccessListener;
+import com.example.quickcash.utilities.JobRepository;
+import com.example.quickcash.utilities.LocationRepository;
+import com.example.quickcash.utilities.OfflineSync;
+import com.example.quickcash.utilities.ReverseGeocodeCache;
+import com.example.quickcash.utilities.UserSession;
+import com.google.android.gms.location.Priority;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.ValueEventListener;
 
 import android.Manifest;
 
@@ -46,10 +45,10 @@ import android.Manifest;
 import android.app.Dialog;
 import android.widget.EditText;
 
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 /**
  * DashboardActivity serves as the main hub for the QuickCash application.
@@ -85,8 +84,17 @@ public class DashboardActivity extends AppCompatActivity {
     /** Store username */
     private String username;
 
-    /** Location services client for accessing device location */
-    private FusedLocationProviderClient fusedLocationClient;
+    /** Shared profile of the signed in user */
+    private UserSession userSession;
+
+    /** Refreshes the dashboard when the user's profile is resolved or changes */
+    private final UserSession.SessionListener sessionListener = this::onUserChanged;
+
+    /** Shared source of the device location */
+    private LocationRepository locationRepository;
+
+    /** Receives the device location while the dashboard is in the foreground */
+    private LocationRepository.LocationObserver locationObserver;
 
     /** Request code for location permission */
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 1001;
@@ -100,21 +108,42 @@ public class DashboardActivity extends AppCompatActivity {
     /** Default radius for nearby jobs in kilometers */
     private static final double DEFAULT_NEARBY_RADIUS_KM = 25.0;
 
+    /** Distance the user has to move before nearby jobs are loaded again */
+    private static final double NEARBY_REQUERY_DISTANCE_KM = 1.0;
+
     /** RecyclerView for displaying nearby jobs */
     private RecyclerView nearbyJobsRecyclerView;
 
     /** Adapter for job listings */
     private JobAdapter jobAdapter;
 
-    /** List of all jobs from database */
-    private List<Job> allJobs = new ArrayList<>();
+    /** Shared, live copy of the jobs around the user */
+    private JobRepository jobRepository;
+
+    /** Refreshes the nearby jobs whenever the shared job set changes */
+    private final JobRepository.JobsListener jobsListener = repository -> updateNearbyJobs();
 
     /** TextView for displaying current location */
     private TextView currentLocationText;
 
+    /** TextView saying how old the cached data is while the database is not connected */
+    private TextView syncStatusText;
+
+    /** Connection state of the database, used for the freshness indicator */
+    private OfflineSync offlineSync;
+
+    /** Shows or hides the freshness indicator when the connection changes */
+    private final OfflineSync.FreshnessListener freshnessListener = this::updateSyncStatus;
+
     /** Dashboard state, used to determine UI layout based on user role */
     private DashboardState currentState;
 
+    /** Whether the current role has asked for nearby jobs */
+    private boolean nearbyJobsRequested = false;
+
+    /** Whether the pending nearby jobs request should hide the user's own jobs */
+    private boolean loadEmployeeJobs = false;
+
     /**
      * Initializes the activity, sets up UI components, location services,
      * and loads user data from Firebase.
@@ -158,6 +187,9 @@ public class DashboardActivity extends AppCompatActivity {
         // Added: Current location text view
         currentLocationText = findViewById(R.id.currentLocationText);
 
+        // Tells the user when the dashboard shows cached data
+        syncStatusText = findViewById(R.id.syncStatusText);
+
         // Added by Ross: Setup nearby jobs RecyclerView
         nearbyJobsRecyclerView = findViewById(R.id.nearbyJobsRecyclerView);
         nearbyJobsRecyclerView.setLayoutManager(new LinearLayoutManager(this));
@@ -179,7 +211,10 @@ public class DashboardActivity extends AppCompatActivity {
      */
     private void setupFirebase() {
         mAuth = FirebaseAuth.getInstance();
-        mDatabase = FirebaseDatabase.getInstance().getReference();
+        mDatabase = DatabaseProvider.getInstance().getRootReference();
+        jobRepository = JobRepository.getInstance();
+        userSession = UserSession.getInstance();
+        offlineSync = OfflineSync.getInstance(this);
     }
 
     /**
@@ -188,12 +223,99 @@ public class DashboardActivity extends AppCompatActivity {
      * @author Ross
      */
     private void setupLocation() {
-        fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
+        locationRepository = LocationRepository.getInstance(this);
+        locationObserver = new LocationRepository.LocationObserver(
+                Priority.PRIORITY_BALANCED_POWER_ACCURACY, NEARBY_REQUERY_DISTANCE_KM) {
+            @Override
+            public void onLocationChanged(Location location) {
+                onUserLocationChanged(location);
+            }
+        };
         checkLocationPermission();
     }
 
+    /**
+     * Observes the shared location and the connection while the dashboard is in the foreground.
+     */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (locationRepository != null) {
+            locationRepository.observe(locationObserver);
+        }
+        if (offlineSync != null) {
+            offlineSync.observe(freshnessListener);
+        }
+    }
+
+    /**
+     * Stops observing the shared location and the connection when the dashboard leaves the foreground.
+     */
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (locationRepository != null) {
+            locationRepository.removeObserver(locationObserver);
+        }
+        if (offlineSync != null) {
+            offlineSync.removeObserver(freshnessListener);
+        }
+    }
+
+    /**
+     * Shows how old the data is while it comes from the offline cache, and hides the
+     * indicator once the database is connected and the data is live again.
+     *
+     * @param connected Whether the database is connected
+     * @param lastConnectedAt When the database was last connected, 0 if never
+     */
+    private void updateSyncStatus(boolean connected, long lastConnectedAt) {
+        String status = OfflineSync.describeFreshness(connected, lastConnectedAt, System.currentTimeMillis());
+        if (status == null) {
+            syncStatusText.setVisibility(View.GONE);
+        } else {
+            syncStatusText.setText(status);
+            syncStatusText.setVisibility(View.VISIBLE);
+        }
+    }
+
+    /**
+     * Listens to job changes again when the dashboard comes back, if it shows nearby jobs.
+     */
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if (nearbyJobsRequested && jobRepository != null) {
+            jobRepository.subscribe(jobsListener);
+        }
+    }
+
+    /**
+     * Stops listening to job changes while the dashboard is not visible, so a dashboard left
+     * in the back stack does not keep the jobs synced or re-rank them.
+     */
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (jobRepository != null) {
+            jobRepository.unsubscribe(jobsListener);
+        }
+    }
+
+    /**
+     * Stops listening to profile changes.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (userSession != null) {
+            userSession.removeObserver(sessionListener);
+        }
+    }
+
     /**
      * Checks if location permission is granted, requests it if needed.
+     * Location updates start once the dashboard observes the shared location.
      *
      * @author Ross
      */
@@ -203,8 +325,6 @@ public class DashboardActivity extends AppCompatActivity {
             ActivityCompat.requestPermissions(this,
                     new String[]{Manifest.permission.ACCESS_FINE_LOCATION},
                     LOCATION_PERMISSION_REQUEST_CODE);
-        } else {
-            getUserLocation();
         }
     }
 
@@ -224,53 +344,38 @@ public class DashboardActivity extends AppCompatActivity {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
         if (requestCode == LOCATION_PERMISSION_REQUEST_CODE) {
             if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
-                getUserLocation();
+                locationRepository.onPermissionGranted();
             } else {
                 Toast.makeText(this, "Location permission denied.Using default location.",
                         Toast.LENGTH_LONG).show();
-                // Use a default location (Halifax, NS)
-                userLatitude = 44.6356;
-                userLongitude = -63.5957;
-
-                // Update location display with default location
-                updateLocationDisplay("Halifax, NS (Default)");
-
-                // Don't call loadNearbyJobs() here directly
-                // It will be called by updateUI when appropriate
+                // Use the default location (Halifax, NS)
+                locationRepository.useDefaultLocationIfUnknown();
             }
         }
     }
 
     /**
-     * Gets the user's current location if permission is granted.
-     * If location is unavailable, uses a default location (Halifax, NS).
+     * Called with the first location and whenever the user has moved more than
+     * NEARBY_REQUERY_DISTANCE_KM, so GPS jitter does not reload nearby jobs.
      *
-     * @author Ross
+     * @param location The new location, may be the default location (Halifax, NS)
      */
-    private void getUserLocation() {
-        if (ActivityCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) == PackageManager.PERMISSION_GRANTED) {
-            fusedLocationClient.getLastLocation()
-                    .addOnSuccessListener(this, new OnSuccessListener<Location>() {
-                        @Override
-                        public void onSuccess(Location location) {
-                            if (location != null) {
-                                userLatitude = location.getLatitude();
-                                userLongitude = location.getLongitude();
-
-                                // Get human-readable address from coordinates
-                                getAddressFromLocation(location);
-                            } else {
-                                // If location is null, use default (Halifax, NS)
-                                userLatitude = 44.6356;
-                                userLongitude = -63.5957;
-
-                                // Update location display with default location
-                                updateLocationDisplay("Halifax, NS (Default)");
-                            }
-                            // Don't call loadNearbyJobs() here anymore
-                        }
-                    });
+    private void onUserLocationChanged(Location location) {
+        userLatitude = location.getLatitude();
+        userLongitude = location.getLongitude();
+
+        if (LocationRepository.isDefaultLocation(location)) {
+            // Update location display with default location
+            updateLocationDisplay("Halifax, NS (Default)");
+        } else {
+            // Get human-readable address from coordinates
+            getAddressFromLocation(location);
+            // Keep the jobs around here in the offline cache for the next start
+            offlineSync.setLastLocation(userLatitude, userLongitude);
         }
+
+        // Run the nearby jobs query if updateUI already asked for it
+        loadPendingNearbyJobs();
     }
 
     /**
@@ -279,54 +384,49 @@ public class DashboardActivity extends AppCompatActivity {
      * @param location The location to convert
      */
     private void getAddressFromLocation(Location location) {
-        Geocoder geocoder = new Geocoder(this, Locale.getDefault());
-        try {
-            List<Address> addresses = geocoder.getFromLocation(
-                    location.getLatitude(), location.getLongitude(), 1);
-
-            if (addresses != null && addresses.size() > 0) {
-                Address address = addresses.get(0);
+        // The lookup runs in the background and repeated lookups come from the cache
+        ReverseGeocodeCache.getInstance(this).lookup(location.getLatitude(), location.getLongitude(),
+                new ReverseGeocodeCache.AddressListener() {
+                    @Override
+                    public void onAddressResolved(ReverseGeocodeCache.CachedAddress address) {
+                        // Format the address
+                        String locality = address.getLocality(); // city
+                        String adminArea = address.getAdminArea(); // state/province
+                        String countryCode = address.getCountryCode();
+
+                        StringBuilder addressText = new StringBuilder();
+
+                        if (locality != null) {
+                            addressText.append(locality);
+                        }
 
-                // Format the address
-                String locality = address.getLocality(); // city
-                String adminArea = address.getAdminArea(); // state/province
-                String countryCode = address.getCountryCode();
+                        if (adminArea != null) {
+                            if (addressText.length() > 0) {
+                                addressText.append(", ");
+                            }
+                            addressText.append(adminArea);
+                        }
 
-                StringBuilder addressText = new StringBuilder();
+                        if (countryCode != null && addressText.length() > 0) {
+                            addressText.append(", ").append(countryCode);
+                        }
 
-                if (locality != null) {
-                    addressText.append(locality);
-                }
+                        if (addressText.length() == 0) {
+                            // If we couldn't get a readable address, use coordinates
+                            addressText.append(String.format(Locale.getDefault(),
+                                    "%.4f, %.4f", location.getLatitude(), location.getLongitude()));
+                        }
 
-                if (adminArea != null) {
-                    if (addressText.length() > 0) {
-                        addressText.append(", ");
+                        updateLocationDisplay(addressText.toString());
                     }
-                    addressText.append(adminArea);
-                }
-
-                if (countryCode != null && addressText.length() > 0) {
-                    addressText.append(", ").append(countryCode);
-                }
-
-                if (addressText.length() == 0) {
-                    // If we couldn't get a readable address, use coordinates
-                    addressText.append(String.format(Locale.getDefault(),
-                            "%.4f, %.4f", location.getLatitude(), location.getLongitude()));
-                }
 
-                updateLocationDisplay(addressText.toString());
-            } else {
-                // If no address found, display coordinates
-                updateLocationDisplay(String.format(Locale.getDefault(),
-                        "%.4f, %.4f", location.getLatitude(), location.getLongitude()));
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            // If geocoding fails, display coordinates
-            updateLocationDisplay(String.format(Locale.getDefault(),
-                    "%.4f, %.4f", location.getLatitude(), location.getLongitude()));
-        }
+                    @Override
+                    public void onAddressUnavailable() {
+                        // If no address found or geocoding fails, display coordinates
+                        updateLocationDisplay(String.format(Locale.getDefault(),
+                                "%.4f, %.4f", location.getLatitude(), location.getLongitude()));
+                    }
+                });
     }
 
     /**
@@ -347,28 +447,28 @@ public class DashboardActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads user data from Firebase database including username and role.
-     * Updates the UI based on the retrieved data.
+     * Loads user data including username and role from the shared user session.
+     * The session resolves the user once per login and keeps the profile updated live,
+     * so the UI is updated when the data arrives and again whenever the role changes.
      *
      * Updated by Ethan Iteration3
      */
     private void loadUserData() {
-        FirebaseUser user = mAuth.getCurrentUser();
-        if (user != null) {
-            String email = user.getEmail().toLowerCase();
-            mDatabase.child("users").get().addOnCompleteListener(task -> {
-                if (task.isSuccessful()) {
-                    for (DataSnapshot userSnapshot : task.getResult().getChildren()) {
-                        String userEmail = userSnapshot.child("email").getValue(String.class);
-                        if (userEmail != null && email.equalsIgnoreCase(userEmail)) {
-                            username = userSnapshot.getKey();
-                            String role = userSnapshot.child("role").getValue(String.class);
-                            updateUI(username, role);
-                            break;
-                        }
-                    }
-                }
-            });
+        if (mAuth.getCurrentUser() != null) {
+            userSession.observe(sessionListener);
+        }
+    }
+
+    /**
+     * Rebuilds the role-specific UI when the user's role is first known or changes.
+     *
+     * @param username The user's username
+     * @param user The user's profile
+     */
+    private void onUserChanged(String username, User user) {
+        this.username = username;
+        if (!Objects.equals(user.getRole(), currentUserRole)) {
+            updateUI(username, user.getRole());
         }
     }
 
@@ -414,70 +514,62 @@ public class DashboardActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads nearby jobs from Firebase based on user location.
-     * Filters jobs by distance and updates the nearby jobs display.
+     * Loads nearby jobs from the shared job repository based on user location.
+     * The repository keeps the jobs around the user in sync, so returning to the dashboard
+     * does not download them again. If the location is not known yet, the list is shown once it arrives.
      * Excludes jobs posted by the current user when in Employee role.
      *
      * Updated by Ethan iteration 3 (state design pattern refactor)
      */
 
     public void loadNearbyJobs(boolean isEmployee) {
-        FirebaseUser currentUser = mAuth.getCurrentUser();
-        final String currentUserEmail = currentUser != null ? currentUser.getEmail().toLowerCase() : "";
+        nearbyJobsRequested = true;
+        loadEmployeeJobs = isEmployee;
 
-        mDatabase.child("jobs").addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                allJobs.clear();
-                for (DataSnapshot jobSnapshot : dataSnapshot.getChildren()) {
-                    String jobEmail = jobSnapshot.child("email").getValue(String.class);
-                    if (isEmployee && jobEmail != null && jobEmail.equalsIgnoreCase(currentUserEmail)) {
-                        continue;
-                    }
+        // Only the jobs around the user are synced, once their location is known
+        if (userLatitude != 0.0 || userLongitude != 0.0) {
+            jobRepository.focus(userLatitude, userLongitude);
+        }
 
-                    String name = jobSnapshot.child("name").getValue(String.class);
-                    String description = jobSnapshot.child("description").getValue(String.class);
-                    String category = jobSnapshot.child("category").getValue(String.class);
-                    Double latitude = jobSnapshot.child("latitude").getValue(Double.class);
-                    Double longitude = jobSnapshot.child("longitude").getValue(Double.class);
-                    String jobId = jobSnapshot.getKey();
-                    String jobStatus = jobSnapshot.child("status").getValue(String.class);
-
-                    if (name != null && description != null && category != null && latitude != null && longitude != null) {
-                        Job job = new Job(name, description, category, latitude, longitude);
-                        job.setEmail(jobEmail);
-                        job.setId(jobId);
-                        if (jobStatus != null) job.setStatus(jobStatus);
-                        allJobs.add(job);
-                    }
-                }
-                updateNearbyJobs();
-            }
+        // Shows the jobs once they are loaded, and again with every change to them, while
+        // the dashboard is started; onStart subscribes otherwise
+        if (getLifecycle().getCurrentState().isAtLeast(Lifecycle.State.STARTED)) {
+            jobRepository.subscribe(jobsListener);
+        }
+    }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Toast.makeText(DashboardActivity.this, "Failed to load jobs.", Toast.LENGTH_SHORT).show();
-            }
-        });
+    /**
+     * Refreshes the nearby jobs for a new user location, if the current role shows them.
+     */
+    private void loadPendingNearbyJobs() {
+        if (nearbyJobsRequested) {
+            loadNearbyJobs(loadEmployeeJobs);
+        }
     }
 
     /**
      * Updates the list of nearby jobs based on distance from user.
-     * Filters jobs using the LocationUtils helper class.
+     * Queries the repository's spatial index instead of rescanning every job.
      *
      * @author Ross
      */
     private void updateNearbyJobs() {
-        if (userLatitude != 0.0 && userLongitude != 0.0) {
-            List<Job> nearbyJobs = LocationUtils.filterJobsByDistance(
-                    allJobs, userLatitude, userLongitude, DEFAULT_NEARBY_RADIUS_KM);
+        if (userLatitude != 0.0 && userLongitude != 0.0 && jobRepository.isLoaded()) {
+            FirebaseUser currentUser = mAuth.getCurrentUser();
+            String userEmail = currentUser != null ? currentUser.getEmail().toLowerCase() : "";
+
+            List<Job> nearbyJobs = new ArrayList<>();
+            for (Job job : jobRepository.jobsWithinRadius(userLatitude, userLongitude, DEFAULT_NEARBY_RADIUS_KM)) {
+                String jobEmail = job.getEmail();
+                if (loadEmployeeJobs && jobEmail != null && jobEmail.equalsIgnoreCase(userEmail)) {
+                    continue;
+                }
+                nearbyJobs.add(job);
+            }
 
             TextView nearbyJobsCount = findViewById(R.id.nearbyJobsCount);
             nearbyJobsCount.setText(nearbyJobs.size() + " jobs found nearby");
 
-            FirebaseUser currentUser = mAuth.getCurrentUser();
-            String userEmail = currentUser != null ? currentUser.getEmail().toLowerCase() : "";
-
             // Unified click behavior depending on role
             jobAdapter = new JobAdapter(nearbyJobs, this, userLatitude, userLongitude, job -> {
                 Log.d("DashboardActivity", "Job clicked: " + job.getName());
@@ -521,26 +613,9 @@ public class DashboardActivity extends AppCompatActivity {
             String enteredEmail = emailInput.getText().toString().trim();
             FirebaseUser user = mAuth.getCurrentUser();
 
-            if (user != null) {
-                mDatabase.child("users").get().addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        boolean emailFound = false;
-                        for (DataSnapshot userSnapshot : task.getResult().getChildren()) {
-                            String userEmail = userSnapshot.child("email").getValue(String.class);
-                            if (enteredEmail.equals(userEmail)) {
-                                emailFound = true;
-                                username = userSnapshot.getKey();
-                                updateUserRole(newRole);
-                                dialog.dismiss();
-                                break;
-                            }
-                        }
-                        if (!emailFound) {
-                            Toast.makeText(DashboardActivity.this, "Incorrect email. Please try again.",
-                                    Toast.LENGTH_SHORT).show();
-                        }
-                    }
-                });
+            if (user != null && enteredEmail.equalsIgnoreCase(user.getEmail())) {
+                updateUserRole(newRole);
+                dialog.dismiss();
             } else {
                 Toast.makeText(this, "Incorrect email. Please try again.",
                         Toast.LENGTH_SHORT).show();
@@ -552,7 +627,8 @@ public class DashboardActivity extends AppCompatActivity {
     }
 
     /**
-     * Updates user's role in the database and refreshes the UI.
+     * Updates user's role in the database. The user session delivers the new role,
+     * which refreshes the UI.
      *
      * @param newRole The new role to assign to the user
      */
@@ -560,11 +636,6 @@ public class DashboardActivity extends AppCompatActivity {
         if (username != null) {
             mDatabase.child("users").child(username).child("role").setValue(newRole)
                     .addOnSuccessListener(aVoid -> {
-                        currentUserRole = newRole;
-                        FirebaseUser user = mAuth.getCurrentUser();
-                        if (user != null) {
-                            updateUI(username, newRole);  // Fixed: Using username instead of user.getEmail()
-                        }
                         Toast.makeText(this, "Role updated successfully changed to " + newRole
                                 , Toast.LENGTH_SHORT).show();
                     })
@@ -14,6 +14,7 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
 import com.example.quickcash.R;
+import com.example.quickcash.utilities.DatabaseProvider;
 import com.example.quickcash.utilities.Validator;
 
 import com.google.firebase.database.DataSnapshot;
@@ -39,9 +40,6 @@ import com.google.firebase.database.ValueEventListener;
  */
 public class EmailVerifyActivity extends AppCompatActivity implements View.OnClickListener {
 
-    /** Firebase Database URL */
-    private static final String DB_URL = "https://quickcash-ae34a-default-rtdb.firebaseio.com";
-
     /** Static Firebase database instance */
     private static FirebaseDatabase databaseInstance;
 
@@ -105,7 +103,7 @@ public class EmailVerifyActivity extends AppCompatActivity implements View.OnCli
     protected FirebaseDatabase getDatabase() {
         // Initialize Firebase
         if (databaseInstance == null) {
-            databaseInstance = FirebaseDatabase.getInstance(DB_URL);
+            databaseInstance = DatabaseProvider.getInstance().getDatabase();
         }
         return databaseInstance;
     }
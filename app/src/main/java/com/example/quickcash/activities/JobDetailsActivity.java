@@ -20,11 +20,15 @@ import androidx.appcompat.widget.Toolbar;
 
 import com.example.quickcash.R;
 import com.example.quickcash.entities.Job;
+import com.example.quickcash.utilities.ApplicationCRUD;
+import com.example.quickcash.utilities.JobCRUD;
+import com.example.quickcash.utilities.JobRepository;
+import com.example.quickcash.utilities.JobStatus;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
 /**
@@ -42,6 +46,7 @@ public class JobDetailsActivity extends AppCompatActivity implements OnMapReadyC
     private TextView employerEmail, jobStatus, jobLatitude, jobLongitude, jobFirebaseId;
     private Button applyButton;
     private String jobId; // Job ID passed from the previous activity
+    private final JobCRUD jobCRUD = new JobCRUD();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -96,7 +101,9 @@ public class JobDetailsActivity extends AppCompatActivity implements OnMapReadyC
     }
 
     /**
-     * Fetches job details from Firebase using the provided job ID.
+     * Fetches job details from Firebase using the provided job ID. The job's summary is
+     * shown first, straight from the shared job repository when it has the job, and the
+     * description, which summaries leave out, is loaded afterwards.
      */
     private void loadJobDetails(String jobId) {
         if (jobId == null || jobId.isEmpty()) {
@@ -104,54 +111,55 @@ public class JobDetailsActivity extends AppCompatActivity implements OnMapReadyC
             finish();
             return;
         }
-        DatabaseReference jobRef = FirebaseDatabase.getInstance().getReference("jobs").child(jobId);
-
-        jobRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (!snapshot.exists()) {
-                    Toast.makeText(JobDetailsActivity.this, "Job not found in database", Toast.LENGTH_SHORT).show();
-                    finish();
-                    return;
-                }
-
-                Job job = snapshot.getValue(Job.class);
-                if (job != null) {
-                    // Populate UI with job details
-                    jobTitle.setText(job.getName());
-                    jobCategory.setText("Category: " + job.getCategory());
-                    jobDescription.setText("Description: " + job.getDescription());
-
-                    // Display additional job details from Firebase
-                    employerEmail.setText("Email: " + (job.getEmail() != null ? job.getEmail() : "null"));
-                    jobStatus.setText("Status: " + (job.getStatus() != null ? job.getStatus() : "null"));
-                    jobLatitude.setText("Latitude: " + job.getLatitude());
-                    jobLongitude.setText("Longitude: " + job.getLongitude());
-                    jobFirebaseId.setText("Firebase ID: " + jobId);
-
-                    // Initialize Google Maps marker
-                    jobLocation = new LatLng(job.getLatitude(), job.getLongitude());
-                    if (jobMap != null) {
-                        jobMap.addMarker(new MarkerOptions().position(jobLocation).title(job.getName()));
-                        jobMap.moveCamera(CameraUpdateFactory.newLatLngZoom(jobLocation, 12));
-                    }
 
-                    // Hide "Apply Now" button if the job is closed
-                    if ("closed".equalsIgnoreCase(job.getStatus())) {
-                        applyButton.setVisibility(Button.GONE);
+        Job cached = JobRepository.getInstance().getJob(jobId);
+        Task<Job> summary = cached != null ? Tasks.forResult(cached) : jobCRUD.getJobSummary(jobId);
+        summary
+                .addOnSuccessListener(job -> {
+                    if (job == null) {
+                        Toast.makeText(this, "Job not found in database", Toast.LENGTH_SHORT).show();
+                        finish();
+                        return;
                     }
+                    showJob(job);
+                })
+                .addOnFailureListener(e ->
+                        Toast.makeText(this, "Database error", Toast.LENGTH_SHORT).show());
+
+        jobCRUD.getJobDescription(jobId)
+                .addOnSuccessListener(description ->
+                        jobDescription.setText("Description: " + description))
+                .addOnFailureListener(e ->
+                        Log.e("JobDetailsActivity", "Failed to load description: " + e.getMessage()));
+    }
 
-                } else {
-                    Toast.makeText(JobDetailsActivity.this, "Failed to load job data", Toast.LENGTH_SHORT).show();
-                    finish();
-                }
-            }
+    /**
+     * Populates the UI with the job's summary.
+     *
+     * @param job The job, without its description
+     */
+    private void showJob(Job job) {
+        jobTitle.setText(job.getName());
+        jobCategory.setText("Category: " + job.getCategory());
+
+        // Display additional job details from Firebase
+        employerEmail.setText("Email: " + (job.getEmail() != null ? job.getEmail() : "null"));
+        jobStatus.setText("Status: " + (job.getStatus() != null ? job.getStatus() : "null"));
+        jobLatitude.setText("Latitude: " + job.getLatitude());
+        jobLongitude.setText("Longitude: " + job.getLongitude());
+        jobFirebaseId.setText("Firebase ID: " + jobId);
+
+        // Initialize Google Maps marker
+        jobLocation = new LatLng(job.getLatitude(), job.getLongitude());
+        if (jobMap != null) {
+            jobMap.addMarker(new MarkerOptions().position(jobLocation).title(job.getName()));
+            jobMap.moveCamera(CameraUpdateFactory.newLatLngZoom(jobLocation, 12));
+        }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Toast.makeText(JobDetailsActivity.this, "Database error", Toast.LENGTH_SHORT).show();
-            }
-        });
+        // Hide "Apply Now" button once the job no longer takes applications
+        if (JobStatus.fromValue(job.getStatus()) != JobStatus.OPEN) {
+            applyButton.setVisibility(Button.GONE);
+        }
     }
 
     /**
@@ -182,30 +190,21 @@ public class JobDetailsActivity extends AppCompatActivity implements OnMapReadyC
 
     /**
      * @author Ethan Pancura
-     * This method queries the database for applications where
-     * the asociated email matches the current user email, and the
-     * associated ID matches the current job ID. If anything is found,
+     * This method reads the current user's entry in the
+     * applicationsByApplicant index under the application key
+     * for this job and user. If it exists,
      * then the user has already applied to this job and the button
      * will be greyed out, not allowing duplicate applications.
      *
      * Built for US-1 of Iteration 3
      */
     private void checkIfAlreadyApplied(String jobId, String userEmail) {
-        DatabaseReference applicationsRef = FirebaseDatabase.getInstance().getReference("applications");
-
-        applicationsRef.orderByChild("email").equalTo(userEmail)
+        //applications are keyed by job and applicant, so only this one entry is read
+        new ApplicationCRUD().applicantEntry(userEmail, jobId)
                 .addListenerForSingleValueEvent(new ValueEventListener() {
                     @Override
                     public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        boolean alreadyApplied = false;
-
-                        for (DataSnapshot data : snapshot.getChildren()) {
-                            String appliedJobId = data.child("jobId").getValue(String.class);
-                            if (appliedJobId != null && appliedJobId.equals(jobId)) {
-                                alreadyApplied = true;
-                                break;
-                            }
-                        }
+                        boolean alreadyApplied = snapshot.exists();
 
                         if (alreadyApplied) {
                             applyButton.setEnabled(false);
@@ -9,9 +9,9 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.quickcash.R;
+import com.example.quickcash.utilities.DatabaseProvider;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 
 /**
  * LoginActivity handles user authentication for the QuickCash application.
@@ -61,7 +61,7 @@ public class LoginActivity extends AppCompatActivity {
 
         //Initialize database and firebase auth
         mAuth = FirebaseAuth.getInstance();
-        mDatabase = FirebaseDatabase.getInstance().getReference();
+        mDatabase = DatabaseProvider.getInstance().getRootReference();
 
         //onclick Login
         btnLogin.setOnClickListener(view -> loginUser());
@@ -14,25 +14,33 @@ import androidx.core.content.ContextCompat;
 
 import com.example.quickcash.R;
 import com.example.quickcash.entities.Job;
+import com.example.quickcash.utilities.JobCRUD;
+import com.example.quickcash.utilities.GeoHash;
+import com.example.quickcash.utilities.JobClusterItem;
+import com.example.quickcash.utilities.JobClusterRenderer;
+import com.example.quickcash.utilities.JobRepository;
+import com.example.quickcash.utilities.JobTileCache;
+import com.example.quickcash.utilities.LocationRepository;
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.GoogleApiAvailability;
-import com.google.android.gms.location.FusedLocationProviderClient;
-import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
 import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.OnMapReadyCallback;
 import com.google.android.gms.maps.SupportMapFragment;
+import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.LatLng;
+import com.google.android.gms.maps.model.LatLngBounds;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.google.maps.android.clustering.ClusterManager;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -60,11 +68,34 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
     /** Maximum distance (in kilometers) to display jobs from user's location */
     private static final double MAX_DISTANCE_KM = 10.0; // 10km radius
 
+    /** Maximum number of geohash tiles queried for the visible part of the map */
+    private static final int MAX_VISIBLE_TILES = 16;
+
+    /** Maximum number of geohash tiles kept in memory */
+    private static final int MAX_CACHED_TILES = 64;
+
+    /** Above this many jobs, markers are grouped into clusters */
+    private static final int CLUSTER_THRESHOLD = 50;
+
     /** Google Map instance */
     private GoogleMap googleMap;
 
-    /** Client for accessing device location */
-    private FusedLocationProviderClient fusedLocationClient;
+    /** Shared source of the device location */
+    private LocationRepository locationRepository;
+
+    /** Follows the user's position while the map is visible, see updateLocationUI(Location) */
+    private final LocationRepository.LocationObserver locationObserver =
+            new LocationRepository.LocationObserver(Priority.PRIORITY_HIGH_ACCURACY,
+                    LocationRepository.DEFAULT_MIN_DISTANCE_KM) {
+                @Override
+                public void onLocationChanged(Location location) {
+                    Log.d(TAG, "Got location: " + location.getLatitude() + ", " + location.getLongitude());
+                    if (!LocationRepository.isDefaultLocation(location)) {
+                        lastKnownLocation = location;
+                    }
+                    updateLocationUI(location);
+                }
+            };
 
     /** Flag indicating if location permission is granted */
     private boolean locationPermissionGranted = false;
@@ -75,11 +106,35 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
     /** Current position of the user */
     private LatLng currentPosition;
 
+    /** Set once the camera has been centered on a real fix, after that only the user moves it */
+    private boolean centeredOnUser = false;
+
     /** List of job markers displayed on the map */
     private List<Marker> jobMarkers = new ArrayList<>();
 
-    /** Reference to jobs database in Firebase */
-    private DatabaseReference jobsDatabase;
+    /** Plain markers on the map, keyed by job */
+    private final Map<String, Marker> markersByKey = new HashMap<>();
+
+    /** Jobs currently shown by each plain marker, used to detect changes */
+    private final Map<String, JobClusterItem> markerJobsByKey = new HashMap<>();
+
+    /** Cluster items currently in the cluster manager, keyed by job */
+    private final Map<String, JobClusterItem> clusterItemsByKey = new HashMap<>();
+
+    /** Groups nearby markers into clusters when there are many jobs to show */
+    private ClusterManager<JobClusterItem> clusterManager;
+
+    /** Renderer for clustered jobs, also provides the cached category icons */
+    private JobClusterRenderer clusterRenderer;
+
+    /** Utility for querying jobs in Firebase */
+    private JobCRUD jobCRUD;
+
+    /** Jobs loaded per geohash tile, only the tiles in view are fetched */
+    private JobTileCache tileCache;
+
+    /** Shared, live copy of every job, used when another screen has already loaded it */
+    private final JobRepository jobRepository = JobRepository.getInstance();
 
     /**
      * Initializes the activity, sets up the map, and checks for required permissions.
@@ -110,12 +165,12 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
             getSupportActionBar().setTitle("Nearby Jobs");
         }
 
-        // Initialize the location services client
-        fusedLocationClient = LocationServices.getFusedLocationProviderClient(this);
+        // Get the shared location repository
+        locationRepository = LocationRepository.getInstance(this);
 
-        // Initialize Firebase reference
-        jobsDatabase = FirebaseDatabase.getInstance().getReference().child("jobs");
-        Log.d(TAG, "Firebase reference initialized: " + jobsDatabase.toString());
+        // Initialize Firebase job queries
+        jobCRUD = new JobCRUD();
+        tileCache = new JobTileCache(jobCRUD, MAX_CACHED_TILES);
 
         // Initialize the map
         SupportMapFragment mapFragment = (SupportMapFragment) getSupportFragmentManager()
@@ -150,9 +205,22 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
         googleMap.getUiSettings().setCompassEnabled(true);
         googleMap.getUiSettings().setMapToolbarEnabled(true);
 
+        // Set up clustering for when there are too many jobs for plain markers
+        clusterManager = new ClusterManager<>(this, googleMap);
+        clusterRenderer = new JobClusterRenderer(this, googleMap, clusterManager);
+        clusterManager.setRenderer(clusterRenderer);
+        googleMap.setOnMarkerClickListener(clusterManager);
+
+        // Recluster and load the jobs in view whenever the user stops panning or zooming
+        googleMap.setOnCameraIdleListener(() -> {
+            clusterManager.onCameraIdle();
+            loadVisibleJobs();
+        });
+
         // Set initial camera position to Halifax (without adding a test marker)
         googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(
-                new LatLng(44.6488, -63.5752), DEFAULT_ZOOM));
+                new LatLng(LocationRepository.DEFAULT_LATITUDE, LocationRepository.DEFAULT_LONGITUDE),
+                DEFAULT_ZOOM));
         Log.d(TAG, "Moved camera to Halifax");
 
         // Update UI based on permission status
@@ -162,6 +230,28 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
         getDeviceLocation();
     }
 
+    /**
+     * Observes the shared location at high accuracy while the map is in the foreground.
+     */
+    @Override
+    protected void onResume() {
+        super.onResume();
+        if (googleMap != null) {
+            getDeviceLocation();
+        }
+    }
+
+    /**
+     * Stops observing the shared location when the map leaves the foreground.
+     */
+    @Override
+    protected void onPause() {
+        super.onPause();
+        if (locationRepository != null) {
+            locationRepository.removeObserver(locationObserver);
+        }
+    }
+
     /**
      * Checks and requests location permission if not already granted.
      *
@@ -238,8 +328,10 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
     }
 
     /**
-     * Updates the map UI with a specific location, centers the map on that location,
-     * and loads nearby jobs.
+     * Updates the map UI with a specific location. The map is centered on the first real fix
+     * only, so later updates do not undo the user's panning or reload the jobs in view. The
+     * my location button centers it again on request. Jobs for the new viewport are loaded
+     * once the camera is idle.
      *
      * @param location The location to update the UI with
      */
@@ -252,49 +344,72 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
         Log.d(TAG, "Updating map with location: " + location.getLatitude() + ", " + location.getLongitude());
         LatLng position = new LatLng(location.getLatitude(), location.getLongitude());
         currentPosition = position;
+        if (centeredOnUser) {
+            return;
+        }
+        centeredOnUser = !LocationRepository.isDefaultLocation(location);
         googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(position, DEFAULT_ZOOM));
 
-        // Load and display nearby jobs
-        loadNearbyJobs(location, this::displayJobMarkers);
+        // Show the cached jobs around this position right away
+        List<Job> cachedJobs = tileCache.jobsWithinRadius(position.latitude, position.longitude, MAX_DISTANCE_KM);
+        if (!cachedJobs.isEmpty()) {
+            displayJobMarkers(cachedJobs);
+        }
+    }
+
+    /**
+     * Loads the jobs for the geohash tiles covering the visible part of the map.
+     * Cached tiles are reused, and loads for tiles that scrolled out of view are cancelled.
+     * When the shared job repository holds the visible area, the jobs are read from it instead.
+     */
+    private void loadVisibleJobs() {
+        if (googleMap == null) {
+            return;
+        }
+        LatLngBounds bounds = googleMap.getProjection().getVisibleRegion().latLngBounds;
+        double minLatitude = bounds.southwest.latitude;
+        double maxLatitude = bounds.northeast.latitude;
+        double minLongitude = bounds.southwest.longitude;
+        double maxLongitude = bounds.northeast.longitude;
+        if (minLongitude > maxLongitude) {
+            // The view crosses the antimeridian
+            minLongitude = -180.0;
+            maxLongitude = 180.0;
+        }
+
+        // Other screens keep the jobs around the user in sync, use them instead of querying tiles
+        if (jobRepository.covers(minLatitude, minLongitude, maxLatitude, maxLongitude)) {
+            tileCache.cancelAll();
+            displayJobMarkers(jobRepository.jobsInBoundingBox(minLatitude, minLongitude, maxLatitude, maxLongitude));
+            return;
+        }
+
+        Set<String> tiles = GeoHash.coveringCells(minLatitude, minLongitude,
+                maxLatitude, maxLongitude, MAX_VISIBLE_TILES);
+        tileCache.cancelAllExcept(tiles);
+
+        // Runs right away when every tile is cached
+        double queryMinLongitude = minLongitude;
+        double queryMaxLongitude = maxLongitude;
+        tileCache.load(tiles, () -> displayJobMarkers(tileCache.jobsInBoundingBox(
+                minLatitude, queryMinLongitude, maxLatitude, queryMaxLongitude)));
     }
 
     /**
-     * Gets the device's current location and updates the map accordingly.
-     * If location cannot be determined, uses a default location.
+     * Observes the device's location and updates the map accordingly.
+     * If the last location is unavailable, the repository falls back to a default location.
      */
     private void getDeviceLocation() {
-        try {
-            if (locationPermissionGranted) {
-                Log.d(TAG, "Getting device location");
-                fusedLocationClient.getLastLocation()
-                        .addOnSuccessListener(this, location -> {
-                            if (location != null) {
-                                Log.d(TAG, "Got location: " + location.getLatitude() + ", " + location.getLongitude());
-                                lastKnownLocation = location;
-                                updateLocationUI(location);
-                            } else {
-                                Log.d(TAG, "Current location is null, using default location");
-                                // Use a default location instead
-                                Location defaultLocation = new Location("");
-                                defaultLocation.setLatitude(44.6488);  // Halifax
-                                defaultLocation.setLongitude(-63.5752);
-                                updateLocationUI(defaultLocation);
-                            }
-                        })
-                        .addOnFailureListener(this, e -> {
-                            Log.e(TAG, "Exception: " + e.getMessage());
-                            Toast.makeText(MapActivity.this, "Error getting location: " + e.getMessage(),
-                                    Toast.LENGTH_SHORT).show();
-                        });
-            }
-        } catch (SecurityException e) {
-            Log.e(TAG, "SecurityException: " + e.getMessage());
-            Toast.makeText(this, "Exception: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+        if (locationRepository == null) {
+            return;
         }
+        Log.d(TAG, "Getting device location");
+        locationRepository.observe(locationObserver);
     }
 
     /**
      * Loads nearby jobs from Firebase database based on user's location.
+     * Only the jobs within MAX_DISTANCE_KM are downloaded, using a geohash range query.
      *
      * @param location The user's current location
      * @param callback Consumer function to handle the list of jobs after loading
@@ -307,175 +422,155 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
         }
 
         Log.d(TAG, "Loading jobs near: " + location.getLatitude() + ", " + location.getLongitude());
-        final List<Job> nearbyJobs = new ArrayList<>();
-
-        jobsDatabase.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                Log.d(TAG, "Firebase data received: " + snapshot.getChildrenCount() + " items");
 
-                if (snapshot.getChildrenCount() == 0) {
-                    Log.w(TAG, "No jobs found in Firebase database!");
-                    Toast.makeText(MapActivity.this, "No jobs found in database", Toast.LENGTH_SHORT).show();
-                    callback.accept(new ArrayList<>());
-                    return;
-                }
+        jobCRUD.getJobsWithinRadius(location.getLatitude(), location.getLongitude(), MAX_DISTANCE_KM)
+                .addOnSuccessListener(jobs -> {
+                    Log.d(TAG, "Geo query returned " + jobs.size() + " jobs");
 
-                // Loop through each job entry
-                for (DataSnapshot jobSnapshot : snapshot.getChildren()) {
-                    try {
-                        // Log the raw data for debugging
-                        Log.d(TAG, "Job data: " + jobSnapshot.getKey() + " -> " + jobSnapshot.getValue());
-
-                        // Get job details from Firebase structure
-                        String name = jobSnapshot.child("name").getValue(String.class);
-                        String description = jobSnapshot.child("description").getValue(String.class);
-
-                        // Try to get latitude and longitude first
-                        Double latitude = jobSnapshot.child("Latitude").getValue(Double.class);
-                        Double longitude = jobSnapshot.child("Longitude").getValue(Double.class);
-
-                        // If latitude or longitude is null, check lowercase field names
-                        if (latitude == null) {
-                            latitude = jobSnapshot.child("latitude").getValue(Double.class);
-                        }
-                        if (longitude == null) {
-                            longitude = jobSnapshot.child("longitude").getValue(Double.class);
-                        }
-
-                        // If still null, try to get location ID and convert to coordinates
-                        if (latitude == null || longitude == null) {
-                            Integer locationId = jobSnapshot.child("location").getValue(Integer.class);
-                            if (locationId != null) {
-                                // Convert location ID to coordinates
-                                double[] coordinates = getCoordinatesForLocationId(locationId);
-                                latitude = coordinates[0];
-                                longitude = coordinates[1];
-                                Log.d(TAG, "Converted location ID " + locationId + " to coordinates: " +
-                                        latitude + "," + longitude);
-                            }
-                        }
-
-                        if (name != null && latitude != null && longitude != null) {
-                            Log.d(TAG, "Creating job object for: " + name + " at " + latitude + "," + longitude);
-
-                            Job job = new Job();
-                            job.setId(jobSnapshot.getKey());
-                            job.setName(name);
-                            job.setDescription(description != null ? description : "No description available");
-                            job.setLatitude(latitude);
-                            job.setLongitude(longitude);
-                            job.setStatus("open");
-
-                            nearbyJobs.add(job);
-                            Log.d(TAG, "Added job to list: " + name);
-                        } else {
-                            Log.w(TAG, "Skipping job with missing data: " + jobSnapshot.getKey() +
-                                    " Name: " + name + ", Lat: " + latitude + ", Lng: " + longitude);
-                        }
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error processing job " + jobSnapshot.getKey() + ": " + e.getMessage(), e);
+                    if (jobs.isEmpty()) {
+                        Log.w(TAG, "No jobs found near the current location");
                     }
-                }
-
-                Log.d(TAG, "Total jobs found: " + nearbyJobs.size());
-                callback.accept(nearbyJobs);
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Firebase error: " + error.getMessage());
-                Toast.makeText(MapActivity.this,
-                        "Failed to load jobs: " + error.getMessage(), Toast.LENGTH_SHORT).show();
-                callback.accept(new ArrayList<>());
-            }
-        });
+                    callback.accept(jobs);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Firebase error: " + e.getMessage());
+                    Toast.makeText(MapActivity.this,
+                            "Failed to load jobs: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    callback.accept(new ArrayList<>());
+                });
     }
 
     /**
-     * Converts a location ID to geographic coordinates.
+     * Displays markers on the map for each job in the provided list.
+     * Markers are matched to jobs by ID, so only the markers for jobs that were added,
+     * removed or changed since the last call are touched. Large lists are clustered.
      *
-     * @param locationId The location identifier
-     * @return An array with latitude and longitude values
+     * @param jobs List of jobs to display as markers
      */
-    private double[] getCoordinatesForLocationId(int locationId) {
-        // You would define mappings from location IDs to actual coordinates
-        // This is just an example
-        switch (locationId) {
-            case 1:
-                return new double[]{44.6488, -63.5752}; // Halifax
-            case 2:
-                return new double[]{45.5017, -73.5673}; // Montreal
-            case 3:
-                return new double[]{43.6532, -79.3832}; // Toronto
-            default:
-                // Return a default location or nearby location
-                return new double[]{44.6488, -63.5752}; // Default to Halifax
+    public void displayJobMarkers(List<Job> jobs) {
+        Log.d(TAG, "Displaying " + jobs.size() + " job markers");
+
+        if (clusterManager != null && jobs.size() > CLUSTER_THRESHOLD) {
+            updatePlainMarkers(new ArrayList<>());
+            updateClusterItems(jobs);
+        } else {
+            if (clusterManager != null) {
+                updateClusterItems(new ArrayList<>());
+            }
+            updatePlainMarkers(jobs);
         }
+
+        if (jobs.isEmpty()) {
+            Log.w(TAG, "No jobs to display on map!");
+        }
+        Log.d(TAG, "Total markers on map: " + jobMarkers.size() + ", clustered jobs: " + clusterItemsByKey.size());
     }
 
     /**
-     * Determines if a job is within the specified radius of the user's location.
+     * Diffs the plain markers on the map against the given jobs
      *
-     * @param userLocation The user's current location
-     * @param job The job to check
-     * @return true if the job is nearby and open, false otherwise
+     * @param jobs The jobs that should have a marker
      */
-    private boolean isJobNearby(Location userLocation, Job job) {
-        if ("open".equals(job.getStatus())) {
-            float[] results = new float[1];
-            Location.distanceBetween(
-                    userLocation.getLatitude(), userLocation.getLongitude(),
-                    job.getLatitude(), job.getLongitude(),
-                    results);
-
-            // Convert meters to kilometers
-            float distanceInKm = results[0] / 1000;
-
-            return distanceInKm <= MAX_DISTANCE_KM;
+    private void updatePlainMarkers(List<Job> jobs) {
+        Map<String, Job> wanted = jobsByKey(jobs);
+
+        // Remove markers for jobs that are gone
+        Iterator<Map.Entry<String, Marker>> iterator = markersByKey.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Marker> entry = iterator.next();
+            if (!wanted.containsKey(entry.getKey())) {
+                entry.getValue().remove();
+                markerJobsByKey.remove(entry.getKey());
+                iterator.remove();
+            }
         }
-        return false;
+
+        for (Map.Entry<String, Job> entry : wanted.entrySet()) {
+            Job job = entry.getValue();
+            Marker marker = markersByKey.get(entry.getKey());
+            JobClusterItem shown = markerJobsByKey.get(entry.getKey());
+
+            if (marker == null) {
+                JobClusterItem item = new JobClusterItem(job);
+                marker = googleMap.addMarker(new MarkerOptions()
+                        .position(new LatLng(job.getLatitude(), job.getLongitude()))
+                        .title(job.getName())
+                        .snippet(item.getSnippet())
+                        .icon(iconFor(job)));
+                if (marker != null) {
+                    markersByKey.put(entry.getKey(), marker);
+                    markerJobsByKey.put(entry.getKey(), item);
+                } else {
+                    Log.e(TAG, "Failed to add marker for: " + job.getName());
+                }
+            } else if (shown.differsFrom(job)) {
+                // Update the existing marker in place
+                shown.setJob(job);
+                marker.setPosition(shown.getPosition());
+                marker.setTitle(job.getName());
+                marker.setSnippet(shown.getSnippet());
+                marker.setIcon(iconFor(job));
+            }
+        }
+
+        jobMarkers.clear();
+        jobMarkers.addAll(markersByKey.values());
     }
 
     /**
-     * Displays markers on the map for each job in the provided list.
+     * Diffs the items in the cluster manager against the given jobs and reclusters
      *
-     * @param jobs List of jobs to display as markers
+     * @param jobs The jobs that should be in the cluster manager
      */
-    public void displayJobMarkers(List<Job> jobs) {
-        // Clear previous markers
-        for (Marker marker : jobMarkers) {
-            marker.remove();
+    private void updateClusterItems(List<Job> jobs) {
+        Map<String, Job> wanted = jobsByKey(jobs);
+        boolean changed = false;
+
+        Iterator<Map.Entry<String, JobClusterItem>> iterator = clusterItemsByKey.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JobClusterItem> entry = iterator.next();
+            if (!wanted.containsKey(entry.getKey())) {
+                clusterManager.removeItem(entry.getValue());
+                iterator.remove();
+                changed = true;
+            }
         }
-        jobMarkers.clear();
 
-        Log.d(TAG, "Displaying " + jobs.size() + " job markers");
+        for (Map.Entry<String, Job> entry : wanted.entrySet()) {
+            JobClusterItem item = clusterItemsByKey.get(entry.getKey());
+            if (item == null) {
+                item = new JobClusterItem(entry.getValue());
+                clusterItemsByKey.put(entry.getKey(), item);
+                clusterManager.addItem(item);
+                changed = true;
+            } else if (item.differsFrom(entry.getValue())) {
+                item.setJob(entry.getValue());
+                clusterManager.updateItem(item);
+                changed = true;
+            }
+        }
 
-        if (jobs.isEmpty()) {
-            Log.w(TAG, "No jobs to display on map!");
-            Toast.makeText(this, "No nearby jobs found", Toast.LENGTH_SHORT).show();
-            return;
+        if (changed) {
+            clusterManager.cluster();
         }
+    }
 
-        // Add new markers
+    /**
+     * Keys jobs the same way as the markers on the map, later duplicates win
+     */
+    private Map<String, Job> jobsByKey(List<Job> jobs) {
+        Map<String, Job> byKey = new HashMap<>();
         for (Job job : jobs) {
-            LatLng position = new LatLng(job.getLatitude(), job.getLongitude());
-            Log.d(TAG, "Creating marker for " + job.getName() + " at " + position.latitude + "," + position.longitude);
-
-            Marker marker = googleMap.addMarker(new MarkerOptions()
-                    .position(position)
-                    .title(job.getName())
-                    .snippet(job.getDescription()));
-
-            if (marker != null) {
-                jobMarkers.add(marker);
-                Log.d(TAG, "Successfully added marker for: " + job.getName());
-            } else {
-                Log.e(TAG, "Failed to add marker for: " + job.getName());
-            }
+            byKey.put(JobClusterItem.keyFor(job), job);
         }
+        return byKey;
+    }
 
-        Log.d(TAG, "Total markers on map: " + jobMarkers.size());
+    /**
+     * Gets the cached marker icon for a job's category
+     */
+    private BitmapDescriptor iconFor(Job job) {
+        return clusterRenderer != null ? clusterRenderer.iconFor(job.getCategory()) : null;
     }
 
     /**
@@ -496,6 +591,17 @@ public class MapActivity extends AppCompatActivity implements OnMapReadyCallback
         return jobMarkers;
     }
 
+    /**
+     * Cancels any tile loads still in flight.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (tileCache != null) {
+            tileCache.cancelAll();
+        }
+    }
+
     /**
      * Handles the up navigation action.
      *
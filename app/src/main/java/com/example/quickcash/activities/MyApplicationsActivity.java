@@ -2,7 +2,6 @@ package com.example.quickcash.activities;
 
 import android.os.Bundle;
 import android.util.Log;
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -11,12 +10,8 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.quickcash.R;
 import com.example.quickcash.entities.ApplicationData;
 import com.example.quickcash.utilities.ApplicationAdapter;
+import com.example.quickcash.utilities.ApplicationCRUD;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -49,9 +44,9 @@ public class MyApplicationsActivity extends AppCompatActivity {
     private List<ApplicationData> applicationList = new ArrayList<>();
 
     /**
-     * Reference to the Firebase database applications node
+     * Utility class for reading applications through their index nodes
      */
-    private DatabaseReference databaseReference;
+    private ApplicationCRUD applicationCRUD;
 
     /**
      * Email of the currently logged in user
@@ -82,7 +77,7 @@ public class MyApplicationsActivity extends AppCompatActivity {
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
 
         currentUserEmail = FirebaseAuth.getInstance().getCurrentUser().getEmail();
-        databaseReference = FirebaseDatabase.getInstance().getReference("applications");
+        applicationCRUD = new ApplicationCRUD();
 
         adapter = new ApplicationAdapter(applicationList, application -> {
             //** for when we click an application **
@@ -111,42 +106,21 @@ public class MyApplicationsActivity extends AppCompatActivity {
 
     /**
      * Fetches the current user's applications from Firebase.
-     * Filters applications by the current user's email.
+     * Only the applications listed under the user's applicationsByApplicant entry are read.
      * Updates the application list and refreshes the RecyclerView.
      *
      * @author Ethan Pancura
      */
     private void fetchApplications() {
-        databaseReference.orderByChild("email").equalTo(currentUserEmail)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    /**
-                     * Called when application data is successfully retrieved from Firebase.
-                     * Updates the application list and adapter with the fetched data.
-                     *
-                     * @param snapshot The data snapshot containing application data
-                     */
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        applicationList.clear();
-                        for (DataSnapshot data : snapshot.getChildren()) {
-                            ApplicationData app = data.getValue(ApplicationData.class);
-                            applicationList.add(app);
-                        }
-                        sortApplications();
-                        adapter.notifyDataSetChanged();
-                    }
-
-                    /**
-                     * Called when the database operation is cancelled or fails.
-                     * Logs the error message.
-                     *
-                     * @param error The database error details
-                     */
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e("MyApplicationsActivity", "DB Error: " + error.getMessage());
-                    }
-                });
+        applicationCRUD.getApplicationsByApplicant(currentUserEmail)
+                .addOnSuccessListener(applications -> {
+                    applicationList.clear();
+                    applicationList.addAll(applications);
+                    sortApplications();
+                    adapter.notifyDataSetChanged();
+                })
+                .addOnFailureListener(e ->
+                        Log.e("MyApplicationsActivity", "DB Error: " + e.getMessage()));
     }
 
     /**
@@ -4,18 +4,21 @@ import android.content.Intent;
 import android.os.Bundle;
 import android.util.Log;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.quickcash.R;
+import com.example.quickcash.entities.ApplicationCodec;
 import com.example.quickcash.entities.ApplicationData;
 import com.example.quickcash.entities.Job;
+import com.example.quickcash.utilities.ApplicationCRUD;
+import com.example.quickcash.utilities.DatabaseTasks;
 import com.example.quickcash.utilities.JobAdapter;
+import com.example.quickcash.utilities.JobCRUD;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.*;
+import com.google.firebase.database.DataSnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,8 +40,8 @@ public class MyJobsActivity extends AppCompatActivity {
     private RecyclerView recyclerView;
     private JobAdapter jobAdapter;
     private List<Job> jobList = new ArrayList<>();
-    private DatabaseReference applicationsRef;
-    private DatabaseReference jobsRef;
+    private ApplicationCRUD applicationCRUD;
+    private final JobCRUD jobCRUD = new JobCRUD();
     private String currentUserEmail;
 
     @Override
@@ -67,54 +70,35 @@ public class MyJobsActivity extends AppCompatActivity {
 
         //initialize database references and load jobs
         currentUserEmail = FirebaseAuth.getInstance().getCurrentUser().getEmail();
-        applicationsRef = FirebaseDatabase.getInstance().getReference("applications");
-        jobsRef = FirebaseDatabase.getInstance().getReference("jobs");
+        applicationCRUD = new ApplicationCRUD();
 
         loadAcceptedJobs();
     }
 
     /**
-     * Queries the database to find all accepted applications for the current user.
-     * For each accepted application, it fetches associated job details.
+     * Queries the current user's applicationsByApplicant entry for accepted applications.
+     * The index entries carry the job ID, so the applications themselves are not read.
+     * The jobs of the accepted applications are then read together and shown in one update.
      */
     private void loadAcceptedJobs() {
-        applicationsRef.orderByChild("email").equalTo(currentUserEmail)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        for (DataSnapshot data : snapshot.getChildren()) {
-                            ApplicationData application = data.getValue(ApplicationData.class);
-                            if (application != null && "accepted".equalsIgnoreCase(application.getStatus())) {
-                                String jobId = application.getJobId();
-                                fetchJobDetails(jobId);
-                            }
+        DatabaseTasks.read(applicationCRUD.applicantIndex(currentUserEmail).orderByChild("status").equalTo("accepted"))
+                .onSuccessTask(snapshot -> {
+                    List<String> jobIds = new ArrayList<>();
+                    for (DataSnapshot data : snapshot.getChildren()) {
+                        ApplicationData entry = ApplicationCodec.fromSnapshot(data);
+                        if (entry != null && entry.getJobId() != null) {
+                            jobIds.add(entry.getJobId());
                         }
                     }
-
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e("MyJobsActivity", "Error loading applications: " + error.getMessage());
-                    }
-                });
-    }
-
-    private void fetchJobDetails(String jobId) {
-        jobsRef.child(jobId).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                Job job = snapshot.getValue(Job.class);
-                if (job != null) {
-                    job.setId(snapshot.getKey());
-                    jobList.add(job);
+                    return jobCRUD.readJobs(jobIds);
+                })
+                .addOnSuccessListener(jobs -> {
+                    jobList.clear();
+                    jobList.addAll(jobs);
                     jobAdapter.notifyDataSetChanged();
-                }
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e("MyJobsActivity", "Error loading job: " + error.getMessage());
-            }
-        });
+                })
+                .addOnFailureListener(e ->
+                        Log.e("MyJobsActivity", "Error loading accepted jobs: " + e.getMessage()));
     }
 
     @Override
@@ -1,25 +1,24 @@
 package com.example.quickcash.activities;
 
-import android.location.Address;
-import android.location.Geocoder;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
 import com.example.quickcash.R;
 import com.example.quickcash.entities.ApplicationData;
 import com.example.quickcash.entities.Job;
+import com.example.quickcash.utilities.ApplicationCRUD;
+import com.example.quickcash.utilities.JobCRUD;
+import com.example.quickcash.utilities.JobStatus;
+import com.example.quickcash.utilities.ReverseGeocodeCache;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.*;
 
-import java.io.IOException;
-import java.util.List;
-import java.util.Locale;
 
 
 /**
@@ -40,7 +39,8 @@ public class MyJobsDetailsActivity extends AppCompatActivity {
     private String jobId;
     private String userEmail;
 
-    private DatabaseReference jobsRef, applicationsRef;
+    private ApplicationCRUD applicationCRUD;
+    private final JobCRUD jobCRUD = new JobCRUD();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -64,66 +64,52 @@ public class MyJobsDetailsActivity extends AppCompatActivity {
         jobId = getIntent().getStringExtra("jobId");
         userEmail = FirebaseAuth.getInstance().getCurrentUser().getEmail();
 
-        jobsRef = FirebaseDatabase.getInstance().getReference("jobs");
-        applicationsRef = FirebaseDatabase.getInstance().getReference("applications");
+        applicationCRUD = new ApplicationCRUD();
 
         loadJobAndApplicationDetails();
     }
 
     /**
      * Loads job details and the user's application details.
-     * Displays all relevant info and controls the "Complete" button visibility.
+     * Both are read in parallel, then all relevant info is displayed and the
+     * "Complete" button is shown if the application was accepted and the job can still be completed.
      */
     private void loadJobAndApplicationDetails() {
-        //load job info
-        jobsRef.child(jobId).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                Job job = snapshot.getValue(Job.class);
-                if (job != null) {
-                    jobTitleTextView.setText(job.getName());
-                    jobStatusTextView.setText("Job Status: " + job.getStatus());
-
-                    if ("Completed".equalsIgnoreCase(job.getStatus())) {
-                        disableButton("Already Completed");
-                    }
-
-                    getAddressFromLatLng(job.getLatitude(), job.getLongitude());
-                }
+        Task<Job> jobTask = jobCRUD.getJob(jobId);
+        Task<ApplicationData> applicationTask = applicationCRUD.getApplicationToJob(userEmail, jobId);
+
+        Tasks.whenAllComplete(jobTask, applicationTask).addOnCompleteListener(done -> {
+            JobStatus jobStatus = null;
+            if (jobTask.isSuccessful() && jobTask.getResult() != null) {
+                Job job = jobTask.getResult();
+                jobTitleTextView.setText(job.getName());
+                jobStatusTextView.setText("Job Status: " + job.getStatus());
+                jobStatus = JobStatus.fromValue(job.getStatus());
+                getAddressFromLatLng(job.getLatitude(), job.getLongitude());
+            } else {
+                Toast.makeText(this, "Failed to load job", Toast.LENGTH_SHORT).show();
             }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Toast.makeText(MyJobsDetailsActivity.this, "Failed to load job", Toast.LENGTH_SHORT).show();
+            if (!applicationTask.isSuccessful()) {
+                Toast.makeText(this, "Failed to load application", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            ApplicationData app = applicationTask.getResult();
+            if (app == null) {
+                return;
+            }
+            appStatusTextView.setText("Application Status: " + app.getStatus());
+            appMessageTextView.setText("Message: " + app.getMessage());
+
+            if (!"accepted".equalsIgnoreCase(app.getStatus())) {
+                completeButton.setVisibility(View.GONE);
+            } else if (jobStatus == JobStatus.COMPLETED || jobStatus == JobStatus.PAID) {
+                completeButton.setVisibility(View.VISIBLE);
+                disableButton("Already Completed");
+            } else {
+                enableCompleteButton();
             }
         });
-
-        //load application info
-        applicationsRef.orderByChild("email").equalTo(userEmail)
-                .addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot snapshot) {
-                        for (DataSnapshot data : snapshot.getChildren()) {
-                            ApplicationData app = data.getValue(ApplicationData.class);
-                            if (app != null && jobId.equals(app.getJobId())) {
-                                appStatusTextView.setText("Application Status: " + app.getStatus());
-                                appMessageTextView.setText("Message: " + app.getMessage());
-
-                                if ("accepted".equalsIgnoreCase(app.getStatus())) {
-                                    enableCompleteButton();
-                                } else {
-                                    completeButton.setVisibility(View.GONE);
-                                }
-                                return;
-                            }
-                        }
-                    }
-
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Toast.makeText(MyJobsDetailsActivity.this, "Failed to load application", Toast.LENGTH_SHORT).show();
-                    }
-                });
     }
 
     /**
@@ -134,27 +120,30 @@ public class MyJobsDetailsActivity extends AppCompatActivity {
      * @param lng The job's longitude
      */
     private void getAddressFromLatLng(double lat, double lng) {
-        Geocoder geocoder = new Geocoder(this, Locale.getDefault());
-        try {
-            List<Address> addresses = geocoder.getFromLocation(lat, lng, 1);
-            if (addresses != null && !addresses.isEmpty()) {
-                Address address = addresses.get(0);
+        //lookup runs in the background, repeated lookups come from the cache
+        ReverseGeocodeCache.getInstance(this).lookup(lat, lng, new ReverseGeocodeCache.AddressListener() {
+            @Override
+            public void onAddressResolved(ReverseGeocodeCache.CachedAddress address) {
                 //full street address
-                String addressText = address.getAddressLine(0);
-                TextView addressTextView = findViewById(R.id.jobAddressTextView);
-                addressTextView.setText("Address: " + addressText);
+                String addressText = address.getAddressLine();
+                if (addressText != null) {
+                    TextView addressTextView = findViewById(R.id.jobAddressTextView);
+                    addressTextView.setText("Address: " + addressText);
+                }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Unable to get address", Toast.LENGTH_SHORT).show();
-        }
+
+            @Override
+            public void onAddressUnavailable() {
+                Toast.makeText(MyJobsDetailsActivity.this, "Unable to get address", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
 
     private void enableCompleteButton() {
         completeButton.setVisibility(View.VISIBLE);
         completeButton.setOnClickListener(v -> {
-            jobsRef.child(jobId).child("status").setValue("Completed")
+            jobCRUD.transition(jobId, JobStatus.COMPLETED)
                     .addOnSuccessListener(aVoid -> {
                         disableButton("Completed");
                         Toast.makeText(MyJobsDetailsActivity.this, "Job marked as completed!", Toast.LENGTH_SHORT).show();
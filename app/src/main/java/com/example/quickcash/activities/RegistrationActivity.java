@@ -14,6 +14,7 @@ import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.quickcash.entities.User;
+import com.example.quickcash.utilities.DatabaseProvider;
 import com.example.quickcash.utilities.FirebaseCRUD;
 import com.example.quickcash.utilities.Validator;
 import com.google.android.gms.tasks.Task;
@@ -24,7 +25,6 @@ import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
 import androidx.appcompat.app.ActionBar;
@@ -82,7 +82,7 @@ public class RegistrationActivity extends AppCompatActivity {
 
         //Initialize database and firebase auth.
         mAuth = FirebaseAuth.getInstance();
-        mDatabase = FirebaseDatabase.getInstance().getReference();
+        mDatabase = DatabaseProvider.getInstance().getRootReference();
 
         //onclick registration
         btnRegister.setOnClickListener(v -> {
@@ -135,7 +135,7 @@ public class RegistrationActivity extends AppCompatActivity {
             return;
         }
 
-        firebaseCRUD.readUser(user.getUsername(), new ValueEventListener() {
+        firebaseCRUD.readUsername(user.getUsername(), new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot snapshot) {
                 if (snapshot.exists()) {
@@ -9,15 +9,15 @@ import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.quickcash.R;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.example.quickcash.entities.ApplicationData;
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.utilities.ApplicationCRUD;
+import com.example.quickcash.utilities.JobCRUD;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 
 /**
  * ReviewApplicationActivity allows employers to review job applications and make decisions.
@@ -61,8 +61,17 @@ public class ReviewApplicationActivity extends AppCompatActivity {
     /** The name of the job being applied for */
     private String jobName;
 
-    /** Firebase database reference */
-    private DatabaseReference databaseReference;
+    /** The ID of the job applied to, read with the application */
+    private String jobId;
+
+    /** The email of the applicant, read with the application */
+    private String email;
+
+    /** Utility class for application CRUD operations */
+    private final ApplicationCRUD applicationCRUD = new ApplicationCRUD();
+
+    /** Utility class for job CRUD operations, used to hire the applicant */
+    private final JobCRUD jobCRUD = new JobCRUD();
 
     /**
      * Initializes the activity, sets up UI components and loads application data.
@@ -76,9 +85,6 @@ public class ReviewApplicationActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_review_application);
 
-        // Initialize Firebase
-        databaseReference = FirebaseDatabase.getInstance().getReference();
-
         // Initialize views
         jobTitle = findViewById(R.id.jobTitle);
         applicantEmail = findViewById(R.id.applicantEmail);
@@ -133,94 +139,81 @@ public class ReviewApplicationActivity extends AppCompatActivity {
 
     /**
      * Loads application details from Firebase based on the application ID.
-     * Updates UI elements with the application information.
+     * If the job name was not passed in, the job is read once the application is known,
+     * and the UI is updated once both reads are done.
      */
     private void loadApplicationDetails() {
-        DatabaseReference applicationRef = databaseReference.child("applications").child(applicationId);
-        applicationRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                if (!dataSnapshot.exists()) {
-                    Toast.makeText(ReviewApplicationActivity.this, "Application not found", Toast.LENGTH_SHORT).show();
-                    finish();
-                    return;
-                }
-
-                // Get application data
-                String email = dataSnapshot.child("email").getValue(String.class);
-                String message = dataSnapshot.child("message").getValue(String.class);
-                String jobId = dataSnapshot.child("jobId").getValue(String.class);
-
-                // Update UI with application details
-                if (email != null) {
-                    applicantEmail.setText("From: " + email);
-                }
-
-                if (message != null) {
-                    applicationMessage.setText(message);
-                }
-
-                // If we already have the job name from the intent, use it
-                if (jobName != null && !jobName.isEmpty()) {
-                    jobTitle.setText("Job: " + jobName);
-                } else if (jobId != null) {
-                    // Otherwise, look up the job name using the job ID
-                    loadJobName(jobId);
-                } else {
-                    jobTitle.setText("Unknown Job");
-                }
-            }
-
-            @Override
-            public void onCancelled(@NonNull DatabaseError databaseError) {
-                Log.e(TAG, "Error loading application: " + databaseError.getMessage());
-                Toast.makeText(ReviewApplicationActivity.this, "Error loading application details", Toast.LENGTH_SHORT).show();
-                finish();
-            }
-        });
+        Task<ApplicationData> applicationTask = applicationCRUD.getApplication(applicationId);
+        applicationTask
+                .onSuccessTask(application -> {
+                    boolean needsJob = application != null && application.getJobId() != null
+                            && (jobName == null || jobName.isEmpty());
+                    return needsJob ? jobCRUD.getJob(application.getJobId()) : Tasks.forResult((Job) null);
+                })
+                .addOnCompleteListener(jobTask -> {
+                    if (!applicationTask.isSuccessful()) {
+                        Log.e(TAG, "Error loading application: " + applicationTask.getException());
+                        Toast.makeText(this, "Error loading application details", Toast.LENGTH_SHORT).show();
+                        finish();
+                        return;
+                    }
+                    ApplicationData application = applicationTask.getResult();
+                    if (application == null) {
+                        Toast.makeText(this, "Application not found", Toast.LENGTH_SHORT).show();
+                        finish();
+                        return;
+                    }
+                    showApplication(application, jobTask.isSuccessful() ? jobTask.getResult() : null);
+                });
     }
 
     /**
-     * Loads the job name from Firebase based on the job ID.
+     * Updates UI elements with the application information.
      *
-     * @param jobId The ID of the job to look up
+     * @param application The application being reviewed
+     * @param job The job applied to, or null if the job name is already known or could not be read
      */
-    private void loadJobName(String jobId) {
-        DatabaseReference jobRef = databaseReference.child("jobs").child(jobId);
-        jobRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                if (dataSnapshot.exists()) {
-                    String name = dataSnapshot.child("name").getValue(String.class);
-                    if (name != null) {
-                        jobName = name;
-                        jobTitle.setText("Job: " + name);
-                    } else {
-                        jobTitle.setText("Job ID: " + jobId);
-                    }
-                } else {
-                    jobTitle.setText("Job ID: " + jobId);
-                }
-            }
+    private void showApplication(ApplicationData application, Job job) {
+        email = application.getEmail();
+        jobId = application.getJobId();
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError databaseError) {
-                Log.e(TAG, "Error loading job: " + databaseError.getMessage());
-                jobTitle.setText("Job ID: " + jobId);
-            }
-        });
+        if (email != null) {
+            applicantEmail.setText("From: " + email);
+        }
+
+        if (application.getMessage() != null) {
+            applicationMessage.setText(application.getMessage());
+        }
+
+        // If we already have the job name from the intent, use it
+        if (jobName != null && !jobName.isEmpty()) {
+            jobTitle.setText("Job: " + jobName);
+        } else if (job != null && job.getName() != null) {
+            jobName = job.getName();
+            jobTitle.setText("Job: " + jobName);
+        } else if (jobId != null) {
+            jobTitle.setText("Job ID: " + jobId);
+        } else {
+            jobTitle.setText("Unknown Job");
+        }
     }
 
     /**
-     * Updates the application status in Firebase.
+     * Updates the application status in Firebase, along with the application's index entries.
      * Changes the status to either "accepted" or "rejected" and returns to the applications list.
+     * Accepting hires the applicant, which also rejects the job's other applications and closes the job.
      *
      * @param status The new status for the application ("accepted" or "rejected")
      */
     private void updateApplicationStatus(String status) {
-        DatabaseReference applicationRef = databaseReference.child("applications").child(applicationId).child("status");
-        applicationRef.setValue(status)
-                .addOnSuccessListener(aVoid -> {
+        if (jobId == null || email == null) {
+            Toast.makeText(this, "Application details are still loading", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        Task<Void> update = "accepted".equals(status)
+                ? jobCRUD.hire(jobId, applicationId)
+                : applicationCRUD.updateStatus(applicationId, jobId, email, status);
+        update.addOnSuccessListener(aVoid -> {
                     Toast.makeText(ReviewApplicationActivity.this,
                             "Application " + status, Toast.LENGTH_SHORT).show();
 
@@ -3,7 +3,10 @@ package com.example.quickcash.activities;
 import android.content.Intent;
 import android.location.Address;
 import android.location.Geocoder;
+import android.location.Location;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.util.Log;
@@ -25,8 +28,14 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.quickcash.R;
 import com.example.quickcash.entities.Job;
 import com.example.quickcash.utilities.JobAdapter;
+import com.example.quickcash.utilities.JobCRUD;
+import com.example.quickcash.utilities.JobMirror;
+import com.example.quickcash.utilities.JobPager;
+import com.example.quickcash.utilities.LocationRepository;
 import com.example.quickcash.utilities.LocationUtils;
+import com.example.quickcash.utilities.OfflineSync;
 import com.google.android.gms.common.api.Status;
+import com.google.android.gms.location.Priority;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.libraries.places.api.Places;
 import com.google.android.libraries.places.api.model.Place;
@@ -35,17 +44,13 @@ import com.google.android.libraries.places.widget.AutocompleteSupportFragment;
 import com.google.android.libraries.places.widget.listener.PlaceSelectionListener;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Predicate;
 
 public class SearchJobsActivity extends AppCompatActivity {
 
@@ -63,7 +68,49 @@ public class SearchJobsActivity extends AppCompatActivity {
     private double searchLongitude;
     private boolean useSearchLocation = false;
 
-    private List<Job> allJobs = new ArrayList<>();
+    // Jobs currently shown in the list, read one page at a time as the list is scrolled
+    private final List<Job> displayedJobs = new ArrayList<>();
+    private JobPager jobPager;
+    private static final int PAGE_SIZE = 20;
+    // Pages kept in memory, pages scrolled past are dropped and read again when scrolling back
+    private static final int MAX_PAGES = 5;
+    // Number of rows from either end of the list at which the next page is read
+    private static final int PREFETCH_DISTANCE = 5;
+    private boolean pageLoadPending = false;
+
+    // Radius (in km) of jobs loaded around the search location
+    private static final double SEARCH_RADIUS_KM = 50.0;
+
+    // Delay after the last keystroke before the search text starts a new listing
+    private static final long SEARCH_DEBOUNCE_MS = 300;
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable searchRunnable = this::loadJobList;
+
+    private JobCRUD jobCRUD;
+
+    // Lists jobs from the local mirror while offline, see loadMirroredJobs
+    private OfflineSync offlineSync;
+    private JobMirror jobMirror;
+    private int mirrorListing = 0;
+    /** Lists again from the pager or the mirror once the client is known online or offline */
+    private final OfflineSync.FreshnessListener freshnessListener = (connected, lastConnectedAt) -> {
+        if (offlineSync.isOffline() != (jobPager == null)) {
+            loadJobList();
+        }
+    };
+
+    // Distance (in km) the user has to move before jobs around them are loaded again
+    private static final double SEARCH_REQUERY_DISTANCE_KM = 1.0;
+
+    private LocationRepository locationRepository;
+    private final LocationRepository.LocationObserver locationObserver =
+            new LocationRepository.LocationObserver(Priority.PRIORITY_BALANCED_POWER_ACCURACY,
+                    SEARCH_REQUERY_DISTANCE_KM) {
+                @Override
+                public void onLocationChanged(Location location) {
+                    onUserLocationChanged(location);
+                }
+            };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -76,25 +123,79 @@ public class SearchJobsActivity extends AppCompatActivity {
         }
 
         //get location
+        locationRepository = LocationRepository.getInstance(this);
         userLatitude = getIntent().getDoubleExtra("userLatitude", 0.0);
         userLongitude = getIntent().getDoubleExtra("userLongitude", 0.0);
 
         if (userLatitude == 0.0 && userLongitude == 0.0) {
-            //if location cant be found, use Halifax
-            userLatitude = 44.6488;
-            userLongitude = -63.5752;
+            //if location cant be found, use the latest shared location or Halifax
+            Location location = locationRepository.getCurrentLocation();
+            if (location == null) {
+                location = LocationRepository.defaultLocation();
+            }
+            userLatitude = location.getLatitude();
+            userLongitude = location.getLongitude();
         }
 
         //initialize search location with user location
         searchLatitude = userLatitude;
         searchLongitude = userLongitude;
 
+        jobCRUD = new JobCRUD();
+        offlineSync = OfflineSync.getInstance(this);
+        jobMirror = JobMirror.getInstance(this);
+
         initializeToolbar();
         initializeUI();
         setupPlacesAutocomplete();
+        //shows the first page of jobs as soon as it is read
         loadJobList();
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        locationRepository.observe(locationObserver);
+        offlineSync.observe(freshnessListener);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        locationRepository.removeObserver(locationObserver);
+        offlineSync.removeObserver(freshnessListener);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        searchHandler.removeCallbacks(searchRunnable);
+    }
+
+    /**
+     * Reloads the jobs around the user once they have moved more than
+     * SEARCH_REQUERY_DISTANCE_KM, unless a searched place is being used
+     * @param location The new user location
+     */
+    private void onUserLocationChanged(Location location) {
+        if (LocationRepository.isDefaultLocation(location)) {
+            return;
+        }
+        double movedKm = LocationUtils.calculateDistance(userLatitude, userLongitude,
+                location.getLatitude(), location.getLongitude());
+        if (movedKm <= SEARCH_REQUERY_DISTANCE_KM) {
+            return;
+        }
+
+        userLatitude = location.getLatitude();
+        userLongitude = location.getLongitude();
+        if (!useSearchLocation) {
+            searchLatitude = userLatitude;
+            searchLongitude = userLongitude;
+            loadJobList();
+        }
+    }
+
     /**
      * Sets up the Places Autocomplete functionality
      */
@@ -124,8 +225,8 @@ public class SearchJobsActivity extends AppCompatActivity {
                         Toast.makeText(SearchJobsActivity.this,
                                 "Searching near: " + placeName, Toast.LENGTH_SHORT).show();
 
-                        //Re-filter jobs based on the selected location
-                        filterJobs(searchBar.getText().toString().trim());
+                        //Reload the jobs around the selected location
+                        loadJobList();
                     }
                 }
 
@@ -156,7 +257,7 @@ public class SearchJobsActivity extends AppCompatActivity {
         categoryFilter.setAdapter(adapter);
 
         jobRecyclerView.setLayoutManager(new LinearLayoutManager(this));
-        jobAdapter = new JobAdapter(new ArrayList<>(), this, userLatitude, userLongitude, job -> {
+        jobAdapter = new JobAdapter(displayedJobs, this, userLatitude, userLongitude, job -> {
             if ("Employee".equalsIgnoreCase(getIntent().getStringExtra("currentUserRole"))) {
                 Intent intent = new Intent(SearchJobsActivity.this, JobDetailsActivity.class);
                 intent.putExtra("jobId", job.getId());
@@ -165,6 +266,28 @@ public class SearchJobsActivity extends AppCompatActivity {
         });
         jobRecyclerView.setAdapter(jobAdapter);
 
+        //load the next page when the list is scrolled near the end, and a dropped page
+        //again when it is scrolled back near the start
+        jobRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager == null || jobPager == null || pageLoadPending || jobPager.isLoading()) {
+                    return;
+                }
+                //adapter updates are not allowed inside a scroll callback
+                if (dy > 0 && jobPager.hasNext()
+                        && layoutManager.findLastVisibleItemPosition() >= displayedJobs.size() - PREFETCH_DISTANCE) {
+                    pageLoadPending = true;
+                    recyclerView.post(SearchJobsActivity.this::loadNextPage);
+                } else if (dy < 0 && jobPager.hasPrevious()
+                        && layoutManager.findFirstVisibleItemPosition() < PREFETCH_DISTANCE) {
+                    pageLoadPending = true;
+                    recyclerView.post(SearchJobsActivity.this::loadPreviousPage);
+                }
+            }
+        });
+
         //button to hard-set location to user location
         searchLocationButton.setText("Use My Location");
         searchLocationButton.setOnClickListener(v -> {
@@ -178,80 +301,91 @@ public class SearchJobsActivity extends AppCompatActivity {
                 autocompleteFragment.setText("");
             }
 
-            filterJobs(searchBar.getText().toString().trim());
+            loadJobList();
         });
 
         setupListeners();
     }
 
     /**
-     * This method loads the jobs from Firebase and populates the job list.
+     * This method starts a new paged listing of the jobs around the current search location
+     * and shows its first page as soon as it is read. Only jobs within SEARCH_RADIUS_KM that
+     * match the search text and category are listed, further pages load as the list is scrolled.
+     * While known to be offline the jobs are listed from the local mirror instead.
      * Added filtering for jobs posted by the current user when in Employee role.
      */
     private void loadJobList() {
-        DatabaseReference jobsRef = FirebaseDatabase.getInstance().getReference("jobs");
-
         // Get current user email for filtering
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
         final String currentUserEmail = currentUser != null ? currentUser.getEmail().toLowerCase() : "";
 
         // Get current user role from intent
-        String currentUserRole = getIntent().getStringExtra("currentUserRole");
-
-        jobsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot dataSnapshot) {
-                allJobs.clear();
-
-                for (DataSnapshot jobSnapshot : dataSnapshot.getChildren()) {
-                    String jobId = jobSnapshot.getKey();  // Get the job ID
-                    String jobName = jobSnapshot.child("name").getValue(String.class);
-                    String jobDescription = jobSnapshot.child("description").getValue(String.class);
-                    String jobCategory = jobSnapshot.child("category").getValue(String.class);
-                    Double lat = jobSnapshot.child("latitude").getValue(Double.class);
-                    Double lng = jobSnapshot.child("longitude").getValue(Double.class);
-                    String jobEmail = jobSnapshot.child("email").getValue(String.class);
-
-                    // Skip jobs posted by current user when in Employee role
-                    if ("Employee".equalsIgnoreCase(currentUserRole) &&
-                            jobEmail != null &&
-                            jobEmail.equalsIgnoreCase(currentUserEmail)) {
-                        Log.d("SearchJobs", "Skipping job posted by current user: " + jobName);
-                        continue;
-                    }
-
-                    if (jobName != null && lat != null && lng != null) {
-                        LatLng jobLocation = new LatLng(lat, lng);
-                        Job job = new Job(jobName, jobDescription, jobLocation, jobCategory);
-                        job.setId(jobId);  // Set the job ID
-                        job.setEmail(jobEmail);  // Set the job email
-                        allJobs.add(job);
-                    } else {
-                        Log.e("Firebase", "Skipping job due to missing location: " + jobName);
-                    }
-                }
-
-                updateJobList(allJobs);
+        final boolean employee = "Employee".equalsIgnoreCase(getIntent().getStringExtra("currentUserRole"));
+        final String input = searchBar.getText().toString().trim().toLowerCase();
+        final String selectedCategory = categoryFilter.getSelectedItem().toString();
+
+        Predicate<Job> filter = job -> {
+            // Skip jobs posted by current user when in Employee role
+            if (employee && job.getEmail() != null && job.getEmail().equalsIgnoreCase(currentUserEmail)) {
+                return false;
             }
+            boolean matchesSearch = input.isEmpty() || job.getName().toLowerCase().contains(input);
+            boolean matchesCategory = selectedCategory.equals("All") || selectedCategory.equals(job.getCategory());
+            return matchesSearch && matchesCategory;
+        };
+
+        updateJobList();
+        // Still connecting is not offline, the pager answers from the cache or the network
+        if (offlineSync.isOffline()) {
+            loadMirroredJobs(filter);
+            return;
+        }
+        jobPager = new JobPager(jobCRUD, searchLatitude, searchLongitude, SEARCH_RADIUS_KM, filter,
+                PAGE_SIZE, MAX_PAGES);
+        pageLoadPending = true;
+        loadNextPage();
+    }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError databaseError) {
-                Log.e("Firebase", "Failed to load jobs", databaseError.toException());
+    /**
+     * Lists the matching jobs of the local mirror while offline. The mirror holds the jobs
+     * around the user's last location, queryable by place without the network, so an offline
+     * search near there still finds them. The mirror is queried once and shown whole, there
+     * is nothing to page through
+     * @param filter The jobs to list
+     */
+    private void loadMirroredJobs(Predicate<Job> filter) {
+        jobPager = null;
+        final int listing = ++mirrorListing;
+        jobMirror.jobsWithin(searchLatitude, searchLongitude, SEARCH_RADIUS_KM).addOnCompleteListener(task -> {
+            // A newer search replaced the listing while the mirror was read
+            if (listing != mirrorListing || jobPager != null) {
+                return;
+            }
+            if (!task.isSuccessful()) {
+                Log.e("SearchJobs", "Failed to load saved jobs", task.getException());
+                Toast.makeText(this, "Failed to load jobs", Toast.LENGTH_SHORT).show();
+                return;
             }
+            for (Job job : task.getResult()) {
+                if (filter.test(job)) {
+                    displayedJobs.add(job);
+                }
+            }
+            jobAdapter.notifyItemRangeInserted(0, displayedJobs.size());
         });
     }
 
     /**
-     * This method updates the list of displayed jobs
-     * @param jobsToShow Accepts the list of filtered jobs as an argument.
+     * This method resets the list for a new listing. Distances are shown from the search
+     * location or user location based on the flag.
      */
-    private void updateJobList(List<Job> jobsToShow) {
-        sortJobsByDistance(jobsToShow);
-
+    private void updateJobList() {
+        //use the search location or user location based on flag
         double referenceLatitude = useSearchLocation ? searchLatitude : userLatitude;
         double referenceLongitude = useSearchLocation ? searchLongitude : userLongitude;
 
-        jobAdapter = new JobAdapter(jobsToShow, this, referenceLatitude, referenceLongitude, job -> {
+        displayedJobs.clear();
+        jobAdapter = new JobAdapter(displayedJobs, this, referenceLatitude, referenceLongitude, job -> {
             if ("Employee".equalsIgnoreCase(getIntent().getStringExtra("currentUserRole"))) {
                 Intent intent = new Intent(SearchJobsActivity.this, JobDetailsActivity.class);
                 intent.putExtra("jobId", job.getId());
@@ -263,67 +397,68 @@ public class SearchJobsActivity extends AppCompatActivity {
     }
 
     /**
-     * Sorts the jobs list by distance from user in ascending order
-     * @param jobs The list of jobs to sort
+     * Appends the next page of jobs to the list, dropping the first page
+     * once more than MAX_PAGES are shown
      */
-    private void sortJobsByDistance(List<Job> jobs) {
-        //use the search location or user location based on flag
-        final double referenceLatitude = useSearchLocation ? searchLatitude : userLatitude;
-        final double referenceLongitude = useSearchLocation ? searchLongitude : userLongitude;
-
-        jobs.sort((job1, job2) -> {
-            double distance1 = calculateDistance(job1, referenceLatitude, referenceLongitude);
-            double distance2 = calculateDistance(job2, referenceLatitude, referenceLongitude);
-            return Double.compare(distance1, distance2);
+    private void loadNextPage() {
+        final JobPager pager = jobPager;
+        pager.loadNext().addOnCompleteListener(task -> {
+            // A newer search replaced the listing while this page was read
+            if (pager != jobPager) {
+                return;
+            }
+            pageLoadPending = false;
+            if (!task.isSuccessful()) {
+                Log.e("SearchJobs", "Failed to load jobs", task.getException());
+                Toast.makeText(this, "Failed to load jobs", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            JobPager.PageChange change = task.getResult();
+            if (change.getRemoved() > 0) {
+                displayedJobs.subList(0, change.getRemoved()).clear();
+                jobAdapter.notifyItemRangeRemoved(0, change.getRemoved());
+            }
+            if (change.getAdded() > 0) {
+                int start = displayedJobs.size();
+                List<Job> jobs = pager.getJobs();
+                displayedJobs.addAll(jobs.subList(jobs.size() - change.getAdded(), jobs.size()));
+                jobAdapter.notifyItemRangeInserted(start, change.getAdded());
+            }
         });
     }
 
     /**
-     * Calculates the distance between a reference point and a job
-     * @param job The job to calculate distance for
-     * @param refLatitude Reference latitude
-     * @param refLongitude Reference longitude
-     * @return The distance in kilometers
-     */
-    private double calculateDistance(Job job, double refLatitude, double refLongitude) {
-        double jobLat, jobLng;
-
-        //get job coordinates (either from LatLng object or separate lat/lng)
-        if (job.getLocation() != null) {
-            jobLat = job.getLocation().latitude;
-            jobLng = job.getLocation().longitude;
-        } else {
-            jobLat = job.getLatitude();
-            jobLng = job.getLongitude();
-        }
-
-        //call LocationUtils class to calculate distance
-        return LocationUtils.calculateDistance(refLatitude, refLongitude, jobLat, jobLng);
-    }
-
-    /**
-     * Filters jobs on the list based on user input in the search bar
-     * and selected category from the filter
-     * @param input The search text entered by the user
+     * Reads the page before the first one shown again, dropping the last page
+     * once more than MAX_PAGES are shown
      */
-    private void filterJobs(String input) {
-        List<Job> filteredJobs = new ArrayList<>();
-
-        String selectedCategory = categoryFilter.getSelectedItem().toString();
-
-        for (Job job : allJobs) {
-            boolean matchesSearch = input.isEmpty() || job.getName().toLowerCase().contains(input.toLowerCase());
-            boolean matchesCategory = selectedCategory.equals("All") || job.getCategory().equals(selectedCategory);
-
-            if (matchesSearch && matchesCategory) {
-                filteredJobs.add(job);
+    private void loadPreviousPage() {
+        final JobPager pager = jobPager;
+        pager.loadPrevious().addOnCompleteListener(task -> {
+            if (pager != jobPager) {
+                return;
             }
-        }
-        updateJobList(filteredJobs);
+            pageLoadPending = false;
+            if (!task.isSuccessful()) {
+                Log.e("SearchJobs", "Failed to load jobs", task.getException());
+                return;
+            }
+            JobPager.PageChange change = task.getResult();
+            if (change.getRemoved() > 0) {
+                int start = displayedJobs.size() - change.getRemoved();
+                displayedJobs.subList(start, displayedJobs.size()).clear();
+                jobAdapter.notifyItemRangeRemoved(start, change.getRemoved());
+            }
+            if (change.getAdded() > 0) {
+                displayedJobs.addAll(0, pager.getJobs().subList(0, change.getAdded()));
+                jobAdapter.notifyItemRangeInserted(0, change.getAdded());
+            }
+        });
     }
 
     /**
-     * Sets up listeners for search bar and category selection.
+     * Sets up listeners for search bar and category selection. Typing only starts a new
+     * listing once the text has not changed for SEARCH_DEBOUNCE_MS, so a word typed quickly
+     * scans the geohash cells once instead of once per keystroke.
      */
     private void setupListeners() {
         //listener to react to search bar input changes
@@ -333,7 +468,8 @@ public class SearchJobsActivity extends AppCompatActivity {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                filterJobs(s.toString().trim());
+                searchHandler.removeCallbacks(searchRunnable);
+                searchHandler.postDelayed(searchRunnable, SEARCH_DEBOUNCE_MS);
             }
 
             @Override
@@ -343,7 +479,9 @@ public class SearchJobsActivity extends AppCompatActivity {
         categoryFilter.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
             @Override
             public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                filterJobs(searchBar.getText().toString().trim()); // Re-filter whenever a category is selected
+                // Re-filter whenever a category is selected, together with any pending search text
+                searchHandler.removeCallbacks(searchRunnable);
+                loadJobList();
             }
 
             @Override
@@ -15,11 +15,11 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
 import com.example.quickcash.R;
+import com.example.quickcash.utilities.DatabaseProvider;
+import com.example.quickcash.utilities.UserSession;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 
 /**
  * SettingsActivity provides user account management functions including role switching,
@@ -50,6 +50,15 @@ public class SettingsActivity extends AppCompatActivity {
     /** Store username */
     private String username;
 
+    /** Shared profile of the signed in user */
+    private UserSession userSession;
+
+    /** Shows the role whenever the user's profile is resolved or changes */
+    private final UserSession.SessionListener sessionListener = (name, user) -> {
+        username = name;
+        updateRoleDisplay(user.getRole());
+    };
+
     /**
      * Initializes the activity, sets up UI components and Firebase connections.
      *
@@ -70,7 +79,8 @@ public class SettingsActivity extends AppCompatActivity {
 
         // Initialize Firebase
         mAuth = FirebaseAuth.getInstance();
-        mDatabase = FirebaseDatabase.getInstance().getReference();
+        mDatabase = DatabaseProvider.getInstance().getRootReference();
+        userSession = UserSession.getInstance();
 
         // Initialize UI elements
         currentRoleText = findViewById(R.id.currentRoleText);
@@ -87,31 +97,26 @@ public class SettingsActivity extends AppCompatActivity {
     }
 
     /**
-     * Loads user data from Firebase database.
-     * Updates the UI with user role information.
+     * Loads user data from the shared user session, which is usually already resolved
+     * by the dashboard. Updates the UI with user role information.
      */
     private void loadUserData() {
         FirebaseUser user = mAuth.getCurrentUser();
         if (user != null) {
-            String email = user.getEmail().toLowerCase();
             currentRoleText.setText("Loading...");
-
-            mDatabase.child("users").get().addOnCompleteListener(task -> {
-                if (task.isSuccessful()) {
-                    for (DataSnapshot userSnapshot : task.getResult().getChildren()) {
-                        String userEmail = userSnapshot.child("email").getValue(String.class);
-                        if (userEmail != null && email.equals(userEmail.toLowerCase())) {
-                            username = userSnapshot.getKey();
-                            String role = userSnapshot.child("role").getValue(String.class);
-                            updateRoleDisplay(role);
-                            break;
-                        }
-                    }
-                }
-            });
+            userSession.observe(sessionListener);
         }
     }
 
+    /**
+     * Stops observing the user's profile.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        userSession.removeObserver(sessionListener);
+    }
+
     /**
      * Updates the role display text in the UI.
      *
@@ -169,25 +174,9 @@ public class SettingsActivity extends AppCompatActivity {
             String enteredEmail = emailInput.getText().toString().trim();
             FirebaseUser user = mAuth.getCurrentUser();
 
-            if (user != null) {
-                mDatabase.child("users").get().addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        boolean emailFound = false;
-                        for (DataSnapshot userSnapshot : task.getResult().getChildren()) {
-                            String userEmail = userSnapshot.child("email").getValue(String.class);
-                            if (enteredEmail.equals(userEmail)) {
-                                emailFound = true;
-                                username = userSnapshot.getKey();
-                                updateUserRole(newRole);
-                                dialog.dismiss();
-                                break;
-                            }
-                        }
-                        if (!emailFound) {
-                            Toast.makeText(SettingsActivity.this, "Incorrect email. Please try again.", Toast.LENGTH_SHORT).show();
-                        }
-                    }
-                });
+            if (user != null && enteredEmail.equalsIgnoreCase(user.getEmail())) {
+                updateUserRole(newRole);
+                dialog.dismiss();
             } else {
                 Toast.makeText(this, "Incorrect email. Please try again.", Toast.LENGTH_SHORT).show();
             }
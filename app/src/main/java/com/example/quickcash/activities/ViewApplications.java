@@ -2,10 +2,16 @@ package com.example.quickcash.activities;
 
 import com.example.quickcash.R;
 import com.example.quickcash.utilities.ApplicationAdapter;
+import com.example.quickcash.utilities.ApplicationCRUD;
+import com.example.quickcash.utilities.JobCRUD;
+import com.example.quickcash.utilities.SharedQueries;
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.entities.JobCodec;
 import com.example.quickcash.entities.ApplicationData;
 import android.content.Intent;
 import android.os.Bundle;
 import android.util.Log;
+import android.widget.Button;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -18,21 +24,22 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.HashMap;
+import java.util.Set;
 
 /**
  * Activity for employers to view and manage job applications for their posted jobs.
  * This activity displays all applications submitted to jobs created by the current user,
  * and allows them to accept or reject applications, as well as process payments for
- * completed jobs.
+ * completed jobs. Accepting an application hires the applicant, which also rejects the
+ * job's other applications and closes the job. Open applications can be selected with a
+ * long press and hired or rejected together in a single write.
  */
 public class ViewApplications extends AppCompatActivity implements ApplicationAdapter.OnApplicationClickListener {
 
@@ -45,6 +52,25 @@ public class ViewApplications extends AppCompatActivity implements ApplicationAd
     // Declare the noApplicationsText TextView.
     private TextView noApplicationsText;
 
+    // Jobs posted by the employer, keyed by ID, found through the jobsByEmployer index and
+    // kept up to date through their summaries, so decisions use the current job status
+    private final JobCRUD jobCRUD = new JobCRUD();
+    private final Map<String, Job> employerJobs = new HashMap<>();
+
+    // Application IDs from the applicationsByJob entries of the employer's jobs, keyed by job ID
+    private final ApplicationCRUD applicationCRUD = new ApplicationCRUD();
+    private final Map<String, List<String>> applicationIdsByJob = new HashMap<>();
+    // The applications last read, shown again when a job's status changes
+    private List<ApplicationData> loadedApplications;
+    // Incremented for every read, so a slow read cannot overwrite a newer one
+    private int readGeneration = 0;
+
+    // Open applications selected with a long press, for bulk accept / reject
+    private final Set<String> selectedIds = new LinkedHashSet<>();
+    private View bulkActionBar;
+    private Button bulkAcceptButton;
+    private Button bulkRejectButton;
+
     /**
      * Initializes the activity, sets up the UI components and fetches data from Firebase.
      * Gets the employer email from the intent and uses it to find jobs posted by this employer,
@@ -75,6 +101,7 @@ public class ViewApplications extends AppCompatActivity implements ApplicationAd
 
         setupToolbar();
         setupRecyclerView();
+        setupBulkActions();
 
         // Get jobs posted by this employer, then get applications for those jobs.
         findJobsPostedByEmployer();
@@ -102,141 +129,272 @@ public class ViewApplications extends AppCompatActivity implements ApplicationAd
         recyclerView = findViewById(R.id.recycledViewApplicationList);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
         adapter = new ApplicationAdapter(applicationList, this);
+        adapter.setSelectedIds(selectedIds);
+        adapter.setOnApplicationLongClickListener(this::toggleSelection);
         recyclerView.setAdapter(adapter);
     }
 
     /**
-     * Queries the Firebase database to find all jobs posted by the current employer.
-     * For each job found, it stores the job ID and name for later use in fetching applications.
-     * If no jobs are found, displays a message indicating there are no applications.
+     * Sets up the bulk accept and reject buttons, shown while applications are selected.
      */
-    private void findJobsPostedByEmployer() {
-        DatabaseReference jobsRef = FirebaseDatabase.getInstance().getReference("jobs");
-        jobsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                Set<String> employerJobNames = new HashSet<>();
-                Set<String> employerJobIds = new HashSet<>();
-                Log.d(TAG, "Loaded " + snapshot.getChildrenCount() + " jobs from Firebase");
-
-                for (DataSnapshot jobSnapshot : snapshot.getChildren()) {
-                    String postedByEmail = jobSnapshot.child("email").getValue(String.class);
-                    String jobName = jobSnapshot.child("name").getValue(String.class);
-                    String jobId = jobSnapshot.getKey();
-                    Log.d(TAG, "Checking job: " + jobName + " (ID: " + jobId + "), posted by: " + postedByEmail);
-                    if (postedByEmail != null && jobName != null && postedByEmail.equals(employerEmail)) {
-                        employerJobNames.add(jobName);
-                        employerJobIds.add(jobId);
-                        Log.d(TAG, "Found job posted by employer: " + jobName + " (ID: " + jobId + ")");
-                    }
-                }
+    private void setupBulkActions() {
+        bulkActionBar = findViewById(R.id.bulkActionBar);
+        bulkAcceptButton = findViewById(R.id.bulkAcceptButton);
+        bulkRejectButton = findViewById(R.id.bulkRejectButton);
+        bulkAcceptButton.setOnClickListener(v -> hireSelectedApplicants());
+        bulkRejectButton.setOnClickListener(v -> updateSelectedApplications("rejected"));
+    }
 
-                if (employerJobNames.isEmpty()) {
-                    Log.d(TAG, "No jobs found posted by employer: " + employerEmail);
-                    displayNoApplicationsMessage();
-                } else {
-                    Log.d(TAG, "Found " + employerJobNames.size() + " jobs posted by employer");
-                    fetchApplicationsForJobs(employerJobIds);
-                }
-            }
+    /**
+     * Selects or deselects an application for bulk actions. Only open applications can
+     * be selected, since accepted and rejected applications cannot be changed.
+     *
+     * @param application The application that was long pressed
+     */
+    private void toggleSelection(ApplicationData application) {
+        if (!"open".equalsIgnoreCase(application.getStatus())) {
+            Toast.makeText(this, "Only open applications can be selected", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (!selectedIds.remove(application.getId())) {
+            selectedIds.add(application.getId());
+        }
+        updateBulkActionBar();
+        adapter.notifyItemChanged(applicationList.indexOf(application));
+    }
+
+    /**
+     * Shows the bulk action buttons with the number of selected applications, or hides
+     * them when nothing is selected.
+     */
+    private void updateBulkActionBar() {
+        if (selectedIds.isEmpty()) {
+            bulkActionBar.setVisibility(View.GONE);
+            return;
+        }
+        bulkActionBar.setVisibility(View.VISIBLE);
+        bulkAcceptButton.setText("Accept (" + selectedIds.size() + ")");
+        bulkRejectButton.setText("Reject (" + selectedIds.size() + ")");
+    }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error fetching jobs: " + error.getMessage());
-                displayNoApplicationsMessage();
+    /**
+     * Hires the selected applicant of each job in one atomic write. A job can only hire one
+     * applicant, so at most one application per job may be selected.
+     */
+    private void hireSelectedApplicants() {
+        Map<String, String> hires = new HashMap<>();
+        for (ApplicationData application : getSelectedApplications()) {
+            if (hires.put(application.getJobId(), application.getId()) != null) {
+                Toast.makeText(this, "Only one applicant can be hired per job", Toast.LENGTH_SHORT).show();
+                return;
             }
-        });
+        }
+        int count = hires.size();
+        jobCRUD.hire(hires)
+                .addOnSuccessListener(unused ->
+                        Toast.makeText(this, count + " applicants hired", Toast.LENGTH_SHORT).show())
+                .addOnFailureListener(e ->
+                        Toast.makeText(this, "Failed to hire applicants: " + e.getMessage(),
+                                Toast.LENGTH_SHORT).show());
+        selectedIds.clear();
+        updateBulkActionBar();
+        adapter.notifyDataSetChanged();
     }
 
     /**
-     * Fetches all applications from Firebase that are associated with the job IDs
-     * posted by the current employer. Creates ApplicationData objects for each application
-     * and adds them to the application list for display.
+     * Changes the status of every selected application in one atomic write.
      *
-     * @param jobIds Set of job IDs that were posted by the current employer
+     * @param status The new status
      */
-    private void fetchApplicationsForJobs(Set<String> jobIds) {
-        DatabaseReference applicationsRef = FirebaseDatabase.getInstance().getReference("applications");
-        applicationsRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                applicationList.clear();
-                Log.d(TAG, "Applications data loaded, checking " + snapshot.getChildrenCount() + " applications");
-
-                Map<String, String> jobIdToNameMap = new HashMap<>();
-                Map<String, String> jobIdToStatusMap = new HashMap<>();
-                DatabaseReference jobsRef = FirebaseDatabase.getInstance().getReference("jobs");
-                jobsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-                    @Override
-                    public void onDataChange(@NonNull DataSnapshot jobsSnapshot) {
-                        for (DataSnapshot jobSnapshot : jobsSnapshot.getChildren()) {
-                            String jobId = jobSnapshot.getKey();
-                            String jobName = jobSnapshot.child("name").getValue(String.class);
-                            String jobStatus = jobSnapshot.child("status").getValue(String.class);
-
-                            if (jobId != null && jobIds.contains(jobId)) {
-                                if (jobName != null) {
-                                    jobIdToNameMap.put(jobId, jobName);
-                                }
-                                if (jobStatus != null) {
-                                    jobIdToStatusMap.put(jobId, jobStatus);
-                                }
-                            }
-                        }
+    private void updateSelectedApplications(String status) {
+        List<ApplicationData> selected = getSelectedApplications();
+        int count = selected.size();
+        applicationCRUD.updateStatuses(selected, status)
+                .addOnSuccessListener(unused ->
+                        Toast.makeText(this, count + " applications " + status, Toast.LENGTH_SHORT).show())
+                .addOnFailureListener(e ->
+                        Toast.makeText(this, "Failed to update applications: " + e.getMessage(),
+                                Toast.LENGTH_SHORT).show());
+        selectedIds.clear();
+        updateBulkActionBar();
+        adapter.notifyDataSetChanged();
+    }
 
-                        for (DataSnapshot dataSnapshot : snapshot.getChildren()) {
-                            try {
-                                String applicationId = dataSnapshot.getKey();
-                                String email = dataSnapshot.child("email").getValue(String.class);
-                                String message = dataSnapshot.child("message").getValue(String.class);
-                                String status = dataSnapshot.child("status").getValue(String.class);
-                                String jobId = dataSnapshot.child("jobId").getValue(String.class);
-
-                                if (status == null) {
-                                    status = "open";
-                                }
-
-                                if (jobId != null && jobIds.contains(jobId)) {
-                                    String jobName = jobIdToNameMap.containsKey(jobId) ? jobIdToNameMap.get(jobId) : "(Unknown Job)";
-                                    ApplicationData application = new ApplicationData(applicationId, email, jobName, message);
-                                    application.setStatus(status);
-                                    application.setJobId(jobId);
-                                    String jobStatus = jobIdToStatusMap.get(jobId);
-                                    if (jobStatus != null) {
-                                        application.setJobStatus(jobStatus);
-                                    }
-                                    applicationList.add(application);
-                                    Log.d(TAG, "Added application to list: Job=" + jobName + " from " + email);
-                                }
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error processing application: " + e.getMessage(), e);
-                            }
+    /**
+     * @return The selected applications, in the order they are listed
+     */
+    private List<ApplicationData> getSelectedApplications() {
+        List<ApplicationData> selected = new ArrayList<>();
+        for (ApplicationData application : applicationList) {
+            if (selectedIds.contains(application.getId())) {
+                selected.add(application);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Reads the jobs posted by the current employer through the jobsByEmployer index,
+     * so only the employer's own jobs are downloaded.
+     * If no jobs are found, displays a message indicating there are no applications.
+     */
+    private void findJobsPostedByEmployer() {
+        jobCRUD.getJobsByEmployer(employerEmail)
+                .addOnSuccessListener(jobs -> {
+                    employerJobs.clear();
+                    for (Job job : jobs) {
+                        employerJobs.put(job.getId(), job);
+                        Log.d(TAG, "Found job posted by employer: " + job.getName() + " (ID: " + job.getId() + ")");
+                    }
+
+                    if (employerJobs.isEmpty()) {
+                        Log.d(TAG, "No jobs found posted by employer: " + employerEmail);
+                        displayNoApplicationsMessage();
+                    } else {
+                        Log.d(TAG, "Found " + employerJobs.size() + " jobs posted by employer");
+                        fetchApplicationsForJobs();
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error fetching jobs: " + e.getMessage());
+                    displayNoApplicationsMessage();
+                });
+    }
+
+    /**
+     * Listens to the summary and the applicationsByJob entry of each job posted by the current
+     * employer, so only the applications to the employer's own jobs are downloaded and the
+     * job statuses stay current. The listeners are shared and only run while the screen is
+     * started.
+     */
+    private void fetchApplicationsForJobs() {
+        for (String jobId : new ArrayList<>(employerJobs.keySet())) {
+            SharedQueries.getInstance().observe(this, jobCRUD.getJobSummariesReference().child(jobId),
+                    new ValueEventListener() {
+                        @Override
+                        public void onDataChange(@NonNull DataSnapshot snapshot) {
+                            onJobChanged(jobId, JobCodec.fromSnapshot(snapshot));
                         }
 
-                        if (applicationList.isEmpty()) {
-                            Log.d(TAG, "No applications found for employer's jobs");
-                            displayNoApplicationsMessage();
-                        } else {
-                            recyclerView.setVisibility(View.VISIBLE);
-                            noApplicationsText.setVisibility(View.GONE);
+                        @Override
+                        public void onCancelled(@NonNull DatabaseError error) {
+                            Log.e(TAG, "Error listening to job " + jobId + ": " + error.getMessage());
                         }
-                        adapter.notifyDataSetChanged();
+                    });
+
+            ValueEventListener listener = new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    List<String> applicationIds = new ArrayList<>();
+                    for (DataSnapshot entry : snapshot.getChildren()) {
+                        applicationIds.add(entry.getKey());
                     }
+                    applicationIdsByJob.put(jobId, applicationIds);
+                    // Wait until every job has reported once before the first read
+                    if (applicationIdsByJob.size() >= employerJobs.size()) {
+                        loadApplications();
+                    }
+                }
 
-                    @Override
-                    public void onCancelled(@NonNull DatabaseError error) {
-                        Log.e(TAG, "Error fetching job names: " + error.getMessage());
-                        displayNoApplicationsMessage();
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    Log.e(TAG, "Error fetching applications: " + error.getMessage());
+                    displayNoApplicationsMessage();
+                }
+            };
+            SharedQueries.getInstance().observe(this, applicationCRUD.jobIndex(jobId), listener);
+        }
+    }
+
+    /**
+     * Updates a job of the employer, and the applications shown for it, after its summary
+     * changed, for example when it was hired from another screen or moved on from another device.
+     *
+     * @param jobId The ID of the job
+     * @param job The job, or null if it was deleted
+     */
+    private void onJobChanged(String jobId, Job job) {
+        Job previous = employerJobs.get(jobId);
+        if (job == null) {
+            employerJobs.remove(jobId);
+        } else {
+            employerJobs.put(jobId, job);
+        }
+        boolean statusChanged = previous == null || job == null
+                || (previous.getStatus() == null ? job.getStatus() != null : !previous.getStatus().equals(job.getStatus()));
+        if (statusChanged && loadedApplications != null) {
+            showApplications(loadedApplications);
+        }
+    }
+
+    /**
+     * Reads the applications listed in the index entries of the employer's jobs.
+     */
+    private void loadApplications() {
+        List<String> applicationIds = new ArrayList<>();
+        for (List<String> ids : applicationIdsByJob.values()) {
+            applicationIds.addAll(ids);
+        }
+        Log.d(TAG, "Loading " + applicationIds.size() + " applications for employer's jobs");
+
+        int generation = ++readGeneration;
+        applicationCRUD.getApplications(applicationIds)
+                .addOnSuccessListener(applications -> {
+                    if (generation == readGeneration) {
+                        showApplications(applications);
                     }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error fetching applications: " + e.getMessage());
+                    displayNoApplicationsMessage();
                 });
+    }
+
+    /**
+     * Adds the job name and status to each application and adds them to the application
+     * list for display.
+     *
+     * @param applications The applications to the employer's jobs
+     */
+    private void showApplications(List<ApplicationData> applications) {
+        loadedApplications = applications;
+        applicationList.clear();
+
+        for (ApplicationData application : applications) {
+            Job job = application.getJobId() != null ? employerJobs.get(application.getJobId()) : null;
+            if (job == null) {
+                continue;
+            }
+            String jobName = job.getName() != null ? job.getName() : "(Unknown Job)";
+            application.setJobName(jobName);
+            if (application.getStatus() == null) {
+                application.setStatus("open");
             }
+            if (job.getStatus() != null) {
+                application.setJobStatus(job.getStatus());
+            }
+            applicationList.add(application);
+            Log.d(TAG, "Added application to list: Job=" + jobName + " from " + application.getEmail());
+        }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Error fetching applications: " + error.getMessage());
-                displayNoApplicationsMessage();
+        // Drop selections that are gone or no longer open
+        Set<String> openIds = new HashSet<>();
+        for (ApplicationData application : applicationList) {
+            if ("open".equalsIgnoreCase(application.getStatus())) {
+                openIds.add(application.getId());
             }
-        });
+        }
+        selectedIds.retainAll(openIds);
+        updateBulkActionBar();
+
+        if (applicationList.isEmpty()) {
+            Log.d(TAG, "No applications found for employer's jobs");
+            displayNoApplicationsMessage();
+        } else {
+            recyclerView.setVisibility(View.VISIBLE);
+            noApplicationsText.setVisibility(View.GONE);
+        }
+        adapter.notifyDataSetChanged();
     }
 
     /**
@@ -255,9 +413,11 @@ public class ViewApplications extends AppCompatActivity implements ApplicationAd
      * Handles clicks on application items in the RecyclerView. Shows different dialogs
      * based on the application status and job status:
      * - For rejected applications: Shows a message that the application is already processed
+     * - For accepted applications with paid jobs: Shows a message that the job is finished
      * - For accepted applications with incomplete jobs: Shows a message to wait for job completion
      * - For accepted applications with completed jobs: Shows a dialog to proceed to payment
-     * - For open applications: Shows a dialog with application details and options to accept/reject
+     * - For open applications: Shows a dialog with application details and options to hire/reject.
+     *   Hiring accepts the application, rejects the job's other applications and closes the job
      *
      * @param application The ApplicationData object that was clicked
      */
@@ -274,6 +434,14 @@ public class ViewApplications extends AppCompatActivity implements ApplicationAd
                     .show();
             return;
 
+        } else if (appStatus.equals("accepted") && jobStatus.equals("paid")) {
+            new AlertDialog.Builder(this)
+                    .setTitle("Job Paid")
+                    .setMessage("This job has been completed and paid.")
+                    .setPositiveButton("OK", null)
+                    .show();
+            return;
+
         } else if (appStatus.equals("accepted") && !jobStatus.equals("completed")) {
             new AlertDialog.Builder(this)
                     .setTitle("Job Not Yet Completed")
@@ -333,19 +501,17 @@ public class ViewApplications extends AppCompatActivity implements ApplicationAd
         builder.setView(view);
 
         builder.setPositiveButton("Accept", (dialog, which) -> {
-            FirebaseDatabase.getInstance().getReference("applications")
-                    .child(application.getId())
-                    .child("status")
-                    .setValue("accepted")
+            jobCRUD.hire(application.getJobId(), application.getId())
                     .addOnSuccessListener(unused ->
-                            Toast.makeText(this, "Application accepted", Toast.LENGTH_SHORT).show());
+                            Toast.makeText(this, "Application accepted", Toast.LENGTH_SHORT).show())
+                    .addOnFailureListener(e ->
+                            Toast.makeText(this, "Failed to accept application: " + e.getMessage(),
+                                    Toast.LENGTH_SHORT).show());
         });
 
         builder.setNegativeButton("Reject", (dialog, which) -> {
-            FirebaseDatabase.getInstance().getReference("applications")
-                    .child(application.getId())
-                    .child("status")
-                    .setValue("rejected")
+            applicationCRUD.updateStatus(application.getId(), application.getJobId(),
+                            application.getEmail(), "rejected")
                     .addOnSuccessListener(unused ->
                             Toast.makeText(this, "Application rejected", Toast.LENGTH_SHORT).show());
         });
@@ -0,0 +1,82 @@
+package com.example.quickcash.entities;
+
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.Map;
+
+/**
+ * Builds ApplicationData and Application objects from application snapshots without
+ * reflection. Works on records of the applications node and on entries of the
+ * applicationsByJob and applicationsByApplicant indexes, which hold a subset of the fields.
+ * The key of the snapshot is the application ID.
+ */
+public final class ApplicationCodec {
+
+    private ApplicationCodec() {
+    }
+
+    /**
+     * Build an ApplicationData from an application or index entry snapshot
+     * @param snapshot Snapshot of a single application
+     * @return The application, or null if the snapshot holds no fields
+     */
+    public static ApplicationData fromSnapshot(DataSnapshot snapshot) {
+        return fromValue(snapshot.getKey(), snapshot.getValue());
+    }
+
+    /**
+     * Build an ApplicationData from the raw value of an application or index entry
+     * @param id The key of the application
+     * @param value The raw value, a map of fields
+     * @return The application, or null if the value is not a map
+     */
+    public static ApplicationData fromValue(String id, Object value) {
+        if (!(value instanceof Map)) {
+            return null;
+        }
+        ApplicationData application = new ApplicationData();
+        application.setId(id);
+        for (Map.Entry<?, ?> field : ((Map<?, ?>) value).entrySet()) {
+            String fieldValue = CodecValues.string(field.getValue());
+            switch (String.valueOf(field.getKey())) {
+                case "email":
+                    application.setEmail(fieldValue);
+                    break;
+                case "jobId":
+                    application.setJobId(fieldValue);
+                    break;
+                case "jobName":
+                    application.setJobName(fieldValue);
+                    break;
+                case "message":
+                    application.setMessage(fieldValue);
+                    break;
+                case "status":
+                    application.setStatus(fieldValue);
+                    break;
+                case "jobStatus":
+                    application.setJobStatus(fieldValue);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return application;
+    }
+
+    /**
+     * Build an Application, the model of a submission, from an application snapshot
+     * @param snapshot Snapshot of a single child of the applications node
+     * @return The application, or null if the snapshot holds no fields
+     */
+    public static Application applicationFromSnapshot(DataSnapshot snapshot) {
+        ApplicationData data = fromSnapshot(snapshot);
+        if (data == null) {
+            return null;
+        }
+        Application application = new Application(data.getJobId(), data.getId(), data.getMessage(),
+                data.getEmail(), data.getStatus());
+        application.setJobName(data.getJobName());
+        return application;
+    }
+}
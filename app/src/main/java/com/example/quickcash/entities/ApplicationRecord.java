@@ -0,0 +1,97 @@
+package com.example.quickcash.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Row of the local applications mirror, a copy of one applicationsByJob or
+ * applicationsByApplicant entry. Only the indexed fields are kept, not the message.
+ */
+@Entity(tableName = "applications", indices = {@Index("jobId"), @Index("email"), @Index("status")})
+public class ApplicationRecord {
+
+    @PrimaryKey
+    @NonNull
+    private String id = "";
+    private String jobId;
+    private String email;
+    private String status;
+    private long updatedAt;
+
+    /**
+     * Default constructor required by Room.
+     */
+    public ApplicationRecord() {
+    }
+
+    /**
+     * Creates the row of an application
+     * @param id The ID of the application
+     * @param jobId The ID of the job applied to
+     * @param email The email of the applicant
+     * @param status The status of the application
+     * @param updatedAt Server time of the application's last write, 0 if it was never stamped
+     */
+    public ApplicationRecord(@NonNull String id, String jobId, String email, String status, long updatedAt) {
+        this.id = id;
+        this.jobId = jobId;
+        this.email = email;
+        this.status = status;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * @return The application this row holds, with its ID, job ID, email and status set
+     */
+    public ApplicationData toApplication() {
+        ApplicationData application = new ApplicationData();
+        application.setId(id);
+        application.setJobId(jobId);
+        application.setEmail(email);
+        application.setStatus(status);
+        return application;
+    }
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    public void setId(@NonNull String id) {
+        this.id = id;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
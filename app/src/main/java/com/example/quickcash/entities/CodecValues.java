@@ -0,0 +1,20 @@
+package com.example.quickcash.entities;
+
+/**
+ * Conversions of the raw values of a snapshot, shared by the entity codecs. A snapshot's raw
+ * value holds Strings, Booleans, Longs, Doubles, Maps and Lists; a value of the wrong type
+ * reads as null instead of throwing like getValue(Class) does.
+ */
+final class CodecValues {
+
+    private CodecValues() {
+    }
+
+    static String string(Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    static Double number(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : null;
+    }
+}
@@ -14,6 +14,7 @@ public class Job {
     private double longitude;
     private int location;
     private String employerId;
+    private String geohash;
     private String status = "open";
 
     /**
@@ -161,6 +162,24 @@ public class Job {
     }
 
 
+    /**
+     * Gets the geohash of the job location, used for radius queries.
+     *
+     * @return The geohash string, or null if it has not been computed
+     */
+    public String getGeohash() {
+        return geohash;
+    }
+
+    /**
+     * Sets the geohash of the job location.
+     *
+     * @param geohash The geohash to set
+     */
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+
     public String getStatus() {
         return status;
     }
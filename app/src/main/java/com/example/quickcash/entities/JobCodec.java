@@ -0,0 +1,88 @@
+package com.example.quickcash.entities;
+
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.Map;
+
+/**
+ * Builds Jobs from job and job summary snapshots without reflection. The raw value map of the
+ * snapshot is read in one pass, instead of one child snapshot per field or Firebase's
+ * reflective class mapper.
+ */
+public final class JobCodec {
+
+    private JobCodec() {
+    }
+
+    /**
+     * Build a Job from a job or job summary snapshot
+     * @param snapshot Snapshot of a single child of the jobs or jobSummaries node
+     * @return The job, or null if the snapshot is missing its name or coordinates
+     */
+    public static Job fromSnapshot(DataSnapshot snapshot) {
+        return fromValue(snapshot.getKey(), snapshot.getValue());
+    }
+
+    /**
+     * Build a Job from the raw value of a job or job summary
+     * @param id The key of the job
+     * @param value The raw value, a map of fields
+     * @return The job, or null if the value is missing its name or coordinates
+     */
+    public static Job fromValue(String id, Object value) {
+        if (!(value instanceof Map)) {
+            return null;
+        }
+        String name = null;
+        String description = null;
+        String category = null;
+        String email = null;
+        String geohash = null;
+        String status = null;
+        Double latitude = null;
+        Double longitude = null;
+        for (Map.Entry<?, ?> field : ((Map<?, ?>) value).entrySet()) {
+            Object fieldValue = field.getValue();
+            switch (String.valueOf(field.getKey())) {
+                case "name":
+                    name = CodecValues.string(fieldValue);
+                    break;
+                case "description":
+                    description = CodecValues.string(fieldValue);
+                    break;
+                case "category":
+                    category = CodecValues.string(fieldValue);
+                    break;
+                case "email":
+                    email = CodecValues.string(fieldValue);
+                    break;
+                case "geohash":
+                    geohash = CodecValues.string(fieldValue);
+                    break;
+                case "status":
+                    status = CodecValues.string(fieldValue);
+                    break;
+                case "latitude":
+                    latitude = CodecValues.number(fieldValue);
+                    break;
+                case "longitude":
+                    longitude = CodecValues.number(fieldValue);
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (name == null || latitude == null || longitude == null) {
+            return null;
+        }
+
+        Job job = new Job(name, description, category, latitude, longitude);
+        job.setId(id);
+        job.setEmail(email);
+        job.setGeohash(geohash);
+        if (status != null) {
+            job.setStatus(status);
+        }
+        return job;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.quickcash.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Row of the local jobs mirror, a copy of one jobSummaries entry. Indexed for the queries
+ * list and map screens run: by category, by status, by employer and by latitude for
+ * bounding boxes.
+ */
+@Entity(tableName = "jobs", indices = {@Index("category"), @Index("status"), @Index("email"), @Index("latitude")})
+public class JobRecord {
+
+    @PrimaryKey
+    @NonNull
+    private String id = "";
+    private String name;
+    private String category;
+    private double latitude;
+    private double longitude;
+    private String geohash;
+    private String email;
+    private String status;
+    private long updatedAt;
+
+    /**
+     * Default constructor required by Room.
+     */
+    public JobRecord() {
+    }
+
+    /**
+     * Creates the row of a job
+     * @param job The job, with its ID set
+     * @param updatedAt Server time of the job's last write, 0 if it was never stamped
+     */
+    public JobRecord(Job job, long updatedAt) {
+        this.id = job.getId();
+        this.name = job.getName();
+        this.category = job.getCategory();
+        this.latitude = job.getLatitude();
+        this.longitude = job.getLongitude();
+        this.geohash = job.getGeohash();
+        this.email = job.getEmail();
+        this.status = job.getStatus();
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * @return The job this row holds, without its description
+     */
+    public Job toJob() {
+        Job job = new Job(name, null, category, latitude, longitude);
+        job.setId(id);
+        job.setEmail(email);
+        job.setGeohash(geohash);
+        if (status != null) {
+            job.setStatus(status);
+        }
+        return job;
+    }
+
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    public void setId(@NonNull String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(double latitude) {
+        this.latitude = latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(double longitude) {
+        this.longitude = longitude;
+    }
+
+    public String getGeohash() {
+        return geohash;
+    }
+
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.quickcash.entities;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * A write waiting in the outbox: a multi-path update, relative to the database root, stored as
+ * JSON. Entries are written in the order of their ID. The key identifies what the write is
+ * for, so queuing a write with the key of one still waiting replaces it. A write creating a
+ * record names a claim path, one of its paths that must not hold a different value yet; the
+ * claim is taken with a transaction before the rest of the write is sent. The claim path is
+ * kept once the claim is taken, so a write dropped afterwards can release it.
+ */
+@Entity(tableName = "outbox", indices = {@Index(value = "key", unique = true)})
+public class OutboxEntry {
+
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    @NonNull
+    private String key = "";
+    @NonNull
+    private String updates = "{}";
+    private long createdAt;
+    private int attempts;
+    @Nullable
+    private String claimPath;
+    @ColumnInfo(defaultValue = "0")
+    private boolean claimTaken;
+
+    /**
+     * Default constructor required by Room.
+     */
+    public OutboxEntry() {
+    }
+
+    /**
+     * @param key What the write is for, for example application/{applicationId}
+     * @param updates The multi-path update as JSON
+     * @param createdAt When the write was queued
+     */
+    public OutboxEntry(@NonNull String key, @NonNull String updates, long createdAt) {
+        this.key = key;
+        this.updates = updates;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * @param key What the write is for, for example application/{applicationId}
+     * @param updates The multi-path update as JSON
+     * @param createdAt When the write was queued
+     * @param claimPath Path of the update claimed with a transaction first, null for none
+     */
+    public OutboxEntry(@NonNull String key, @NonNull String updates, long createdAt, @Nullable String claimPath) {
+        this(key, updates, createdAt);
+        this.claimPath = claimPath;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(@NonNull String key) {
+        this.key = key;
+    }
+
+    @NonNull
+    public String getUpdates() {
+        return updates;
+    }
+
+    public void setUpdates(@NonNull String updates) {
+        this.updates = updates;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    @Nullable
+    public String getClaimPath() {
+        return claimPath;
+    }
+
+    public void setClaimPath(@Nullable String claimPath) {
+        this.claimPath = claimPath;
+    }
+
+    public boolean isClaimTaken() {
+        return claimTaken;
+    }
+
+    public void setClaimTaken(boolean claimTaken) {
+        this.claimTaken = claimTaken;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.quickcash.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * How far the local mirror has synced one database node: the highest updatedAt received
+ * from it. The next sync only asks for records stamped at or after this time.
+ */
+@Entity(tableName = "sync_cursors")
+public class SyncCursor {
+
+    @PrimaryKey
+    @NonNull
+    private String scope = "";
+    private long lastUpdatedAt;
+
+    /**
+     * Default constructor required by Room.
+     */
+    public SyncCursor() {
+    }
+
+    /**
+     * @param scope Path of the synced node, relative to the database root
+     * @param lastUpdatedAt Highest updatedAt received from the node
+     */
+    public SyncCursor(@NonNull String scope, long lastUpdatedAt) {
+        this.scope = scope;
+        this.lastUpdatedAt = lastUpdatedAt;
+    }
+
+    @NonNull
+    public String getScope() {
+        return scope;
+    }
+
+    public void setScope(@NonNull String scope) {
+        this.scope = scope;
+    }
+
+    public long getLastUpdatedAt() {
+        return lastUpdatedAt;
+    }
+
+    public void setLastUpdatedAt(long lastUpdatedAt) {
+        this.lastUpdatedAt = lastUpdatedAt;
+    }
+}
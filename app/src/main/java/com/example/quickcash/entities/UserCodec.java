@@ -0,0 +1,58 @@
+package com.example.quickcash.entities;
+
+import com.google.firebase.database.DataSnapshot;
+
+import java.util.Map;
+
+/**
+ * Builds Users from snapshots of the users node without reflection.
+ */
+public final class UserCodec {
+
+    private UserCodec() {
+    }
+
+    /**
+     * Build a User from a snapshot of users/{username}
+     * @param snapshot The snapshot
+     * @return The user, or null if the user does not exist
+     */
+    public static User fromSnapshot(DataSnapshot snapshot) {
+        return fromValue(snapshot.getValue());
+    }
+
+    /**
+     * Build a User from the raw value of a user
+     * @param value The raw value, a map of fields
+     * @return The user, or null if the value is not a map
+     */
+    public static User fromValue(Object value) {
+        if (!(value instanceof Map)) {
+            return null;
+        }
+        User user = new User();
+        for (Map.Entry<?, ?> field : ((Map<?, ?>) value).entrySet()) {
+            String fieldValue = CodecValues.string(field.getValue());
+            switch (String.valueOf(field.getKey())) {
+                case "username":
+                    user.setUsername(fieldValue);
+                    break;
+                case "email":
+                    user.setEmail(fieldValue);
+                    break;
+                case "role":
+                    user.setRole(fieldValue);
+                    break;
+                case "firstName":
+                    user.setFirstName(fieldValue);
+                    break;
+                case "lastName":
+                    user.setLastName(fieldValue);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return user;
+    }
+}
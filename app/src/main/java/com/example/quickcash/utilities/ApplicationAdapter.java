@@ -10,7 +10,9 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.example.quickcash.R;
 import com.example.quickcash.entities.ApplicationData;
 import com.google.android.material.card.MaterialCardView;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * RecyclerView adapter for displaying application data.
@@ -20,6 +22,8 @@ public class ApplicationAdapter extends RecyclerView.Adapter<ApplicationAdapter.
 
     private final List<ApplicationData> applicationList;
     private final OnApplicationClickListener listener;
+    private OnApplicationLongClickListener longClickListener;
+    private Set<String> selectedIds = Collections.emptySet();
 
     /**
      * Interface for handling application click events.
@@ -28,6 +32,13 @@ public class ApplicationAdapter extends RecyclerView.Adapter<ApplicationAdapter.
         void onApplicationClick(ApplicationData application);
     }
 
+    /**
+     * Interface for handling application long click events, used to select applications.
+     */
+    public interface OnApplicationLongClickListener {
+        void onApplicationLongClick(ApplicationData application);
+    }
+
     /**
      * Constructor for the adapter.
      *
@@ -39,6 +50,24 @@ public class ApplicationAdapter extends RecyclerView.Adapter<ApplicationAdapter.
         this.listener = listener;
     }
 
+    /**
+     * Sets the listener for long clicks on applications.
+     *
+     * @param longClickListener Listener for long click events
+     */
+    public void setOnApplicationLongClickListener(OnApplicationLongClickListener longClickListener) {
+        this.longClickListener = longClickListener;
+    }
+
+    /**
+     * Sets the IDs of the applications shown as selected.
+     *
+     * @param selectedIds IDs of the selected applications, read on every bind
+     */
+    public void setSelectedIds(Set<String> selectedIds) {
+        this.selectedIds = selectedIds;
+    }
+
     @NonNull
     @Override
     public ApplicationViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -83,9 +112,10 @@ public class ApplicationAdapter extends RecyclerView.Adapter<ApplicationAdapter.
                     break;
             }
 
-            // Show job status pill if "Completed"
-            if ("Completed".equalsIgnoreCase(application.getJobStatus())) {
-                holder.jobStatusTextView.setText("Completed");
+            // Show job status pill once the job is completed or paid
+            JobStatus jobStatus = JobStatus.fromValue(application.getJobStatus());
+            if (jobStatus == JobStatus.COMPLETED || jobStatus == JobStatus.PAID) {
+                holder.jobStatusTextView.setText(jobStatus == JobStatus.PAID ? "Paid" : "Completed");
                 holder.jobStatusTextView.setBackgroundResource(R.drawable.status_completed_bg);
                 holder.jobStatusTextView.setVisibility(View.VISIBLE);
             } else {
@@ -105,6 +135,18 @@ public class ApplicationAdapter extends RecyclerView.Adapter<ApplicationAdapter.
                     listener.onApplicationClick(application);
                 }
             });
+
+            // Long click selects the application for bulk actions
+            holder.itemView.setOnLongClickListener(v -> {
+                if (longClickListener == null || "No applications...".equals(application.getId())) {
+                    return false;
+                }
+                longClickListener.onApplicationLongClick(application);
+                return true;
+            });
+            if (holder.itemView instanceof MaterialCardView) {
+                ((MaterialCardView) holder.itemView).setChecked(selectedIds.contains(application.getId()));
+            }
         }
     }
 
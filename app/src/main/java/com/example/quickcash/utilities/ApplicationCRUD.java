@@ -2,48 +2,152 @@ package com.example.quickcash.utilities;
 
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+
 import com.example.quickcash.entities.Application;
-import com.example.quickcash.entities.Job;
+import com.example.quickcash.entities.ApplicationCodec;
+import com.example.quickcash.entities.ApplicationData;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
 import com.google.firebase.database.ValueEventListener;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 /**
- * JobCRUD class, responsible for accessing and updating jobs in Firebase
+ * ApplicationCRUD class, responsible for accessing and updating applications in Firebase.
+ * Every write also maintains two index nodes, so screens can read only their own slice:
+ * applicationsByJob/{jobId}/{appId} holds the applicant's email and the status, and
+ * applicationsByApplicant/{emailKey}/{appId} holds the job ID and the status. An application
+ * is keyed by its job and applicant, {jobId}_{emailKey}, so whether a user applied to a job is
+ * a single child read and a second submission cannot create a second application
  */
 public class ApplicationCRUD {
 
-    private final FirebaseDatabase database;
+    /** Name of the index node listing the applications to each job */
+    public static final String APPLICATIONS_BY_JOB = "applicationsByJob";
+
+    /** Name of the index node listing the applications of each applicant */
+    public static final String APPLICATIONS_BY_APPLICANT = "applicationsByApplicant";
+
+    /** Name of the node holding the deletion time of each deleted application, for delta syncs */
+    public static final String DELETED_APPLICATIONS = "deletedApplications";
+
+    /** Field set once by the submission that created an application */
+    public static final String SUBMISSION_ID = "submissionId";
+
     private final DatabaseReference databaseReference;
+    private final DatabaseReference rootReference;
 
     /**
      * Constructor for FirebaseCRUD objects
      */
     public ApplicationCRUD() {
-        this.database = FirebaseDatabase.getInstance("https://quickcash-ae34a-default-rtdb.firebaseio.com/");
-        this.databaseReference = database.getReference("applications");
+        DatabaseProvider provider = DatabaseProvider.getInstance();
+        this.databaseReference = provider.getApplicationsReference();
+        this.rootReference = provider.getRootReference();
+    }
+
+    /**
+     * Get the key of an applicant's application to a job
+     * @param jobId The ID of the job
+     * @param email The email of the applicant
+     * @return The application ID, {jobId}_{emailKey}
+     */
+    public static String applicationId(String jobId, String email) {
+        return jobId + "_" + DatabaseKeys.emailKey(email);
     }
 
     /**
-     * Add a new Job to the database, using a Job object passed in. Note that this method can also be
-     *  used to update an existing job by passing in a new job with the same name
-     * @param application The job object to be added to the database
+     * Add a new application to the database, together with its entries in both index nodes,
+     *  in one atomic write. It claims the application's submissionId with a transaction
+     *  first, so if the applicant already applied to the job the write is dropped instead of
+     *  replacing the application. Submitting again before the first submission was sent
+     *  replaces it and keeps its claim. The database client does not keep transactions across
+     *  restarts, so the write goes through the WriteOutbox, which sends it once the device is
+     *  online even if the app was closed before then
+     * @param application The application to add, with its ID set by applicationId
+     * @return The task of queueing the write on the device
      */
-    public void addNewApplication(Application application) {
-        databaseReference.child(application.getId()).setValue(application)
+    public Task<Void> addNewApplication(Application application) {
+        Map<String, Object> updates = newApplicationUpdates(application.getId(), application.getJobId(),
+                application.getEmail(), application.getStatus());
+        updates.put("applications/" + application.getId() + "/jobName", application.getJobName());
+        updates.put("applications/" + application.getId() + "/message", application.getMessage());
+        String claimPath = "applications/" + application.getId() + "/" + SUBMISSION_ID;
+        updates.put(claimPath, UUID.randomUUID().toString());
+        return WriteOutbox.getInstance().enqueueCreate("application/" + application.getId(), claimPath, updates)
                 .addOnSuccessListener(aVoid -> {
-                    Log.d("Firebase", "Data successfully written to Firebase.");
+                    Log.d("Firebase", "Application queued for Firebase.");
                 })
                 .addOnFailureListener(e -> {
-                    Log.e("Firebase", "Error writing data to Firebase: " + e.getMessage());
+                    Log.e("Firebase", "Error queueing application for Firebase: " + e.getMessage());
                 });
     }
 
     /**
-     * Fetch a job pointed to by a given name. Note that it is necessary to use a valueEventListener,
-     *  and that the required job is not simply returned. You can still access the Job object from within
-     *  the event listener
-     * @param application String - the name of the job to fetch
+     * Start a batch of writes to the applications database. Add status changes with
+     *  updateStatus(batch, ...) and apply them all with one commit
+     * @return An empty batch
+     */
+    public DatabaseBatch newBatch() {
+        return new DatabaseBatch(rootReference);
+    }
+
+    /**
+     * Change the status of an application, in the application and in both index nodes. The
+     *  write is made directly, so it shows on every screen right away and stays in order with
+     *  hires, and the database client keeps it until the device is online
+     * @param applicationId The ID of the application
+     * @param jobId The ID of the job applied to
+     * @param email The email of the applicant
+     * @param status The new status
+     * @return The task of the write
+     */
+    public Task<Void> updateStatus(String applicationId, String jobId, String email, String status) {
+        DatabaseBatch batch = newBatch();
+        updateStatus(batch, applicationId, jobId, email, status);
+        return batch.commit();
+    }
+
+    /**
+     * Add a status change of an application, and of its index entries, to a batch
+     * @param batch The batch to add the change to
+     * @param applicationId The ID of the application
+     * @param jobId The ID of the job applied to
+     * @param email The email of the applicant
+     * @param status The new status
+     */
+    public void updateStatus(DatabaseBatch batch, String applicationId, String jobId, String email, String status) {
+        batch.putAll(statusUpdates(applicationId, jobId, email, status));
+    }
+
+    /**
+     * Change the status of many applications at once, in one atomic write
+     * @param applications The applications to change, with their ID, job ID and email set
+     * @param status The new status
+     * @return The task of the write
+     */
+    public Task<Void> updateStatuses(Collection<ApplicationData> applications, String status) {
+        DatabaseBatch batch = newBatch();
+        for (ApplicationData application : applications) {
+            updateStatus(batch, application.getId(), application.getJobId(), application.getEmail(), status);
+        }
+        return batch.commit();
+    }
+
+    /**
+     * Fetch an application by ID. Note that it is necessary to use a valueEventListener,
+     *  and that the required application is not simply returned
+     * @param application String - the ID of the application to fetch
      * @param valueEventListener A ValueEventListener containing the UI-level tasks to execute in relation
      *                           to the requested data
      */
@@ -52,11 +156,202 @@ public class ApplicationCRUD {
     }
 
     /**
-     * Remove a given job from the database using the name of the job
-     * @param application The name of the job to remove
+     * Get the applicationsByJob entry of a job, keyed by application ID
+     * @param jobId The ID of the job
+     * @return The reference to the job's applications
+     */
+    public DatabaseReference jobIndex(String jobId) {
+        return rootReference.child(APPLICATIONS_BY_JOB).child(jobId);
+    }
+
+    /**
+     * Get the applicationsByApplicant entry of an applicant, keyed by application ID
+     * @param email The email of the applicant
+     * @return The reference to the applicant's applications
+     */
+    public DatabaseReference applicantIndex(String email) {
+        return rootReference.child(APPLICATIONS_BY_APPLICANT).child(DatabaseKeys.emailKey(email));
+    }
+
+    /**
+     * Get an applicant's applicationsByApplicant entry for a job, which exists if and only if
+     *  the applicant applied to the job
+     * @param email The email of the applicant
+     * @param jobId The ID of the job
+     * @return The reference to the entry, holding the job ID and the status
+     */
+    public DatabaseReference applicantEntry(String email, String jobId) {
+        return applicantIndex(email).child(applicationId(jobId, email));
+    }
+
+    /**
+     * Fetch an application by ID
+     * @param applicationId The ID of the application
+     * @return The task of the read, with a null result if the application does not exist
+     */
+    public Task<ApplicationData> getApplication(String applicationId) {
+        return DatabaseTasks.read(databaseReference.child(applicationId)).onSuccessTask(snapshot -> {
+            return Tasks.forResult(ApplicationCodec.fromSnapshot(snapshot));
+        });
+    }
+
+    /**
+     * Fetch a list of applications by ID, all reads are issued at once
+     * @param applicationIds The IDs of the applications to read
+     * @return The task of the applications that exist, in the order of the IDs
+     */
+    public Task<List<ApplicationData>> getApplications(Collection<String> applicationIds) {
+        List<Task<ApplicationData>> reads = new ArrayList<>();
+        for (String applicationId : applicationIds) {
+            reads.add(getApplication(applicationId));
+        }
+        return DatabaseTasks.whenAllNonNull(reads);
+    }
+
+    /**
+     * Fetch every application of an applicant through the applicationsByApplicant index
+     * @param email The email of the applicant
+     * @return The task of the applicant's applications
+     */
+    public Task<List<ApplicationData>> getApplicationsByApplicant(String email) {
+        return DatabaseTasks.read(applicantIndex(email)).onSuccessTask(snapshot -> {
+            List<String> applicationIds = new ArrayList<>();
+            for (DataSnapshot entry : snapshot.getChildren()) {
+                applicationIds.add(entry.getKey());
+            }
+            return getApplications(applicationIds);
+        });
+    }
+
+    /**
+     * Fetch an applicant's application to a job
+     * @param email The email of the applicant
+     * @param jobId The ID of the job
+     * @return The task of the read, with a null result if the applicant has not applied to the job
+     */
+    public Task<ApplicationData> getApplicationToJob(String email, String jobId) {
+        return getApplication(applicationId(jobId, email));
+    }
+
+    /**
+     * Fetch the applicationsByJob entries of a job. Only the fields kept in the index are
+     *  set: the ID, job ID, email and status
+     * @param jobId The ID of the job
+     * @return The task of the job's applications
+     */
+    public Task<List<ApplicationData>> getJobIndexEntries(String jobId) {
+        return DatabaseTasks.read(jobIndex(jobId))
+                .onSuccessTask(snapshot -> Tasks.forResult(jobIndexEntries(jobId, snapshot)));
+    }
+
+    /**
+     * Remove an application and its index entries from the database
+     * @param application The ID of the application to remove
      */
     public void deleteApplication(String application) {
-        databaseReference.child(application).removeValue();
+        databaseReference.child(application).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                ApplicationData stored = ApplicationCodec.fromSnapshot(snapshot);
+                String jobId = stored != null ? stored.getJobId() : null;
+                String email = stored != null ? stored.getEmail() : null;
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("applications/" + application, null);
+                updates.put(DELETED_APPLICATIONS + "/" + application, ServerValue.TIMESTAMP);
+                if (jobId != null) {
+                    updates.put(APPLICATIONS_BY_JOB + "/" + jobId + "/" + application, null);
+                }
+                if (email != null) {
+                    updates.put(applicantIndexPath(email, application), null);
+                }
+                rootReference.updateChildren(updates);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e("Firebase", "Error reading application to delete: " + error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Build the multi-path update that writes a new application and its index entries, all
+     *  stamped with the server time
+     * @param applicationId The ID of the application
+     * @param jobId The ID of the job applied to
+     * @param email The email of the applicant
+     * @param status The status of the application
+     * @return Updates relative to the database root
+     */
+    public static Map<String, Object> newApplicationUpdates(String applicationId, String jobId,
+                                                            String email, String status) {
+        Map<String, Object> byJob = new HashMap<>();
+        byJob.put("email", email);
+        byJob.put("status", status);
+        byJob.put(DatabaseKeys.UPDATED_AT, ServerValue.TIMESTAMP);
+        Map<String, Object> byApplicant = new HashMap<>();
+        byApplicant.put("jobId", jobId);
+        byApplicant.put("status", status);
+        byApplicant.put(DatabaseKeys.UPDATED_AT, ServerValue.TIMESTAMP);
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("applications/" + applicationId + "/id", applicationId);
+        updates.put("applications/" + applicationId + "/jobId", jobId);
+        updates.put("applications/" + applicationId + "/email", email);
+        updates.put("applications/" + applicationId + "/status", status);
+        updates.put("applications/" + applicationId + "/" + DatabaseKeys.UPDATED_AT, ServerValue.TIMESTAMP);
+        updates.put(APPLICATIONS_BY_JOB + "/" + jobId + "/" + applicationId, byJob);
+        updates.put(applicantIndexPath(email, applicationId), byApplicant);
+        return updates;
+    }
+
+    /**
+     * Build the multi-path update that changes the status of an application everywhere it is
+     *  stored, and stamps every copy with the server time
+     * @param applicationId The ID of the application
+     * @param jobId The ID of the job applied to
+     * @param email The email of the applicant
+     * @param status The new status
+     * @return Updates relative to the database root
+     */
+    public static Map<String, Object> statusUpdates(String applicationId, String jobId,
+                                                    String email, String status) {
+        Map<String, Object> updates = new HashMap<>();
+        for (String path : new String[]{"applications/" + applicationId,
+                APPLICATIONS_BY_JOB + "/" + jobId + "/" + applicationId,
+                applicantIndexPath(email, applicationId)}) {
+            updates.put(path + "/status", status);
+            updates.put(path + "/" + DatabaseKeys.UPDATED_AT, ServerValue.TIMESTAMP);
+        }
+        return updates;
+    }
+
+    /**
+     * Parse a job's applicationsByJob entry
+     * @param jobId The ID of the job
+     * @param snapshot Snapshot of applicationsByJob/{jobId}
+     * @return One application per index entry, with the ID, job ID, email and status set
+     */
+    public static List<ApplicationData> jobIndexEntries(String jobId, DataSnapshot snapshot) {
+        List<ApplicationData> applications = new ArrayList<>();
+        for (DataSnapshot entry : snapshot.getChildren()) {
+            ApplicationData application = ApplicationCodec.fromSnapshot(entry);
+            if (application != null) {
+                application.setJobId(jobId);
+                applications.add(application);
+            }
+        }
+        return applications;
+    }
+
+    /**
+     * Get the path of an application's entry in the applicationsByApplicant index
+     * @param email The email of the applicant
+     * @param applicationId The ID of the application
+     * @return The path, relative to the database root
+     */
+    public static String applicantIndexPath(String email, String applicationId) {
+        return APPLICATIONS_BY_APPLICANT + "/" + DatabaseKeys.emailKey(email) + "/" + applicationId;
     }
 
-}
\ No newline at end of file
+}
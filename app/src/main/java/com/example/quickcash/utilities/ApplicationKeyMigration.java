@@ -0,0 +1,222 @@
+package com.example.quickcash.utilities;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One-shot migration that moves every application to its deterministic key,
+ * {jobId}_{emailKey}, see ApplicationCRUD.applicationId. Applications used to be stored under
+ * push keys, so the same applicant could apply to a job twice. When several applications
+ * share a key, the one the employer acted on is kept, otherwise the oldest. Each application
+ * is copied to its new key with both index entries, and the old records and index entries are
+ * deleted with a deletedApplications tombstone, in batched multi-path updates. Run it after
+ * JobSchemaMigration, which fills in the index entries of old applications. Running it again
+ * is a no-op.
+ */
+public class ApplicationKeyMigration {
+
+    private static final String TAG = "ApplicationKeyMigration";
+
+    private final DatabaseReference rootRef;
+    private final int batchSize;
+
+    /**
+     * Creates a migration for the applications node of a database
+     * @param database The database to migrate
+     * @param batchSize Number of applications written per multi-path update
+     */
+    public ApplicationKeyMigration(FirebaseDatabase database, int batchSize) {
+        this.rootRef = database.getReference();
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates a migration for the default database
+     */
+    public ApplicationKeyMigration() {
+        this(DatabaseProvider.getInstance().getDatabase(), JobSchemaMigration.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Reads every application and moves the ones that are not under their deterministic key
+     * @param listener Listener notified of progress, completion and errors
+     */
+    public void run(JobSchemaMigration.MigrationListener listener) {
+        rootRef.child("applications").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Map<String, Map<String, Object>> applications = new HashMap<>();
+                int skipped = 0;
+                for (DataSnapshot application : snapshot.getChildren()) {
+                    Object value = application.getValue();
+                    if (value instanceof Map) {
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> record = (Map<String, Object>) value;
+                        applications.put(application.getKey(), record);
+                    } else {
+                        skipped++;
+                    }
+                }
+                List<Map<String, Object>> moves = rekeyUpdates(applications);
+                Log.d(TAG, "Moving " + moves.size() + " applications");
+                writeBatch(moves, 0, skipped, listener);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError("Failed to read applications: " + error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Writes the moves batchSize at a time, one batch after another, so progress is reported in order
+     */
+    private void writeBatch(List<Map<String, Object>> moves, int start, int skipped,
+                            JobSchemaMigration.MigrationListener listener) {
+        if (start >= moves.size()) {
+            listener.onComplete(moves.size(), skipped);
+            return;
+        }
+        int end = Math.min(start + batchSize, moves.size());
+        Map<String, Object> batch = new HashMap<>();
+        for (Map<String, Object> move : moves.subList(start, end)) {
+            batch.putAll(move);
+        }
+        rootRef.updateChildren(batch, (error, ref) -> {
+            if (error != null) {
+                listener.onError("Failed to write applications " + (start + 1) + " to " + end
+                        + ": " + error.getMessage());
+                return;
+            }
+            listener.onProgress(end, moves.size());
+            writeBatch(moves, end, skipped, listener);
+        });
+    }
+
+    /**
+     * Computes the updates that move applications to their deterministic keys
+     * @param applications The raw application records, keyed by their current key
+     * @return One multi-path update per deterministic key whose applications need moving or
+     *         merging, relative to the database root. Applications without a job ID or email
+     *         are left alone
+     */
+    public static List<Map<String, Object>> rekeyUpdates(Map<String, Map<String, Object>> applications) {
+        // Sorted keys, so push keys are in the order the applications were submitted
+        Map<String, List<String>> groups = new TreeMap<>();
+        for (String key : new TreeMap<>(applications).keySet()) {
+            Map<String, Object> record = applications.get(key);
+            String jobId = stringField(record, "jobId");
+            String email = stringField(record, "email");
+            if (jobId == null || email == null) {
+                continue;
+            }
+            String target = ApplicationCRUD.applicationId(jobId, email);
+            List<String> group = groups.get(target);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(target, group);
+            }
+            group.add(key);
+        }
+
+        List<Map<String, Object>> moves = new ArrayList<>();
+        for (Map.Entry<String, List<String>> group : groups.entrySet()) {
+            String target = group.getKey();
+            List<String> keys = group.getValue();
+            if (keys.size() == 1 && keys.get(0).equals(target)) {
+                continue;
+            }
+            String keeper = keeper(target, keys, applications);
+            Map<String, Object> updates = new HashMap<>();
+            if (!keeper.equals(target)) {
+                updates.putAll(copyUpdates(keeper, target, applications.get(keeper)));
+            }
+            for (String key : keys) {
+                if (!key.equals(target)) {
+                    updates.putAll(deleteUpdates(key, applications.get(key)));
+                }
+            }
+            moves.add(updates);
+        }
+        return moves;
+    }
+
+    /**
+     * Picks the application kept for a key: the one already under it, else the first one
+     * that is no longer open, else the first one
+     */
+    private static String keeper(String target, List<String> keys, Map<String, Map<String, Object>> applications) {
+        if (keys.contains(target)) {
+            return target;
+        }
+        for (String key : keys) {
+            String status = stringField(applications.get(key), "status");
+            if (status != null && !"open".equalsIgnoreCase(status)) {
+                return key;
+            }
+        }
+        return keys.get(0);
+    }
+
+    /**
+     * Writes an application, and both its index entries, under its new key
+     */
+    private static Map<String, Object> copyUpdates(String key, String target, Map<String, Object> record) {
+        String jobId = stringField(record, "jobId");
+        String email = stringField(record, "email");
+        String status = stringField(record, "status");
+        if (status == null) {
+            status = "open";
+        }
+        Map<String, Object> indexEntries = ApplicationCRUD.newApplicationUpdates(target, jobId, email, status);
+        String jobIndexPath = ApplicationCRUD.APPLICATIONS_BY_JOB + "/" + jobId + "/" + target;
+        String applicantIndexPath = ApplicationCRUD.applicantIndexPath(email, target);
+
+        Map<String, Object> copy = new HashMap<>(record);
+        copy.put("id", target);
+        copy.put("status", status);
+        // The old key identifies the submission that created the application
+        if (!copy.containsKey(ApplicationCRUD.SUBMISSION_ID)) {
+            copy.put(ApplicationCRUD.SUBMISSION_ID, key);
+        }
+        copy.put(DatabaseKeys.UPDATED_AT, ServerValue.TIMESTAMP);
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("applications/" + target, copy);
+        updates.put(jobIndexPath, indexEntries.get(jobIndexPath));
+        updates.put(applicantIndexPath, indexEntries.get(applicantIndexPath));
+        return updates;
+    }
+
+    /**
+     * Deletes an application and its index entries, leaving a tombstone for delta syncs
+     */
+    private static Map<String, Object> deleteUpdates(String key, Map<String, Object> record) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("applications/" + key, null);
+        updates.put(ApplicationCRUD.APPLICATIONS_BY_JOB + "/" + stringField(record, "jobId") + "/" + key, null);
+        updates.put(ApplicationCRUD.applicantIndexPath(stringField(record, "email"), key), null);
+        updates.put(ApplicationCRUD.DELETED_APPLICATIONS + "/" + key, ServerValue.TIMESTAMP);
+        return updates;
+    }
+
+    private static String stringField(Map<String, Object> record, String field) {
+        Object value = record.get(field);
+        return value instanceof String && !((String) value).isEmpty() ? (String) value : null;
+    }
+}
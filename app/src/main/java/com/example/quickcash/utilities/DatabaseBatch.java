@@ -0,0 +1,122 @@
+package com.example.quickcash.utilities;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DatabaseReference;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects writes to any number of nodes and applies them with a single multi-path
+ * updateChildren call, so related nodes (a record and its index entries, or many records at
+ * once) change together in one round trip and are never left half-updated. Writes are added
+ * through the CRUD classes, for example ApplicationCRUD.updateStatus(batch, ...) and
+ * JobCRUD.updateStatus(batch, ...). Paths are relative to the database root
+ */
+public class DatabaseBatch {
+
+    private final DatabaseReference rootReference;
+    private final Map<String, Object> updates = new HashMap<>();
+
+    /**
+     * Creates an empty batch
+     * @param rootReference Reference to the root of the database the batch is written to
+     */
+    public DatabaseBatch(DatabaseReference rootReference) {
+        this.rootReference = rootReference;
+    }
+
+    /**
+     * Adds a write to the batch. A later write to the same path replaces the earlier one
+     * @param path Path relative to the database root
+     * @param value The value to write, null to delete
+     * @return This batch
+     * @throws IllegalArgumentException If the path is an ancestor or descendant of a path
+     *         already in the batch, which updateChildren does not allow
+     */
+    public DatabaseBatch put(String path, Object value) {
+        String existing = overlapping(path);
+        if (existing != null) {
+            throw new IllegalArgumentException("Path " + path + " overlaps " + existing);
+        }
+        updates.put(path, value);
+        return this;
+    }
+
+    /**
+     * Checks whether a path can be added to the batch
+     * @param path Path relative to the database root
+     * @return true if the path is an ancestor or descendant of a path already in the batch
+     */
+    public boolean overlaps(String path) {
+        return overlapping(path) != null;
+    }
+
+    private String overlapping(String path) {
+        for (String existing : updates.keySet()) {
+            if (existing.startsWith(path + "/") || path.startsWith(existing + "/")) {
+                return existing;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds several writes to the batch
+     * @param paths Values keyed by path relative to the database root
+     * @return This batch
+     */
+    public DatabaseBatch putAll(Map<String, Object> paths) {
+        for (Map.Entry<String, Object> entry : paths.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * @return The number of paths written by the batch
+     */
+    public int size() {
+        return updates.size();
+    }
+
+    /**
+     * @return true if nothing has been added to the batch
+     */
+    public boolean isEmpty() {
+        return updates.isEmpty();
+    }
+
+    /**
+     * @return The writes in the batch, keyed by path
+     */
+    public Map<String, Object> getUpdates() {
+        return Collections.unmodifiableMap(updates);
+    }
+
+    /**
+     * Applies every write in the batch atomically
+     * @return The task of the write, already complete if the batch is empty
+     */
+    public Task<Void> commit() {
+        if (updates.isEmpty()) {
+            return Tasks.forResult(null);
+        }
+        return rootReference.updateChildren(new HashMap<>(updates));
+    }
+
+    /**
+     * Applies every write in the batch atomically, reporting the DatabaseError of a failed
+     * write, for callers that need to tell a rejected write from a lost connection
+     * @param listener Called once the write completes, right away if the batch is empty
+     */
+    public void commit(DatabaseReference.CompletionListener listener) {
+        if (updates.isEmpty()) {
+            listener.onComplete(null, rootReference);
+            return;
+        }
+        rootReference.updateChildren(new HashMap<>(updates), listener);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.quickcash.utilities;
+
+import java.util.Locale;
+
+/**
+ * Helpers for building Firebase keys out of values that are not valid keys on their own.
+ */
+public class DatabaseKeys {
+
+    /** Field holding the server time of the last write, set on every job and application */
+    public static final String UPDATED_AT = "updatedAt";
+
+    private DatabaseKeys() {
+    }
+
+    /**
+     * Converts an email to a key usable in a database path. Emails are lowercased, '.' is
+     * replaced with ',' (which cannot appear in an email) and the other characters that are
+     * not allowed in keys are percent-encoded
+     * @param email The email to convert
+     * @return The key for the email
+     */
+    public static String emailKey(String email) {
+        String lower = email.trim().toLowerCase(Locale.ROOT);
+        StringBuilder key = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            switch (c) {
+                case '.':
+                    key.append(',');
+                    break;
+                case '#':
+                case '$':
+                case '[':
+                case ']':
+                case '/':
+                case '%':
+                    key.append(String.format(Locale.ROOT, "%%%02X", (int) c));
+                    break;
+                default:
+                    key.append(c);
+            }
+        }
+        return key.toString();
+    }
+}
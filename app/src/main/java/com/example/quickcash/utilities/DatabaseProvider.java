@@ -0,0 +1,208 @@
+package com.example.quickcash.utilities;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ProcessLifecycleOwner;
+
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+/**
+ * App-wide owner of the Realtime Database instance. Every class reaches the database through
+ * here, so the instance, the disk cache settings and the references to the top-level nodes
+ * are set up once. The provider also keeps the connection to the lifetime of the app: the
+ * client is taken offline a little while after the app goes to the background, so the socket
+ * is not kept open, and back online when it returns. Background work that needs the
+ * connection holds it with acquireConnection. For tests, the whole app can be pointed at the
+ * database emulator with useEmulator before the database is first used.
+ */
+public class DatabaseProvider {
+
+    private static final String TAG = "DatabaseProvider";
+
+    /** URL of the app's database */
+    public static final String DATABASE_URL = "https://quickcash-ae34a-default-rtdb.firebaseio.com/";
+
+    /**
+     * Size of the on-disk database cache. Job summaries and the signed in user's indexes
+     * are small, 20 MB holds them with room for the job descriptions that were opened
+     */
+    private static final long CACHE_SIZE_BYTES = 20L * 1024 * 1024;
+
+    /** How long the client stays connected in the background, so a quick app switch does not reconnect */
+    private static final long BACKGROUND_GRACE_MS = 30000;
+
+    private static String emulatorHost;
+    private static int emulatorPort;
+
+    private static DatabaseProvider instance;
+
+    private final FirebaseDatabase database;
+    private final DatabaseReference rootReference;
+    private final DatabaseReference jobsReference;
+    private final DatabaseReference jobSummariesReference;
+    private final DatabaseReference applicationsReference;
+    private final DatabaseReference usersReference;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable goOffline = this::goOfflineIfIdle;
+
+    private boolean foreground = false;
+    private int connectionHolds = 0;
+    private boolean online = true;
+
+    private DatabaseProvider() {
+        database = FirebaseDatabase.getInstance(DATABASE_URL);
+        if (emulatorHost != null) {
+            database.useEmulator(emulatorHost, emulatorPort);
+            Log.d(TAG, "Using the database emulator at " + emulatorHost + ":" + emulatorPort);
+        }
+        // Both calls must happen before the database is first used
+        database.setPersistenceCacheSizeBytes(CACHE_SIZE_BYTES);
+        database.setPersistenceEnabled(true);
+
+        rootReference = database.getReference();
+        jobsReference = rootReference.child("jobs");
+        jobSummariesReference = rootReference.child(JobCRUD.JOB_SUMMARIES);
+        applicationsReference = rootReference.child("applications");
+        usersReference = rootReference.child("users");
+    }
+
+    /**
+     * Gets the shared provider, setting up the database the first time
+     * @return The app-wide provider
+     */
+    public static synchronized DatabaseProvider getInstance() {
+        if (instance == null) {
+            instance = new DatabaseProvider();
+        }
+        return instance;
+    }
+
+    /**
+     * Points the app at the Realtime Database emulator instead of the real database
+     * @param host Emulator host, 10.0.2.2 from an Android emulator
+     * @param port Emulator port, 9000 by default
+     * @throws IllegalStateException If the database was already used
+     */
+    public static synchronized void useEmulator(String host, int port) {
+        if (instance != null) {
+            throw new IllegalStateException("useEmulator must be called before the database is first used");
+        }
+        emulatorHost = host;
+        emulatorPort = port;
+    }
+
+    /**
+     * @return The database instance
+     */
+    public FirebaseDatabase getDatabase() {
+        return database;
+    }
+
+    /**
+     * @return The root of the database
+     */
+    public DatabaseReference getRootReference() {
+        return rootReference;
+    }
+
+    /**
+     * @return The jobs node
+     */
+    public DatabaseReference getJobsReference() {
+        return jobsReference;
+    }
+
+    /**
+     * @return The jobSummaries node
+     */
+    public DatabaseReference getJobSummariesReference() {
+        return jobSummariesReference;
+    }
+
+    /**
+     * @return The applications node
+     */
+    public DatabaseReference getApplicationsReference() {
+        return applicationsReference;
+    }
+
+    /**
+     * @return The users node
+     */
+    public DatabaseReference getUsersReference() {
+        return usersReference;
+    }
+
+    /**
+     * Follows the app between foreground and background. Called once from the main thread
+     * when the app starts. Until an activity starts the app counts as in the background, so
+     * a process started only for background work does not stay connected
+     */
+    public void trackAppLifecycle() {
+        ProcessLifecycleOwner.get().getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onStart(@NonNull LifecycleOwner owner) {
+                setForeground(true);
+            }
+
+            @Override
+            public void onStop(@NonNull LifecycleOwner owner) {
+                setForeground(false);
+            }
+        });
+        updateConnection();
+    }
+
+    /**
+     * Keeps the client connected while the app is in the background, until released
+     */
+    public synchronized void acquireConnection() {
+        connectionHolds++;
+        updateConnection();
+    }
+
+    /**
+     * Releases a connection acquired with acquireConnection
+     */
+    public synchronized void releaseConnection() {
+        connectionHolds = Math.max(0, connectionHolds - 1);
+        updateConnection();
+    }
+
+    private synchronized void setForeground(boolean foreground) {
+        this.foreground = foreground;
+        updateConnection();
+    }
+
+    /**
+     * Connects right away when the connection is needed, disconnects after the grace period
+     * once it is not
+     */
+    private synchronized void updateConnection() {
+        mainHandler.removeCallbacks(goOffline);
+        if (foreground || connectionHolds > 0) {
+            if (!online) {
+                database.goOnline();
+                online = true;
+                Log.d(TAG, "Connection resumed");
+            }
+        } else if (online) {
+            mainHandler.postDelayed(goOffline, BACKGROUND_GRACE_MS);
+        }
+    }
+
+    private synchronized void goOfflineIfIdle() {
+        if (online && !foreground && connectionHolds == 0) {
+            database.goOffline();
+            online = false;
+            Log.d(TAG, "Connection closed in the background");
+        }
+    }
+}
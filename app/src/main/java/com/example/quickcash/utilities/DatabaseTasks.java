@@ -0,0 +1,78 @@
+package com.example.quickcash.utilities;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Helpers for the Task-based reads of the CRUD classes. A read is a Task of the snapshot, and
+ * whenAll joins reads that were all started at once, so a screen gets a single completion
+ * point instead of nesting one listener inside another
+ */
+public final class DatabaseTasks {
+
+    private DatabaseTasks() {
+    }
+
+    /**
+     * Read a reference or query once. Unlike DatabaseReference.get(), this goes through
+     *  addListenerForSingleValueEvent, so cached data is used the same way the listener
+     *  based reads use it
+     * @param query The reference or query to read
+     * @return The task of the read, failed with a DatabaseException if the read is cancelled
+     */
+    public static Task<DataSnapshot> read(Query query) {
+        TaskCompletionSource<DataSnapshot> result = new TaskCompletionSource<>();
+        query.addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                result.setResult(snapshot);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                result.setException(error.toException());
+            }
+        });
+        return result.getTask();
+    }
+
+    /**
+     * Wait for every task in a list
+     * @param tasks Tasks that were all started already, so they run in parallel
+     * @return The task of the results, in the order of the tasks. Fails as soon as any task fails
+     */
+    public static <T> Task<List<T>> whenAll(Collection<Task<T>> tasks) {
+        if (tasks.isEmpty()) {
+            return Tasks.forResult(new ArrayList<>());
+        }
+        return Tasks.<T>whenAllSuccess(tasks);
+    }
+
+    /**
+     * Wait for every task in a list and drop the null results, such as records that do not exist
+     * @param tasks Tasks that were all started already, so they run in parallel
+     * @return The task of the non-null results, in the order of the tasks
+     */
+    public static <T> Task<List<T>> whenAllNonNull(Collection<Task<T>> tasks) {
+        return whenAll(tasks).onSuccessTask(results -> {
+            List<T> found = new ArrayList<>();
+            for (T result : results) {
+                if (result != null) {
+                    found.add(result);
+                }
+            }
+            return Tasks.forResult(found);
+        });
+    }
+}
@@ -1,24 +1,44 @@
 package com.example.quickcash.utilities;
 
 import com.example.quickcash.entities.User;
+import com.example.quickcash.entities.UserCodec;
 import com.google.android.gms.tasks.OnCompleteListener;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.AuthResult;
 import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * FirebaseCRUD class, responsible for accessing and updating users in Firebase. Every write
+ * also maintains the usersByEmail/{emailKey} index, which maps an email to its username so a
+ * user can be found without downloading the users node, and usernames/{username}, which
+ * anyone may read to check whether a username is taken before signing in. The users node
+ * itself is only readable once signed in
+ */
 public class FirebaseCRUD {
 
+    /** Name of the index node mapping each email to its username */
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+
+    /** Name of the node holding an entry for every username that is taken */
+    public static final String USERNAMES = "usernames";
+
     private final DatabaseReference databaseReference;
+    private final DatabaseReference rootReference;
     private final FirebaseAuth auth;
 
     /**
      * Constructor for FirebaseCRUD objects
      */
     public FirebaseCRUD() {
-        this.databaseReference = FirebaseDatabase.getInstance().getReference("users");
+        this.rootReference = DatabaseProvider.getInstance().getRootReference();
+        this.databaseReference = DatabaseProvider.getInstance().getUsersReference();
         this.auth = FirebaseAuth.getInstance();
     }
 
@@ -36,7 +56,7 @@ public class FirebaseCRUD {
                     if (authTask.isSuccessful()) {
                         FirebaseUser firebaseUser = auth.getCurrentUser();
                         if (firebaseUser != null) {
-                            databaseReference.child(user.getUsername()).setValue(user).addOnCompleteListener(dbListener);
+                            writeUser(user.getUsername(), user, null).addOnCompleteListener(dbListener);
                         }
                     }
                 });
@@ -46,23 +66,132 @@ public class FirebaseCRUD {
         databaseReference.child(username).addListenerForSingleValueEvent(valueEventListener);
     }
 
+    /**
+     * Method to read the usernames entry of a username, which exists if the username is
+     *  taken. Can be read before signing in
+     * @param username The username to check
+     * @param valueEventListener Listener given the entry
+     */
+    public void readUsername(String username, ValueEventListener valueEventListener) {
+        rootReference.child(USERNAMES).child(username).addListenerForSingleValueEvent(valueEventListener);
+    }
+
+    /**
+     * Method to fetch a user by username
+     * @param username The user's username
+     * @return The task of the read, with a null result if the user does not exist
+     */
+    public Task<User> getUser(String username) {
+        return DatabaseTasks.read(databaseReference.child(username))
+                .onSuccessTask(snapshot -> Tasks.forResult(UserCodec.fromSnapshot(snapshot)));
+    }
+
+    /**
+     * Method to find the username registered with an email, through the usersByEmail index.
+     *  Users registered before the index get their entry from UserIndexMigration
+     * @param email The email to look up
+     * @return The task of the lookup, with a null result if no user has the email
+     */
+    public Task<String> getUsernameByEmail(String email) {
+        return DatabaseTasks.read(emailIndex(email))
+                .onSuccessTask(snapshot -> Tasks.forResult(snapshot.getValue(String.class)));
+    }
+
+    /**
+     * Get the usersByEmail entry of an email
+     * @param email The email
+     * @return The reference to the entry holding the username
+     */
+    public DatabaseReference emailIndex(String email) {
+        return rootReference.child(USERS_BY_EMAIL).child(DatabaseKeys.emailKey(email));
+    }
+
+    /**
+     * Get the node of a user
+     * @param username The user's username
+     * @return The reference to the user
+     */
+    public DatabaseReference userReference(String username) {
+        return databaseReference.child(username);
+    }
+
     /**
      * Method to update a user in firebase
      *
      * @param username The user's username
      * @param updatedUser The updated User object containing the user's information
-     * @param onCompleteListener Function to execute after updating the user
+     * @param onCompleteListener Function to execute after updating the user, the task fails
+     *                           without writing if the old email could not be read
      */
     public void updateUser(String username, User updatedUser, OnCompleteListener<Void> onCompleteListener) {
-        databaseReference.child(username).setValue(updatedUser).addOnCompleteListener(onCompleteListener);
+        // The old email is needed to drop its index entry if the email changed
+        databaseReference.child(username).child("email").get()
+                .onSuccessTask(snapshot ->
+                        writeUser(username, updatedUser, snapshot.getValue(String.class)))
+                .addOnCompleteListener(onCompleteListener);
     }
 
     /**
      * Method to remove a user from the firebase
      * @param username The username of the user to remove from the database
-     * @param onCompleteListener Function to execute after removing the user
+     * @param onCompleteListener Function to execute after removing the user, the task fails
+     *                           without removing anything if the email could not be read
      */
     public void deleteUser(String username, OnCompleteListener<Void> onCompleteListener) {
-        databaseReference.child(username).removeValue().addOnCompleteListener(onCompleteListener);
+        // The email is needed to drop its index entry along with the user
+        databaseReference.child(username).child("email").get()
+                .onSuccessTask(snapshot -> {
+                    Map<String, Object> updates = new HashMap<>();
+                    updates.put("users/" + username, null);
+                    updates.put(USERNAMES + "/" + username, null);
+                    String email = snapshot.getValue(String.class);
+                    if (email != null) {
+                        updates.put(emailIndexPath(email), null);
+                    }
+                    return rootReference.updateChildren(updates);
+                })
+                .addOnCompleteListener(onCompleteListener);
+    }
+
+    /**
+     * Writes a user, its usernames entry and its usersByEmail entry in one atomic update
+     * @param username The user's username
+     * @param user The user to write
+     * @param previousEmail The email stored before this write, or null
+     * @return The task of the write
+     */
+    private Task<Void> writeUser(String username, User user, String previousEmail) {
+        return rootReference.updateChildren(userUpdates(username, user, previousEmail));
+    }
+
+    /**
+     * Build the multi-path update that writes a user and keeps the usernames and usersByEmail
+     *  entries in step
+     * @param username The user's username
+     * @param user The user to write
+     * @param previousEmail The email stored before this write, or null
+     * @return Updates relative to the database root
+     */
+    public static Map<String, Object> userUpdates(String username, User user, String previousEmail) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("users/" + username, user);
+        updates.put(USERNAMES + "/" + username, true);
+        if (previousEmail != null && (user.getEmail() == null
+                || !DatabaseKeys.emailKey(previousEmail).equals(DatabaseKeys.emailKey(user.getEmail())))) {
+            updates.put(emailIndexPath(previousEmail), null);
+        }
+        if (user.getEmail() != null) {
+            updates.put(emailIndexPath(user.getEmail()), username);
+        }
+        return updates;
+    }
+
+    /**
+     * Get the path of an email's entry in the usersByEmail index
+     * @param email The email
+     * @return The path, relative to the database root
+     */
+    public static String emailIndexPath(String email) {
+        return USERS_BY_EMAIL + "/" + DatabaseKeys.emailKey(email);
     }
 }
@@ -0,0 +1,209 @@
+package com.example.quickcash.utilities;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility class for encoding coordinates as geohashes and for computing the geohash
+ * ranges that cover a circle on the map. Jobs are stored with a geohash so that nearby
+ * jobs can be fetched with orderByChild("geohash") range queries instead of downloading
+ * the whole jobs node.
+ */
+public class GeoHash {
+
+    /** Base32 alphabet used by geohashes */
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    /** Precision stored in the database for every job */
+    public static final int DEFAULT_PRECISION = 10;
+
+    /** Longest precision used when building range queries */
+    private static final int MAX_QUERY_PRECISION = 9;
+
+    /** Kilometers per degree of latitude */
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private GeoHash() {
+    }
+
+    /**
+     * Encodes a coordinate as a geohash string
+     * @param latitude The latitude to encode
+     * @param longitude The longitude to encode
+     * @param precision Number of characters in the resulting hash
+     * @return The geohash of the coordinate
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90.0, maxLat = 90.0;
+        double minLng = -180.0, maxLng = 180.0;
+        double lat = Math.max(-90.0, Math.min(90.0, latitude));
+        double lng = wrapLongitude(longitude);
+
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (lng >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLng = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch = ch << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * Encodes a coordinate using the precision stored with jobs
+     */
+    public static String encode(double latitude, double longitude) {
+        return encode(latitude, longitude, DEFAULT_PRECISION);
+    }
+
+    /**
+     * Computes the geohash ranges covering a circle. Each entry is a two element array
+     * holding the start and end values to pass to startAt / endAt. The ranges may contain
+     * points outside of the circle, so results still need an exact distance check.
+     * @param latitude Latitude of the circle center
+     * @param longitude Longitude of the circle center
+     * @param radiusKm Radius of the circle in kilometers
+     * @return List of [start, end] geohash ranges
+     */
+    public static List<String[]> queryBounds(double latitude, double longitude, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double farthestLat = Math.min(90.0, Math.abs(latitude) + latDelta);
+        double lngDelta = longitudeDelta(farthestLat, radiusKm);
+
+        int precision = precisionForRadius(radiusKm, farthestLat);
+
+        // The cells at this precision are at least as large as the radius, so sampling the
+        // center and the edges of the bounding box touches every cell the circle overlaps
+        Set<String> cells = new LinkedHashSet<>();
+        double[] lats = {latitude - latDelta, latitude, latitude + latDelta};
+        double[] lngs = {longitude - lngDelta, longitude, longitude + lngDelta};
+        for (double lat : lats) {
+            for (double lng : lngs) {
+                cells.add(encode(lat, lng, precision));
+            }
+        }
+
+        List<String[]> bounds = new ArrayList<>();
+        for (String cell : cells) {
+            bounds.add(new String[]{cell, cell + "~"});
+        }
+        return bounds;
+    }
+
+    /**
+     * Computes the bounding box of a circle, for range queries that are then narrowed down
+     * with an exact distance check. The box is clamped to the valid coordinates and does not
+     * wrap around the antimeridian.
+     * @param latitude Latitude of the circle center
+     * @param longitude Longitude of the circle center
+     * @param radiusKm Radius of the circle in kilometers
+     * @return The southern, western, northern and eastern edges of the box, in that order
+     */
+    public static double[] boundingBox(double latitude, double longitude, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double lngDelta = longitudeDelta(Math.min(90.0, Math.abs(latitude) + latDelta), radiusKm);
+        return new double[]{
+                Math.max(-90.0, latitude - latDelta), Math.max(-180.0, longitude - lngDelta),
+                Math.min(90.0, latitude + latDelta), Math.min(180.0, longitude + lngDelta)};
+    }
+
+    /**
+     * Computes the geohash cells covering a bounding box. Uses the longest precision for
+     * which the box is covered by at most maxCells cells, so zoomed out views get fewer,
+     * larger cells.
+     * @param minLatitude Southern edge of the box
+     * @param minLongitude Western edge of the box
+     * @param maxLatitude Northern edge of the box
+     * @param maxLongitude Eastern edge of the box
+     * @param maxCells Maximum number of cells to return
+     * @return The covering cells
+     */
+    public static Set<String> coveringCells(double minLatitude, double minLongitude,
+                                            double maxLatitude, double maxLongitude, int maxCells) {
+        int precision = MAX_QUERY_PRECISION;
+        while (true) {
+            int bits = precision * 5;
+            double cellHeight = 180.0 / (1L << (bits / 2));
+            double cellWidth = 360.0 / (1L << ((bits + 1) / 2));
+            long rows = (long) Math.ceil((maxLatitude - minLatitude) / cellHeight) + 1;
+            long cols = (long) Math.ceil((maxLongitude - minLongitude) / cellWidth) + 1;
+
+            // Precision 1 is the coarsest there is, so it is always accepted
+            if (rows * cols <= maxCells || precision == 1) {
+                // Sample one point per cell row and column, plus the far edges of the box
+                Set<String> cells = new LinkedHashSet<>();
+                for (long row = 0; row < rows; row++) {
+                    double lat = Math.min(maxLatitude, minLatitude + row * cellHeight);
+                    for (long col = 0; col < cols; col++) {
+                        double lng = Math.min(maxLongitude, minLongitude + col * cellWidth);
+                        cells.add(encode(lat, lng, precision));
+                    }
+                }
+                return cells;
+            }
+            precision--;
+        }
+    }
+
+    /**
+     * Picks the longest precision whose cells are still at least as large as the radius
+     * in both directions.
+     */
+    static int precisionForRadius(double radiusKm, double latitude) {
+        double cosLat = Math.cos(Math.toRadians(Math.min(89.9, Math.abs(latitude))));
+        for (int precision = MAX_QUERY_PRECISION; precision > 1; precision--) {
+            int bits = precision * 5;
+            int lngBits = (bits + 1) / 2;
+            int latBits = bits / 2;
+            double cellHeightKm = 180.0 / (1L << latBits) * KM_PER_DEGREE;
+            double cellWidthKm = 360.0 / (1L << lngBits) * KM_PER_DEGREE * cosLat;
+            if (cellHeightKm >= radiusKm && cellWidthKm >= radiusKm) {
+                return precision;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * Converts a distance in kilometers to degrees of longitude at a given latitude
+     */
+    private static double longitudeDelta(double latitude, double distanceKm) {
+        double cosLat = Math.cos(Math.toRadians(Math.min(89.9, latitude)));
+        return Math.min(180.0, distanceKm / (KM_PER_DEGREE * cosLat));
+    }
+
+    /**
+     * Wraps a longitude into the range [-180, 180)
+     */
+    private static double wrapLongitude(double longitude) {
+        return ((longitude + 180.0) % 360.0 + 360.0) % 360.0 - 180.0;
+    }
+}
@@ -27,11 +27,11 @@ import com.example.quickcash.entities.Application;
 import com.example.quickcash.entities.Job;
 import com.google.android.material.card.MaterialCardView;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * Adapter for displaying job listings in a RecyclerView.
@@ -43,8 +43,10 @@ public class JobAdapter extends RecyclerView.Adapter<JobAdapter.JobViewHolder> {
     private double userLatitude;
     private double userLongitude;
     private String currentUserEmail;
-    private DatabaseReference applicationsRef;
+    private ApplicationCRUD applicationCRUD;
     private JobClickListener clickListener;
+    /** Jobs applied to from this list, their applications may still wait in the outbox */
+    private final Set<String> appliedJobIds = new HashSet<>();
 
     /**
      * Interface for job item click events.
@@ -63,7 +65,7 @@ public class JobAdapter extends RecyclerView.Adapter<JobAdapter.JobViewHolder> {
         this.userLongitude = userLongitude;
         this.currentUserEmail = FirebaseAuth.getInstance().getCurrentUser() != null ?
                 FirebaseAuth.getInstance().getCurrentUser().getEmail().toLowerCase() : "";
-        this.applicationsRef = FirebaseDatabase.getInstance().getReference("applications");
+        this.applicationCRUD = new ApplicationCRUD();
     }
 
     /**
@@ -99,8 +101,9 @@ public class JobAdapter extends RecyclerView.Adapter<JobAdapter.JobViewHolder> {
         // Set job title
         holder.jobTitleTextView.setText(job.getName());
 
-        // Set job description
+        // Set job description, jobs read from their summaries have none
         holder.jobDescriptionTextView.setText(job.getDescription());
+        holder.jobDescriptionTextView.setVisibility(job.getDescription() != null ? View.VISIBLE : View.GONE);
 
         // Set job category
         holder.jobCategoryTextView.setText("Category: " + job.getCategory());
@@ -154,25 +157,27 @@ public class JobAdapter extends RecyclerView.Adapter<JobAdapter.JobViewHolder> {
                 }
                 holder.itemView.setClickable(false); // Temporarily disable until check is done
 
-                DatabaseReference applicationsRef = FirebaseDatabase.getInstance().getReference("applications");
+                if (appliedJobIds.contains(job.getId())) {
+                    // Applied from this list, the application may not have been sent yet
+                    if (cardViewFinal != null) {
+                        cardViewFinal.setStrokeColor(context.getResources().getColor(android.R.color.darker_gray));
+                    }
+                    holder.itemView.setAlpha(0.6f);
+                    Log.d("JobAdapter", "Applied here - not clickable");
+                    return;
+                }
 
-                applicationsRef.orderByChild("jobId").equalTo(job.getId())
+                // Applications are keyed by job and applicant, so only this one entry is read
+                applicationCRUD.applicantEntry(currentUserEmail, job.getId())
                         .addListenerForSingleValueEvent(new ValueEventListener() {
                             @Override
                             public void onDataChange(@NonNull DataSnapshot snapshot) {
-                                boolean alreadyApplied = false;
-                                final String[] applicationId = {null};
-                                final String[] appStatus = {null};
-
-                                for (DataSnapshot snap : snapshot.getChildren()) {
-                                    String email = snap.child("email").getValue(String.class);
-                                    if (email != null && email.equalsIgnoreCase(currentUserEmail)) {
-                                        alreadyApplied = true;
-                                        appStatus[0] = snap.child("status").getValue(String.class);
-                                        applicationId[0] = snap.getKey();
-                                        break;
-                                    }
+                                // Queued before the read answered, the row was bound again for it
+                                if (appliedJobIds.contains(job.getId())) {
+                                    return;
                                 }
+                                boolean alreadyApplied = snapshot.exists();
+                                final String[] appStatus = {snapshot.child("status").getValue(String.class)};
 
                                 if (alreadyApplied) {
                                     if ("accepted".equalsIgnoreCase(appStatus[0])) {
@@ -193,6 +198,14 @@ public class JobAdapter extends RecyclerView.Adapter<JobAdapter.JobViewHolder> {
                                         holder.itemView.setAlpha(0.6f);
                                         Log.d("JobAdapter", "Already applied - not clickable");
                                     }
+                                } else if (JobStatus.fromValue(job.getStatus()) != JobStatus.OPEN) {
+                                    // Someone else was hired - the job no longer takes applications
+                                    if (cardViewFinal != null) {
+                                        cardViewFinal.setStrokeColor(context.getResources().getColor(android.R.color.darker_gray));
+                                    }
+                                    holder.itemView.setClickable(false);
+                                    holder.itemView.setAlpha(0.6f);
+                                    Log.d("JobAdapter", "Job closed - not clickable");
                                 } else {
                                     // Not yet applied - allow applying
                                     holder.itemView.setClickable(true);
@@ -265,8 +278,8 @@ public class JobAdapter extends RecyclerView.Adapter<JobAdapter.JobViewHolder> {
      * Submits a job application to Firebase.
      */
     private void submitApplication(Job job, String message) {
-        // Generate a new application ID
-        String applicationId = applicationsRef.push().getKey();
+        // The application is keyed by job and applicant, a second submission is dropped
+        String applicationId = ApplicationCRUD.applicationId(job.getId(), currentUserEmail);
 
         // Create an application object
         Application application = new Application(
@@ -280,13 +293,20 @@ public class JobAdapter extends RecyclerView.Adapter<JobAdapter.JobViewHolder> {
         // Set the job name if available
         application.setJobName(job.getName());
 
-        // Save to Firebase
-        applicationsRef.child(applicationId).setValue(application)
+        // Save to Firebase, together with its index entries
+        applicationCRUD.addNewApplication(application)
                 .addOnSuccessListener(aVoid -> {
-                    Toast.makeText(context, "Application submitted successfully", Toast.LENGTH_SHORT).show();
+                    // Show the job as applied now, not once the outbox has sent it
+                    appliedJobIds.add(job.getId());
+                    int position = jobList.indexOf(job);
+                    if (position >= 0) {
+                        notifyItemChanged(position);
+                    }
+                    boolean connected = OfflineSync.getInstance(context).isConnected();
+                    Toast.makeText(context, OfflineSync.describeSubmission(connected), Toast.LENGTH_SHORT).show();
                 })
                 .addOnFailureListener(e -> {
-                    Toast.makeText(context, "Failed to submit application: " + e.getMessage(),
+                    Toast.makeText(context, "Failed to queue application: " + e.getMessage(),
                             Toast.LENGTH_SHORT).show();
                 });
     }
@@ -1,35 +1,90 @@
 package com.example.quickcash.utilities;
 
+import com.example.quickcash.entities.ApplicationData;
 import com.example.quickcash.entities.Job;
+import com.example.quickcash.entities.JobCodec;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
 import com.google.firebase.database.ValueEventListener;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 
 /**
- * JobCRUD class, responsible for accessing and updating jobs in Firebase
+ * JobCRUD class, responsible for accessing and updating jobs in Firebase. Job statuses follow
+ * the lifecycle in JobStatus: hire() moves a job from open to hired, and transition() makes
+ * the later moves to completed and paid. Every write also maintains jobSummaries/{jobId}, a
+ * copy of each job without its description, which the list and map screens read instead of
+ * the full records
  */
 public class JobCRUD {
 
-    private final FirebaseDatabase database;
+    /** Name of the index node listing the IDs of the jobs posted by each employer */
+    public static final String JOBS_BY_EMPLOYER = "jobsByEmployer";
+
+    /** Name of the node holding the summary of each job, read by the list and map screens */
+    public static final String JOB_SUMMARIES = "jobSummaries";
+
+    /** Name of the node holding the deletion time of each deleted job, for delta syncs */
+    public static final String DELETED_JOBS = "deletedJobs";
+
+    /** Fields copied from a job into its summary, everything a list row or marker needs */
+    private static final String[] SUMMARY_FIELDS = {"name", "category", "latitude", "longitude",
+            "geohash", "email", "status", DatabaseKeys.UPDATED_AT};
+
+    /** Job reads in flight, shared by every JobCRUD so concurrent reads of a job are coalesced */
+    private static final SingleFlight<String, Job> jobReads = new SingleFlight<>();
+
+    /** Job summary reads in flight, shared the same way */
+    private static final SingleFlight<String, Job> summaryReads = new SingleFlight<>();
+
     private final DatabaseReference databaseReference;
+    private final DatabaseReference rootReference;
+    private final DatabaseReference summariesReference;
 
     /**
      * Constructor for FirebaseCRUD objects
      */
     public JobCRUD() {
-        this.database = FirebaseDatabase.getInstance("https://quickcash-ae34a-default-rtdb.firebaseio.com/");
-        this.databaseReference = database.getReference("jobs");
+        DatabaseProvider provider = DatabaseProvider.getInstance();
+        this.databaseReference = provider.getJobsReference();
+        this.rootReference = provider.getRootReference();
+        this.summariesReference = provider.getJobSummariesReference();
+    }
+
+    /**
+     * Get the reference to the jobs node
+     * @return The jobs node
+     */
+    public DatabaseReference getJobsReference() {
+        return databaseReference;
+    }
+
+    /**
+     * Get the reference to the jobSummaries node
+     * @return The jobSummaries node
+     */
+    public DatabaseReference getJobSummariesReference() {
+        return summariesReference;
     }
 
     /**
      * Add a new Job to the database, using a Job object passed in. Note that this method can also be
-     *  used to update an existing job by passing in a new job with the same name
+     *  used to update an existing job by passing in a new job with the same name. The database
+     *  client shows the job right away and keeps the write until the device is online
      * @param job The job object to be added to the database
+     * @return The task of the write
      */
-    public void addNewJob(Job job) {
+    public Task<Void> addNewJob(Job job) {
         // Generate a unique key for the new job
         String jobId = databaseReference.push().getKey();
         job.setId(jobId);
@@ -42,11 +97,166 @@ public class JobCRUD {
         jobValues.put("category", job.getCategory());
         jobValues.put("latitude", job.getLatitude());
         jobValues.put("longitude", job.getLongitude());
+        jobValues.put("geohash", GeoHash.encode(job.getLatitude(), job.getLongitude()));
         jobValues.put("email", job.getEmail()); // This ensures the email is saved
         jobValues.put("status", job.getStatus());
+        jobValues.put(DatabaseKeys.UPDATED_AT, ServerValue.TIMESTAMP);
+
+        // Save the job, its summary and its employer index entry in one atomic write
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("jobs/" + jobId, jobValues);
+        updates.put(JOB_SUMMARIES + "/" + jobId, summaryValues(jobValues));
+        if (job.getEmail() != null) {
+            updates.put(employerIndexPath(job.getEmail(), jobId), true);
+        }
+        return rootReference.updateChildren(updates);
+    }
+
+    /**
+     * Start a batch of writes to the jobs database. Add status changes with
+     *  updateStatus(batch, ...) and apply them all with one commit
+     * @return An empty batch
+     */
+    public DatabaseBatch newBatch() {
+        return new DatabaseBatch(rootReference);
+    }
 
-        // Save the job to Firebase with all fields
-        databaseReference.child(jobId).setValue(jobValues);
+    /**
+     * Change the status of a job
+     * @param jobId The ID of the job
+     * @param status The new status
+     * @return The task of the write
+     */
+    public Task<Void> updateStatus(String jobId, String status) {
+        DatabaseBatch batch = newBatch();
+        updateStatus(batch, jobId, status);
+        return batch.commit();
+    }
+
+    /**
+     * Add a status change of a job to a batch
+     * @param batch The batch to add the change to
+     * @param jobId The ID of the job
+     * @param status The new status
+     */
+    public void updateStatus(DatabaseBatch batch, String jobId, String status) {
+        batch.putAll(statusUpdates(jobId, status));
+    }
+
+    /**
+     * Move a job to the next status of its lifecycle. The current status is read first, and
+     *  the write fails if the lifecycle does not allow the move
+     * @param jobId The ID of the job
+     * @param next The new status
+     * @return The task of the write, failed with an IllegalStateException if the move is not allowed
+     */
+    public Task<Void> transition(String jobId, JobStatus next) {
+        return DatabaseTasks.read(databaseReference.child(jobId).child("status")).onSuccessTask(snapshot -> {
+            String current = snapshot.getValue(String.class);
+            JobStatus status = JobStatus.fromValue(current);
+            if (status == null || !status.canTransitionTo(next)) {
+                throw new IllegalStateException(
+                        "Job " + jobId + " cannot go from " + current + " to " + next.getValue());
+            }
+            return updateStatus(jobId, next.getValue());
+        });
+    }
+
+    /**
+     * Hire an applicant for a job. In one atomic write the chosen application is accepted,
+     *  every other open application to the job is rejected, and the job moves to hired, so
+     *  the job disappears from every other applicant's open applications at once. The
+     *  competing applications are found through the job's applicationsByJob entry
+     * @param jobId The ID of the job
+     * @param applicationId The ID of the application to accept
+     * @return The task of the write, failed with an IllegalStateException if the job is no
+     *         longer open or the application is not an open application to the job
+     */
+    public Task<Void> hire(String jobId, String applicationId) {
+        Map<String, String> hires = new HashMap<>();
+        hires.put(jobId, applicationId);
+        return hire(hires);
+    }
+
+    /**
+     * Hire one applicant for each of several jobs, in a single atomic write
+     * @param hires The ID of the application to accept, keyed by job ID
+     * @return The task of the write, failed with an IllegalStateException if any of the jobs
+     *         cannot be hired for, in which case nothing is written
+     */
+    public Task<Void> hire(Map<String, String> hires) {
+        List<Task<Map<String, Object>>> reads = new ArrayList<>();
+        for (Map.Entry<String, String> hire : hires.entrySet()) {
+            String jobId = hire.getKey();
+            // The job's status and its applications are read in parallel
+            Task<DataSnapshot> status = DatabaseTasks.read(databaseReference.child(jobId).child("status"));
+            Task<DataSnapshot> applications = DatabaseTasks.read(
+                    rootReference.child(ApplicationCRUD.APPLICATIONS_BY_JOB).child(jobId));
+            reads.add(Tasks.whenAll(status, applications).onSuccessTask(unused -> {
+                JobStatus current = JobStatus.fromValue(status.getResult().getValue(String.class));
+                if (current == null || !current.canTransitionTo(JobStatus.HIRED)) {
+                    throw new IllegalStateException("Job " + jobId + " is no longer open");
+                }
+                return Tasks.forResult(hireUpdates(jobId, hire.getValue(),
+                        ApplicationCRUD.jobIndexEntries(jobId, applications.getResult())));
+            }));
+        }
+        return DatabaseTasks.whenAll(reads).onSuccessTask(updates -> {
+            DatabaseBatch batch = newBatch();
+            for (Map<String, Object> jobUpdates : updates) {
+                batch.putAll(jobUpdates);
+            }
+            return batch.commit();
+        });
+    }
+
+    /**
+     * Build the multi-path update that hires an applicant: the chosen application is accepted,
+     *  every other open application is rejected and the job moves to hired
+     * @param jobId The ID of the job
+     * @param applicationId The ID of the application to accept
+     * @param applications Every application to the job, with their ID, email and status set
+     * @return Updates relative to the database root
+     * @throws IllegalStateException If the application is not an open application to the job
+     */
+    public static Map<String, Object> hireUpdates(String jobId, String applicationId,
+                                                  List<ApplicationData> applications) {
+        Map<String, Object> updates = new HashMap<>();
+        boolean found = false;
+        for (ApplicationData application : applications) {
+            String status = application.getStatus() != null ? application.getStatus() : "open";
+            if (!"open".equalsIgnoreCase(status)) {
+                if (application.getId().equals(applicationId)) {
+                    throw new IllegalStateException("Application " + applicationId + " is already " + status);
+                }
+                continue;
+            }
+            boolean winner = application.getId().equals(applicationId);
+            found |= winner;
+            updates.putAll(ApplicationCRUD.statusUpdates(application.getId(), jobId,
+                    application.getEmail(), winner ? "accepted" : "rejected"));
+        }
+        if (!found) {
+            throw new IllegalStateException("Application " + applicationId + " is not an application to job " + jobId);
+        }
+        updates.putAll(statusUpdates(jobId, JobStatus.HIRED.getValue()));
+        return updates;
+    }
+
+    /**
+     * Build the multi-path update that changes the status of a job everywhere it is stored,
+     *  and stamps both copies with the server time
+     * @param jobId The ID of the job
+     * @param status The new status
+     * @return Updates relative to the database root
+     */
+    public static Map<String, Object> statusUpdates(String jobId, String status) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("jobs/" + jobId + "/status", status);
+        updates.put("jobs/" + jobId + "/" + DatabaseKeys.UPDATED_AT, ServerValue.TIMESTAMP);
+        updates.put(JOB_SUMMARIES + "/" + jobId + "/status", status);
+        updates.put(JOB_SUMMARIES + "/" + jobId + "/" + DatabaseKeys.UPDATED_AT, ServerValue.TIMESTAMP);
+        return updates;
     }
 
     /**
@@ -65,25 +275,184 @@ public class JobCRUD {
         databaseReference.addListenerForSingleValueEvent(valueEventListener);
     }
 
+    /**
+     * Fetch a job by ID. If the job is already being read, by this or any other caller,
+     *  the read in flight is shared instead of starting another one
+     * @param jobId The ID of the job
+     * @return The task of the read, with a null result if the job does not exist
+     */
+    public Task<Job> getJob(String jobId) {
+        return jobReads.run(jobId, () -> DatabaseTasks.read(databaseReference.child(jobId))
+                .onSuccessTask(snapshot -> Tasks.forResult(JobCodec.fromSnapshot(snapshot))));
+    }
+
+    /**
+     * Fetch the summary of a job, which has every field but the description. Reads in flight
+     *  are shared like in getJob
+     * @param jobId The ID of the job
+     * @return The task of the read, with a null result if the job does not exist
+     */
+    public Task<Job> getJobSummary(String jobId) {
+        return summaryReads.run(jobId, () -> DatabaseTasks.read(summariesReference.child(jobId))
+                .onSuccessTask(snapshot -> Tasks.forResult(JobCodec.fromSnapshot(snapshot))));
+    }
+
+    /**
+     * Fetch the description of a job, the one field left out of its summary
+     * @param jobId The ID of the job
+     * @return The task of the read, with a null result if the job has no description
+     */
+    public Task<String> getJobDescription(String jobId) {
+        return DatabaseTasks.read(databaseReference.child(jobId).child("description"))
+                .onSuccessTask(snapshot -> Tasks.forResult(snapshot.getValue(String.class)));
+    }
+
+    /**
+     * Fetch a list of jobs by ID, for list screens. The jobs are read from their summaries, so
+     *  their description is not set. All reads are issued at once, duplicate IDs and jobs already
+     *  being read are only read once, and the jobs are delivered together in one result
+     * @param jobIds The IDs of the jobs to read
+     * @return The task of the jobs that exist, in the order of jobIds without duplicates
+     */
+    public Task<List<Job>> readJobs(Collection<String> jobIds) {
+        List<Task<Job>> reads = new ArrayList<>();
+        for (String jobId : new LinkedHashSet<>(jobIds)) {
+            reads.add(getJobSummary(jobId));
+        }
+        return DatabaseTasks.whenAllNonNull(reads);
+    }
+
+    /**
+     * Fetch every job posted by an employer. Reads the employer's entry in the jobsByEmployer
+     *  index and then only those jobs, so the cost grows with the employer's own jobs rather
+     *  than with every job in the database
+     * @param email The email of the employer
+     * @return The task of the employer's jobs
+     */
+    public Task<List<Job>> getJobsByEmployer(String email) {
+        return DatabaseTasks.read(rootReference.child(JOBS_BY_EMPLOYER).child(DatabaseKeys.emailKey(email)))
+                .onSuccessTask(snapshot -> {
+                    List<String> jobIds = new ArrayList<>();
+                    for (DataSnapshot entry : snapshot.getChildren()) {
+                        jobIds.add(entry.getKey());
+                    }
+                    return readJobs(jobIds);
+                });
+    }
+
+    /**
+     * Fetch every job within a radius of a point. Issues one orderByChild("geohash") range
+     *  query per covering geohash cell, all at once, and then drops the jobs that fall outside
+     *  of the circle, so only the jobs around the point are downloaded instead of the whole jobs node
+     * @param latitude Latitude of the center point
+     * @param longitude Longitude of the center point
+     * @param radiusKm Radius in kilometers
+     * @return The task of the jobs inside the radius
+     */
+    public Task<List<Job>> getJobsWithinRadius(double latitude, double longitude, double radiusKm) {
+        List<Task<DataSnapshot>> cells = new ArrayList<>();
+        for (String[] bound : GeoHash.queryBounds(latitude, longitude, radiusKm)) {
+            cells.add(DatabaseTasks.read(geohashCellQuery(bound[0])));
+        }
+        return DatabaseTasks.whenAll(cells).onSuccessTask(snapshots -> {
+            Map<String, Job> matches = new LinkedHashMap<>();
+            for (DataSnapshot snapshot : snapshots) {
+                for (DataSnapshot jobSnapshot : snapshot.getChildren()) {
+                    Job job = JobCodec.fromSnapshot(jobSnapshot);
+                    if (job != null && LocationUtils.calculateDistance(latitude, longitude,
+                            job.getLatitude(), job.getLongitude()) <= radiusKm) {
+                        matches.put(job.getId(), job);
+                    }
+                }
+            }
+            return Tasks.forResult(new ArrayList<>(matches.values()));
+        });
+    }
+
+    /**
+     * Build the query for every job summary whose geohash starts with the given cell
+     * @param cell A geohash cell, of any precision
+     * @return The query over the summaries of the jobs in the cell
+     */
+    public Query geohashCellQuery(String cell) {
+        return summariesReference.orderByChild("geohash").startAt(cell).endAt(cell + "~");
+    }
 
     /**
-     * Remove a given job from the database using the name of the job
-     * @param jobID The name of the job to remove
+     * Remove a given job from the database using the ID of the job. The job's email is read
+     *  first so that its employer index entry can be removed in the same write, from the
+     *  summary if the job itself has no email. If neither can be read nothing is removed and
+     *  the task fails, rather than leaving the index entry behind
+     * @param jobID The ID of the job to remove
+     * @return The task of the removal
      */
-    public void deleteJob(String jobID) {
-        databaseReference.child(jobID).removeValue();
+    public Task<Void> deleteJob(String jobID) {
+        return DatabaseTasks.read(databaseReference.child(jobID).child("email"))
+                .continueWithTask(job -> {
+                    String email = job.isSuccessful() ? job.getResult().getValue(String.class) : null;
+                    if (email != null) {
+                        return Tasks.forResult(email);
+                    }
+                    return DatabaseTasks.read(summariesReference.child(jobID).child("email"))
+                            .onSuccessTask(summary -> Tasks.forResult(summary.getValue(String.class)));
+                })
+                .onSuccessTask(email -> removeJob(jobID, email));
     }
 
     /**
      * Remove a given job from the database using a Job object
      * @param job The job object to remove
+     * @return The task of the removal
      */
-    public void deleteJob(Job job) {
+    public Task<Void> deleteJob(Job job) {
         if (job.getId() != null) {
-            databaseReference.child(job.getId()).removeValue();
+            return removeJob(job.getId(), job.getEmail());
         } else {
             // Fallback to using name if ID is not available (for backward compatibility)
-            databaseReference.child(job.getName()).removeValue();
+            return deleteJob(job.getName());
         }
     }
+
+    /**
+     * Remove a job, its summary and its employer index entry in one atomic write. The deletion
+     *  time is recorded in deletedJobs, so local mirrors learn about it on their next delta sync
+     * @param jobID The ID of the job
+     * @param email The employer's email, or null if the job and its summary are already gone
+     * @return The task of the write
+     */
+    private Task<Void> removeJob(String jobID, String email) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("jobs/" + jobID, null);
+        updates.put(JOB_SUMMARIES + "/" + jobID, null);
+        updates.put(DELETED_JOBS + "/" + jobID, ServerValue.TIMESTAMP);
+        if (email != null) {
+            updates.put(employerIndexPath(email, jobID), null);
+        }
+        return rootReference.updateChildren(updates);
+    }
+
+    /**
+     * Build the summary of a job
+     * @param jobValues The fields of the job, as written to the jobs node
+     * @return The fields kept in jobSummaries, without the description
+     */
+    public static Map<String, Object> summaryValues(Map<String, Object> jobValues) {
+        Map<String, Object> summary = new HashMap<>();
+        for (String field : SUMMARY_FIELDS) {
+            if (jobValues.get(field) != null) {
+                summary.put(field, jobValues.get(field));
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Build the path of a job's entry in the jobsByEmployer index
+     * @param email The employer's email
+     * @param jobID The ID of the job
+     * @return The path relative to the database root
+     */
+    public static String employerIndexPath(String email, String jobID) {
+        return JOBS_BY_EMPLOYER + "/" + DatabaseKeys.emailKey(email) + "/" + jobID;
+    }
 }
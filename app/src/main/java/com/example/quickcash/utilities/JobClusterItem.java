@@ -0,0 +1,92 @@
+package com.example.quickcash.utilities;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.quickcash.entities.Job;
+import com.google.android.gms.maps.model.LatLng;
+import com.google.maps.android.clustering.ClusterItem;
+
+/**
+ * Wraps a job so that it can be added to a ClusterManager on the map.
+ */
+public class JobClusterItem implements ClusterItem {
+
+    private Job job;
+    private LatLng position;
+
+    /**
+     * Creates a cluster item for a job
+     * @param job The job shown by this item
+     */
+    public JobClusterItem(Job job) {
+        setJob(job);
+    }
+
+    /**
+     * Replaces the job shown by this item, used when a job changes while it is on the map
+     * @param job The updated job
+     */
+    public void setJob(Job job) {
+        this.job = job;
+        this.position = new LatLng(job.getLatitude(), job.getLongitude());
+    }
+
+    public Job getJob() {
+        return job;
+    }
+
+    @NonNull
+    @Override
+    public LatLng getPosition() {
+        return position;
+    }
+
+    @Nullable
+    @Override
+    public String getTitle() {
+        return job.getName();
+    }
+
+    @Nullable
+    @Override
+    public String getSnippet() {
+        // Jobs on the map are summaries, which have no description
+        return job.getDescription() != null ? job.getDescription() : job.getCategory();
+    }
+
+    @Nullable
+    public Float getZIndex() {
+        return null;
+    }
+
+    /**
+     * Gets the key used to match a job with the marker already on the map. Jobs loaded from
+     * Firebase are keyed by ID, jobs without one fall back to their name and position
+     * @param job The job to get the key for
+     * @return The marker key
+     */
+    public static String keyFor(Job job) {
+        if (job.getId() != null) {
+            return job.getId();
+        }
+        return job.getName() + "@" + job.getLatitude() + "," + job.getLongitude();
+    }
+
+    /**
+     * Whether the marker for this item has to be redrawn to show the given job
+     * @param other The updated job
+     * @return true if the position, title, snippet or category differ
+     */
+    public boolean differsFrom(Job other) {
+        return job.getLatitude() != other.getLatitude()
+                || job.getLongitude() != other.getLongitude()
+                || !equal(job.getName(), other.getName())
+                || !equal(job.getDescription(), other.getDescription())
+                || !equal(job.getCategory(), other.getCategory());
+    }
+
+    private static boolean equal(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.quickcash.utilities;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.maps.GoogleMap;
+import com.google.android.gms.maps.model.BitmapDescriptor;
+import com.google.android.gms.maps.model.BitmapDescriptorFactory;
+import com.google.android.gms.maps.model.Marker;
+import com.google.android.gms.maps.model.MarkerOptions;
+import com.google.maps.android.clustering.ClusterManager;
+import com.google.maps.android.clustering.view.DefaultClusterRenderer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renders job cluster items with a marker color per job category. The icon for each
+ * category is created once and reused for every marker, instead of building a new
+ * BitmapDescriptor per job.
+ */
+public class JobClusterRenderer extends DefaultClusterRenderer<JobClusterItem> {
+
+    /** Marker hue for each category posted from PostJobActivity */
+    private static final Map<String, Float> CATEGORY_HUES = new HashMap<>();
+
+    static {
+        CATEGORY_HUES.put("Technology", BitmapDescriptorFactory.HUE_AZURE);
+        CATEGORY_HUES.put("Hard Labour", BitmapDescriptorFactory.HUE_ORANGE);
+        CATEGORY_HUES.put("Marketing", BitmapDescriptorFactory.HUE_MAGENTA);
+        CATEGORY_HUES.put("Retail", BitmapDescriptorFactory.HUE_GREEN);
+        CATEGORY_HUES.put("Education", BitmapDescriptorFactory.HUE_VIOLET);
+    }
+
+    /** Icons already created, keyed by category */
+    private final Map<String, BitmapDescriptor> iconCache = new HashMap<>();
+
+    public JobClusterRenderer(Context context, GoogleMap map, ClusterManager<JobClusterItem> clusterManager) {
+        super(context, map, clusterManager);
+    }
+
+    @Override
+    protected void onBeforeClusterItemRendered(@NonNull JobClusterItem item, @NonNull MarkerOptions markerOptions) {
+        markerOptions.icon(iconFor(item.getJob().getCategory()))
+                .title(item.getTitle())
+                .snippet(item.getSnippet());
+    }
+
+    @Override
+    protected void onClusterItemUpdated(@NonNull JobClusterItem item, @NonNull Marker marker) {
+        marker.setIcon(iconFor(item.getJob().getCategory()));
+        marker.setTitle(item.getTitle());
+        marker.setSnippet(item.getSnippet());
+    }
+
+    /**
+     * Gets the cached icon for a category, creating it the first time it is needed
+     * @param category The job category, may be null
+     * @return The marker icon
+     */
+    public BitmapDescriptor iconFor(String category) {
+        String key = category == null ? "" : category;
+        BitmapDescriptor icon = iconCache.get(key);
+        if (icon == null) {
+            Float hue = CATEGORY_HUES.get(key);
+            icon = BitmapDescriptorFactory.defaultMarker(hue != null ? hue : BitmapDescriptorFactory.HUE_RED);
+            iconCache.put(key, icon);
+        }
+        return icon;
+    }
+}
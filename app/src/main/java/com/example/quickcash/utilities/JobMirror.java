@@ -0,0 +1,402 @@
+package com.example.quickcash.utilities;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.quickcash.entities.ApplicationCodec;
+import com.example.quickcash.entities.ApplicationData;
+import com.example.quickcash.entities.ApplicationRecord;
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.entities.JobCodec;
+import com.example.quickcash.entities.JobRecord;
+import com.example.quickcash.entities.SyncCursor;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local Room mirror of the job summaries a user reads and of their applications, kept up to
+ * date with delta syncs. Only the user's own slice of jobs is mirrored: for employees the
+ * summaries in the geohash cells OfflineSync keeps synced around their last location, for
+ * employers the summaries of the jobs they posted. That slice is read whole on each sync,
+ * from cells the disk cache already holds, and replaces the mirrored jobs. Applications are
+ * stamped with a server updatedAt, so each index entry is read with
+ * orderByChild("updatedAt").startAt(cursor) and a session only downloads what changed since
+ * the last sync. Deletions are learned from the deletedJobs and deletedApplications
+ * tombstones the same way. Tombstones are kept for TOMBSTONE_RETENTION_MS, older ones are
+ * pruned by the clients that sync, so a mirror not synced for that long may have missed
+ * deletions and is rebuilt from scratch. Screens can then query the mirror with SQL, by
+ * category, status or bounding box, instead of scanning snapshots. The search screen lists
+ * jobs from it while the client is offline. Results are delivered on the main thread.
+ */
+public class JobMirror {
+
+    private static final String TAG = "JobMirror";
+
+    /** How long deletions are kept in the tombstone nodes */
+    public static final long TOMBSTONE_RETENTION_MS = TimeUnit.DAYS.toMillis(30);
+
+    /** Most expired tombstones a sync removes from each node */
+    private static final int PRUNE_LIMIT = 100;
+
+    /** Cursor scope holding the server time of the last complete sync */
+    private static final String LAST_SYNC = "lastSync";
+
+    private static JobMirror instance;
+
+    /**
+     * Turns a child of a synced node into a record, or null to skip it
+     */
+    private interface RecordParser<R> {
+        R parse(DataSnapshot child);
+    }
+
+    /**
+     * Stores the records of a sync and its new cursor in one Room transaction
+     */
+    private interface RecordWriter<R> {
+        void write(List<R> records, SyncCursor cursor);
+    }
+
+    private final MirrorDao dao;
+    private final JobCRUD jobCRUD = new JobCRUD();
+    private final ApplicationCRUD applicationCRUD = new ApplicationCRUD();
+    private final FirebaseDatabase database = DatabaseProvider.getInstance().getDatabase();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    /** Last sync started, the next one waits for it so cursors are never moved concurrently */
+    private Task<Void> lastSync = Tasks.forResult(null);
+
+    private JobMirror(MirrorDao dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Gets the shared mirror
+     * @param context Any context, only the application context is kept
+     * @return The app-wide mirror
+     */
+    public static synchronized JobMirror getInstance(Context context) {
+        if (instance == null) {
+            instance = new JobMirror(MirrorDatabase.getInstance(context).mirrorDao());
+        }
+        return instance;
+    }
+
+    /**
+     * Brings the mirror up to date for a user: the job summaries of their slice, and the
+     * applications of an employee or the applications to an employer's jobs. Must be called
+     * on the main thread
+     * @param role The user's role
+     * @param email The user's email
+     * @param cells The geohash cells of job summaries kept synced for the user, see OfflineSync.hotCells
+     * @return The task of the sync
+     */
+    public Task<Void> sync(String role, String email, Collection<String> cells) {
+        List<String> hotCells = new ArrayList<>(cells);
+        lastSync = lastSync.continueWithTask(previous -> syncNow(role, email, hotCells))
+                .addOnSuccessListener(unused -> Log.d(TAG, "Mirror synced for " + role))
+                .addOnFailureListener(e -> Log.e(TAG, "Mirror sync failed: " + e.getMessage()));
+        return lastSync;
+    }
+
+    private Task<Void> syncNow(String role, String email, List<String> cells) {
+        return serverTime().onSuccessTask(executor, now -> {
+            SyncCursor last = dao.getCursor(LAST_SYNC);
+            if (last != null && now - last.getLastUpdatedAt() > TOMBSTONE_RETENTION_MS) {
+                // Deletions this mirror has not seen may have been pruned, start over
+                Log.d(TAG, "Mirror is older than the tombstones, resyncing from scratch");
+                dao.clear();
+            }
+            return Tasks.forResult(now);
+        }).onSuccessTask(now -> syncSlice(role, email, cells, now - TOMBSTONE_RETENTION_MS)
+                .onSuccessTask(unused -> Tasks.whenAll(
+                        pruneTombstones(JobCRUD.DELETED_JOBS, now - TOMBSTONE_RETENTION_MS),
+                        pruneTombstones(ApplicationCRUD.DELETED_APPLICATIONS, now - TOMBSTONE_RETENTION_MS)))
+                .onSuccessTask(executor, unused -> {
+                    dao.saveCursor(new SyncCursor(LAST_SYNC, now));
+                    return Tasks.forResult(null);
+                }));
+    }
+
+    /**
+     * Syncs the jobs and applications of a user
+     * @param retainedSince Oldest deletion still in the tombstone nodes
+     */
+    private Task<Void> syncSlice(String role, String email, List<String> cells, long retainedSince) {
+        Task<List<JobRecord>> jobs = readJobs(role, email, cells).onSuccessTask(executor, records -> {
+            dao.replaceJobs(records);
+            Log.d(TAG, "Mirrored " + records.size() + " jobs");
+            return Tasks.forResult(records);
+        });
+        Task<Void> deletedJobs = jobs.onSuccessTask(unused -> syncNode(JobCRUD.DELETED_JOBS,
+                database.getReference(JobCRUD.DELETED_JOBS), true, retainedSince,
+                DataSnapshot::getKey, dao::applyJobDeletions));
+
+        Task<Void> applications;
+        if (email == null) {
+            applications = Tasks.forResult(null);
+        } else if ("Employee".equalsIgnoreCase(role)) {
+            applications = syncApplications(ApplicationCRUD.APPLICATIONS_BY_APPLICANT + "/"
+                    + DatabaseKeys.emailKey(email), applicationCRUD.applicantIndex(email), null, email);
+        } else {
+            // An employer's mirrored jobs are the jobs they posted
+            applications = jobs.onSuccessTask(records -> {
+                List<Task<Void>> syncs = new ArrayList<>();
+                for (JobRecord record : records) {
+                    syncs.add(syncApplications(ApplicationCRUD.APPLICATIONS_BY_JOB + "/" + record.getId(),
+                            applicationCRUD.jobIndex(record.getId()), record.getId(), null));
+                }
+                return Tasks.whenAll(syncs);
+            });
+        }
+
+        Task<Void> deletedApplications = applications.onSuccessTask(unused -> syncNode(
+                ApplicationCRUD.DELETED_APPLICATIONS, database.getReference(ApplicationCRUD.DELETED_APPLICATIONS),
+                true, retainedSince, DataSnapshot::getKey, dao::applyApplicationDeletions));
+        return Tasks.whenAll(deletedJobs, deletedApplications);
+    }
+
+    /**
+     * Reads the job summaries of a user's slice: the summaries in the hot cells for an
+     * employee, the summaries of the jobs listed in jobsByEmployer for an employer
+     */
+    private Task<List<JobRecord>> readJobs(String role, String email, List<String> cells) {
+        List<Task<DataSnapshot>> reads = new ArrayList<>();
+        if ("Employee".equalsIgnoreCase(role)) {
+            for (String cell : cells) {
+                reads.add(DatabaseTasks.read(jobCRUD.geohashCellQuery(cell)));
+            }
+        } else if ("Employer".equalsIgnoreCase(role) && email != null) {
+            return DatabaseTasks.read(database.getReference(JobCRUD.JOBS_BY_EMPLOYER)
+                    .child(DatabaseKeys.emailKey(email))).onSuccessTask(posted -> {
+                        List<Task<DataSnapshot>> summaries = new ArrayList<>();
+                        for (DataSnapshot job : posted.getChildren()) {
+                            summaries.add(DatabaseTasks.read(jobCRUD.getJobSummariesReference().child(job.getKey())));
+                        }
+                        return DatabaseTasks.whenAll(summaries);
+                    }).onSuccessTask(summaries -> Tasks.forResult(toJobRecords(summaries, false)));
+        }
+        return DatabaseTasks.whenAll(reads).onSuccessTask(snapshots -> Tasks.forResult(toJobRecords(snapshots, true)));
+    }
+
+    /**
+     * @param parents true if the snapshots are cells holding summaries, false if they are summaries
+     */
+    private static List<JobRecord> toJobRecords(List<DataSnapshot> snapshots, boolean parents) {
+        List<JobRecord> records = new ArrayList<>();
+        for (DataSnapshot snapshot : snapshots) {
+            for (DataSnapshot child : parents ? snapshot.getChildren() : Collections.singletonList(snapshot)) {
+                Job job = JobCodec.fromSnapshot(child);
+                if (job != null) {
+                    records.add(new JobRecord(job, updatedAt(child, false)));
+                }
+            }
+        }
+        return records;
+    }
+
+    /**
+     * @return The task of the server's current time, as estimated by the client
+     */
+    private Task<Long> serverTime() {
+        return DatabaseTasks.read(database.getReference(".info/serverTimeOffset")).continueWith(task -> {
+            Long offset = task.isSuccessful() ? task.getResult().getValue(Long.class) : null;
+            return System.currentTimeMillis() + (offset != null ? offset : 0);
+        });
+    }
+
+    /**
+     * Removes tombstones older than the retention window. Every client that syncs prunes a
+     * few, so the nodes stay bounded without a server job. A failed prune is left to the next sync
+     * @param node The tombstone node
+     * @param before Tombstones recorded before this time are removed
+     */
+    private Task<Void> pruneTombstones(String node, long before) {
+        DatabaseReference reference = database.getReference(node);
+        return DatabaseTasks.read(reference.orderByValue().endAt(before).limitToFirst(PRUNE_LIMIT))
+                .onSuccessTask(snapshot -> {
+                    Map<String, Object> expired = new HashMap<>();
+                    for (DataSnapshot child : snapshot.getChildren()) {
+                        expired.put(child.getKey(), null);
+                    }
+                    return expired.isEmpty() ? Tasks.<Void>forResult(null) : reference.updateChildren(expired);
+                })
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        Log.w(TAG, "Could not prune " + node + ": " + task.getException());
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Syncs one applications index entry. Index entries leave out the field their key holds,
+     * so the job ID or the email is filled in from the scope
+     */
+    private Task<Void> syncApplications(String scope, Query index, String jobId, String email) {
+        return syncNode(scope, index, false, 0, child -> {
+            ApplicationData entry = ApplicationCodec.fromSnapshot(child);
+            return entry == null ? null : new ApplicationRecord(child.getKey(),
+                    jobId != null ? jobId : entry.getJobId(),
+                    email != null ? email : entry.getEmail(),
+                    entry.getStatus(), updatedAt(child, false));
+        }, dao::applyApplications);
+    }
+
+    /**
+     * Reads the children of a node changed since its cursor and writes them to the mirror.
+     * A node that was never synced and has no floor is read whole, which also picks up records
+     * written before updatedAt existed. The cursor moves to the highest updatedAt received; startAt is
+     * inclusive, so records stamped at the cursor are read again and simply replaced
+     * @param scope Path of the node, the key of its cursor
+     * @param node The node
+     * @param tombstones true if the children are deletion times rather than records
+     * @param floor Oldest time worth reading, tombstones older than the mirror's records are skipped
+     */
+    private <R> Task<Void> syncNode(String scope, Query node, boolean tombstones, long floor,
+                                    RecordParser<R> parser, RecordWriter<R> writer) {
+        return onDisk(() -> {
+            SyncCursor cursor = dao.getCursor(scope);
+            return Math.max(cursor != null ? cursor.getLastUpdatedAt() : 0L, floor);
+        }).onSuccessTask(since -> {
+            Query query = node;
+            if (since > 0) {
+                query = (tombstones ? node.orderByValue() : node.orderByChild(DatabaseKeys.UPDATED_AT))
+                        .startAt(since);
+            }
+            return DatabaseTasks.read(query).onSuccessTask(executor, snapshot -> {
+                List<R> records = new ArrayList<>();
+                long last = since;
+                for (DataSnapshot child : snapshot.getChildren()) {
+                    R record = parser.parse(child);
+                    if (record != null) {
+                        records.add(record);
+                    }
+                    last = Math.max(last, updatedAt(child, tombstones));
+                }
+                writer.write(records, new SyncCursor(scope, last));
+                Log.d(TAG, "Synced " + records.size() + " changes of " + scope);
+                return Tasks.forResult(null);
+            });
+        });
+    }
+
+    /**
+     * @return The server time a child was last written, 0 if it was never stamped
+     */
+    private static long updatedAt(DataSnapshot child, boolean tombstone) {
+        Long value = tombstone ? child.getValue(Long.class)
+                : child.child(DatabaseKeys.UPDATED_AT).getValue(Long.class);
+        return value != null ? value : 0;
+    }
+
+    /**
+     * Gets the open jobs of a category
+     * @param category The category
+     * @return The task of the jobs, without their descriptions
+     */
+    public Task<List<Job>> jobsByCategory(String category) {
+        return onDisk(() -> toJobs(dao.jobsByCategory(category, JobStatus.OPEN.getValue())));
+    }
+
+    /**
+     * Gets the jobs with a status
+     * @param status The status
+     * @return The task of the jobs, without their descriptions
+     */
+    public Task<List<Job>> jobsByStatus(JobStatus status) {
+        return onDisk(() -> toJobs(dao.jobsByStatus(status.getValue())));
+    }
+
+    /**
+     * Gets the open jobs inside a bounding box
+     * @return The task of the jobs, without their descriptions
+     */
+    public Task<List<Job>> jobsInBoundingBox(double minLatitude, double minLongitude,
+                                             double maxLatitude, double maxLongitude) {
+        return onDisk(() -> toJobs(dao.jobsInBoundingBox(minLatitude, minLongitude,
+                maxLatitude, maxLongitude, JobStatus.OPEN.getValue())));
+    }
+
+    /**
+     * Gets the open jobs within a radius of a point, nearest first. Used by the search screen
+     * while offline, when only the jobs synced into the mirror can be listed
+     * @param latitude Latitude of the point
+     * @param longitude Longitude of the point
+     * @param radiusKm Radius in kilometers
+     * @return The task of the jobs, without their descriptions
+     */
+    public Task<List<Job>> jobsWithin(double latitude, double longitude, double radiusKm) {
+        double[] box = GeoHash.boundingBox(latitude, longitude, radiusKm);
+        return onDisk(() -> {
+            List<Job> jobs = LocationUtils.filterJobsByDistance(toJobs(dao.jobsInBoundingBox(
+                    box[0], box[1], box[2], box[3], JobStatus.OPEN.getValue())), latitude, longitude, radiusKm);
+            jobs.sort(Comparator.comparingDouble(job -> LocationUtils.calculateDistance(
+                    latitude, longitude, job.getLatitude(), job.getLongitude())));
+            return jobs;
+        });
+    }
+
+    /**
+     * Gets the jobs posted by an employer
+     * @param email The employer's email
+     * @return The task of the jobs, without their descriptions
+     */
+    public Task<List<Job>> jobsPostedBy(String email) {
+        return onDisk(() -> toJobs(dao.jobsPostedBy(email)));
+    }
+
+    /**
+     * Gets the applications to a job
+     * @param jobId The ID of the job
+     * @return The task of the applications, with their ID, job ID, email and status set
+     */
+    public Task<List<ApplicationData>> applicationsToJob(String jobId) {
+        return onDisk(() -> toApplications(dao.applicationsToJob(jobId)));
+    }
+
+    /**
+     * Gets the applications of an applicant
+     * @param email The email of the applicant
+     * @return The task of the applications, with their ID, job ID, email and status set
+     */
+    public Task<List<ApplicationData>> applicationsOf(String email) {
+        return onDisk(() -> toApplications(dao.applicationsOf(email)));
+    }
+
+    private <T> Task<T> onDisk(Callable<T> query) {
+        return Tasks.call(executor, query);
+    }
+
+    private static List<Job> toJobs(List<JobRecord> records) {
+        List<Job> jobs = new ArrayList<>();
+        for (JobRecord record : records) {
+            jobs.add(record.toJob());
+        }
+        return jobs;
+    }
+
+    private static List<ApplicationData> toApplications(List<ApplicationRecord> records) {
+        List<ApplicationData> applications = new ArrayList<>();
+        for (ApplicationRecord record : records) {
+            applications.add(record.toApplication());
+        }
+        return applications;
+    }
+}
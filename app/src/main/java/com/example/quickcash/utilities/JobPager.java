@@ -0,0 +1,216 @@
+package com.example.quickcash.utilities;
+
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.entities.JobCodec;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Pages through the job summaries around a point, so a list can show its first rows as soon
+ * as one small query returns instead of after every job has been downloaded. The summaries
+ * are read with orderByChild("geohash") and limitToFirst, one geohash cell of the search area
+ * after another, starting with the cell holding the point. A page continues from a cursor
+ * made of the geohash and key of the last job read. Only a bounded number of pages is kept
+ * in memory, see PageWindow. Each page is sorted by distance, the listing as a whole is not.
+ * Must be used from the main thread.
+ */
+public class JobPager {
+
+    /**
+     * Position in the listing: a geohash cell of the search area, and the geohash and key of
+     * the last job read in it, or no job to start at the beginning of the cell
+     */
+    public static class Cursor {
+        final int cell;
+        final String geohash;
+        final String key;
+
+        Cursor(int cell, String geohash, String key) {
+            this.cell = cell;
+            this.geohash = geohash;
+            this.key = key;
+        }
+    }
+
+    /**
+     * Change to the list made by a load
+     */
+    public static class PageChange {
+        private final int added;
+        private final int removed;
+
+        PageChange(int added, int removed) {
+            this.added = added;
+            this.removed = removed;
+        }
+
+        /**
+         * @return Number of jobs added, at the end for loadNext and at the start for loadPrevious
+         */
+        public int getAdded() {
+            return added;
+        }
+
+        /**
+         * @return Number of jobs dropped, from the start for loadNext and from the end for loadPrevious
+         */
+        public int getRemoved() {
+            return removed;
+        }
+    }
+
+    private final Query summaries;
+    private final List<String[]> cells;
+    private final double latitude;
+    private final double longitude;
+    private final double radiusKm;
+    private final Predicate<Job> filter;
+    private final int pageSize;
+    private final PageWindow<Cursor, Job> window;
+    private boolean loading = false;
+
+    /**
+     * Creates a pager over the jobs within a radius of a point
+     * @param jobCRUD Used to reach the jobSummaries node
+     * @param latitude Latitude of the center point
+     * @param longitude Longitude of the center point
+     * @param radiusKm Radius in kilometers
+     * @param filter Jobs that do not match are skipped, pages are still filled up to pageSize
+     * @param pageSize Number of jobs per page
+     * @param maxPages Number of pages kept in memory
+     */
+    public JobPager(JobCRUD jobCRUD, double latitude, double longitude, double radiusKm,
+                    Predicate<Job> filter, int pageSize, int maxPages) {
+        this.summaries = jobCRUD.getJobSummariesReference().orderByChild("geohash");
+        this.cells = GeoHash.queryBounds(latitude, longitude, radiusKm);
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.radiusKm = radiusKm;
+        this.filter = filter;
+        this.pageSize = pageSize;
+        this.window = new PageWindow<>(maxPages);
+
+        // Start with the cell the point is in, its jobs are the closest ones
+        String home = GeoHash.encode(latitude, longitude);
+        for (int i = 0; i < cells.size(); i++) {
+            if (home.startsWith(cells.get(i)[0])) {
+                cells.add(0, cells.remove(i));
+                break;
+            }
+        }
+    }
+
+    /**
+     * @return The jobs currently in memory, in list order
+     */
+    public List<Job> getJobs() {
+        return window.items();
+    }
+
+    /**
+     * @return true if a load is in progress
+     */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * @return true if there are jobs after the ones in memory
+     */
+    public boolean hasNext() {
+        return window.hasNext();
+    }
+
+    /**
+     * @return true if pages before the ones in memory were dropped and can be read again
+     */
+    public boolean hasPrevious() {
+        return window.hasPrevious();
+    }
+
+    /**
+     * Reads the page after the ones in memory. Does nothing while another load is in progress
+     * @return The task of the change to the list
+     */
+    public Task<PageChange> loadNext() {
+        if (loading || !window.hasNext()) {
+            return Tasks.forResult(new PageChange(0, 0));
+        }
+        loading = true;
+        Cursor start = window.nextStart() != null ? window.nextStart() : new Cursor(0, null, null);
+        return readPage(start, start, new ArrayList<>()).continueWith(task -> {
+            loading = false;
+            PageWindow.Page<Cursor, Job> page = task.getResult();
+            return new PageChange(page.getItems().size(), window.append(page));
+        });
+    }
+
+    /**
+     * Reads the page before the ones in memory again. Does nothing while another load is in progress
+     * @return The task of the change to the list
+     */
+    public Task<PageChange> loadPrevious() {
+        if (loading || !window.hasPrevious()) {
+            return Tasks.forResult(new PageChange(0, 0));
+        }
+        loading = true;
+        Cursor start = window.popPreviousStart();
+        return readPage(start, start, new ArrayList<>()).continueWith(task -> {
+            loading = false;
+            if (!task.isSuccessful()) {
+                window.restorePreviousStart(start);
+            }
+            PageWindow.Page<Cursor, Job> page = task.getResult();
+            return new PageChange(page.getItems().size(), window.prepend(page));
+        });
+    }
+
+    /**
+     * Reads jobs from a cursor until the page is full or every cell has been read
+     * @param start Cursor the page started from
+     * @param from Cursor to continue from
+     * @param jobs Jobs of the page read so far
+     */
+    private Task<PageWindow.Page<Cursor, Job>> readPage(Cursor start, Cursor from, List<Job> jobs) {
+        if (from.cell >= cells.size()) {
+            return Tasks.forResult(new PageWindow.Page<>(start, from, rank(jobs), true));
+        }
+        String[] cell = cells.get(from.cell);
+        // The job at the cursor is read again, so one more is asked for
+        int limit = pageSize - jobs.size() + (from.key != null ? 1 : 0);
+        Query query = from.key != null ? summaries.startAt(from.geohash, from.key) : summaries.startAt(cell[0]);
+
+        return DatabaseTasks.read(query.endAt(cell[1]).limitToFirst(limit)).onSuccessTask(snapshot -> {
+            int read = 0;
+            Cursor next = from;
+            for (DataSnapshot child : snapshot.getChildren()) {
+                read++;
+                if (child.getKey().equals(from.key)) {
+                    continue;
+                }
+                next = new Cursor(from.cell, child.child("geohash").getValue(String.class), child.getKey());
+                Job job = JobCodec.fromSnapshot(child);
+                if (job != null && LocationUtils.calculateDistance(latitude, longitude,
+                        job.getLatitude(), job.getLongitude()) <= radiusKm && filter.test(job)) {
+                    jobs.add(job);
+                    if (jobs.size() == pageSize) {
+                        return Tasks.forResult(new PageWindow.Page<>(start, next, rank(jobs), false));
+                    }
+                }
+            }
+            // Fewer jobs than asked for means the cell is done
+            Cursor after = read < limit ? new Cursor(from.cell + 1, null, null) : next;
+            return readPage(start, after, jobs);
+        });
+    }
+
+    private List<Job> rank(List<Job> jobs) {
+        return new JobRanker(jobs, latitude, longitude).nextPage(jobs.size());
+    }
+}
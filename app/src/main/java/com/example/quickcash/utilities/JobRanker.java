@@ -0,0 +1,159 @@
+package com.example.quickcash.utilities;
+
+import com.example.quickcash.entities.Job;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ranks jobs by distance from a reference point and hands them out one page at a time.
+ * Each job's distance is computed once into a primitive array, and every page is picked
+ * with a bounded heap of page size, so showing the first results costs O(n log k) instead
+ * of sorting the whole list with a haversine comparator.
+ */
+public class JobRanker {
+
+    private final List<Job> jobs;
+    private final double[] distances;
+
+    /** Distance and index of the last job handed out, pages continue after this key */
+    private double lastDistance = Double.NEGATIVE_INFINITY;
+    private int lastIndex = -1;
+    private int returned = 0;
+
+    /**
+     * Creates a ranker for a list of jobs
+     * @param jobs The jobs to rank, the list is not modified
+     * @param latitude Latitude of the reference point
+     * @param longitude Longitude of the reference point
+     */
+    public JobRanker(List<Job> jobs, double latitude, double longitude) {
+        this.jobs = jobs;
+        this.distances = new double[jobs.size()];
+        for (int i = 0; i < distances.length; i++) {
+            Job job = jobs.get(i);
+            distances[i] = LocationUtils.calculateDistance(latitude, longitude,
+                    job.getLatitude(), job.getLongitude());
+        }
+    }
+
+    /**
+     * @return true if there are jobs that have not been handed out yet
+     */
+    public boolean hasMore() {
+        return returned < distances.length;
+    }
+
+    /**
+     * @return The number of jobs being ranked
+     */
+    public int size() {
+        return distances.length;
+    }
+
+    /**
+     * Gets the next closest jobs, continuing after the ones returned by earlier calls
+     * @param pageSize Maximum number of jobs to return
+     * @return Up to pageSize jobs sorted from nearest to farthest
+     */
+    public List<Job> nextPage(int pageSize) {
+        int k = Math.min(pageSize, distances.length - returned);
+        List<Job> page = new ArrayList<>(Math.max(k, 0));
+        if (k <= 0) {
+            return page;
+        }
+
+        // Bounded max-heap of job indices, the farthest candidate sits at the root
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int i = 0; i < distances.length; i++) {
+            if (!after(i, lastDistance, lastIndex)) {
+                continue;
+            }
+            if (heapSize < k) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize);
+                heapSize++;
+            } else if (closer(i, heap[0])) {
+                heap[0] = i;
+                siftDown(heap, 0, heapSize);
+            }
+        }
+
+        // Pop the heap from farthest to nearest
+        int[] ordered = new int[heapSize];
+        for (int n = heapSize - 1; n >= 0; n--) {
+            ordered[n] = heap[0];
+            heap[0] = heap[n];
+            siftDown(heap, 0, n);
+        }
+
+        for (int index : ordered) {
+            page.add(jobs.get(index));
+        }
+        int last = ordered[ordered.length - 1];
+        lastDistance = distances[last];
+        lastIndex = last;
+        returned += ordered.length;
+        return page;
+    }
+
+    /**
+     * Gets the distance of a job from the reference point
+     * @param position Position of the job in the list passed to the constructor
+     * @return The distance in kilometers
+     */
+    public double distanceAt(int position) {
+        return distances[position];
+    }
+
+    /**
+     * Whether job i ranks strictly after the given key, ties broken by list position
+     */
+    private boolean after(int i, double distance, int index) {
+        return distances[i] > distance || (distances[i] == distance && i > index);
+    }
+
+    /**
+     * Whether job a ranks strictly before job b
+     */
+    private boolean closer(int a, int b) {
+        return distances[a] < distances[b] || (distances[a] == distances[b] && a < b);
+    }
+
+    private void siftUp(int[] heap, int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!closer(heap[parent], heap[position])) {
+                break;
+            }
+            swap(heap, parent, position);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int position, int size) {
+        while (true) {
+            int left = 2 * position + 1;
+            int right = left + 1;
+            int farthest = position;
+            if (left < size && closer(heap[farthest], heap[left])) {
+                farthest = left;
+            }
+            if (right < size && closer(heap[farthest], heap[right])) {
+                farthest = right;
+            }
+            if (farthest == position) {
+                return;
+            }
+            swap(heap, position, farthest);
+            position = farthest;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+}
@@ -0,0 +1,410 @@
+package com.example.quickcash.utilities;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.entities.JobCodec;
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * App-wide, live copy of the job summaries around the user, so job descriptions are never
+ * downloaded for lists and maps. The repository is scoped to the geohash cells within
+ * SYNC_RADIUS_KM of a focus point, the same cells OfflineSync keeps synced, so what it reads
+ * grows with the jobs near the user rather than with every job posted. One ChildEventListener
+ * per cell keeps the job set in sync one child at a time, so remote changes only re-parse the
+ * job that changed, and a spatial index over the jobs is updated alongside it. Once the focus
+ * moves more than REFOCUS_DISTANCE_KM, cells that are no longer needed are dropped and new
+ * ones are read. Screens subscribe to be told when the set changes and read from the
+ * repository, so moving between screens does not download or parse the jobs again. Syncing
+ * stops a short while after the last screen unsubscribes. Must be used from the main thread.
+ */
+public class JobRepository {
+
+    private static final String TAG = "JobRepository";
+
+    /** How long to keep syncing after the last subscriber leaves, covers screen changes */
+    private static final long STOP_DELAY_MS = 30000;
+
+    /** Radius around the focus whose jobs are kept, the radius OfflineSync keeps synced */
+    public static final double SYNC_RADIUS_KM = OfflineSync.HOT_RADIUS_KM;
+
+    /** Distance the focus has to move before the synced cells are worked out again */
+    public static final double REFOCUS_DISTANCE_KM = 1.0;
+
+    private static JobRepository instance;
+
+    /**
+     * Listener for changes to the job set
+     */
+    public interface JobsListener {
+        /**
+         * Called once the jobs have loaded and after each batch of changes
+         * @param repository The repository to read the jobs from
+         */
+        void onJobsChanged(JobRepository repository);
+    }
+
+    private final JobCRUD jobCRUD;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+    private final JobSpatialIndex index = new JobSpatialIndex();
+    private final List<JobsListener> listeners = new ArrayList<>();
+
+    /** Synced cells by geohash, only while syncing */
+    private final Map<String, CellSync> cells = new HashMap<>();
+
+    /** Point the synced cells are worked out from, null until the first focus */
+    private double[] focus;
+
+    private boolean syncing = false;
+    private boolean notifyPending = false;
+
+    private final Runnable notifyRunnable = () -> {
+        notifyPending = false;
+        for (JobsListener listener : new ArrayList<>(listeners)) {
+            listener.onJobsChanged(this);
+        }
+    };
+
+    private final Runnable stopRunnable = this::stopSync;
+
+    /**
+     * Listener on the summaries of one geohash cell. Remembers the jobs it delivered, so they
+     * can be dropped with the cell
+     */
+    private class CellSync implements ChildEventListener, ValueEventListener {
+        final Query query;
+        final Set<String> jobIds = new HashSet<>();
+        boolean loaded = false;
+
+        CellSync(String cell) {
+            this.query = jobCRUD.geohashCellQuery(cell);
+        }
+
+        void start() {
+            query.addChildEventListener(this);
+            ListenerRegistry.getInstance().added(TAG);
+            // Value events are raised after the child events, and the data is already synced
+            query.addListenerForSingleValueEvent(this);
+        }
+
+        void stop() {
+            query.removeEventListener((ChildEventListener) this);
+            query.removeEventListener((ValueEventListener) this);
+            ListenerRegistry.getInstance().removed(TAG);
+            List<String> dropped = new ArrayList<>(jobIds);
+            jobIds.clear();
+            for (String jobId : dropped) {
+                drop(jobId);
+            }
+        }
+
+        @Override
+        public void onChildAdded(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            put(this, snapshot);
+        }
+
+        @Override
+        public void onChildChanged(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            put(this, snapshot);
+        }
+
+        @Override
+        public void onChildRemoved(@NonNull DataSnapshot snapshot) {
+            if (jobIds.remove(snapshot.getKey())) {
+                drop(snapshot.getKey());
+            }
+        }
+
+        @Override
+        public void onChildMoved(@NonNull DataSnapshot snapshot, @Nullable String previousChildName) {
+            // Order is not used
+        }
+
+        /**
+         * Fires once the initial children of the cell have been delivered
+         */
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            loaded = true;
+            if (isLoaded()) {
+                Log.d(TAG, "Loaded " + jobs.size() + " jobs in " + cells.size() + " cells");
+                scheduleNotify();
+            }
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            Log.e(TAG, "Job sync cancelled: " + error.getMessage());
+            // The database has already dropped the listener, forget every cell; the next subscriber reads them again
+            if (cells.containsValue(this)) {
+                for (CellSync cell : cells.values()) {
+                    cell.stop();
+                }
+                cells.clear();
+                syncing = false;
+            }
+        }
+    }
+
+    private JobRepository(JobCRUD jobCRUD) {
+        this.jobCRUD = jobCRUD;
+    }
+
+    /**
+     * @return The app-wide repository
+     */
+    public static synchronized JobRepository getInstance() {
+        if (instance == null) {
+            instance = new JobRepository(new JobCRUD());
+        }
+        return instance;
+    }
+
+    /**
+     * Centers the synced area on a point. The cells are only worked out again once the point
+     * is more than REFOCUS_DISTANCE_KM from the last focus; cells still needed keep their jobs
+     * @param latitude Latitude of the point, usually the user's location
+     * @param longitude Longitude of the point
+     */
+    public void focus(double latitude, double longitude) {
+        if (focus != null && LocationUtils.calculateDistance(focus[0], focus[1], latitude, longitude)
+                <= REFOCUS_DISTANCE_KM) {
+            return;
+        }
+        focus = new double[]{latitude, longitude};
+        if (syncing) {
+            syncCells();
+        }
+    }
+
+    /**
+     * Subscribes to changes. The listener is called right away if the jobs are loaded
+     * @param listener The listener to add
+     */
+    public void subscribe(JobsListener listener) {
+        mainHandler.removeCallbacks(stopRunnable);
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        startSync();
+        scheduleNotify();
+    }
+
+    /**
+     * Unsubscribes from changes. Syncing stops if nobody subscribes again shortly
+     * @param listener The listener to remove
+     */
+    public void unsubscribe(JobsListener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            mainHandler.removeCallbacks(stopRunnable);
+            mainHandler.postDelayed(stopRunnable, STOP_DELAY_MS);
+        }
+    }
+
+    /**
+     * Drops every subscriber, the focus and the jobs held in memory right away, as after a
+     * restart. The next subscriber starts syncing again, from the disk cache while offline
+     */
+    public void clear() {
+        listeners.clear();
+        mainHandler.removeCallbacks(stopRunnable);
+        stopSync();
+        focus = null;
+    }
+
+    /**
+     * @return true once the initial jobs of every synced cell have been received
+     */
+    public boolean isLoaded() {
+        if (!syncing || cells.isEmpty()) {
+            return false;
+        }
+        for (CellSync cell : cells.values()) {
+            if (!cell.loaded) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells whether the repository holds every job of an area, so a screen showing it can read
+     * from here instead of querying the database
+     * @return true if the jobs are loaded and the box is within SYNC_RADIUS_KM of the focus
+     */
+    public boolean covers(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        if (!isLoaded()) {
+            return false;
+        }
+        for (double latitude : new double[]{minLatitude, maxLatitude}) {
+            for (double longitude : new double[]{minLongitude, maxLongitude}) {
+                if (LocationUtils.calculateDistance(focus[0], focus[1], latitude, longitude) > SYNC_RADIUS_KM) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return A copy of every job around the focus
+     */
+    public List<Job> getJobs() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * Gets a job by ID
+     * @param jobId The ID of the job
+     * @return The job, or null if it is not known
+     */
+    public Job getJob(String jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * @return Every job within the radius of the point
+     */
+    public List<Job> jobsWithinRadius(double latitude, double longitude, double radiusKm) {
+        return index.queryRadius(latitude, longitude, radiusKm);
+    }
+
+    /**
+     * @return Every job inside the bounding box
+     */
+    public List<Job> jobsInBoundingBox(double minLatitude, double minLongitude,
+                                       double maxLatitude, double maxLongitude) {
+        return index.queryBoundingBox(minLatitude, minLongitude, maxLatitude, maxLongitude);
+    }
+
+    /**
+     * Gets every job posted by an employer
+     * @param email The employer's email
+     * @return The employer's jobs
+     */
+    public List<Job> jobsPostedBy(String email) {
+        List<Job> result = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            if (job.getEmail() != null && job.getEmail().equalsIgnoreCase(email)) {
+                result.add(job);
+            }
+        }
+        return result;
+    }
+
+    private void startSync() {
+        if (syncing) {
+            return;
+        }
+        syncing = true;
+        syncCells();
+    }
+
+    /**
+     * Listens to the cells around the focus and stops listening to the others. Nothing is
+     * synced until there is a focus
+     */
+    private void syncCells() {
+        if (focus == null) {
+            return;
+        }
+        Set<String> needed = new HashSet<>();
+        for (String[] bound : GeoHash.queryBounds(focus[0], focus[1], SYNC_RADIUS_KM)) {
+            needed.add(bound[0]);
+        }
+        Iterator<Map.Entry<String, CellSync>> synced = cells.entrySet().iterator();
+        while (synced.hasNext()) {
+            Map.Entry<String, CellSync> entry = synced.next();
+            if (!needed.contains(entry.getKey())) {
+                entry.getValue().stop();
+                synced.remove();
+            }
+        }
+        for (String cell : needed) {
+            if (!cells.containsKey(cell)) {
+                CellSync sync = new CellSync(cell);
+                cells.put(cell, sync);
+                sync.start();
+            }
+        }
+        Log.d(TAG, "Syncing " + cells.size() + " cells around the focus");
+        scheduleNotify();
+    }
+
+    private void stopSync() {
+        if (!syncing || !listeners.isEmpty()) {
+            return;
+        }
+        for (CellSync cell : cells.values()) {
+            cell.stop();
+        }
+        cells.clear();
+        syncing = false;
+        jobs.clear();
+        index.clear();
+        Log.d(TAG, "Stopped job sync");
+    }
+
+    private void put(CellSync cell, DataSnapshot snapshot) {
+        Job job = JobCodec.fromSnapshot(snapshot);
+        if (job == null) {
+            // Not a usable job anymore, drop any older copy
+            if (cell.jobIds.remove(snapshot.getKey())) {
+                drop(snapshot.getKey());
+            }
+            return;
+        }
+        cell.jobIds.add(job.getId());
+        jobs.put(job.getId(), job);
+        index.insert(job);
+        scheduleNotify();
+    }
+
+    /**
+     * Drops a job a cell no longer holds, unless another cell holds it, as when a job moved
+     * and its new cell delivered it first
+     */
+    private void drop(String jobId) {
+        for (CellSync cell : cells.values()) {
+            if (cell.jobIds.contains(jobId)) {
+                return;
+            }
+        }
+        if (jobs.remove(jobId) != null) {
+            index.remove(jobId);
+            scheduleNotify();
+        }
+    }
+
+    /**
+     * Notifies the listeners once per main loop pass, so a burst of child events is
+     * reported as a single change
+     */
+    private void scheduleNotify() {
+        if (!isLoaded() || notifyPending) {
+            return;
+        }
+        notifyPending = true;
+        mainHandler.post(notifyRunnable);
+    }
+}
@@ -0,0 +1,317 @@
+package com.example.quickcash.utilities;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-shot migration that rewrites every job record to the canonical schema read by
+ * JobCodec: lowercase latitude / longitude numbers, a geohash and a status.
+ * Older records stored "Latitude" / "Longitude" or only a "location" ID, which every load
+ * used to probe for. The jobs are read once and the fixes are written back in batched
+ * multi-path updates, reporting progress after each batch. Running it again is a no-op.
+ * The migration also backfills the jobSummaries node and the jobsByEmployer, applicationsByJob
+ * and applicationsByApplicant index nodes for records written before they existed.
+ */
+public class JobSchemaMigration {
+
+    private static final String TAG = "JobSchemaMigration";
+
+    /** Number of records whose updates are written in one multi-path update */
+    public static final int DEFAULT_BATCH_SIZE = 200;
+
+    /** Name of the FirebaseApp used to talk to the emulator */
+    private static final String EMULATOR_APP_NAME = "migration-emulator";
+
+    /** Legacy fields removed by the migration */
+    private static final String[] LEGACY_FIELDS = {"Latitude", "Longitude", "location"};
+
+    /**
+     * Listener for the progress of a migration
+     */
+    public interface MigrationListener {
+        void onProgress(int processed, int total);
+        void onComplete(int migrated, int skipped);
+        void onError(String message);
+    }
+
+    private final DatabaseReference rootRef;
+    private final int batchSize;
+
+    /**
+     * Creates a migration for the jobs node of a database
+     * @param database The database to migrate
+     * @param batchSize Number of records written per multi-path update
+     */
+    public JobSchemaMigration(FirebaseDatabase database, int batchSize) {
+        this.rootRef = database.getReference();
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates a migration for the default database
+     */
+    public JobSchemaMigration() {
+        this(DatabaseProvider.getInstance().getDatabase(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Gets a database connected to the Realtime Database emulator. A separate FirebaseApp
+     * is used so that the app's own database instance is left alone
+     * @param context Context used to read the Firebase options
+     * @param host Emulator host, 10.0.2.2 from an Android emulator
+     * @param port Emulator port, 9000 by default
+     * @return The emulator database
+     */
+    public static FirebaseDatabase emulatorDatabase(Context context, String host, int port) {
+        FirebaseApp app;
+        try {
+            app = FirebaseApp.getInstance(EMULATOR_APP_NAME);
+            return FirebaseDatabase.getInstance(app);
+        } catch (IllegalStateException e) {
+            FirebaseOptions options = FirebaseOptions.fromResource(context);
+            app = FirebaseApp.initializeApp(context, options, EMULATOR_APP_NAME);
+        }
+        FirebaseDatabase database = FirebaseDatabase.getInstance(app);
+        database.useEmulator(host, port);
+        return database;
+    }
+
+    /**
+     * Reads every job and rewrites the ones that are not in the canonical schema. Jobs and
+     * applications missing from their index nodes are added to them in the same batches
+     * @param listener Listener notified of progress, completion and errors
+     */
+    public void run(MigrationListener listener) {
+        readNodes(new String[]{"jobs", JobCRUD.JOB_SUMMARIES, JobCRUD.JOBS_BY_EMPLOYER, "applications",
+                ApplicationCRUD.APPLICATIONS_BY_JOB}, 0, new HashMap<>(), listener);
+    }
+
+    /**
+     * Reads the nodes one after another, then runs the migration over them
+     */
+    private void readNodes(String[] nodes, int index, Map<String, DataSnapshot> snapshots,
+                           MigrationListener listener) {
+        if (index == nodes.length) {
+            migrate(snapshots, listener);
+            return;
+        }
+        rootRef.child(nodes[index]).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                snapshots.put(nodes[index], snapshot);
+                readNodes(nodes, index + 1, snapshots, listener);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError("Failed to read " + nodes[index] + ": " + error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Computes the updates for every job and application, groups them into batches and writes them
+     */
+    private void migrate(Map<String, DataSnapshot> snapshots, MigrationListener listener) {
+        DataSnapshot jobs = snapshots.get("jobs");
+        DataSnapshot summaries = snapshots.get(JobCRUD.JOB_SUMMARIES);
+        DataSnapshot employerIndex = snapshots.get(JobCRUD.JOBS_BY_EMPLOYER);
+        List<Map<String, Object>> batches = new ArrayList<>();
+        Map<String, Object> batch = new HashMap<>();
+        int recordsInBatch = 0;
+        int migrated = 0;
+        int skipped = 0;
+
+        for (DataSnapshot jobSnapshot : jobs.getChildren()) {
+            Object value = jobSnapshot.getValue();
+            if (!(value instanceof Map)) {
+                skipped++;
+                continue;
+            }
+            String jobId = jobSnapshot.getKey();
+            @SuppressWarnings("unchecked")
+            Map<String, Object> job = (Map<String, Object>) value;
+
+            Map<String, Object> updates = new HashMap<>();
+            Map<String, Object> schemaUpdates = canonicalUpdates(jobId, job);
+            if (schemaUpdates == null) {
+                Log.w(TAG, "Skipping job without coordinates: " + jobId);
+                skipped++;
+            } else {
+                Map<String, Object> canonical = new HashMap<>(job);
+                for (Map.Entry<String, Object> entry : schemaUpdates.entrySet()) {
+                    updates.put("jobs/" + entry.getKey(), entry.getValue());
+                    canonical.put(entry.getKey().substring(jobId.length() + 1), entry.getValue());
+                }
+                if (!summaries.hasChild(jobId)) {
+                    // Stamped so mirrors that already synced pick the backfilled summary up
+                    canonical.put(DatabaseKeys.UPDATED_AT, ServerValue.TIMESTAMP);
+                    updates.put(JobCRUD.JOB_SUMMARIES + "/" + jobId, JobCRUD.summaryValues(canonical));
+                }
+            }
+
+            Object email = job.get("email");
+            if (email instanceof String && !((String) email).isEmpty()
+                    && !employerIndex.child(DatabaseKeys.emailKey((String) email)).hasChild(jobId)) {
+                updates.put(JobCRUD.employerIndexPath((String) email, jobId), true);
+            }
+            if (updates.isEmpty()) {
+                continue;
+            }
+
+            batch.putAll(updates);
+            migrated++;
+            if (++recordsInBatch == batchSize) {
+                batches.add(batch);
+                batch = new HashMap<>();
+                recordsInBatch = 0;
+            }
+        }
+
+        // Applications submitted before the applicationsByJob / applicationsByApplicant indexes
+        DataSnapshot jobIndex = snapshots.get(ApplicationCRUD.APPLICATIONS_BY_JOB);
+        for (DataSnapshot application : snapshots.get("applications").getChildren()) {
+            String applicationId = application.getKey();
+            String jobId = application.child("jobId").getValue(String.class);
+            String email = application.child("email").getValue(String.class);
+            if (jobId == null || email == null || email.isEmpty()
+                    || jobIndex.child(jobId).hasChild(applicationId)) {
+                continue;
+            }
+            String status = application.child("status").getValue(String.class);
+            batch.putAll(ApplicationCRUD.newApplicationUpdates(applicationId, jobId, email,
+                    status != null ? status : "open"));
+            migrated++;
+            if (++recordsInBatch == batchSize) {
+                batches.add(batch);
+                batch = new HashMap<>();
+                recordsInBatch = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        Log.d(TAG, "Migrating " + migrated + " records in " + batches.size() + " batches");
+        writeBatch(batches, 0, migrated, skipped, listener);
+    }
+
+    /**
+     * Writes the batches one after another, so progress is reported in order
+     */
+    private void writeBatch(List<Map<String, Object>> batches, int index, int migrated, int skipped,
+                            MigrationListener listener) {
+        if (index == batches.size()) {
+            listener.onComplete(migrated, skipped);
+            return;
+        }
+        rootRef.updateChildren(batches.get(index), (error, ref) -> {
+            if (error != null) {
+                listener.onError("Failed to write batch " + (index + 1) + ": " + error.getMessage());
+                return;
+            }
+            listener.onProgress(Math.min((index + 1) * batchSize, migrated), migrated);
+            writeBatch(batches, index + 1, migrated, skipped, listener);
+        });
+    }
+
+    /**
+     * Computes the updates that bring one job record to the canonical schema
+     * @param jobId The key of the job
+     * @param job The raw job record
+     * @return Multi-path updates relative to the jobs node, empty if the job is already
+     *         canonical, or null if the job has no usable coordinates
+     */
+    public static Map<String, Object> canonicalUpdates(String jobId, Map<String, Object> job) {
+        Double latitude = firstNumber(job, "latitude", "Latitude");
+        Double longitude = firstNumber(job, "longitude", "Longitude");
+        if (latitude == null || longitude == null) {
+            Object locationId = job.get("location");
+            Double id = toDouble(locationId);
+            if (id == null) {
+                return null;
+            }
+            double[] coordinates = coordinatesForLocationId(id.intValue());
+            latitude = coordinates[0];
+            longitude = coordinates[1];
+        }
+
+        Map<String, Object> updates = new HashMap<>();
+        if (!(job.get("latitude") instanceof Number)) {
+            updates.put(jobId + "/latitude", latitude);
+        }
+        if (!(job.get("longitude") instanceof Number)) {
+            updates.put(jobId + "/longitude", longitude);
+        }
+        String geohash = GeoHash.encode(latitude, longitude);
+        if (!geohash.equals(job.get("geohash"))) {
+            updates.put(jobId + "/geohash", geohash);
+        }
+        if (job.get("status") == null) {
+            updates.put(jobId + "/status", "open");
+        }
+        for (String field : LEGACY_FIELDS) {
+            if (job.containsKey(field)) {
+                updates.put(jobId + "/" + field, null);
+            }
+        }
+        return updates;
+    }
+
+    /**
+     * Converts a legacy location ID to coordinates
+     * @param locationId The location identifier
+     * @return An array with latitude and longitude values
+     */
+    public static double[] coordinatesForLocationId(int locationId) {
+        switch (locationId) {
+            case 2:
+                return new double[]{45.5017, -73.5673}; // Montreal
+            case 3:
+                return new double[]{43.6532, -79.3832}; // Toronto
+            case 1:
+            default:
+                return new double[]{LocationRepository.DEFAULT_LATITUDE, LocationRepository.DEFAULT_LONGITUDE}; // Halifax
+        }
+    }
+
+    private static Double firstNumber(Map<String, Object> job, String... fields) {
+        for (String field : fields) {
+            Double value = toDouble(job.get(field));
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble(((String) value).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.quickcash.utilities;
+
+import com.example.quickcash.entities.Job;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory spatial index over jobs, backed by a uniform latitude/longitude grid.
+ * The index is built once per data set and answers radius, k-nearest and bounding box
+ * queries by only visiting the grid cells that can contain a match, instead of running
+ * a haversine check against every job. Jobs can be inserted and removed as they change.
+ */
+public class JobSpatialIndex {
+
+    /** Default cell size in degrees (roughly 5.5km of latitude) */
+    public static final double DEFAULT_CELL_SIZE_DEGREES = 0.05;
+
+    /** Kilometers per degree of latitude */
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellSize;
+    private final Map<Long, List<Job>> cells = new HashMap<>();
+    private final Map<String, Job> jobsById = new HashMap<>();
+    private int count = 0;
+
+    /**
+     * Creates an empty index with the default cell size
+     */
+    public JobSpatialIndex() {
+        this(DEFAULT_CELL_SIZE_DEGREES);
+    }
+
+    /**
+     * Creates an empty index
+     * @param cellSizeDegrees Size of a grid cell in degrees
+     */
+    public JobSpatialIndex(double cellSizeDegrees) {
+        this.cellSize = cellSizeDegrees;
+    }
+
+    /**
+     * Creates an index containing the given jobs
+     * @param jobs The jobs to index
+     */
+    public JobSpatialIndex(Collection<Job> jobs) {
+        this(DEFAULT_CELL_SIZE_DEGREES);
+        for (Job job : jobs) {
+            insert(job);
+        }
+    }
+
+    /**
+     * Adds a job to the index. A job that is already indexed under the same ID is replaced
+     * @param job The job to add
+     */
+    public void insert(Job job) {
+        if (job.getId() != null) {
+            remove(job.getId());
+            jobsById.put(job.getId(), job);
+        }
+        long key = cellKey(cellIndex(job.getLatitude()), cellIndex(job.getLongitude()));
+        List<Job> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>();
+            cells.put(key, cell);
+        }
+        cell.add(job);
+        count++;
+    }
+
+    /**
+     * Removes a job from the index
+     * @param jobId The ID of the job to remove
+     * @return true if the job was in the index
+     */
+    public boolean remove(String jobId) {
+        Job job = jobsById.remove(jobId);
+        if (job == null) {
+            return false;
+        }
+        long key = cellKey(cellIndex(job.getLatitude()), cellIndex(job.getLongitude()));
+        List<Job> cell = cells.get(key);
+        if (cell != null && cell.remove(job)) {
+            count--;
+            if (cell.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes every job from the index
+     */
+    public void clear() {
+        cells.clear();
+        jobsById.clear();
+        count = 0;
+    }
+
+    /**
+     * @return The number of jobs in the index
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Finds every job within a radius of a point
+     * @param latitude Latitude of the center point
+     * @param longitude Longitude of the center point
+     * @param radiusKm Radius in kilometers
+     * @return List of jobs within the radius
+     */
+    public List<Job> queryRadius(double latitude, double longitude, double radiusKm) {
+        double latDelta = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.cos(Math.toRadians(Math.min(89.9, Math.abs(latitude) + latDelta)));
+        double lngDelta = radiusKm / (KM_PER_DEGREE * cosLat);
+
+        List<Job> result = new ArrayList<>();
+        for (Job job : queryBoundingBox(latitude - latDelta, longitude - lngDelta,
+                latitude + latDelta, longitude + lngDelta)) {
+            if (LocationUtils.calculateDistance(latitude, longitude,
+                    job.getLatitude(), job.getLongitude()) <= radiusKm) {
+                result.add(job);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds every job inside a bounding box
+     * @param minLatitude Southern edge of the box
+     * @param minLongitude Western edge of the box
+     * @param maxLatitude Northern edge of the box
+     * @param maxLongitude Eastern edge of the box
+     * @return List of jobs inside the box
+     */
+    public List<Job> queryBoundingBox(double minLatitude, double minLongitude,
+                                      double maxLatitude, double maxLongitude) {
+        List<Job> result = new ArrayList<>();
+        int minRow = cellIndex(minLatitude);
+        int maxRow = cellIndex(maxLatitude);
+        int minCol = cellIndex(minLongitude);
+        int maxCol = cellIndex(maxLongitude);
+
+        // Scan whichever is smaller, the covered cells or the occupied cells
+        long coveredCells = (long) (maxRow - minRow + 1) * (maxCol - minCol + 1);
+        if (coveredCells > cells.size()) {
+            for (List<Job> cell : cells.values()) {
+                addInBox(cell, minLatitude, minLongitude, maxLatitude, maxLongitude, result);
+            }
+            return result;
+        }
+
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                List<Job> cell = cells.get(cellKey(row, col));
+                if (cell != null) {
+                    addInBox(cell, minLatitude, minLongitude, maxLatitude, maxLongitude, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the k jobs closest to a point, sorted from nearest to farthest. Cells are visited
+     * in rings around the point and the search stops once no unvisited cell can hold a job
+     * closer than the current k-th result.
+     * @param latitude Latitude of the point
+     * @param longitude Longitude of the point
+     * @param k Number of jobs to return
+     * @return Up to k jobs, nearest first
+     */
+    public List<Job> nearest(double latitude, double longitude, int k) {
+        List<Job> result = new ArrayList<>();
+        if (k <= 0 || count == 0) {
+            return result;
+        }
+
+        // Max-heap on distance, so the farthest of the current k candidates is on top
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(k,
+                (a, b) -> Double.compare(b.distance, a.distance));
+
+        int centerRow = cellIndex(latitude);
+        int centerCol = cellIndex(longitude);
+        int visited = 0;
+
+        for (int ring = 0; visited < count; ring++) {
+            // Once a ring has more cells than are occupied, a plain scan is cheaper
+            if (8L * ring > cells.size()) {
+                heap.clear();
+                for (List<Job> cell : cells.values()) {
+                    offer(heap, k, cell, latitude, longitude);
+                }
+                break;
+            }
+
+            for (int col = centerCol - ring; col <= centerCol + ring; col++) {
+                visited += offer(heap, k, cells.get(cellKey(centerRow - ring, col)), latitude, longitude);
+                if (ring > 0) {
+                    visited += offer(heap, k, cells.get(cellKey(centerRow + ring, col)), latitude, longitude);
+                }
+            }
+            for (int row = centerRow - ring + 1; row <= centerRow + ring - 1; row++) {
+                visited += offer(heap, k, cells.get(cellKey(row, centerCol - ring)), latitude, longitude);
+                visited += offer(heap, k, cells.get(cellKey(row, centerCol + ring)), latitude, longitude);
+            }
+
+            // Any job in a later ring is at least this far away
+            if (heap.size() == k && heap.peek().distance <= minDistanceOutsideRing(latitude, ring)) {
+                break;
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(heap);
+        sorted.sort(Comparator.comparingDouble(candidate -> candidate.distance));
+        for (Candidate candidate : sorted) {
+            result.add(candidate.job);
+        }
+        return result;
+    }
+
+    /**
+     * Offers every job of a cell to the k-nearest heap
+     * @return The number of jobs in the cell
+     */
+    private int offer(PriorityQueue<Candidate> heap, int k, List<Job> cell,
+                      double latitude, double longitude) {
+        if (cell == null) {
+            return 0;
+        }
+        for (Job job : cell) {
+            double distance = LocationUtils.calculateDistance(latitude, longitude,
+                    job.getLatitude(), job.getLongitude());
+            if (heap.size() < k) {
+                heap.add(new Candidate(job, distance));
+            } else if (distance < heap.peek().distance) {
+                heap.poll();
+                heap.add(new Candidate(job, distance));
+            }
+        }
+        return cell.size();
+    }
+
+    /**
+     * Lower bound on the distance from a point to any cell outside of the given ring
+     */
+    private double minDistanceOutsideRing(double latitude, int ring) {
+        double farthestLat = Math.min(89.9, Math.abs(latitude) + (ring + 1) * cellSize);
+        double cellHeightKm = cellSize * KM_PER_DEGREE;
+        double cellWidthKm = cellHeightKm * Math.cos(Math.toRadians(farthestLat));
+        return ring * Math.min(cellHeightKm, cellWidthKm);
+    }
+
+    private void addInBox(List<Job> cell, double minLatitude, double minLongitude,
+                          double maxLatitude, double maxLongitude, List<Job> result) {
+        for (Job job : cell) {
+            if (job.getLatitude() >= minLatitude && job.getLatitude() <= maxLatitude
+                    && job.getLongitude() >= minLongitude && job.getLongitude() <= maxLongitude) {
+                result.add(job);
+            }
+        }
+    }
+
+    private int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellSize);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    /**
+     * A job paired with its distance from the query point
+     */
+    private static class Candidate {
+        final Job job;
+        final double distance;
+
+        Candidate(Job job, double distance) {
+            this.job = job;
+            this.distance = distance;
+        }
+    }
+}
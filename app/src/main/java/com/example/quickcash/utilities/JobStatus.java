@@ -0,0 +1,63 @@
+package com.example.quickcash.utilities;
+
+/**
+ * Lifecycle of a job: a job is open until the employer hires an applicant, the employee
+ * then marks it completed, and the employer finally pays for it. Only the transitions
+ * below are allowed, and database.rules.json enforces the same ones on jobs/{id}/status.
+ */
+public enum JobStatus {
+    OPEN("open"),
+    HIRED("hired"),
+    COMPLETED("Completed"),
+    PAID("paid");
+
+    /** The value stored in jobs/{id}/status */
+    private final String value;
+
+    JobStatus(String value) {
+        this.value = value;
+    }
+
+    /**
+     * @return The value stored in the database for this status
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Parses a stored status. Missing statuses are treated as open, matching new jobs
+     * @param value The stored value, compared ignoring case
+     * @return The status, or null if the value is not a known status
+     */
+    public static JobStatus fromValue(String value) {
+        if (value == null) {
+            return OPEN;
+        }
+        for (JobStatus status : values()) {
+            if (status.value.equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a job can move from this status to another
+     * @param next The status to move to
+     * @return true if the transition is allowed
+     */
+    public boolean canTransitionTo(JobStatus next) {
+        switch (this) {
+            case OPEN:
+                // Jobs accepted before hiring closed them are still open, so they can be completed directly
+                return next == HIRED || next == COMPLETED;
+            case HIRED:
+                return next == COMPLETED;
+            case COMPLETED:
+                return next == PAID;
+            default:
+                return false;
+        }
+    }
+}
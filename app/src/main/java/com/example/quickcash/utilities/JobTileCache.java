@@ -0,0 +1,264 @@
+package com.example.quickcash.utilities;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.entities.JobCodec;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cache of jobs keyed by geohash tile, used to load jobs for the visible part of the map.
+ * Tiles are kept in LRU order and the least recently used tile is evicted once the cache
+ * is full, so panning back to an area is free while memory stays bounded. Loads for tiles
+ * that are no longer needed can be cancelled. Cached jobs are kept in a JobSpatialIndex.
+ */
+public class JobTileCache {
+
+    private static final String TAG = "JobTileCache";
+
+    /**
+     * Listener called once every tile of a load request has finished
+     */
+    public interface TilesLoadedListener {
+        void onTilesLoaded();
+    }
+
+    private final JobCRUD jobCRUD;
+    private final int maxTiles;
+    private final JobSpatialIndex index = new JobSpatialIndex();
+
+    /** Number of cached tiles each job appears in, a job is unindexed when this reaches 0 */
+    private final Map<String, Integer> jobRefCounts = new HashMap<>();
+
+    /** Loaded tiles in access order, the eldest entry is the least recently used tile */
+    private final LinkedHashMap<String, List<Job>> tiles;
+
+    /** Tiles whose query is still in flight */
+    private final Map<String, PendingTile> pendingTiles = new HashMap<>();
+
+    /** Load requests waiting for their tiles */
+    private final List<LoadRequest> loadRequests = new ArrayList<>();
+
+    /**
+     * Creates an empty cache
+     * @param jobCRUD Used to build the query for each tile
+     * @param maxTiles Maximum number of tiles to keep in memory
+     */
+    public JobTileCache(JobCRUD jobCRUD, int maxTiles) {
+        this.jobCRUD = jobCRUD;
+        this.maxTiles = maxTiles;
+        this.tiles = new LinkedHashMap<String, List<Job>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<Job>> eldest) {
+                if (size() > JobTileCache.this.maxTiles) {
+                    unindex(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Loads every tile that is not cached or already loading. The listener is called once all
+     * of the tiles are available, right away if they are all cached
+     * @param cells The geohash tiles to load
+     * @param listener Listener called when the tiles have finished loading
+     */
+    public void load(Collection<String> cells, TilesLoadedListener listener) {
+        Set<String> outstanding = new HashSet<>();
+        for (String cell : cells) {
+            // get() also marks the tile as recently used
+            if (tiles.get(cell) == null) {
+                outstanding.add(cell);
+            }
+        }
+
+        if (outstanding.isEmpty()) {
+            listener.onTilesLoaded();
+            return;
+        }
+        loadRequests.add(new LoadRequest(outstanding, listener));
+
+        for (String cell : outstanding) {
+            if (!pendingTiles.containsKey(cell)) {
+                startTileQuery(cell);
+            }
+        }
+    }
+
+    /**
+     * Cancels the in-flight queries for every tile not in the given set, for example the
+     * tiles that have scrolled off screen
+     * @param cells The tiles that are still needed
+     */
+    public void cancelAllExcept(Collection<String> cells) {
+        Iterator<Map.Entry<String, PendingTile>> iterator = pendingTiles.entrySet().iterator();
+        List<String> cancelled = new ArrayList<>();
+        while (iterator.hasNext()) {
+            Map.Entry<String, PendingTile> entry = iterator.next();
+            if (!cells.contains(entry.getKey())) {
+                entry.getValue().cancel();
+                iterator.remove();
+                cancelled.add(entry.getKey());
+            }
+        }
+        for (String cell : cancelled) {
+            Log.d(TAG, "Cancelled tile " + cell);
+            finishTile(cell);
+        }
+    }
+
+    /**
+     * @return Every cached job inside the bounding box
+     */
+    public List<Job> jobsInBoundingBox(double minLatitude, double minLongitude,
+                                       double maxLatitude, double maxLongitude) {
+        return index.queryBoundingBox(minLatitude, minLongitude, maxLatitude, maxLongitude);
+    }
+
+    /**
+     * @return Every cached job within the radius of the point
+     */
+    public List<Job> jobsWithinRadius(double latitude, double longitude, double radiusKm) {
+        return index.queryRadius(latitude, longitude, radiusKm);
+    }
+
+    /**
+     * @return The number of tiles held in memory
+     */
+    public int cachedTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * Cancels every in-flight query, to be called when the screen goes away
+     */
+    public void cancelAll() {
+        cancelAllExcept(new HashSet<>());
+    }
+
+    private void startTileQuery(String cell) {
+        Query query = jobCRUD.geohashCellQuery(cell);
+        ValueEventListener listener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                // Registered as a regular listener so that it can be cancelled, remove it
+                // after the first result to make it behave like a single value event
+                query.removeEventListener(this);
+                ListenerRegistry.getInstance().removed(TAG);
+                if (pendingTiles.remove(cell) == null) {
+                    return;
+                }
+
+                List<Job> jobs = new ArrayList<>();
+                for (DataSnapshot jobSnapshot : snapshot.getChildren()) {
+                    Job job = JobCodec.fromSnapshot(jobSnapshot);
+                    if (job != null) {
+                        jobs.add(job);
+                    }
+                }
+                Log.d(TAG, "Loaded tile " + cell + " with " + jobs.size() + " jobs");
+                index(jobs);
+                tiles.put(cell, jobs);
+                finishTile(cell);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Failed to load tile " + cell + ": " + error.getMessage());
+                ListenerRegistry.getInstance().removed(TAG);
+                pendingTiles.remove(cell);
+                finishTile(cell);
+            }
+        };
+        pendingTiles.put(cell, new PendingTile(query, listener));
+        query.addValueEventListener(listener);
+        ListenerRegistry.getInstance().added(TAG);
+    }
+
+    /**
+     * Marks a tile as done for every waiting load request, and notifies the requests that
+     * have nothing left to wait for
+     */
+    private void finishTile(String cell) {
+        List<LoadRequest> completed = new ArrayList<>();
+        Iterator<LoadRequest> iterator = loadRequests.iterator();
+        while (iterator.hasNext()) {
+            LoadRequest request = iterator.next();
+            if (request.outstanding.remove(cell) && request.outstanding.isEmpty()) {
+                iterator.remove();
+                completed.add(request);
+            }
+        }
+        for (LoadRequest request : completed) {
+            request.listener.onTilesLoaded();
+        }
+    }
+
+    private void index(List<Job> jobs) {
+        for (Job job : jobs) {
+            Integer count = jobRefCounts.get(job.getId());
+            jobRefCounts.put(job.getId(), count == null ? 1 : count + 1);
+            index.insert(job);
+        }
+    }
+
+    private void unindex(List<Job> jobs) {
+        for (Job job : jobs) {
+            Integer count = jobRefCounts.get(job.getId());
+            if (count == null || count <= 1) {
+                jobRefCounts.remove(job.getId());
+                index.remove(job.getId());
+            } else {
+                jobRefCounts.put(job.getId(), count - 1);
+            }
+        }
+    }
+
+    /**
+     * A tile query that has not returned yet
+     */
+    private static class PendingTile {
+        final Query query;
+        final ValueEventListener listener;
+
+        PendingTile(Query query, ValueEventListener listener) {
+            this.query = query;
+            this.listener = listener;
+        }
+
+        void cancel() {
+            query.removeEventListener(listener);
+            ListenerRegistry.getInstance().removed(TAG);
+        }
+    }
+
+    /**
+     * A call to load() that is waiting for some of its tiles
+     */
+    private static class LoadRequest {
+        final Set<String> outstanding;
+        final TilesLoadedListener listener;
+
+        LoadRequest(Set<String> outstanding, TilesLoadedListener listener) {
+            this.outstanding = outstanding;
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.quickcash.utilities;
+
+import android.util.Log;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Debug count of the database listeners held by each screen or app-wide component, so a
+ * listener that is never removed shows up as a count that keeps growing. The counts are
+ * logged every time they change.
+ */
+public class ListenerRegistry {
+
+    private static final String TAG = "ListenerRegistry";
+
+    private static ListenerRegistry instance;
+
+    /** Active listeners by owner, sorted by name so reports are stable */
+    private final Map<String, Integer> counts = new TreeMap<>();
+
+    /**
+     * @return The app-wide registry
+     */
+    public static synchronized ListenerRegistry getInstance() {
+        if (instance == null) {
+            instance = new ListenerRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Records a listener added by an owner
+     * @param owner The screen or component that added the listener
+     */
+    public synchronized void added(String owner) {
+        Integer count = counts.get(owner);
+        counts.put(owner, count == null ? 1 : count + 1);
+        Log.d(TAG, report());
+    }
+
+    /**
+     * Records a listener removed by an owner
+     * @param owner The screen or component that removed the listener
+     */
+    public synchronized void removed(String owner) {
+        Integer count = counts.get(owner);
+        if (count == null) {
+            Log.w(TAG, owner + " removed a listener it never added");
+            return;
+        }
+        if (count <= 1) {
+            counts.remove(owner);
+        } else {
+            counts.put(owner, count - 1);
+        }
+        Log.d(TAG, report());
+    }
+
+    /**
+     * @param owner The screen or component
+     * @return The number of listeners the owner holds
+     */
+    public synchronized int activeListeners(String owner) {
+        Integer count = counts.get(owner);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return The number of listeners held by every owner
+     */
+    public synchronized int totalListeners() {
+        int total = 0;
+        for (int count : counts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return The listener counts, for example "3 active listeners: JobRepository=1, ViewApplications=2"
+     */
+    public synchronized String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(totalListeners()).append(" active listeners");
+        String separator = ": ";
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            report.append(separator).append(entry.getKey()).append('=').append(entry.getValue());
+            separator = ", ";
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.quickcash.utilities;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.location.Location;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+
+import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.location.LocationCallback;
+import com.google.android.gms.location.LocationRequest;
+import com.google.android.gms.location.LocationResult;
+import com.google.android.gms.location.LocationServices;
+import com.google.android.gms.location.Priority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * App-wide source of the device location. Every screen observes the same location stream
+ * instead of building its own FusedLocationProviderClient. Updates run only while at least
+ * one screen is observing, at the most accurate priority any of them asked for, and each
+ * observer is only notified once the user has moved further than its own threshold, so GPS
+ * jitter does not trigger new job queries.
+ */
+public class LocationRepository {
+
+    private static final String TAG = "LocationRepository";
+
+    /** Latitude used when the device location is unavailable (Halifax, NS) */
+    public static final double DEFAULT_LATITUDE = 44.6488;
+
+    /** Longitude used when the device location is unavailable (Halifax, NS) */
+    public static final double DEFAULT_LONGITUDE = -63.5752;
+
+    /** Default movement, in kilometers, needed before observers are notified again */
+    public static final double DEFAULT_MIN_DISTANCE_KM = 0.5;
+
+    /** Provider name of the fallback location */
+    private static final String DEFAULT_PROVIDER = "default";
+
+    /** Interval between location updates */
+    private static final long UPDATE_INTERVAL_MS = 10000;
+
+    private static LocationRepository instance;
+
+    /**
+     * Observer of the device location. Keeps the last location it was given, so it is only
+     * notified again after moving further than minDistanceKm, even across remove and re-add
+     */
+    public abstract static class LocationObserver {
+        private final int priority;
+        private final double minDistanceKm;
+        private Location lastDelivered;
+
+        /**
+         * @param priority Request priority wanted while observing, one of the Priority constants
+         * @param minDistanceKm Movement in kilometers needed before the next notification
+         */
+        public LocationObserver(int priority, double minDistanceKm) {
+            this.priority = priority;
+            this.minDistanceKm = minDistanceKm;
+        }
+
+        /**
+         * Called with the first location and whenever the user has moved far enough
+         * @param location The new location, may be the default location
+         */
+        public abstract void onLocationChanged(Location location);
+    }
+
+    private final Context context;
+    private final FusedLocationProviderClient fusedLocationClient;
+    private final List<LocationObserver> observers = new ArrayList<>();
+    private Location currentLocation;
+
+    /** Priority of the running location request, or -1 when updates are stopped */
+    private int activePriority = -1;
+
+    private final LocationCallback locationCallback = new LocationCallback() {
+        @Override
+        public void onLocationResult(@NonNull LocationResult result) {
+            Location location = result.getLastLocation();
+            if (location != null) {
+                publish(location);
+            }
+        }
+    };
+
+    private LocationRepository(Context context) {
+        this.context = context.getApplicationContext();
+        this.fusedLocationClient = LocationServices.getFusedLocationProviderClient(this.context);
+    }
+
+    /**
+     * Gets the shared repository
+     * @param context Any context, only the application context is kept
+     * @return The app-wide repository
+     */
+    public static synchronized LocationRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocationRepository(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates the location used when the device location is unavailable
+     * @return A location in Halifax, NS
+     */
+    public static Location defaultLocation() {
+        Location location = new Location(DEFAULT_PROVIDER);
+        location.setLatitude(DEFAULT_LATITUDE);
+        location.setLongitude(DEFAULT_LONGITUDE);
+        return location;
+    }
+
+    /**
+     * @return true if the location is the fallback from defaultLocation()
+     */
+    public static boolean isDefaultLocation(Location location) {
+        return DEFAULT_PROVIDER.equals(location.getProvider());
+    }
+
+    /**
+     * @return The latest known location, or null if none has been received yet
+     */
+    public Location getCurrentLocation() {
+        return currentLocation;
+    }
+
+    /**
+     * Starts notifying an observer. Screens should observe while in the foreground so
+     * that the request priority follows the screen the user is looking at
+     * @param observer The observer to add
+     */
+    public void observe(LocationObserver observer) {
+        if (!observers.contains(observer)) {
+            observers.add(observer);
+        }
+        if (currentLocation != null) {
+            deliver(observer, currentLocation);
+        }
+        updateRequest();
+    }
+
+    /**
+     * Stops notifying an observer, location updates stop when no observer is left
+     * @param observer The observer to remove
+     */
+    public void removeObserver(LocationObserver observer) {
+        observers.remove(observer);
+        updateRequest();
+    }
+
+    /**
+     * Starts location updates after the location permission has been granted
+     */
+    public void onPermissionGranted() {
+        updateRequest();
+    }
+
+    /**
+     * Publishes the default location if no real location is known, for example when
+     * the location permission was denied
+     */
+    public void useDefaultLocationIfUnknown() {
+        if (currentLocation == null) {
+            publish(defaultLocation());
+        }
+    }
+
+    /**
+     * Starts, stops or changes the priority of the location request to match the observers
+     */
+    private void updateRequest() {
+        if (observers.isEmpty()) {
+            if (activePriority != -1) {
+                fusedLocationClient.removeLocationUpdates(locationCallback);
+                activePriority = -1;
+                Log.d(TAG, "Stopped location updates");
+            }
+            return;
+        }
+        if (!hasPermission()) {
+            return;
+        }
+
+        // Lower priority values are more accurate
+        int priority = Priority.PRIORITY_PASSIVE;
+        for (LocationObserver observer : observers) {
+            priority = Math.min(priority, observer.priority);
+        }
+        if (priority == activePriority) {
+            return;
+        }
+
+        try {
+            if (activePriority == -1 && currentLocation == null) {
+                // Use the cached fix while the first update is on its way
+                fusedLocationClient.getLastLocation().addOnSuccessListener(location -> {
+                    if (location != null) {
+                        publish(location);
+                    } else {
+                        useDefaultLocationIfUnknown();
+                    }
+                });
+            }
+            fusedLocationClient.removeLocationUpdates(locationCallback);
+            LocationRequest request = new LocationRequest.Builder(priority, UPDATE_INTERVAL_MS)
+                    .setMinUpdateDistanceMeters((float) (minObserverDistanceKm() * 1000))
+                    .build();
+            fusedLocationClient.requestLocationUpdates(request, locationCallback, Looper.getMainLooper());
+            activePriority = priority;
+            Log.d(TAG, "Requesting location updates with priority " + priority);
+        } catch (SecurityException e) {
+            Log.e(TAG, "SecurityException: " + e.getMessage());
+        }
+    }
+
+    private double minObserverDistanceKm() {
+        double min = Double.MAX_VALUE;
+        for (LocationObserver observer : observers) {
+            min = Math.min(min, observer.minDistanceKm);
+        }
+        return min;
+    }
+
+    private boolean hasPermission() {
+        return ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_FINE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED
+                || ContextCompat.checkSelfPermission(context, Manifest.permission.ACCESS_COARSE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED;
+    }
+
+    private void publish(Location location) {
+        currentLocation = location;
+        for (LocationObserver observer : new ArrayList<>(observers)) {
+            deliver(observer, location);
+        }
+    }
+
+    /**
+     * Notifies an observer if it has not had a location yet, is still on the default
+     * location, or has moved further than its threshold since the last notification
+     */
+    private void deliver(LocationObserver observer, Location location) {
+        Location last = observer.lastDelivered;
+        if (last != null && !(isDefaultLocation(last) && !isDefaultLocation(location))) {
+            double movedKm = LocationUtils.calculateDistance(last.getLatitude(), last.getLongitude(),
+                    location.getLatitude(), location.getLongitude());
+            if (movedKm <= observer.minDistanceKm) {
+                return;
+            }
+        }
+        observer.lastDelivered = location;
+        observer.onLocationChanged(location);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.quickcash.utilities;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.example.quickcash.entities.ApplicationRecord;
+import com.example.quickcash.entities.JobRecord;
+import com.example.quickcash.entities.SyncCursor;
+
+import java.util.List;
+
+/**
+ * Queries over the local mirror of jobs and applications. Must not be called on the main thread
+ */
+@Dao
+public interface MirrorDao {
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertJobs(List<JobRecord> jobs);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertApplications(List<ApplicationRecord> applications);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void saveCursor(SyncCursor cursor);
+
+    @Query("SELECT * FROM sync_cursors WHERE scope = :scope")
+    SyncCursor getCursor(String scope);
+
+    @Query("DELETE FROM jobs WHERE id IN (:jobIds)")
+    void deleteJobs(List<String> jobIds);
+
+    @Query("DELETE FROM applications WHERE jobId IN (:jobIds)")
+    void deleteApplicationsToJobs(List<String> jobIds);
+
+    @Query("DELETE FROM applications WHERE id IN (:applicationIds)")
+    void deleteApplications(List<String> applicationIds);
+
+    @Query("DELETE FROM jobs")
+    void deleteAllJobs();
+
+    @Query("DELETE FROM applications")
+    void deleteAllApplications();
+
+    @Query("DELETE FROM sync_cursors")
+    void deleteAllCursors();
+
+    @Query("SELECT * FROM jobs WHERE category = :category AND status = :status")
+    List<JobRecord> jobsByCategory(String category, String status);
+
+    @Query("SELECT * FROM jobs WHERE status = :status")
+    List<JobRecord> jobsByStatus(String status);
+
+    @Query("SELECT * FROM jobs WHERE latitude BETWEEN :minLatitude AND :maxLatitude"
+            + " AND longitude BETWEEN :minLongitude AND :maxLongitude AND status = :status")
+    List<JobRecord> jobsInBoundingBox(double minLatitude, double minLongitude,
+                                      double maxLatitude, double maxLongitude, String status);
+
+    @Query("SELECT * FROM jobs WHERE email = :email COLLATE NOCASE")
+    List<JobRecord> jobsPostedBy(String email);
+
+    @Query("SELECT * FROM applications WHERE jobId = :jobId")
+    List<ApplicationRecord> applicationsToJob(String jobId);
+
+    @Query("SELECT * FROM applications WHERE email = :email COLLATE NOCASE")
+    List<ApplicationRecord> applicationsOf(String email);
+
+    /**
+     * Replaces every mirrored job with the jobs of the user's current slice
+     */
+    @Transaction
+    default void replaceJobs(List<JobRecord> jobs) {
+        deleteAllJobs();
+        upsertJobs(jobs);
+    }
+
+    /**
+     * Empties the mirror and forgets every cursor, so the next sync starts from scratch
+     */
+    @Transaction
+    default void clear() {
+        deleteAllJobs();
+        deleteAllApplications();
+        deleteAllCursors();
+    }
+
+    /**
+     * Writes the records received from a node and moves its cursor, together
+     */
+    @Transaction
+    default void applyApplications(List<ApplicationRecord> applications, SyncCursor cursor) {
+        upsertApplications(applications);
+        saveCursor(cursor);
+    }
+
+    /**
+     * Removes deleted jobs, with the applications to them, and moves the deletions cursor
+     */
+    @Transaction
+    default void applyJobDeletions(List<String> jobIds, SyncCursor cursor) {
+        deleteJobs(jobIds);
+        deleteApplicationsToJobs(jobIds);
+        saveCursor(cursor);
+    }
+
+    /**
+     * Removes deleted applications and moves the deletions cursor
+     */
+    @Transaction
+    default void applyApplicationDeletions(List<String> applicationIds, SyncCursor cursor) {
+        deleteApplications(applicationIds);
+        saveCursor(cursor);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.quickcash.utilities;
+
+import android.content.Context;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+import com.example.quickcash.entities.ApplicationRecord;
+import com.example.quickcash.entities.JobRecord;
+import com.example.quickcash.entities.SyncCursor;
+
+/**
+ * SQLite database holding the local mirror of jobs and applications, see JobMirror
+ */
+@Database(entities = {JobRecord.class, ApplicationRecord.class, SyncCursor.class}, version = 1, exportSchema = false)
+public abstract class MirrorDatabase extends RoomDatabase {
+
+    private static final String NAME = "quickcash_mirror.db";
+
+    private static MirrorDatabase instance;
+
+    public abstract MirrorDao mirrorDao();
+
+    /**
+     * Gets the shared database
+     * @param context Any context, only the application context is kept
+     * @return The app-wide database
+     */
+    public static synchronized MirrorDatabase getInstance(Context context) {
+        if (instance == null) {
+            // The mirror can always be synced again, so it is rebuilt rather than migrated
+            instance = Room.databaseBuilder(context.getApplicationContext(), MirrorDatabase.class, NAME)
+                    .fallbackToDestructiveMigration()
+                    .build();
+        }
+        return instance;
+    }
+}
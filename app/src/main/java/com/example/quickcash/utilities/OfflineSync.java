@@ -0,0 +1,397 @@
+package com.example.quickcash.utilities;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.ProcessLifecycleOwner;
+
+import com.example.quickcash.entities.User;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Offline side of the disk cache enabled in QuickCashApplication. Keeps the nodes the signed in
+ * user's role reads on every start synced into the cache even when no screen listens to them,
+ * so the next start renders them without waiting for the network, and tracks whether the
+ * client is connected so screens can say how fresh the cached data is. Only the job summaries
+ * in the geohash cells around the user's last known location are kept synced, never the whole
+ * jobSummaries node. Must be used from the main thread.
+ */
+public class OfflineSync {
+
+    private static final String TAG = "OfflineSync";
+
+    private static final String PREFS_NAME = "offline_sync";
+    private static final String KEY_LAST_CONNECTED_AT = "last_connected_at";
+    private static final String KEY_LAST_LATITUDE = "last_latitude";
+    private static final String KEY_LAST_LONGITUDE = "last_longitude";
+
+    /** Radius (in km) around the last location whose job summaries are kept synced, the dashboard's nearby radius */
+    public static final double HOT_RADIUS_KM = 25.0;
+
+    /**
+     * How long (in ms) a connection attempt may go unanswered before the client counts as
+     * offline. Until then the connection is unknown, .info/connected reports false while the
+     * client is still connecting
+     */
+    static final long CONNECT_TIMEOUT_MS = 5000;
+
+    private static OfflineSync instance;
+
+    /**
+     * Listener for changes to the freshness of the cached data
+     */
+    public interface FreshnessListener {
+        /**
+         * Called right away when observing, after each connect or disconnect, and when a
+         * connection attempt starts or goes unanswered, see isOffline
+         * @param connected true if the client is connected and the data is live
+         * @param lastConnectedAt When the client was last connected, 0 if never
+         */
+        void onFreshnessChanged(boolean connected, long lastConnectedAt);
+    }
+
+    private final FirebaseDatabase database;
+    private final JobCRUD jobCRUD;
+    private final SharedPreferences prefs;
+    private final UserSession userSession;
+    private final JobMirror mirror;
+    private final List<FreshnessListener> listeners = new ArrayList<>();
+
+    /** Paths currently kept synced */
+    private final Set<String> syncedPaths = new HashSet<>();
+
+    /** Geohash cell queries of job summaries currently kept synced, keyed by cell */
+    private final Map<String, Query> syncedCells = new HashMap<>();
+
+    /** Role of the signed in user, null until known */
+    private String role;
+
+    /** Email of the signed in user, null until known */
+    private String email;
+
+    private boolean started = false;
+    private boolean connected = false;
+    /** true once a connection attempt went unanswered or an open connection dropped */
+    private boolean offline = false;
+    private long lastConnectedAt;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable connectTimeout = () -> setOffline(true);
+
+    private final UserSession.SessionListener sessionListener = this::onUserChanged;
+
+    private final ValueEventListener connectedListener = new ValueEventListener() {
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            Boolean value = snapshot.getValue(Boolean.class);
+            boolean nowConnected = value != null && value;
+            if (nowConnected == connected) {
+                return;
+            }
+            connected = nowConnected;
+            handler.removeCallbacks(connectTimeout);
+            // An open connection dropping is known, not a client still connecting
+            offline = !connected;
+            // Going offline also stamps the time, the data was live until now
+            lastConnectedAt = System.currentTimeMillis();
+            prefs.edit().putLong(KEY_LAST_CONNECTED_AT, lastConnectedAt).apply();
+            Log.d(TAG, connected ? "Connected" : "Disconnected");
+            notifyListeners();
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            Log.e(TAG, "Connection listener cancelled: " + error.getMessage());
+        }
+    };
+
+    private OfflineSync(Context context) {
+        this.database = DatabaseProvider.getInstance().getDatabase();
+        this.jobCRUD = new JobCRUD();
+        this.prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.userSession = UserSession.getInstance();
+        this.mirror = JobMirror.getInstance(context);
+        this.lastConnectedAt = prefs.getLong(KEY_LAST_CONNECTED_AT, 0);
+    }
+
+    /**
+     * Gets the shared instance
+     * @param context Any context, only the application context is kept
+     * @return The app-wide instance
+     */
+    public static synchronized OfflineSync getInstance(Context context) {
+        if (instance == null) {
+            instance = new OfflineSync(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Starts tracking the connection and the signed in user's role. Called once when the
+     * app starts, after persistence is enabled
+     */
+    public void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        awaitConnection();
+        database.getReference(".info/connected").addValueEventListener(connectedListener);
+        userSession.observe(sessionListener);
+        // DatabaseProvider reconnects when the app comes back to the foreground
+        ProcessLifecycleOwner.get().getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onStart(@NonNull LifecycleOwner owner) {
+                if (!connected) {
+                    awaitConnection();
+                }
+            }
+        });
+    }
+
+    /**
+     * Marks the connection unknown while the client connects, and counts it as offline if
+     * no connection is reported within CONNECT_TIMEOUT_MS
+     */
+    private void awaitConnection() {
+        setOffline(false);
+        handler.removeCallbacks(connectTimeout);
+        handler.postDelayed(connectTimeout, CONNECT_TIMEOUT_MS);
+    }
+
+    private void setOffline(boolean nowOffline) {
+        if (nowOffline == offline) {
+            return;
+        }
+        offline = nowOffline;
+        Log.d(TAG, offline ? "Offline" : "Connecting");
+        notifyListeners();
+    }
+
+    private void notifyListeners() {
+        for (FreshnessListener listener : new ArrayList<>(listeners)) {
+            listener.onFreshnessChanged(connected, lastConnectedAt);
+        }
+    }
+
+    /**
+     * Observes the freshness of the cached data. The listener is called right away
+     * @param listener The listener to add
+     */
+    public void observe(FreshnessListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        listener.onFreshnessChanged(connected, lastConnectedAt);
+    }
+
+    /**
+     * Stops observing the freshness of the cached data
+     * @param listener The listener to remove
+     */
+    public void removeObserver(FreshnessListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return true if the client is connected to the database
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Not connected is not the same as offline, the client is also not connected while it
+     * connects on start and after coming back to the foreground
+     * @return true if the client is known to be offline, false while connected or connecting
+     */
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * @return The geohash cells of job summaries kept synced right now
+     */
+    public Set<String> getSyncedCells() {
+        return new HashSet<>(syncedCells.keySet());
+    }
+
+    /**
+     * Remembers where the user is, so the job summaries around it are kept synced now and
+     * after the next start. The local mirror follows once the synced cells change
+     * @param latitude The user's latitude
+     * @param longitude The user's longitude
+     */
+    public void setLastLocation(double latitude, double longitude) {
+        prefs.edit()
+                .putLong(KEY_LAST_LATITUDE, Double.doubleToRawLongBits(latitude))
+                .putLong(KEY_LAST_LONGITUDE, Double.doubleToRawLongBits(longitude))
+                .apply();
+        if (syncCells() && role != null) {
+            mirror.sync(role, email, syncedCells.keySet());
+        }
+    }
+
+    /**
+     * Keeps the job summary cells of the user's role around the last location synced, and
+     * stops syncing the ones it no longer needs
+     * @return true if the synced cells changed
+     */
+    private boolean syncCells() {
+        List<String> wanted = Collections.emptyList();
+        if (prefs.contains(KEY_LAST_LATITUDE) && prefs.contains(KEY_LAST_LONGITUDE)) {
+            wanted = hotCells(role,
+                    Double.longBitsToDouble(prefs.getLong(KEY_LAST_LATITUDE, 0)),
+                    Double.longBitsToDouble(prefs.getLong(KEY_LAST_LONGITUDE, 0)));
+        }
+        boolean changed = false;
+        for (String cell : new ArrayList<>(syncedCells.keySet())) {
+            if (!wanted.contains(cell)) {
+                syncedCells.remove(cell).keepSynced(false);
+                changed = true;
+            }
+        }
+        for (String cell : wanted) {
+            if (!syncedCells.containsKey(cell)) {
+                Query query = jobCRUD.geohashCellQuery(cell);
+                query.keepSynced(true);
+                syncedCells.put(cell, query);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Keeps the hot nodes of the user's role synced, stops syncing the ones it no longer needs,
+     * and brings the local mirror up to date
+     */
+    private void onUserChanged(String username, User user) {
+        role = user.getRole();
+        email = user.getEmail();
+        Set<String> wanted = new HashSet<>(hotPaths(user.getRole(), username, user.getEmail()));
+        for (String path : new ArrayList<>(syncedPaths)) {
+            if (!wanted.contains(path)) {
+                database.getReference(path).keepSynced(false);
+                syncedPaths.remove(path);
+            }
+        }
+        for (String path : wanted) {
+            if (syncedPaths.add(path)) {
+                database.getReference(path).keepSynced(true);
+            }
+        }
+        syncCells();
+        Log.d(TAG, "Keeping " + syncedPaths.size() + " nodes and " + syncedCells.size()
+                + " job cells synced for " + user.getRole());
+
+        // Pull what changed since the last session into the local mirror
+        mirror.sync(user.getRole(), user.getEmail(), syncedCells.keySet());
+    }
+
+    /**
+     * Gets the nodes a role reads when the app starts. Everyone needs their own profile and
+     * email index entry, employees their applications, employers the index of the jobs they
+     * posted. The job summaries the dashboard lists are kept synced by cell, see hotCells
+     * @param role The user's role
+     * @param username The user's username
+     * @param email The user's email, may be null
+     * @return The paths to keep synced
+     */
+    public static List<String> hotPaths(String role, String username, String email) {
+        if (username == null) {
+            return Collections.emptyList();
+        }
+        List<String> paths = new ArrayList<>();
+        paths.add("users/" + username);
+        if (email == null) {
+            return paths;
+        }
+        String emailKey = DatabaseKeys.emailKey(email);
+        paths.add(FirebaseCRUD.USERS_BY_EMAIL + "/" + emailKey);
+        if ("Employee".equalsIgnoreCase(role)) {
+            paths.add(ApplicationCRUD.APPLICATIONS_BY_APPLICANT + "/" + emailKey);
+        } else if ("Employer".equalsIgnoreCase(role)) {
+            paths.add(JobCRUD.JOBS_BY_EMPLOYER + "/" + emailKey);
+        }
+        return paths;
+    }
+
+    /**
+     * Gets the geohash cells of the job summaries a role reads around a location when the app
+     * starts. The dashboard of either role lists the jobs within HOT_RADIUS_KM, see JobRepository
+     * @param role The user's role, may be null
+     * @param latitude The user's last latitude
+     * @param longitude The user's last longitude
+     * @return The cells to keep synced
+     */
+    public static List<String> hotCells(String role, double latitude, double longitude) {
+        if (!"Employee".equalsIgnoreCase(role) && !"Employer".equalsIgnoreCase(role)) {
+            return Collections.emptyList();
+        }
+        List<String> cells = new ArrayList<>();
+        for (String[] bound : GeoHash.queryBounds(latitude, longitude, HOT_RADIUS_KM)) {
+            cells.add(bound[0]);
+        }
+        return cells;
+    }
+
+    /**
+     * Describes what happened to a submission queued in the outbox. While connected the
+     * outbox sends it right away, otherwise once the client is back online
+     * @param connected true if the client is connected
+     * @return The text to show
+     */
+    public static String describeSubmission(boolean connected) {
+        return connected ? "Application submitted"
+                : "Application queued, it will be sent once you are online";
+    }
+
+    /**
+     * Describes how fresh the shown data is. While the client is not connected, which includes
+     * the moments after a start before it connects, screens show what is in the disk cache
+     * @param connected true if the client is connected
+     * @param lastConnectedAt When the client was last connected, 0 if never
+     * @param now The current time
+     * @return The text to show, or null when the data is live
+     */
+    public static String describeFreshness(boolean connected, long lastConnectedAt, long now) {
+        if (connected) {
+            return null;
+        }
+        if (lastConnectedAt <= 0) {
+            return "Showing saved data";
+        }
+        long minutes = Math.max(0, now - lastConnectedAt) / 60000;
+        if (minutes < 1) {
+            return "Showing saved data from just now";
+        }
+        if (minutes < 60) {
+            return String.format(Locale.getDefault(), "Showing saved data from %d min ago", minutes);
+        }
+        long hours = minutes / 60;
+        if (hours < 24) {
+            return String.format(Locale.getDefault(), "Showing saved data from %d h ago", hours);
+        }
+        return String.format(Locale.getDefault(), "Showing saved data from %d days ago", hours / 24);
+    }
+}
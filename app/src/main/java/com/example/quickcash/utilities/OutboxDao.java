@@ -0,0 +1,48 @@
+package com.example.quickcash.utilities;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.example.quickcash.entities.OutboxEntry;
+
+import java.util.List;
+
+/**
+ * Queries over the write outbox. Must not be called on the main thread
+ */
+@Dao
+public interface OutboxDao {
+
+    /**
+     * Queues a write. A write still waiting with the same key is replaced, and the new one
+     * goes to the back of the queue
+     */
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    long enqueue(OutboxEntry entry);
+
+    /**
+     * @return The write waiting with a key, null if there is none
+     */
+    @Query("SELECT * FROM outbox WHERE `key` = :key")
+    OutboxEntry waiting(String key);
+
+    @Query("SELECT * FROM outbox ORDER BY id LIMIT :limit")
+    List<OutboxEntry> oldest(int limit);
+
+    @Query("DELETE FROM outbox WHERE id IN (:ids)")
+    void delete(List<Long> ids);
+
+    @Query("UPDATE outbox SET attempts = attempts + 1 WHERE id IN (:ids)")
+    void countAttempt(List<Long> ids);
+
+    /**
+     * Marks the claim of a write as taken, only the rest of the write is left to send
+     */
+    @Query("UPDATE outbox SET claimTaken = 1 WHERE id = :id")
+    void claimed(long id);
+
+    @Query("SELECT COUNT(*) FROM outbox")
+    int count();
+}
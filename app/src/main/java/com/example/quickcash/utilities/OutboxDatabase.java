@@ -0,0 +1,56 @@
+package com.example.quickcash.utilities;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+import com.example.quickcash.entities.OutboxEntry;
+
+/**
+ * SQLite database holding the write outbox, see WriteOutbox. Kept apart from the mirror
+ * database: the mirror can be dropped and synced again, queued writes cannot
+ */
+@Database(entities = {OutboxEntry.class}, version = 3, exportSchema = false)
+public abstract class OutboxDatabase extends RoomDatabase {
+
+    private static final String NAME = "quickcash_outbox.db";
+
+    /** Version 2 adds the claim path of writes that create a record */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE outbox ADD COLUMN claimPath TEXT");
+        }
+    };
+
+    /** Version 3 keeps the claim path once the claim is taken, and marks it taken instead */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE outbox ADD COLUMN claimTaken INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    private static OutboxDatabase instance;
+
+    public abstract OutboxDao outboxDao();
+
+    /**
+     * Gets the shared database
+     * @param context Any context, only the application context is kept
+     * @return The app-wide database
+     */
+    public static synchronized OutboxDatabase getInstance(Context context) {
+        if (instance == null) {
+            instance = Room.databaseBuilder(context.getApplicationContext(), OutboxDatabase.class, NAME)
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3)
+                    .build();
+        }
+        return instance;
+    }
+}
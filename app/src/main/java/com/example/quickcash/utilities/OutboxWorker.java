@@ -0,0 +1,40 @@
+package com.example.quickcash.utilities;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+/**
+ * Background work that sends the writes waiting in the WriteOutbox. Scheduled by the outbox
+ * to run once the device is connected; asking for a retry makes WorkManager run it again
+ * with exponential backoff.
+ */
+public class OutboxWorker extends Worker {
+
+    private static final String TAG = "OutboxWorker";
+
+    public OutboxWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        WriteOutbox.init(getApplicationContext());
+        // The app may be in the background, where the client is otherwise kept offline
+        DatabaseProvider provider = DatabaseProvider.getInstance();
+        provider.acquireConnection();
+        try {
+            return WriteOutbox.getInstance().flush() ? Result.success() : Result.retry();
+        } catch (InterruptedException e) {
+            Log.w(TAG, "Stopped while sending queued writes");
+            Thread.currentThread().interrupt();
+            return Result.retry();
+        } finally {
+            provider.releaseConnection();
+        }
+    }
+}
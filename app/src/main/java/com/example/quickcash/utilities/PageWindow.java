@@ -0,0 +1,152 @@
+package com.example.quickcash.utilities;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The pages of a paged list that are kept in memory. At most maxPages pages are held: adding
+ * a page at one end drops the page at the other end. Only the start cursor of a page dropped
+ * from the front is remembered, so it can be read again when the list is scrolled back up
+ * @param <C> The cursor type, a position in the underlying listing
+ * @param <T> The item type
+ */
+public class PageWindow<C, T> {
+
+    /**
+     * A page of items, with the cursors it was read from and up to
+     */
+    public static class Page<C, T> {
+        private final C start;
+        private final C end;
+        private final List<T> items;
+        private final boolean last;
+
+        /**
+         * @param start Cursor the page was read from
+         * @param end Cursor the next page is read from
+         * @param items The items of the page
+         * @param last true if nothing follows this page
+         */
+        public Page(C start, C end, List<T> items, boolean last) {
+            this.start = start;
+            this.end = end;
+            this.items = items;
+            this.last = last;
+        }
+
+        public C getStart() {
+            return start;
+        }
+
+        public C getEnd() {
+            return end;
+        }
+
+        public List<T> getItems() {
+            return items;
+        }
+
+        public boolean isLast() {
+            return last;
+        }
+    }
+
+    private final int maxPages;
+    private final Deque<Page<C, T>> pages = new ArrayDeque<>();
+    private final Deque<C> droppedStarts = new ArrayDeque<>();
+
+    /**
+     * @param maxPages Maximum number of pages kept in memory, at least 2
+     */
+    public PageWindow(int maxPages) {
+        if (maxPages < 2) {
+            throw new IllegalArgumentException("maxPages must be at least 2");
+        }
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * Adds a page after the last one, dropping the first page if the window is full
+     * @param page The page to add
+     * @return The number of items dropped from the front
+     */
+    public int append(Page<C, T> page) {
+        pages.addLast(page);
+        if (pages.size() <= maxPages) {
+            return 0;
+        }
+        Page<C, T> dropped = pages.removeFirst();
+        droppedStarts.push(dropped.getStart());
+        return dropped.getItems().size();
+    }
+
+    /**
+     * Adds a page before the first one, dropping the last page if the window is full
+     * @param page The page to add, read from the cursor returned by previousStart
+     * @return The number of items dropped from the end
+     */
+    public int prepend(Page<C, T> page) {
+        pages.addFirst(page);
+        if (pages.size() <= maxPages) {
+            return 0;
+        }
+        return pages.removeLast().getItems().size();
+    }
+
+    /**
+     * @return The start cursor of the page before the window, or null if the window starts
+     *         at the beginning of the listing. The cursor is forgotten once it is returned
+     */
+    public C popPreviousStart() {
+        return droppedStarts.isEmpty() ? null : droppedStarts.pop();
+    }
+
+    /**
+     * Puts back a cursor returned by popPreviousStart whose page could not be read
+     * @param start The cursor
+     */
+    public void restorePreviousStart(C start) {
+        droppedStarts.push(start);
+    }
+
+    /**
+     * @return true if pages were dropped from the front and can be read again
+     */
+    public boolean hasPrevious() {
+        return !droppedStarts.isEmpty();
+    }
+
+    /**
+     * @return true if the listing continues after the last page in memory
+     */
+    public boolean hasNext() {
+        return pages.isEmpty() || !pages.peekLast().isLast();
+    }
+
+    /**
+     * @return The cursor the next page is read from, or null if no page was read yet
+     */
+    public C nextStart() {
+        return pages.isEmpty() ? null : pages.peekLast().getEnd();
+    }
+
+    /**
+     * @return The items of every page in memory, in order
+     */
+    public List<T> items() {
+        List<T> items = new ArrayList<>();
+        for (Page<C, T> page : pages) {
+            items.addAll(page.getItems());
+        }
+        return items;
+    }
+
+    /**
+     * @return The number of pages in memory
+     */
+    public int size() {
+        return pages.size();
+    }
+}
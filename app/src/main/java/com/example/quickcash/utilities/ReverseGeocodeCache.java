@@ -0,0 +1,247 @@
+package com.example.quickcash.utilities;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.location.Address;
+import android.location.Geocoder;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reverse geocoding service that runs Geocoder lookups on a background thread and caches
+ * the results. Coordinates are rounded to a grid cell of about 11 meters, so repeated
+ * lookups of the same place are answered from a memory LRU or from an on-disk store
+ * instead of the Geocoder. Concurrent requests for the same cell share a single lookup.
+ * Listeners are always called on the main thread.
+ */
+public class ReverseGeocodeCache {
+
+    private static final String TAG = "ReverseGeocodeCache";
+
+    /** Grid cells per degree, 4 decimal places is roughly 11 meters */
+    private static final double CELLS_PER_DEGREE = 10000.0;
+
+    /** Maximum number of addresses kept in memory */
+    private static final int MAX_MEMORY_ENTRIES = 128;
+
+    /** Maximum number of addresses kept on disk before the store is cleared */
+    private static final int MAX_DISK_ENTRIES = 1000;
+
+    private static final String PREFS_NAME = "reverse_geocode_cache";
+
+    private static ReverseGeocodeCache instance;
+
+    /**
+     * Listener for the result of a lookup
+     */
+    public interface AddressListener {
+        void onAddressResolved(CachedAddress address);
+        void onAddressUnavailable();
+    }
+
+    private final Context context;
+    private final SharedPreferences diskStore;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /** Recently used addresses, guarded by itself since the executor also writes to it */
+    private final Map<String, CachedAddress> memoryCache =
+            new LinkedHashMap<String, CachedAddress>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedAddress> eldest) {
+                    return size() > MAX_MEMORY_ENTRIES;
+                }
+            };
+
+    /** Listeners waiting on a lookup, keyed by cell. Only used on the main thread */
+    private final Map<String, List<AddressListener>> inFlight = new HashMap<>();
+
+    private ReverseGeocodeCache(Context context) {
+        this.context = context.getApplicationContext();
+        this.diskStore = this.context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Gets the shared cache
+     * @param context Any context, only the application context is kept
+     * @return The app-wide cache
+     */
+    public static synchronized ReverseGeocodeCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new ReverseGeocodeCache(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Looks up the address of a coordinate. Must be called on the main thread
+     * @param latitude The latitude to look up
+     * @param longitude The longitude to look up
+     * @param listener Listener called on the main thread with the result
+     */
+    public void lookup(double latitude, double longitude, AddressListener listener) {
+        String key = cellKey(latitude, longitude);
+
+        CachedAddress cached;
+        synchronized (memoryCache) {
+            cached = memoryCache.get(key);
+        }
+        if (cached != null) {
+            listener.onAddressResolved(cached);
+            return;
+        }
+
+        // Join a lookup that is already running for this cell
+        List<AddressListener> waiting = inFlight.get(key);
+        if (waiting != null) {
+            waiting.add(listener);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(listener);
+        inFlight.put(key, waiting);
+
+        executor.execute(() -> {
+            CachedAddress address = readFromDisk(key);
+            if (address == null) {
+                address = geocode(latitude, longitude);
+                if (address != null) {
+                    writeToDisk(key, address);
+                }
+            }
+            if (address != null) {
+                synchronized (memoryCache) {
+                    memoryCache.put(key, address);
+                }
+            }
+            CachedAddress result = address;
+            mainHandler.post(() -> deliver(key, result));
+        });
+    }
+
+    /**
+     * Rounds a coordinate to the grid cell used as the cache key
+     * @return The key of the cell containing the coordinate
+     */
+    static String cellKey(double latitude, double longitude) {
+        return Math.round(latitude * CELLS_PER_DEGREE) + ":" + Math.round(longitude * CELLS_PER_DEGREE);
+    }
+
+    private void deliver(String key, CachedAddress address) {
+        List<AddressListener> listeners = inFlight.remove(key);
+        if (listeners == null) {
+            return;
+        }
+        for (AddressListener listener : listeners) {
+            if (address != null) {
+                listener.onAddressResolved(address);
+            } else {
+                listener.onAddressUnavailable();
+            }
+        }
+    }
+
+    /**
+     * Runs the Geocoder, called on the executor thread
+     */
+    private CachedAddress geocode(double latitude, double longitude) {
+        Geocoder geocoder = new Geocoder(context, Locale.getDefault());
+        try {
+            List<Address> addresses = geocoder.getFromLocation(latitude, longitude, 1);
+            if (addresses != null && !addresses.isEmpty()) {
+                Address address = addresses.get(0);
+                return new CachedAddress(address.getAddressLine(0), address.getLocality(),
+                        address.getAdminArea(), address.getCountryCode());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            Log.e(TAG, "Geocoder failed: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private CachedAddress readFromDisk(String key) {
+        String json = diskStore.getString(key, null);
+        if (json == null) {
+            return null;
+        }
+        try {
+            JSONObject object = new JSONObject(json);
+            return new CachedAddress(object.optString("addressLine", null),
+                    object.optString("locality", null),
+                    object.optString("adminArea", null),
+                    object.optString("countryCode", null));
+        } catch (JSONException e) {
+            Log.e(TAG, "Corrupt cache entry for " + key);
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, CachedAddress address) {
+        SharedPreferences.Editor editor = diskStore.edit();
+        // The disk store is only a cache, so start over instead of tracking usage on disk
+        if (diskStore.getAll().size() >= MAX_DISK_ENTRIES) {
+            editor.clear();
+        }
+        try {
+            JSONObject object = new JSONObject();
+            object.put("addressLine", address.getAddressLine());
+            object.put("locality", address.getLocality());
+            object.put("adminArea", address.getAdminArea());
+            object.put("countryCode", address.getCountryCode());
+            editor.putString(key, object.toString());
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to store address for " + key);
+        }
+        editor.apply();
+    }
+
+    /**
+     * The parts of a geocoded address used by the app
+     */
+    public static class CachedAddress {
+        private final String addressLine;
+        private final String locality;
+        private final String adminArea;
+        private final String countryCode;
+
+        public CachedAddress(String addressLine, String locality, String adminArea, String countryCode) {
+            this.addressLine = addressLine;
+            this.locality = locality;
+            this.adminArea = adminArea;
+            this.countryCode = countryCode;
+        }
+
+        /** @return The full street address */
+        public String getAddressLine() {
+            return addressLine;
+        }
+
+        /** @return The city */
+        public String getLocality() {
+            return locality;
+        }
+
+        /** @return The state or province */
+        public String getAdminArea() {
+            return adminArea;
+        }
+
+        public String getCountryCode() {
+            return countryCode;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.quickcash.utilities;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Value listeners on database queries that are tied to a screen's lifecycle and shared
+ * between screens. A query is identified by the URL of its location and, when it orders or
+ * limits the data, an ID given by the caller that describes those parameters, for example
+ * "geohash:dr5r". Every observer of the same query is served by one database listener,
+ * which is added for the first observer and removed once the last one leaves. An observer
+ * that joins late is given the last value right away. Observers bound to a lifecycle are added when it starts and removed when it stops, so a
+ * screen can never leak its listeners. Each screen's observers are counted in the
+ * ListenerRegistry. Must be used from the main thread.
+ */
+public class SharedQueries {
+
+    private static final String TAG = "SharedQueries";
+
+    private static SharedQueries instance;
+
+    private final ListenerRegistry registry;
+
+    /** One entry per distinct query that has observers, keyed by queryKey */
+    private final Map<String, SharedQuery> queries = new HashMap<>();
+
+    /**
+     * Creates shared queries that count their observers in a registry
+     * @param registry The registry to count observers in
+     */
+    public SharedQueries(ListenerRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @return The app-wide shared queries
+     */
+    public static synchronized SharedQueries getInstance() {
+        if (instance == null) {
+            instance = new SharedQueries(ListenerRegistry.getInstance());
+        }
+        return instance;
+    }
+
+    /**
+     * Observes a location while the owner is started, see observe(owner, query, queryId, observer)
+     * @param owner The screen the observer belongs to
+     * @param reference The location to observe
+     * @param observer Called with the value of the location and each change to it
+     */
+    public void observe(LifecycleOwner owner, DatabaseReference reference, ValueEventListener observer) {
+        observe(owner, reference, "", observer);
+    }
+
+    /**
+     * Observes a query while the owner is started. The observer is removed when the owner
+     * stops and added again when it restarts, and is dropped for good once it is destroyed
+     * @param owner The screen the observer belongs to
+     * @param query The query to observe
+     * @param queryId Describes the ordering and limits of the query, empty for a plain location
+     * @param observer Called with the value of the query and each change to it
+     */
+    public void observe(LifecycleOwner owner, Query query, String queryId, ValueEventListener observer) {
+        String screen = owner.getClass().getSimpleName();
+        owner.getLifecycle().addObserver(new DefaultLifecycleObserver() {
+            @Override
+            public void onStart(@NonNull LifecycleOwner lifecycleOwner) {
+                add(screen, query, queryId, observer);
+            }
+
+            @Override
+            public void onStop(@NonNull LifecycleOwner lifecycleOwner) {
+                remove(screen, query, queryId, observer);
+            }
+
+            @Override
+            public void onDestroy(@NonNull LifecycleOwner lifecycleOwner) {
+                lifecycleOwner.getLifecycle().removeObserver(this);
+            }
+        });
+    }
+
+    /**
+     * Adds an observer to a query, adding the database listener if it is the first one
+     * @param screen The name of the screen the observer belongs to
+     * @param query The query to observe
+     * @param queryId Describes the ordering and limits of the query, empty for a plain location
+     * @param observer Called with the value of the query and each change to it
+     */
+    public void add(String screen, Query query, String queryId, ValueEventListener observer) {
+        String key = queryKey(query, queryId);
+        SharedQuery shared = queries.get(key);
+        if (shared == null) {
+            shared = new SharedQuery(key, query);
+            queries.put(key, shared);
+            query.addValueEventListener(shared);
+        }
+        shared.observers.add(new Observation(screen, observer));
+        registry.added(screen);
+        if (shared.lastValue != null) {
+            observer.onDataChange(shared.lastValue);
+        }
+    }
+
+    /**
+     * Removes an observer from a query, removing the database listener if it was the last one
+     * @param screen The name of the screen the observer belongs to
+     * @param query The observed query
+     * @param queryId The ID the query was added with
+     * @param observer The observer to remove
+     */
+    public void remove(String screen, Query query, String queryId, ValueEventListener observer) {
+        SharedQuery shared = queries.get(queryKey(query, queryId));
+        if (shared == null || !shared.removeObserver(screen, observer)) {
+            return;
+        }
+        registry.removed(screen);
+        if (shared.observers.isEmpty()) {
+            queries.remove(shared.key);
+            shared.query.removeEventListener(shared);
+        }
+    }
+
+    /**
+     * @return The number of database listeners serving every observer
+     */
+    public int activeQueryCount() {
+        return queries.size();
+    }
+
+    /**
+     * Builds the key identifying a query
+     * @param query The query
+     * @param queryId Describes the ordering and limits of the query
+     * @return The URL of the query's location, followed by the ID if there is one
+     */
+    public static String queryKey(Query query, String queryId) {
+        String location = query.getRef().toString();
+        return queryId == null || queryId.isEmpty() ? location : location + "?" + queryId;
+    }
+
+    /**
+     * The single database listener of a query, forwarding its events to every observer
+     */
+    private class SharedQuery implements ValueEventListener {
+        final String key;
+        final Query query;
+        final List<Observation> observers = new ArrayList<>();
+        DataSnapshot lastValue;
+
+        SharedQuery(String key, Query query) {
+            this.key = key;
+            this.query = query;
+        }
+
+        boolean removeObserver(String screen, ValueEventListener observer) {
+            for (int i = 0; i < observers.size(); i++) {
+                Observation observation = observers.get(i);
+                if (observation.listener == observer && observation.screen.equals(screen)) {
+                    observers.remove(i);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            lastValue = snapshot;
+            for (Observation observation : new ArrayList<>(observers)) {
+                observation.listener.onDataChange(snapshot);
+            }
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            // The database has already dropped the listener, so forget the query and its observers
+            Log.e(TAG, "Shared query cancelled: " + error.getMessage());
+            if (queries.get(key) == this) {
+                queries.remove(key);
+            }
+            List<Observation> cancelled = new ArrayList<>(observers);
+            observers.clear();
+            for (Observation observation : cancelled) {
+                registry.removed(observation.screen);
+                observation.listener.onCancelled(error);
+            }
+        }
+    }
+
+    /**
+     * An observer and the screen it belongs to
+     */
+    private static class Observation {
+        final String screen;
+        final ValueEventListener listener;
+
+        Observation(String screen, ValueEventListener listener) {
+            this.screen = screen;
+            this.listener = listener;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.quickcash.utilities;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent requests for the same key: while a request for a key is in flight,
+ * every other caller asking for that key gets the same task instead of starting another
+ * read. Once the task completes the key is forgotten, so the next caller reads again
+ * @param <K> The key type, for example a job ID
+ * @param <V> The result type
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Task<V>> inFlight = new HashMap<>();
+
+    /**
+     * Get the in-flight task for a key, or start one
+     * @param key The key of the request
+     * @param request Starts the request, only called if none is in flight for the key
+     * @return The task shared by every caller for the key
+     */
+    public synchronized Task<V> run(K key, Supplier<Task<V>> request) {
+        Task<V> task = inFlight.get(key);
+        if (task != null) {
+            return task;
+        }
+        task = request.get();
+        if (task.isComplete()) {
+            return task;
+        }
+        inFlight.put(key, task);
+        // Forget the key on the completing thread rather than waiting for the main thread
+        Task<V> started = task;
+        task.addOnCompleteListener(Runnable::run, completed -> forget(key, started));
+        return task;
+    }
+
+    /**
+     * @return The number of keys with a request in flight
+     */
+    public synchronized int size() {
+        return inFlight.size();
+    }
+
+    private synchronized void forget(K key, Task<V> task) {
+        if (inFlight.get(key) == task) {
+            inFlight.remove(key);
+        }
+    }
+}
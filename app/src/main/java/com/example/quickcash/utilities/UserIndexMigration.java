@@ -0,0 +1,126 @@
+package com.example.quickcash.utilities;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One-shot migration that adds the usernames and usersByEmail entries of every user
+ * registered before those nodes existed, see FirebaseCRUD. Lookups by email only read the
+ * index, so this has to run before users registered without an entry can sign in again.
+ * The users are read once and the entries are written in batched multi-path updates.
+ * Running it again is a no-op.
+ */
+public class UserIndexMigration {
+
+    private static final String TAG = "UserIndexMigration";
+
+    private final DatabaseReference rootRef;
+    private final int batchSize;
+
+    /**
+     * Creates a migration for the users node of a database
+     * @param database The database to migrate
+     * @param batchSize Number of users written per multi-path update
+     */
+    public UserIndexMigration(FirebaseDatabase database, int batchSize) {
+        this.rootRef = database.getReference();
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Creates a migration for the default database
+     */
+    public UserIndexMigration() {
+        this(DatabaseProvider.getInstance().getDatabase(), JobSchemaMigration.DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Reads every user and writes their index entries
+     * @param listener Listener notified of progress, completion and errors
+     */
+    public void run(JobSchemaMigration.MigrationListener listener) {
+        rootRef.child("users").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Map<String, Map<String, Object>> users = new HashMap<>();
+                int skipped = 0;
+                for (DataSnapshot user : snapshot.getChildren()) {
+                    Object value = user.getValue();
+                    if (value instanceof Map) {
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> record = (Map<String, Object>) value;
+                        users.put(user.getKey(), record);
+                    } else {
+                        skipped++;
+                    }
+                }
+                List<Map<String, Object>> entries = indexUpdates(users);
+                Log.d(TAG, "Indexing " + entries.size() + " users");
+                writeBatch(entries, 0, skipped, listener);
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError("Failed to read users: " + error.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Writes the entries batchSize users at a time, one batch after another, so progress is
+     * reported in order
+     */
+    private void writeBatch(List<Map<String, Object>> entries, int start, int skipped,
+                            JobSchemaMigration.MigrationListener listener) {
+        if (start >= entries.size()) {
+            listener.onComplete(entries.size(), skipped);
+            return;
+        }
+        int end = Math.min(start + batchSize, entries.size());
+        Map<String, Object> batch = new HashMap<>();
+        for (Map<String, Object> entry : entries.subList(start, end)) {
+            batch.putAll(entry);
+        }
+        rootRef.updateChildren(batch, (error, ref) -> {
+            if (error != null) {
+                listener.onError("Failed to index users " + (start + 1) + " to " + end
+                        + ": " + error.getMessage());
+                return;
+            }
+            listener.onProgress(end, entries.size());
+            writeBatch(entries, end, skipped, listener);
+        });
+    }
+
+    /**
+     * Computes the index entries of every user
+     * @param users The raw user records, keyed by username
+     * @return One multi-path update per user, relative to the database root, in username order
+     */
+    public static List<Map<String, Object>> indexUpdates(Map<String, Map<String, Object>> users) {
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (String username : new TreeMap<>(users).keySet()) {
+            Map<String, Object> updates = new HashMap<>();
+            updates.put(FirebaseCRUD.USERNAMES + "/" + username, true);
+            Object email = users.get(username).get("email");
+            if (email instanceof String && !((String) email).isEmpty()) {
+                updates.put(FirebaseCRUD.emailIndexPath((String) email), username);
+            }
+            entries.add(updates);
+        }
+        return entries;
+    }
+}
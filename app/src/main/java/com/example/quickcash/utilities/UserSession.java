@@ -0,0 +1,201 @@
+package com.example.quickcash.utilities;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.example.quickcash.entities.User;
+import com.example.quickcash.entities.UserCodec;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Profile of the signed in user, shared by every screen. The username is resolved once per
+ * login through the usersByEmail index, and the user's node is then listened to, so changes
+ * such as a new role reach every observer without reading the users node again. The session
+ * resets itself when the signed in user changes or signs out. Must be used from the main thread.
+ */
+public class UserSession {
+
+    private static final String TAG = "UserSession";
+
+    private static UserSession instance;
+
+    /**
+     * Listener for the signed in user's profile
+     */
+    public interface SessionListener {
+        /**
+         * Called once the profile is known and after each change to it
+         * @param username The user's username
+         * @param user The user's profile
+         */
+        void onUserChanged(String username, User user);
+    }
+
+    private final FirebaseAuth auth;
+    private final FirebaseCRUD firebaseCRUD;
+    private final List<SessionListener> listeners = new ArrayList<>();
+
+    /** Email of the user the session was resolved for, null when nobody is signed in */
+    private String email;
+    private String username;
+    private User user;
+    private DatabaseReference userReference;
+
+    private final ValueEventListener userListener = new ValueEventListener() {
+        @Override
+        public void onDataChange(@NonNull DataSnapshot snapshot) {
+            User updated = UserCodec.fromSnapshot(snapshot);
+            if (updated == null) {
+                Log.w(TAG, "User " + username + " no longer exists");
+                return;
+            }
+            user = updated;
+            for (SessionListener listener : new ArrayList<>(listeners)) {
+                listener.onUserChanged(username, user);
+            }
+        }
+
+        @Override
+        public void onCancelled(@NonNull DatabaseError error) {
+            Log.e(TAG, "User listener cancelled: " + error.getMessage());
+        }
+    };
+
+    private UserSession(FirebaseAuth auth, FirebaseCRUD firebaseCRUD) {
+        this.auth = auth;
+        this.firebaseCRUD = firebaseCRUD;
+        auth.addAuthStateListener(firebaseAuth -> {
+            FirebaseUser current = firebaseAuth.getCurrentUser();
+            if (current == null || current.getEmail() == null || !current.getEmail().equalsIgnoreCase(email)) {
+                reset();
+                if (current != null && !listeners.isEmpty()) {
+                    resolve();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return The app-wide session
+     */
+    public static synchronized UserSession getInstance() {
+        if (instance == null) {
+            instance = new UserSession(FirebaseAuth.getInstance(), new FirebaseCRUD());
+        }
+        return instance;
+    }
+
+    /**
+     * Observes the signed in user's profile. The listener is called right away if the
+     * profile is already known
+     * @param listener The listener to add
+     */
+    public void observe(SessionListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        if (user != null) {
+            listener.onUserChanged(username, user);
+        } else if (email == null) {
+            resolve();
+        }
+    }
+
+    /**
+     * Stops observing the profile. The profile itself stays cached until sign out
+     * @param listener The listener to remove
+     */
+    public void removeObserver(SessionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Forgets the cached profile and stops listening to it, as after a restart. The profile
+     * is read again, from the disk cache while offline, by the next observe call
+     */
+    public void clear() {
+        reset();
+    }
+
+    /**
+     * @return The signed in user's username, or null if it is not known yet
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @return The signed in user's profile, or null if it is not known yet
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * @return The signed in user's role, or null if it is not known yet
+     */
+    public String getRole() {
+        return user != null ? user.getRole() : null;
+    }
+
+    /**
+     * Looks up the username of the signed in user and starts listening to their node
+     */
+    private void resolve() {
+        FirebaseUser current = auth.getCurrentUser();
+        if (current == null || current.getEmail() == null) {
+            return;
+        }
+        String resolvingEmail = current.getEmail();
+        email = resolvingEmail;
+
+        firebaseCRUD.getUsernameByEmail(resolvingEmail)
+                .addOnSuccessListener(found -> {
+                    if (!resolvingEmail.equals(email)) {
+                        return;
+                    }
+                    if (found != null) {
+                        listenTo(found);
+                    } else {
+                        Log.w(TAG, "No user registered with " + resolvingEmail);
+                        email = null;
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to resolve user: " + e.getMessage());
+                    if (resolvingEmail.equals(email)) {
+                        email = null;
+                    }
+                });
+    }
+
+    private void listenTo(String resolvedUsername) {
+        username = resolvedUsername;
+        userReference = firebaseCRUD.userReference(resolvedUsername);
+        userReference.addValueEventListener(userListener);
+        ListenerRegistry.getInstance().added(TAG);
+    }
+
+    /**
+     * Forgets the cached profile and stops listening to it
+     */
+    private void reset() {
+        if (userReference != null) {
+            userReference.removeEventListener(userListener);
+            ListenerRegistry.getInstance().removed(TAG);
+            userReference = null;
+        }
+        email = null;
+        username = null;
+        user = null;
+    }
+}
@@ -0,0 +1,479 @@
+package com.example.quickcash.utilities;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import com.example.quickcash.entities.OutboxEntry;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable queue of writes to the Realtime Database. A write is stored in SQLite before its
+ * task completes, so a submission survives the app being killed while offline, and is sent
+ * by OutboxWorker once the device is connected, retried with exponential backoff until the
+ * server accepts it. Queued writes are multi-path updates that only set values under IDs
+ * made on the device, so sending one twice leaves the database as sending it once, and a
+ * write queued again under the same key replaces the waiting one. Writes are sent in the
+ * order they were queued, several per updateChildren call. A write creating a record first
+ * claims one of its paths with a transaction, see enqueueCreate, so a record submitted twice
+ * is only written once. A claim is never left behind on its own: a create dropped after its
+ * claim was taken releases it, and a claim found alone in its record is taken over.
+ */
+public class WriteOutbox {
+
+    private static final String TAG = "WriteOutbox";
+
+    /** Name of the unique work that empties the outbox */
+    static final String WORK_NAME = "outbox-flush";
+
+    /** Most paths sent in one updateChildren call */
+    public static final int MAX_PATHS_PER_WRITE = 500;
+
+    /** Entries read from SQLite at a time */
+    private static final int ENTRIES_PER_READ = 100;
+
+    private static final long BACKOFF_SECONDS = 10;
+    private static final long WRITE_TIMEOUT_MS = 30000;
+
+    private static WriteOutbox instance;
+
+    private final OutboxDao dao;
+    private final FirebaseDatabase database;
+    private final WorkManager workManager;
+    private final long writeTimeoutMs;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private WriteOutbox(Context context) {
+        this(OutboxDatabase.getInstance(context).outboxDao(), DatabaseProvider.getInstance().getDatabase(),
+                WorkManager.getInstance(context), WRITE_TIMEOUT_MS);
+    }
+
+    /**
+     * Creates an outbox that is only emptied by calling flush, for tests
+     * @param dao The outbox table
+     * @param database The database written to
+     * @param writeTimeoutMs How long flush waits for the server to accept a write
+     */
+    public WriteOutbox(OutboxDao dao, FirebaseDatabase database, long writeTimeoutMs) {
+        this(dao, database, null, writeTimeoutMs);
+    }
+
+    private WriteOutbox(OutboxDao dao, FirebaseDatabase database, WorkManager workManager, long writeTimeoutMs) {
+        this.dao = dao;
+        this.database = database;
+        this.workManager = workManager;
+        this.writeTimeoutMs = writeTimeoutMs;
+    }
+
+    /**
+     * Creates the shared outbox and sends whatever an earlier run left in it. Called once
+     * when the app starts
+     * @param context Any context, only the application context is kept
+     */
+    public static synchronized void init(Context context) {
+        if (instance == null) {
+            instance = new WriteOutbox(context.getApplicationContext());
+            instance.scheduleFlush();
+        }
+    }
+
+    /**
+     * Gets the shared outbox
+     * @return The app-wide outbox
+     * @throws IllegalStateException If init was not called
+     */
+    public static synchronized WriteOutbox getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("WriteOutbox.init was not called");
+        }
+        return instance;
+    }
+
+    /**
+     * Queues a write
+     * @param key What the write is for, a waiting write with the same key is replaced
+     * @param updates Multi-path update relative to the database root
+     * @return The task of storing the write on the device, not of sending it
+     */
+    public Task<Void> enqueue(String key, Map<String, Object> updates) {
+        return store(new OutboxEntry(key, encode(updates), System.currentTimeMillis()));
+    }
+
+    /**
+     * Queues a write that creates a record. Before the write is sent, its value at the claim
+     * path is set with a transaction that fails if the path already holds another value, in
+     * which case the record exists and the write is dropped. The claim value should be unique
+     * to this submission, so a claim that was taken but not followed by the rest of the
+     * write is recognised as its own when the write is retried. A write replacing a waiting
+     * one with the same key keeps the waiting claim value, which may already be taken
+     * @param key What the write is for, a waiting write with the same key is replaced
+     * @param claimPath One of the paths of the update, whose value is not null
+     * @param updates Multi-path update relative to the database root
+     * @return The task of storing the write on the device, not of sending it
+     */
+    public Task<Void> enqueueCreate(String key, String claimPath, Map<String, Object> updates) {
+        if (updates.get(claimPath) == null) {
+            throw new IllegalArgumentException("No value to claim at " + claimPath);
+        }
+        return store(new OutboxEntry(key, encode(updates), System.currentTimeMillis(), claimPath));
+    }
+
+    private Task<Void> store(OutboxEntry entry) {
+        String key = entry.getKey();
+        Task<Void> stored = Tasks.call(executor, () -> {
+            dao.enqueue(keepClaim(dao.waiting(key), entry));
+            return null;
+        });
+        stored.addOnSuccessListener(unused -> scheduleFlush())
+                .addOnFailureListener(e -> Log.e(TAG, "Could not queue " + key + ": " + e.getMessage()));
+        return stored;
+    }
+
+    /**
+     * Gives a create that replaces a waiting write the claim value of that write. The waiting
+     * claim may already be taken, and a new value would then be refused as another submission's
+     * @param waiting The write waiting with the same key, or null
+     * @param entry The write replacing it
+     * @return The entry, with the waiting claim value at its claim path if there was one
+     */
+    private static OutboxEntry keepClaim(OutboxEntry waiting, OutboxEntry entry) {
+        String claimPath = entry.getClaimPath();
+        if (waiting == null || claimPath == null) {
+            return entry;
+        }
+        try {
+            Object claim = new JSONObject(waiting.getUpdates()).opt(claimPath);
+            if (claim != null && claim != JSONObject.NULL) {
+                JSONObject updates = new JSONObject(entry.getUpdates());
+                updates.put(claimPath, claim);
+                entry.setUpdates(updates.toString());
+            }
+        } catch (JSONException e) {
+            Log.w(TAG, "Waiting write " + entry.getKey() + " is unreadable, its claim is not kept");
+        }
+        return entry;
+    }
+
+    /**
+     * Asks WorkManager to empty the outbox once the device is connected. The flush is
+     * appended after one already scheduled or running, so a write stored after a running
+     * flush last read the outbox is still sent; a flush that finds the outbox empty ends
+     * right away
+     */
+    private void scheduleFlush() {
+        if (workManager == null) {
+            return;
+        }
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(OutboxWorker.class)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+        workManager.enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+
+    /**
+     * @return The number of writes waiting. Must not be called on the main thread
+     */
+    public int pending() {
+        return dao.count();
+    }
+
+    /**
+     * Sends queued writes, oldest first, until the outbox is empty or a write fails. Writes the
+     * server rejects are dropped, they would be rejected again. Blocks, and must not be called
+     * on the main thread, where write results are delivered
+     * @return true if the outbox was emptied, false if a write should be retried later
+     * @throws InterruptedException If the thread is interrupted while waiting for a write
+     */
+    public boolean flush() throws InterruptedException {
+        while (true) {
+            List<OutboxEntry> entries = dao.oldest(ENTRIES_PER_READ);
+            if (entries.isEmpty()) {
+                return true;
+            }
+            List<OutboxEntry> readable = new ArrayList<>();
+            List<Map<String, Object>> updates = new ArrayList<>();
+            List<Long> unreadable = new ArrayList<>();
+            for (OutboxEntry entry : entries) {
+                try {
+                    updates.add(decode(new JSONObject(entry.getUpdates())));
+                    readable.add(entry);
+                } catch (JSONException e) {
+                    Log.e(TAG, "Dropping unreadable write " + entry.getKey());
+                    unreadable.add(entry.getId());
+                }
+            }
+            if (!unreadable.isEmpty()) {
+                dao.delete(unreadable);
+                continue;
+            }
+
+            OutboxEntry first = readable.get(0);
+            if (needsClaim(first)) {
+                if (!claim(first, updates.get(0))) {
+                    return false;
+                }
+                continue;
+            }
+
+            // A write with a claim to take waits for the writes before it, then goes alone
+            int unclaimed = 1;
+            while (unclaimed < readable.size() && !needsClaim(readable.get(unclaimed))) {
+                unclaimed++;
+            }
+            int count = batchSize(updates.subList(0, unclaimed), MAX_PATHS_PER_WRITE);
+            List<OutboxEntry> sent = readable.subList(0, count);
+            DatabaseError error = write(updates.subList(0, count));
+            if (error == null) {
+                dao.delete(ids(sent));
+                Log.d(TAG, "Sent " + count + " queued writes");
+            } else if (error.getCode() != DatabaseError.PERMISSION_DENIED) {
+                dao.countAttempt(ids(sent));
+                Log.w(TAG, "Queued writes failed, will retry: " + error.getMessage());
+                return false;
+            } else if (!retryOneByOne(sent, updates.subList(0, count))) {
+                return false;
+            }
+        }
+    }
+
+    private static boolean needsClaim(OutboxEntry entry) {
+        return entry.getClaimPath() != null && !entry.isClaimTaken();
+    }
+
+    /**
+     * Sends the writes of a rejected batch one at a time, so only the rejected ones are dropped.
+     * A dropped create releases its claim first, or its record would be left holding only the
+     * claim and refuse every later submission
+     * @return false if a write failed for another reason and should be retried later
+     */
+    private boolean retryOneByOne(List<OutboxEntry> entries, List<Map<String, Object>> updates)
+            throws InterruptedException {
+        for (int i = 0; i < entries.size(); i++) {
+            OutboxEntry entry = entries.get(i);
+            List<Long> id = new ArrayList<>();
+            id.add(entry.getId());
+            DatabaseError error = write(updates.subList(i, i + 1));
+            if (error != null && error.getCode() != DatabaseError.PERMISSION_DENIED) {
+                dao.countAttempt(id);
+                return false;
+            }
+            if (error != null && entry.getClaimPath() != null && !releaseClaim(entry)) {
+                dao.countAttempt(id);
+                return false;
+            }
+            if (error != null) {
+                Log.e(TAG, "Dropping rejected write " + entry.getKey() + ": " + error.getMessage());
+            }
+            dao.delete(id);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the claim of a create that is being dropped
+     * @return false if the removal failed and should be retried later
+     */
+    private boolean releaseClaim(OutboxEntry entry) throws InterruptedException {
+        Map<String, Object> release = new HashMap<>();
+        release.put(entry.getClaimPath(), null);
+        List<Map<String, Object>> updates = new ArrayList<>();
+        updates.add(release);
+        DatabaseError error = write(updates);
+        if (error != null && error.getCode() != DatabaseError.PERMISSION_DENIED) {
+            Log.w(TAG, "Release of " + entry.getKey() + " failed, will retry: " + error.getMessage());
+            return false;
+        }
+        if (error != null) {
+            // Left alone in its record, the claim is taken over by the next submission
+            Log.e(TAG, "Release of " + entry.getKey() + " was rejected: " + error.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Takes the claim of a write. The transaction runs on the record holding the claim path:
+     * a claim with no other field next to it was left by a write that never followed, and is
+     * taken over. Once taken the claim is marked in the entry and the write is sent like any
+     * other; a write whose record already exists, or that is rejected, is dropped
+     * @return false if the claim failed for another reason and should be retried later
+     */
+    private boolean claim(OutboxEntry entry, Map<String, Object> updates) throws InterruptedException {
+        List<Long> id = new ArrayList<>();
+        id.add(entry.getId());
+        Object value = updates.get(entry.getClaimPath());
+        CountDownLatch done = new CountDownLatch(1);
+        DatabaseError[] error = new DatabaseError[1];
+        boolean[] committed = new boolean[1];
+        DatabaseReference claimReference = database.getReference(entry.getClaimPath());
+        String field = claimReference.getKey();
+        claimReference.getParent().runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData record) {
+                Object current = record.child(field).getValue();
+                boolean alone = record.getChildrenCount() <= 1;
+                if (current != null && !alone && !String.valueOf(current).equals(String.valueOf(value))) {
+                    return Transaction.abort();
+                }
+                record.child(field).setValue(value);
+                return Transaction.success(record);
+            }
+
+            @Override
+            public void onComplete(DatabaseError databaseError, boolean claimed, DataSnapshot snapshot) {
+                error[0] = databaseError;
+                committed[0] = claimed;
+                done.countDown();
+            }
+        }, false);
+
+        if (!done.await(writeTimeoutMs, TimeUnit.MILLISECONDS)) {
+            dao.countAttempt(id);
+            return false;
+        }
+        if (error[0] != null && error[0].getCode() != DatabaseError.PERMISSION_DENIED) {
+            dao.countAttempt(id);
+            Log.w(TAG, "Claim of " + entry.getKey() + " failed, will retry: " + error[0].getMessage());
+            return false;
+        }
+        if (error[0] != null || !committed[0]) {
+            Log.w(TAG, "Dropping " + entry.getKey() + (error[0] != null
+                    ? ", its claim was rejected: " + error[0].getMessage() : ", the record already exists"));
+            dao.delete(id);
+        } else {
+            dao.claimed(entry.getId());
+        }
+        return true;
+    }
+
+    /**
+     * Sends writes in one updateChildren call and waits for the server
+     * @return null if the server accepted the writes, otherwise why they failed
+     */
+    private DatabaseError write(List<Map<String, Object>> updates) throws InterruptedException {
+        DatabaseBatch batch = new DatabaseBatch(database.getReference());
+        for (Map<String, Object> update : updates) {
+            batch.putAll(update);
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        DatabaseError[] result = new DatabaseError[1];
+        batch.commit((error, ref) -> {
+            result[0] = error;
+            done.countDown();
+        });
+        if (!done.await(writeTimeoutMs, TimeUnit.MILLISECONDS)) {
+            // The client keeps the write and may still send it, sending it again is harmless
+            return DatabaseError.fromCode(DatabaseError.DISCONNECTED);
+        }
+        return result[0];
+    }
+
+    /**
+     * Counts how many of the oldest queued writes can be sent together. updateChildren does not
+     * accept a path together with one of its ancestors, so a write touching such a path starts
+     * the next batch. A write to the same path as an earlier one replaces it, as it would have
+     * if they were sent one after the other
+     * @param updates The queued writes, oldest first
+     * @param maxPaths Most paths in one batch, a single write larger than this is still sent alone
+     * @return The number of writes in the first batch, at least 1 if there are writes
+     */
+    public static int batchSize(List<Map<String, Object>> updates, int maxPaths) {
+        DatabaseBatch batch = new DatabaseBatch(null);
+        int count = 0;
+        for (Map<String, Object> update : updates) {
+            if (count > 0 && batch.size() + update.size() > maxPaths) {
+                return count;
+            }
+            for (String path : update.keySet()) {
+                if (batch.overlaps(path)) {
+                    return count;
+                }
+            }
+            batch.putAll(update);
+            count++;
+        }
+        return count;
+    }
+
+    private static List<Long> ids(List<OutboxEntry> entries) {
+        List<Long> ids = new ArrayList<>();
+        for (OutboxEntry entry : entries) {
+            ids.add(entry.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * Stores an update as JSON. Deletions are kept as JSON nulls, and nested maps such as
+     * ServerValue.TIMESTAMP as objects
+     */
+    private static String encode(Map<String, ?> updates) {
+        try {
+            return toJson(updates).toString();
+        } catch (JSONException e) {
+            throw new IllegalArgumentException("Update cannot be queued: " + e.getMessage(), e);
+        }
+    }
+
+    private static JSONObject toJson(Map<String, ?> map) throws JSONException {
+        JSONObject object = new JSONObject();
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            Object value = entry.getValue();
+            if (value == null) {
+                object.put(entry.getKey(), JSONObject.NULL);
+            } else if (value instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, ?> child = (Map<String, ?>) value;
+                object.put(entry.getKey(), toJson(child));
+            } else {
+                object.put(entry.getKey(), value);
+            }
+        }
+        return object;
+    }
+
+    private static Map<String, Object> decode(JSONObject object) throws JSONException {
+        Map<String, Object> map = new HashMap<>();
+        Iterator<String> keys = object.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            Object value = object.get(key);
+            if (value == JSONObject.NULL) {
+                map.put(key, null);
+            } else if (value instanceof JSONObject) {
+                map.put(key, decode((JSONObject) value));
+            } else {
+                map.put(key, value);
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.quickcash.utilities.ApplicationCRUD;
+import com.google.firebase.database.ServerValue;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+public class ApplicationCRUDTest {
+
+    @Test
+    public void newApplicationUpdates_WritesBothIndexes() {
+        Map<String, Object> updates = ApplicationCRUD.newApplicationUpdates("app1", "job1", "Jane.Doe@dal.ca", "open");
+
+        assertEquals("job1", updates.get("applications/app1/jobId"));
+        assertEquals("open", updates.get("applications/app1/status"));
+
+        Map<?, ?> byJob = (Map<?, ?>) updates.get("applicationsByJob/job1/app1");
+        assertEquals("Jane.Doe@dal.ca", byJob.get("email"));
+        assertEquals("open", byJob.get("status"));
+
+        Map<?, ?> byApplicant = (Map<?, ?>) updates.get("applicationsByApplicant/jane,doe@dal,ca/app1");
+        assertEquals("job1", byApplicant.get("jobId"));
+        assertEquals("open", byApplicant.get("status"));
+        assertEquals(ServerValue.TIMESTAMP, byApplicant.get("updatedAt"));
+    }
+
+    @Test
+    public void statusUpdates_ChangesEveryCopy() {
+        Map<String, Object> updates = ApplicationCRUD.statusUpdates("app1", "job1", "jane@dal.ca", "accepted");
+
+        assertEquals(6, updates.size());
+        assertEquals("accepted", updates.get("applications/app1/status"));
+        assertEquals(ServerValue.TIMESTAMP, updates.get("applications/app1/updatedAt"));
+        assertEquals("accepted", updates.get("applicationsByJob/job1/app1/status"));
+        assertEquals("accepted", updates.get("applicationsByApplicant/jane@dal,ca/app1/status"));
+    }
+
+    @Test
+    public void applicantIndexPath_UsesEmailKey() {
+        assertEquals("applicationsByApplicant/a,b@x,ca/app2",
+                ApplicationCRUD.applicantIndexPath("A.B@x.ca", "app2"));
+    }
+}
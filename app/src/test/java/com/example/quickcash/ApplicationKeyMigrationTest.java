@@ -0,0 +1,94 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.quickcash.utilities.ApplicationCRUD;
+import com.example.quickcash.utilities.ApplicationKeyMigration;
+import com.google.firebase.database.ServerValue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ApplicationKeyMigrationTest {
+
+    @Test
+    public void applicationId_IsJobAndEmailKey() {
+        assertEquals("job1_a@dal,ca", ApplicationCRUD.applicationId("job1", "A@dal.ca"));
+    }
+
+    @Test
+    public void rekeyUpdates_MovesApplicationToDeterministicKey() {
+        Map<String, Map<String, Object>> applications = new HashMap<>();
+        applications.put("-push1", application("job1", "a@dal.ca", "open"));
+
+        List<Map<String, Object>> moves = ApplicationKeyMigration.rekeyUpdates(applications);
+
+        assertEquals(1, moves.size());
+        Map<String, Object> move = moves.get(0);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> copy = (Map<String, Object>) move.get("applications/job1_a@dal,ca");
+        assertEquals("job1_a@dal,ca", copy.get("id"));
+        assertEquals("Hello", copy.get("message"));
+        assertEquals("-push1", copy.get(ApplicationCRUD.SUBMISSION_ID));
+        assertTrue(move.containsKey("applicationsByJob/job1/job1_a@dal,ca"));
+        assertTrue(move.containsKey("applicationsByApplicant/a@dal,ca/job1_a@dal,ca"));
+        assertTrue(move.containsKey("applications/-push1"));
+        assertNull(move.get("applications/-push1"));
+        assertNull(move.get("applicationsByJob/job1/-push1"));
+        assertEquals(ServerValue.TIMESTAMP, move.get("deletedApplications/-push1"));
+    }
+
+    @Test
+    public void rekeyUpdates_MergesDuplicatesKeepingDecidedApplication() {
+        Map<String, Map<String, Object>> applications = new HashMap<>();
+        applications.put("-push1", application("job1", "a@dal.ca", "open"));
+        applications.put("-push2", application("job1", "a@dal.ca", "accepted"));
+
+        List<Map<String, Object>> moves = ApplicationKeyMigration.rekeyUpdates(applications);
+
+        assertEquals(1, moves.size());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> copy = (Map<String, Object>) moves.get(0).get("applications/job1_a@dal,ca");
+        assertEquals("accepted", copy.get("status"));
+        assertEquals("-push2", copy.get(ApplicationCRUD.SUBMISSION_ID));
+        assertTrue(moves.get(0).containsKey("applications/-push1"));
+        assertTrue(moves.get(0).containsKey("applications/-push2"));
+    }
+
+    @Test
+    public void rekeyUpdates_SkipsMigratedAndIncompleteApplications() {
+        Map<String, Map<String, Object>> applications = new HashMap<>();
+        applications.put("job1_a@dal,ca", application("job1", "a@dal.ca", "open"));
+        applications.put("-push3", application(null, "b@dal.ca", "open"));
+
+        assertTrue(ApplicationKeyMigration.rekeyUpdates(applications).isEmpty());
+    }
+
+    @Test
+    public void rekeyUpdates_DropsDuplicateOfMigratedApplication() {
+        Map<String, Map<String, Object>> applications = new HashMap<>();
+        applications.put("job1_a@dal,ca", application("job1", "a@dal.ca", "open"));
+        applications.put("-push1", application("job1", "a@dal.ca", "rejected"));
+
+        List<Map<String, Object>> moves = ApplicationKeyMigration.rekeyUpdates(applications);
+
+        assertEquals(1, moves.size());
+        assertFalse(moves.get(0).containsKey("applications/job1_a@dal,ca"));
+        assertTrue(moves.get(0).containsKey("applications/-push1"));
+    }
+
+    private static Map<String, Object> application(String jobId, String email, String status) {
+        Map<String, Object> application = new HashMap<>();
+        application.put("jobId", jobId);
+        application.put("email", email);
+        application.put("status", status);
+        application.put("message", "Hello");
+        return application;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.quickcash.utilities.ApplicationCRUD;
+import com.example.quickcash.utilities.DatabaseBatch;
+import com.example.quickcash.utilities.JobCRUD;
+import com.google.firebase.database.ServerValue;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+public class DatabaseBatchTest {
+
+    @Test
+    public void putAll_CombinesStatusChanges() {
+        DatabaseBatch batch = new DatabaseBatch(null);
+        batch.putAll(ApplicationCRUD.statusUpdates("app1", "job1", "a@dal.ca", "accepted"));
+        batch.putAll(ApplicationCRUD.statusUpdates("app2", "job1", "b@dal.ca", "rejected"));
+        batch.putAll(JobCRUD.statusUpdates("job1", "Completed"));
+
+        Map<String, Object> updates = batch.getUpdates();
+        assertEquals(16, batch.size());
+        assertEquals("accepted", updates.get("applicationsByJob/job1/app1/status"));
+        assertEquals("rejected", updates.get("applicationsByApplicant/b@dal,ca/app2/status"));
+        assertEquals("Completed", updates.get("jobs/job1/status"));
+        assertEquals("Completed", updates.get("jobSummaries/job1/status"));
+        assertEquals(ServerValue.TIMESTAMP, updates.get("jobSummaries/job1/updatedAt"));
+    }
+
+    @Test
+    public void put_SamePathReplacesValue() {
+        DatabaseBatch batch = new DatabaseBatch(null);
+        batch.put("jobs/job1/status", "open");
+        batch.put("jobs/job1/status", "Completed");
+
+        assertEquals(1, batch.size());
+        assertEquals("Completed", batch.getUpdates().get("jobs/job1/status"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void put_RejectsDescendantOfExistingPath() {
+        DatabaseBatch batch = new DatabaseBatch(null);
+        batch.put("jobs/job1", null);
+        batch.put("jobs/job1/status", "Completed");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void put_RejectsAncestorOfExistingPath() {
+        DatabaseBatch batch = new DatabaseBatch(null);
+        batch.put("jobs/job1/status", "Completed");
+        batch.put("jobs/job1", null);
+    }
+
+    @Test
+    public void put_AllowsSiblingWithSharedPrefix() {
+        DatabaseBatch batch = new DatabaseBatch(null);
+        batch.put("jobs/job1/status", "Completed");
+        batch.put("jobs/job10/status", "Completed");
+
+        assertEquals(2, batch.size());
+        assertTrue(new DatabaseBatch(null).isEmpty());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.quickcash.utilities.DatabaseKeys;
+
+import org.junit.Test;
+
+public class DatabaseKeysTest {
+
+    @Test
+    public void emailKey_ReplacesDots() {
+        assertEquals("jane,doe@dal,ca", DatabaseKeys.emailKey("jane.doe@dal.ca"));
+    }
+
+    @Test
+    public void emailKey_IgnoresCaseAndWhitespace() {
+        assertEquals(DatabaseKeys.emailKey("jane@dal.ca"), DatabaseKeys.emailKey(" Jane@DAL.ca "));
+    }
+
+    @Test
+    public void emailKey_EncodesForbiddenCharacters() {
+        assertEquals("a%23b%24c%5Bd%5D%2Fe%25@x,ca", DatabaseKeys.emailKey("a#b$c[d]/e%@x.ca"));
+    }
+}
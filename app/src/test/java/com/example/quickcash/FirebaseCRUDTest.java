@@ -0,0 +1,50 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.example.quickcash.entities.User;
+import com.example.quickcash.utilities.FirebaseCRUD;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+public class FirebaseCRUDTest {
+
+    @Test
+    public void userUpdates_NewUser() {
+        User user = new User("jane", "Jane@dal.ca", "Employee", "Jane", "Doe");
+
+        Map<String, Object> updates = FirebaseCRUD.userUpdates("jane", user, null);
+
+        assertEquals(3, updates.size());
+        assertSame(user, updates.get("users/jane"));
+        assertEquals(true, updates.get("usernames/jane"));
+        assertEquals("jane", updates.get("usersByEmail/jane@dal,ca"));
+    }
+
+    @Test
+    public void userUpdates_EmailChanged() {
+        User user = new User("jane", "jane@gmail.com", "Employee", "Jane", "Doe");
+
+        Map<String, Object> updates = FirebaseCRUD.userUpdates("jane", user, "jane@dal.ca");
+
+        assertTrue(updates.containsKey("usersByEmail/jane@dal,ca"));
+        assertNull(updates.get("usersByEmail/jane@dal,ca"));
+        assertEquals("jane", updates.get("usersByEmail/jane@gmail,com"));
+    }
+
+    @Test
+    public void userUpdates_SameEmailKeepsEntry() {
+        User user = new User("jane", "Jane@Dal.ca", "Employer", "Jane", "Doe");
+
+        Map<String, Object> updates = FirebaseCRUD.userUpdates("jane", user, "jane@dal.ca");
+
+        assertEquals("jane", updates.get("usersByEmail/jane@dal,ca"));
+        assertFalse(updates.containsValue(null));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.quickcash.utilities.GeoHash;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Set;
+
+public class GeoHashTest {
+
+    @Test
+    public void encode_KnownValue() {
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+    }
+
+    @Test
+    public void encode_DefaultPrecision() {
+        assertEquals(GeoHash.DEFAULT_PRECISION, GeoHash.encode(44.6488, -63.5752).length());
+    }
+
+    @Test
+    public void encode_NearbyPointsSharePrefix() {
+        String a = GeoHash.encode(44.6356, -63.5957);
+        String b = GeoHash.encode(44.6358, -63.5959);
+        assertEquals(a.substring(0, 5), b.substring(0, 5));
+    }
+
+    @Test
+    public void queryBounds_CoversNearbyJob() {
+        // Job about 1km away from Halifax should fall in one of the ranges
+        String jobHash = GeoHash.encode(44.6400, -63.5800);
+        assertTrue(isCovered(GeoHash.queryBounds(44.6488, -63.5752, 10), jobHash));
+    }
+
+    @Test
+    public void queryBounds_CoversJobNearEdgeOfRadius() {
+        // Job about 24km east of Halifax with a 25km radius
+        String jobHash = GeoHash.encode(44.6488, -63.2725);
+        assertTrue(isCovered(GeoHash.queryBounds(44.6488, -63.5752, 25), jobHash));
+    }
+
+    @Test
+    public void queryBounds_ExcludesFarAwayJob() {
+        // Montreal should not be in any range around Halifax
+        String jobHash = GeoHash.encode(45.5017, -73.5673);
+        assertFalse(isCovered(GeoHash.queryBounds(44.6488, -63.5752, 10), jobHash));
+    }
+
+    @Test
+    public void queryBounds_AtMostNineRanges() {
+        List<String[]> bounds = GeoHash.queryBounds(44.6488, -63.5752, 25);
+        assertTrue(bounds.size() >= 1 && bounds.size() <= 9);
+    }
+
+    @Test
+    public void coveringCells_CoversEveryPointInBox() {
+        Set<String> cells = GeoHash.coveringCells(44.60, -63.65, 44.70, -63.50, 16);
+        assertTrue(cells.size() <= 16);
+        for (double lat = 44.60; lat <= 44.70; lat += 0.01) {
+            for (double lng = -63.65; lng <= -63.50; lng += 0.01) {
+                assertTrue(hasPrefix(cells, GeoHash.encode(lat, lng)));
+            }
+        }
+    }
+
+    @Test
+    public void coveringCells_ZoomedOutUsesShorterCells() {
+        Set<String> small = GeoHash.coveringCells(44.64, -63.58, 44.65, -63.57, 16);
+        Set<String> large = GeoHash.coveringCells(40.0, -70.0, 50.0, -60.0, 16);
+        assertTrue(large.iterator().next().length() < small.iterator().next().length());
+    }
+
+    @Test
+    public void boundingBox_ContainsCircle() {
+        // Points 24km north and east of Halifax with a 25km radius
+        double[] box = GeoHash.boundingBox(44.6488, -63.5752, 25.0);
+        assertTrue(box[0] < 44.6488 && box[2] > 44.8644);
+        assertTrue(box[1] < -63.5752 && box[3] > -63.2725);
+    }
+
+    @Test
+    public void boundingBox_ClampedAtPole() {
+        double[] box = GeoHash.boundingBox(89.9, 0.0, 50.0);
+        assertEquals(90.0, box[2], 0.0);
+        assertTrue(box[1] >= -180.0 && box[3] <= 180.0);
+    }
+
+    private boolean hasPrefix(Set<String> cells, String hash) {
+        for (String cell : cells) {
+            if (hash.startsWith(cell)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isCovered(List<String[]> bounds, String hash) {
+        for (String[] bound : bounds) {
+            if (hash.compareTo(bound[0]) >= 0 && hash.compareTo(bound[1]) <= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
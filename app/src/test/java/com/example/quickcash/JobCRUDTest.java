@@ -0,0 +1,48 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.example.quickcash.utilities.JobCRUD;
+import com.google.firebase.database.ServerValue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class JobCRUDTest {
+
+    @Test
+    public void summaryValues_KeepsListFieldsOnly() {
+        Map<String, Object> job = new HashMap<>();
+        job.put("id", "job1");
+        job.put("name", "Dog walking");
+        job.put("description", "Walk two dogs every morning for a week");
+        job.put("category", "Pets");
+        job.put("latitude", 44.6488);
+        job.put("longitude", -63.5752);
+        job.put("geohash", "dxfy");
+        job.put("email", "employer@dal.ca");
+        job.put("status", "open");
+
+        Map<String, Object> summary = JobCRUD.summaryValues(job);
+
+        assertEquals(7, summary.size());
+        assertFalse(summary.containsKey("description"));
+        assertFalse(summary.containsKey("id"));
+        assertEquals("Dog walking", summary.get("name"));
+        assertEquals(44.6488, summary.get("latitude"));
+    }
+
+    @Test
+    public void statusUpdates_ChangesAndStampsJobAndSummary() {
+        Map<String, Object> updates = JobCRUD.statusUpdates("job1", "hired");
+
+        assertEquals(4, updates.size());
+        assertEquals("hired", updates.get("jobs/job1/status"));
+        assertEquals("hired", updates.get("jobSummaries/job1/status"));
+        assertEquals(ServerValue.TIMESTAMP, updates.get("jobs/job1/updatedAt"));
+        assertEquals(ServerValue.TIMESTAMP, updates.get("jobSummaries/job1/updatedAt"));
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.entities.JobCodec;
+import com.google.firebase.database.core.utilities.encoding.CustomClassMapper;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares JobCodec with the two ways jobs used to be parsed: one getValue(String.class) /
+ * getValue(Double.class) per field, and getValue(Job.class). Both go through Firebase's
+ * CustomClassMapper, which is called directly on the raw value maps here, so the per-field
+ * numbers leave out the child snapshot each child() call also allocates. Throughput and
+ * bytes allocated per job are printed to the test output.
+ */
+public class JobCodecBenchmark {
+
+    private static final double HALIFAX_LAT = 44.6488;
+    private static final double HALIFAX_LNG = -63.5752;
+    private static final int ROUNDS = 5;
+
+    /**
+     * A way of turning a raw job value into a Job
+     */
+    private interface Parser {
+        Job parse(String id, Object value);
+    }
+
+    @Test
+    public void benchmark100k() {
+        Map<String, Object> values = generateJobValues(100_000);
+
+        Parser perField = JobCodecBenchmark::parsePerField;
+        Parser reflective = (id, value) -> {
+            Job job = CustomClassMapper.convertToCustomClass(value, Job.class);
+            job.setId(id);
+            return job;
+        };
+        Parser codec = JobCodec::fromValue;
+
+        List<Job> expected = parseAll(values, perField);
+        assertSameJobs(expected, parseAll(values, reflective));
+        assertSameJobs(expected, parseAll(values, codec));
+
+        report("per-field getValue", values, perField);
+        report("getValue(Job.class)", values, reflective);
+        report("JobCodec", values, codec);
+    }
+
+    private void report(String name, Map<String, Object> values, Parser parser) {
+        // Warm up
+        parseAll(values, parser);
+
+        long nanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            parseAll(values, parser);
+            nanos += System.nanoTime() - start;
+            bytes += allocatedBytes() - allocatedBefore;
+        }
+        double millis = nanos / 1e6 / ROUNDS;
+        System.out.printf("%d jobs, %s: %.2f ms, %.0f jobs/s, %s bytes/job%n", values.size(), name,
+                millis, values.size() / (millis / 1000),
+                bytes < 0 ? "n/a" : String.valueOf(bytes / ROUNDS / values.size()));
+    }
+
+    private static List<Job> parseAll(Map<String, Object> values, Parser parser) {
+        List<Job> jobs = new ArrayList<>(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            jobs.add(parser.parse(entry.getKey(), entry.getValue()));
+        }
+        return jobs;
+    }
+
+    /**
+     * The parse JobCRUD.jobFromSnapshot did, one conversion per field
+     */
+    private static Job parsePerField(String id, Object value) {
+        Map<?, ?> map = (Map<?, ?>) value;
+        String name = CustomClassMapper.convertToCustomClass(map.get("name"), String.class);
+        Double latitude = CustomClassMapper.convertToCustomClass(map.get("latitude"), Double.class);
+        Double longitude = CustomClassMapper.convertToCustomClass(map.get("longitude"), Double.class);
+        if (name == null || latitude == null || longitude == null) {
+            return null;
+        }
+        Job job = new Job(name,
+                CustomClassMapper.convertToCustomClass(map.get("description"), String.class),
+                CustomClassMapper.convertToCustomClass(map.get("category"), String.class),
+                latitude, longitude);
+        job.setId(id);
+        job.setEmail(CustomClassMapper.convertToCustomClass(map.get("email"), String.class));
+        job.setGeohash(CustomClassMapper.convertToCustomClass(map.get("geohash"), String.class));
+        String status = CustomClassMapper.convertToCustomClass(map.get("status"), String.class);
+        if (status != null) {
+            job.setStatus(status);
+        }
+        return job;
+    }
+
+    /**
+     * @return Bytes allocated so far by this thread, or -1 if the JVM cannot tell
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static void assertSameJobs(List<Job> expected, List<Job> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getLatitude(), actual.get(i).getLatitude(), 0.0);
+            assertEquals(expected.get(i).getStatus(), actual.get(i).getStatus());
+        }
+    }
+
+    /**
+     * Job values shaped like the raw maps of jobs snapshots: Strings, Doubles and Longs
+     */
+    private static Map<String, Object> generateJobValues(int count) {
+        Random random = new Random(count);
+        String[] categories = {"Technology", "Retail", "Pets", "Delivery"};
+        Map<String, Object> values = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> job = new HashMap<>();
+            job.put("id", "job" + i);
+            job.put("name", "Job " + i);
+            job.put("description", "Description of job " + i);
+            job.put("category", categories[i % categories.length]);
+            job.put("latitude", HALIFAX_LAT + (random.nextDouble() - 0.5) * 4);
+            job.put("longitude", HALIFAX_LNG + (random.nextDouble() - 0.5) * 4);
+            job.put("geohash", "dxfy" + (i % 1000));
+            job.put("email", "employer" + (i % 500) + "@dal.ca");
+            job.put("status", i % 7 == 0 ? "hired" : "open");
+            job.put("updatedAt", 1700000000000L + i);
+            values.put("job" + i, job);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.example.quickcash.entities.ApplicationCodec;
+import com.example.quickcash.entities.ApplicationData;
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.entities.JobCodec;
+import com.example.quickcash.entities.User;
+import com.example.quickcash.entities.UserCodec;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class JobCodecTest {
+
+    @Test
+    public void fromValue_ReadsJobFields() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "Dog walking");
+        value.put("category", "Pets");
+        value.put("latitude", 44.6488);
+        // Whole coordinates come back from the database as Longs
+        value.put("longitude", -63L);
+        value.put("email", "employer@dal.ca");
+        value.put("status", "hired");
+        value.put("updatedAt", 1700000000000L);
+
+        Job job = JobCodec.fromValue("job1", value);
+
+        assertEquals("job1", job.getId());
+        assertEquals("Dog walking", job.getName());
+        assertEquals(-63.0, job.getLongitude(), 0.0);
+        assertEquals("hired", job.getStatus());
+        assertNull(job.getDescription());
+    }
+
+    @Test
+    public void fromValue_RejectsJobWithoutCoordinates() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "Dog walking");
+        value.put("latitude", "44.6488");
+
+        assertNull(JobCodec.fromValue("job1", value));
+        assertNull(JobCodec.fromValue("job1", "not a job"));
+    }
+
+    @Test
+    public void fromValue_DefaultsStatusToOpen() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("name", "Dog walking");
+        value.put("latitude", 44.6488);
+        value.put("longitude", -63.5752);
+
+        assertEquals("open", JobCodec.fromValue("job1", value).getStatus());
+    }
+
+    @Test
+    public void applicationFromValue_ReadsIndexEntry() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("email", "a@dal.ca");
+        value.put("status", "accepted");
+        value.put("updatedAt", 1700000000000L);
+
+        ApplicationData application = ApplicationCodec.fromValue("job1_a@dal,ca", value);
+
+        assertEquals("job1_a@dal,ca", application.getId());
+        assertEquals("a@dal.ca", application.getEmail());
+        assertEquals("accepted", application.getStatus());
+        assertNull(application.getJobId());
+    }
+
+    @Test
+    public void userFromValue_ReadsUserFields() {
+        Map<String, Object> value = new HashMap<>();
+        value.put("username", "sam");
+        value.put("email", "sam@dal.ca");
+        value.put("role", "Employee");
+
+        User user = UserCodec.fromValue(value);
+
+        assertEquals("sam", user.getUsername());
+        assertEquals("Employee", user.getRole());
+        assertNull(user.getFirstName());
+        assertNull(UserCodec.fromValue(null));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.quickcash.entities.ApplicationData;
+import com.example.quickcash.utilities.JobCRUD;
+import com.example.quickcash.utilities.JobStatus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class JobLifecycleTest {
+
+    @Test
+    public void jobStatus_AllowsOnlyForwardTransitions() {
+        assertTrue(JobStatus.OPEN.canTransitionTo(JobStatus.HIRED));
+        assertTrue(JobStatus.HIRED.canTransitionTo(JobStatus.COMPLETED));
+        assertTrue(JobStatus.COMPLETED.canTransitionTo(JobStatus.PAID));
+
+        assertFalse(JobStatus.HIRED.canTransitionTo(JobStatus.HIRED));
+        assertFalse(JobStatus.HIRED.canTransitionTo(JobStatus.OPEN));
+        assertFalse(JobStatus.OPEN.canTransitionTo(JobStatus.PAID));
+        assertFalse(JobStatus.PAID.canTransitionTo(JobStatus.COMPLETED));
+    }
+
+    @Test
+    public void jobStatus_ParsesStoredValues() {
+        assertEquals(JobStatus.OPEN, JobStatus.fromValue(null));
+        assertEquals(JobStatus.COMPLETED, JobStatus.fromValue("completed"));
+        assertEquals(JobStatus.HIRED, JobStatus.fromValue("hired"));
+        assertNull(JobStatus.fromValue("unknown"));
+    }
+
+    @Test
+    public void hireUpdates_AcceptsWinnerRejectsOthersAndClosesJob() {
+        List<ApplicationData> applications = new ArrayList<>();
+        applications.add(application("app1", "a@dal.ca", "open"));
+        applications.add(application("app2", "b@dal.ca", "open"));
+        applications.add(application("app3", "c@dal.ca", "rejected"));
+
+        Map<String, Object> updates = JobCRUD.hireUpdates("job1", "app1", applications);
+
+        assertEquals("accepted", updates.get("applications/app1/status"));
+        assertEquals("accepted", updates.get("applicationsByJob/job1/app1/status"));
+        assertEquals("rejected", updates.get("applications/app2/status"));
+        assertEquals("rejected", updates.get("applicationsByApplicant/b@dal,ca/app2/status"));
+        assertFalse(updates.containsKey("applications/app3/status"));
+        assertEquals("hired", updates.get("jobs/job1/status"));
+        assertEquals("hired", updates.get("jobSummaries/job1/status"));
+        assertEquals(16, updates.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void hireUpdates_RejectsClosedApplication() {
+        List<ApplicationData> applications = new ArrayList<>();
+        applications.add(application("app1", "a@dal.ca", "rejected"));
+        JobCRUD.hireUpdates("job1", "app1", applications);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void hireUpdates_RejectsUnknownApplication() {
+        List<ApplicationData> applications = new ArrayList<>();
+        applications.add(application("app1", "a@dal.ca", "open"));
+        JobCRUD.hireUpdates("job1", "app9", applications);
+    }
+
+    private static ApplicationData application(String id, String email, String status) {
+        ApplicationData application = new ApplicationData();
+        application.setId(id);
+        application.setEmail(email);
+        application.setStatus(status);
+        return application;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.utilities.JobRanker;
+import com.example.quickcash.utilities.LocationUtils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the old comparator sort from SearchJobsActivity, which evaluates the haversine
+ * formula twice per comparison, with JobRanker's precomputed distances and top-K page.
+ * Timings are printed to the test output.
+ */
+public class JobRankerBenchmark {
+
+    private static final double HALIFAX_LAT = 44.6488;
+    private static final double HALIFAX_LNG = -63.5752;
+    private static final int PAGE_SIZE = 20;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void benchmark10k() {
+        runBenchmark(10_000);
+    }
+
+    @Test
+    public void benchmark100k() {
+        runBenchmark(100_000);
+    }
+
+    private void runBenchmark(int jobCount) {
+        List<Job> jobs = generateJobs(jobCount);
+
+        // Warm up both code paths
+        comparatorSort(jobs);
+        new JobRanker(jobs, HALIFAX_LAT, HALIFAX_LNG).nextPage(PAGE_SIZE);
+
+        long sortNanos = 0;
+        long rankNanos = 0;
+        List<Job> sorted = null;
+        List<Job> page = null;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            sorted = comparatorSort(jobs);
+            sortNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            page = new JobRanker(jobs, HALIFAX_LAT, HALIFAX_LNG).nextPage(PAGE_SIZE);
+            rankNanos += System.nanoTime() - start;
+        }
+
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            assertEquals(sorted.get(i).getId(), page.get(i).getId());
+        }
+
+        System.out.printf("%d jobs: comparator sort %.2f ms, ranked first page %.2f ms%n",
+                jobCount, sortNanos / 1e6 / ROUNDS, rankNanos / 1e6 / ROUNDS);
+    }
+
+    private List<Job> comparatorSort(List<Job> jobs) {
+        List<Job> copy = new ArrayList<>(jobs);
+        copy.sort((job1, job2) -> {
+            double distance1 = LocationUtils.calculateDistance(HALIFAX_LAT, HALIFAX_LNG,
+                    job1.getLatitude(), job1.getLongitude());
+            double distance2 = LocationUtils.calculateDistance(HALIFAX_LAT, HALIFAX_LNG,
+                    job2.getLatitude(), job2.getLongitude());
+            return Double.compare(distance1, distance2);
+        });
+        return copy;
+    }
+
+    private List<Job> generateJobs(int count) {
+        Random random = new Random(count);
+        List<Job> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Job job = new Job("Job " + i, "Description", "Technology",
+                    HALIFAX_LAT + (random.nextDouble() - 0.5) * 4,
+                    HALIFAX_LNG + (random.nextDouble() - 0.5) * 4);
+            job.setId("job" + i);
+            jobs.add(job);
+        }
+        return jobs;
+    }
+}
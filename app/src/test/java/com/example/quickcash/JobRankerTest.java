@@ -0,0 +1,90 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.utilities.JobRanker;
+import com.example.quickcash.utilities.LocationUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class JobRankerTest {
+
+    private static final double HALIFAX_LAT = 44.6488;
+    private static final double HALIFAX_LNG = -63.5752;
+
+    private List<Job> jobs;
+
+    @Before
+    public void setup() {
+        Random random = new Random(7);
+        jobs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Job job = new Job("Job " + i, "Description", "Retail",
+                    HALIFAX_LAT + random.nextDouble() - 0.5,
+                    HALIFAX_LNG + random.nextDouble() - 0.5);
+            job.setId("job" + i);
+            jobs.add(job);
+        }
+        // Duplicate location to check ties are not skipped between pages
+        Job twin = new Job("Twin", "Description", "Retail",
+                jobs.get(0).getLatitude(), jobs.get(0).getLongitude());
+        twin.setId("twin");
+        jobs.add(twin);
+    }
+
+    @Test
+    public void pages_MatchFullSort() {
+        List<Job> sorted = new ArrayList<>(jobs);
+        sorted.sort((a, b) -> Double.compare(distance(a), distance(b)));
+
+        JobRanker ranker = new JobRanker(jobs, HALIFAX_LAT, HALIFAX_LNG);
+        List<Job> paged = new ArrayList<>();
+        while (ranker.hasMore()) {
+            paged.addAll(ranker.nextPage(20));
+        }
+
+        assertEquals(jobs.size(), paged.size());
+        for (int i = 0; i < paged.size(); i++) {
+            assertEquals(distance(sorted.get(i)), distance(paged.get(i)), 0.0);
+        }
+    }
+
+    @Test
+    public void nextPage_ReturnsPageSize() {
+        JobRanker ranker = new JobRanker(jobs, HALIFAX_LAT, HALIFAX_LNG);
+        assertEquals(20, ranker.nextPage(20).size());
+        assertTrue(ranker.hasMore());
+    }
+
+    @Test
+    public void nextPage_EmptyList() {
+        JobRanker ranker = new JobRanker(new ArrayList<>(), HALIFAX_LAT, HALIFAX_LNG);
+        assertFalse(ranker.hasMore());
+        assertTrue(ranker.nextPage(20).isEmpty());
+    }
+
+    @Test
+    public void nextPage_NoDuplicates() {
+        JobRanker ranker = new JobRanker(jobs, HALIFAX_LAT, HALIFAX_LNG);
+        List<String> ids = new ArrayList<>();
+        while (ranker.hasMore()) {
+            for (Job job : ranker.nextPage(7)) {
+                assertFalse(ids.contains(job.getId()));
+                ids.add(job.getId());
+            }
+        }
+        assertEquals(jobs.size(), ids.size());
+    }
+
+    private double distance(Job job) {
+        return LocationUtils.calculateDistance(HALIFAX_LAT, HALIFAX_LNG, job.getLatitude(), job.getLongitude());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.quickcash.utilities.GeoHash;
+import com.example.quickcash.utilities.JobSchemaMigration;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class JobSchemaMigrationTest {
+
+    @Test
+    public void canonicalUpdates_CapitalizedFields() {
+        Map<String, Object> job = new HashMap<>();
+        job.put("name", "Job1");
+        job.put("Latitude", 44.6488);
+        job.put("Longitude", -63.5752);
+
+        Map<String, Object> updates = JobSchemaMigration.canonicalUpdates("job1", job);
+
+        assertEquals(44.6488, (Double) updates.get("job1/latitude"), 0.0);
+        assertEquals(-63.5752, (Double) updates.get("job1/longitude"), 0.0);
+        assertEquals(GeoHash.encode(44.6488, -63.5752), updates.get("job1/geohash"));
+        assertEquals("open", updates.get("job1/status"));
+        assertTrue(updates.containsKey("job1/Latitude"));
+        assertNull(updates.get("job1/Latitude"));
+        assertTrue(updates.containsKey("job1/Longitude"));
+    }
+
+    @Test
+    public void canonicalUpdates_LocationId() {
+        Map<String, Object> job = new HashMap<>();
+        job.put("name", "Job2");
+        job.put("location", 3L);
+
+        Map<String, Object> updates = JobSchemaMigration.canonicalUpdates("job2", job);
+
+        assertEquals(43.6532, (Double) updates.get("job2/latitude"), 0.0);
+        assertEquals(-79.3832, (Double) updates.get("job2/longitude"), 0.0);
+        assertTrue(updates.containsKey("job2/location"));
+    }
+
+    @Test
+    public void canonicalUpdates_AlreadyCanonical() {
+        Map<String, Object> job = new HashMap<>();
+        job.put("name", "Job3");
+        job.put("latitude", 44.6488);
+        job.put("longitude", -63.5752);
+        job.put("geohash", GeoHash.encode(44.6488, -63.5752));
+        job.put("status", "open");
+
+        assertTrue(JobSchemaMigration.canonicalUpdates("job3", job).isEmpty());
+    }
+
+    @Test
+    public void canonicalUpdates_KeepsExistingStatus() {
+        Map<String, Object> job = new HashMap<>();
+        job.put("latitude", "44.6488");
+        job.put("longitude", -63.5752);
+        job.put("status", "Completed");
+
+        Map<String, Object> updates = JobSchemaMigration.canonicalUpdates("job4", job);
+
+        assertEquals(44.6488, (Double) updates.get("job4/latitude"), 0.0);
+        assertFalse(updates.containsKey("job4/longitude"));
+        assertFalse(updates.containsKey("job4/status"));
+    }
+
+    @Test
+    public void canonicalUpdates_NoCoordinates() {
+        Map<String, Object> job = new HashMap<>();
+        job.put("name", "Job5");
+
+        assertNull(JobSchemaMigration.canonicalUpdates("job5", job));
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.quickcash.entities.Job;
+import com.example.quickcash.utilities.JobSpatialIndex;
+import com.example.quickcash.utilities.LocationUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class JobSpatialIndexTest {
+
+    private static final double HALIFAX_LAT = 44.6488;
+    private static final double HALIFAX_LNG = -63.5752;
+
+    private List<Job> jobs;
+    private JobSpatialIndex index;
+
+    @Before
+    public void setup() {
+        // Random jobs spread over roughly 200km around Halifax
+        Random random = new Random(42);
+        jobs = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Job job = new Job("Job " + i, "Description", "Technology",
+                    HALIFAX_LAT + (random.nextDouble() - 0.5) * 2,
+                    HALIFAX_LNG + (random.nextDouble() - 0.5) * 2);
+            job.setId("job" + i);
+            jobs.add(job);
+        }
+        index = new JobSpatialIndex(jobs);
+    }
+
+    @Test
+    public void queryRadius_MatchesLinearScan() {
+        List<Job> expected = LocationUtils.filterJobsByDistance(jobs, HALIFAX_LAT, HALIFAX_LNG, 25);
+        List<Job> actual = index.queryRadius(HALIFAX_LAT, HALIFAX_LNG, 25);
+        assertEquals(ids(expected), ids(actual));
+    }
+
+    @Test
+    public void queryBoundingBox_OnlyReturnsJobsInBox() {
+        List<Job> result = index.queryBoundingBox(44.5, -63.7, 44.7, -63.5);
+        int expected = 0;
+        for (Job job : jobs) {
+            if (job.getLatitude() >= 44.5 && job.getLatitude() <= 44.7
+                    && job.getLongitude() >= -63.7 && job.getLongitude() <= -63.5) {
+                expected++;
+            }
+        }
+        assertEquals(expected, result.size());
+    }
+
+    @Test
+    public void nearest_MatchesSortedScan() {
+        List<Job> sorted = new ArrayList<>(jobs);
+        sorted.sort(Comparator.comparingDouble(job -> LocationUtils.calculateDistance(
+                HALIFAX_LAT, HALIFAX_LNG, job.getLatitude(), job.getLongitude())));
+
+        List<Job> nearest = index.nearest(HALIFAX_LAT, HALIFAX_LNG, 10);
+        assertEquals(10, nearest.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(sorted.get(i).getId(), nearest.get(i).getId());
+        }
+    }
+
+    @Test
+    public void nearest_FromFarAwayPoint() {
+        List<Job> nearest = index.nearest(45.5017, -73.5673, 3);
+        assertEquals(3, nearest.size());
+    }
+
+    @Test
+    public void remove_JobNoLongerReturned() {
+        Job first = index.nearest(HALIFAX_LAT, HALIFAX_LNG, 1).get(0);
+        assertTrue(index.remove(first.getId()));
+        assertEquals(jobs.size() - 1, index.size());
+        assertFalse(ids(index.queryRadius(HALIFAX_LAT, HALIFAX_LNG, 200)).contains(first.getId()));
+    }
+
+    @Test
+    public void insert_ReplacesJobWithSameId() {
+        Job moved = new Job("Moved", "Description", "Retail", 45.5017, -73.5673);
+        moved.setId("job0");
+        index.insert(moved);
+        assertEquals(jobs.size(), index.size());
+        assertEquals("Moved", index.nearest(45.5017, -73.5673, 1).get(0).getName());
+    }
+
+    private Set<String> ids(List<Job> list) {
+        Set<String> ids = new HashSet<>();
+        for (Job job : list) {
+            ids.add(job.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.quickcash.utilities.GeoHash;
+import com.example.quickcash.utilities.OfflineSync;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class OfflineSyncTest {
+
+    @Test
+    public void hotPaths_EmployeeSyncsOwnApplications() {
+        assertEquals(Arrays.asList("users/sam", "usersByEmail/sam@dal,ca",
+                        "applicationsByApplicant/sam@dal,ca"),
+                OfflineSync.hotPaths("Employee", "sam", "Sam@dal.ca"));
+    }
+
+    @Test
+    public void hotCells_SyncsCellsAroundLocation() {
+        List<String> cells = OfflineSync.hotCells("Employee", 44.6488, -63.5752);
+        assertFalse(cells.isEmpty());
+        assertTrue(cells.size() <= 9);
+        String home = GeoHash.encode(44.6488, -63.5752);
+        boolean coversHome = false;
+        for (String cell : cells) {
+            coversHome |= home.startsWith(cell);
+        }
+        assertTrue(coversHome);
+        assertEquals(cells, OfflineSync.hotCells("Employer", 44.6488, -63.5752));
+        assertEquals(Collections.emptyList(), OfflineSync.hotCells(null, 44.6488, -63.5752));
+    }
+
+    @Test
+    public void hotPaths_EmployerSyncsOwnJobIndex() {
+        assertEquals(Arrays.asList("users/sam", "usersByEmail/sam@dal,ca", "jobsByEmployer/sam@dal,ca"),
+                OfflineSync.hotPaths("Employer", "sam", "sam@dal.ca"));
+        assertEquals(Collections.emptyList(), OfflineSync.hotPaths("Employer", null, "sam@dal.ca"));
+    }
+
+    @Test
+    public void describeSubmission_SaysQueuedOnlyWhileNotConnected() {
+        assertEquals("Application submitted", OfflineSync.describeSubmission(true));
+        assertTrue(OfflineSync.describeSubmission(false).contains("once you are online"));
+    }
+
+    @Test
+    public void describeFreshness_HiddenWhileConnected() {
+        assertNull(OfflineSync.describeFreshness(true, 1000, 5000));
+    }
+
+    @Test
+    public void describeFreshness_ShowsAgeOfCachedData() {
+        long now = 10L * 24 * 60 * 60 * 1000;
+        assertEquals("Showing saved data", OfflineSync.describeFreshness(false, 0, now));
+        assertEquals("Showing saved data from just now", OfflineSync.describeFreshness(false, now - 30000, now));
+        assertTrue(OfflineSync.describeFreshness(false, now - 5 * 60000, now).contains("5 min ago"));
+        assertTrue(OfflineSync.describeFreshness(false, now - 3 * 3600000, now).contains("3 h ago"));
+        assertTrue(OfflineSync.describeFreshness(false, now - 2 * 86400000L, now).contains("2 days ago"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.example.quickcash.utilities.PageWindow;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class PageWindowTest {
+
+    @Test
+    public void append_DropsFirstPageOnceFull() {
+        PageWindow<Integer, String> window = new PageWindow<>(2);
+
+        assertEquals(0, window.append(page(0, 2, false, "a", "b")));
+        assertEquals(0, window.append(page(2, 4, false, "c", "d")));
+        assertFalse(window.hasPrevious());
+
+        assertEquals(2, window.append(page(4, 5, true, "e")));
+        assertEquals(Arrays.asList("c", "d", "e"), window.items());
+        assertEquals(2, window.size());
+        assertTrue(window.hasPrevious());
+        assertFalse(window.hasNext());
+    }
+
+    @Test
+    public void prepend_ReadsDroppedPageBackAndDropsLast() {
+        PageWindow<Integer, String> window = new PageWindow<>(2);
+        window.append(page(0, 2, false, "a", "b"));
+        window.append(page(2, 4, false, "c", "d"));
+        window.append(page(4, 6, false, "e", "f"));
+
+        Integer start = window.popPreviousStart();
+        assertEquals(Integer.valueOf(0), start);
+        assertEquals(2, window.prepend(page(start, 2, false, "a", "b")));
+
+        assertEquals(Arrays.asList("a", "b", "c", "d"), window.items());
+        assertFalse(window.hasPrevious());
+        assertNull(window.popPreviousStart());
+        assertEquals(Integer.valueOf(4), window.nextStart());
+    }
+
+    @Test
+    public void emptyWindow_HasNextFromStart() {
+        PageWindow<Integer, String> window = new PageWindow<>(3);
+        assertTrue(window.hasNext());
+        assertNull(window.nextStart());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_RejectsSinglePage() {
+        new PageWindow<Integer, String>(1);
+    }
+
+    private static PageWindow.Page<Integer, String> page(int start, int end, boolean last, String... items) {
+        return new PageWindow.Page<>(start, end, Arrays.asList(items), last);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.quickcash.utilities.UserIndexMigration;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class UserIndexMigrationTest {
+
+    @Test
+    public void indexUpdates_AddsUsernameAndEmailEntries() {
+        Map<String, Map<String, Object>> users = new HashMap<>();
+        users.put("jane", user("Jane@dal.ca"));
+
+        List<Map<String, Object>> entries = UserIndexMigration.indexUpdates(users);
+
+        assertEquals(1, entries.size());
+        assertEquals(true, entries.get(0).get("usernames/jane"));
+        assertEquals("jane", entries.get(0).get("usersByEmail/jane@dal,ca"));
+    }
+
+    @Test
+    public void indexUpdates_UserWithoutEmail() {
+        Map<String, Map<String, Object>> users = new HashMap<>();
+        users.put("jane", user(null));
+
+        List<Map<String, Object>> entries = UserIndexMigration.indexUpdates(users);
+
+        assertEquals(1, entries.get(0).size());
+        assertEquals(true, entries.get(0).get("usernames/jane"));
+    }
+
+    @Test
+    public void indexUpdates_NoUsers() {
+        assertTrue(UserIndexMigration.indexUpdates(new HashMap<>()).isEmpty());
+    }
+
+    private static Map<String, Object> user(String email) {
+        Map<String, Object> user = new HashMap<>();
+        user.put("email", email);
+        user.put("role", "Employee");
+        return user;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.quickcash;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.quickcash.utilities.ApplicationCRUD;
+import com.example.quickcash.utilities.WriteOutbox;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class WriteOutboxTest {
+
+    @Test
+    public void batchSize_SendsQueuedWritesTogether() {
+        List<Map<String, Object>> queued = new ArrayList<>();
+        queued.add(ApplicationCRUD.newApplicationUpdates("app1", "job1", "a@dal.ca", "open"));
+        queued.add(ApplicationCRUD.statusUpdates("app2", "job1", "b@dal.ca", "rejected"));
+        queued.add(ApplicationCRUD.statusUpdates("app2", "job1", "b@dal.ca", "accepted"));
+
+        assertEquals(3, WriteOutbox.batchSize(queued, WriteOutbox.MAX_PATHS_PER_WRITE));
+    }
+
+    @Test
+    public void batchSize_StopsBeforeOverlappingPath() {
+        List<Map<String, Object>> queued = new ArrayList<>();
+        queued.add(ApplicationCRUD.newApplicationUpdates("app1", "job1", "a@dal.ca", "open"));
+        // The index entry was written whole, its status cannot go in the same write
+        queued.add(ApplicationCRUD.statusUpdates("app1", "job1", "a@dal.ca", "accepted"));
+
+        assertEquals(1, WriteOutbox.batchSize(queued, WriteOutbox.MAX_PATHS_PER_WRITE));
+    }
+
+    @Test
+    public void batchSize_KeepsBatchesUnderPathLimit() {
+        List<Map<String, Object>> queued = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            queued.add(ApplicationCRUD.statusUpdates("app" + i, "job1", "a@dal.ca", "rejected"));
+        }
+
+        assertEquals(2, WriteOutbox.batchSize(queued, 15));
+        assertEquals(1, WriteOutbox.batchSize(queued, 3));
+        assertEquals(0, WriteOutbox.batchSize(Collections.<Map<String, Object>>emptyList(), 15));
+    }
+
+    @Test
+    public void batchSize_SamePathIsNotAnOverlap() {
+        Map<String, Object> first = new HashMap<>();
+        first.put("jobs/job1/status", "open");
+        Map<String, Object> second = new HashMap<>();
+        second.put("jobs/job1/status", "hired");
+        List<Map<String, Object>> queued = new ArrayList<>();
+        queued.add(first);
+        queued.add(second);
+
+        assertEquals(2, WriteOutbox.batchSize(queued, WriteOutbox.MAX_PATHS_PER_WRITE));
+    }
+}